@@ -0,0 +1,90 @@
+package com.empresa.comissao.aspect;
+
+import com.empresa.comissao.config.TenantContext;
+import com.empresa.comissao.service.RelatorioCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Invalida o cache de relatórios do tenant quando dados financeiros mudam
+ * (save/delete nos repositórios que alimentam DRE, relatórios contábeis e
+ * resumo financeiro).
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FinanceiroCacheAspect {
+
+    private final RelatorioCache relatorioCache;
+
+    @AfterReturning(pointcut = "execution(* com.empresa.comissao.repository.ContaPagarRepository.save*(..)) || " +
+            "execution(* com.empresa.comissao.repository.ContaReceberRepository.save*(..)) || " +
+            "execution(* com.empresa.comissao.repository.RecebimentoRepository.save*(..)) || " +
+            "execution(* com.empresa.comissao.repository.DespesaRepository.save*(..)) || " +
+            "execution(* com.empresa.comissao.repository.FaturamentoRepository.save*(..)) || " +
+            "execution(* com.empresa.comissao.repository.PagamentoAdiantadoRepository.save*(..)) || " +
+            "execution(* com.empresa.comissao.repository.ComissaoCalculadaRepository.save*(..)) || " +
+            "execution(* com.empresa.comissao.repository.EmpresaRepository.save*(..))", returning = "result")
+    public void afterSave(JoinPoint joinPoint, Object result) {
+        invalidar(result);
+    }
+
+    @AfterReturning("execution(* com.empresa.comissao.repository.ContaPagarRepository.delete*(..)) || " +
+            "execution(* com.empresa.comissao.repository.ContaReceberRepository.delete*(..)) || " +
+            "execution(* com.empresa.comissao.repository.RecebimentoRepository.delete*(..)) || " +
+            "execution(* com.empresa.comissao.repository.DespesaRepository.delete*(..)) || " +
+            "execution(* com.empresa.comissao.repository.FaturamentoRepository.delete*(..)) || " +
+            "execution(* com.empresa.comissao.repository.PagamentoAdiantadoRepository.delete*(..)) || " +
+            "execution(* com.empresa.comissao.repository.ComissaoCalculadaRepository.delete*(..))")
+    public void afterDelete(JoinPoint joinPoint) {
+        Object[] args = joinPoint.getArgs();
+        invalidar(args.length > 0 ? args[0] : null);
+    }
+
+    private void invalidar(Object alvo) {
+        Long tenantId = tenantDe(alvo);
+        if (tenantId == null) {
+            tenantId = TenantContext.getCurrentTenant();
+        }
+        if (tenantId != null) {
+            relatorioCache.invalidar(tenantId);
+            log.trace("Cache de relatórios invalidado para tenant {}", tenantId);
+        }
+    }
+
+    private Long tenantDe(Object entity) {
+        com.empresa.comissao.domain.entity.Empresa empresa = null;
+        if (entity instanceof com.empresa.comissao.domain.entity.Empresa e) {
+            return e.getId();
+        } else if (entity instanceof com.empresa.comissao.domain.entity.ContaPagar c) {
+            empresa = c.getEmpresa();
+        } else if (entity instanceof com.empresa.comissao.domain.entity.ContaReceber c) {
+            empresa = c.getEmpresa();
+        } else if (entity instanceof com.empresa.comissao.domain.entity.Recebimento r) {
+            empresa = r.getEmpresa();
+        } else if (entity instanceof com.empresa.comissao.domain.entity.Despesa d) {
+            empresa = d.getEmpresa();
+        } else if (entity instanceof com.empresa.comissao.domain.entity.Faturamento f) {
+            empresa = f.getEmpresa();
+        } else if (entity instanceof com.empresa.comissao.domain.entity.PagamentoAdiantado p) {
+            empresa = p.getEmpresa();
+        } else if (entity instanceof com.empresa.comissao.domain.entity.ComissaoCalculada c) {
+            empresa = c.getEmpresa();
+        } else if (entity instanceof Iterable<?> itens) {
+            // saveAll/deleteAll: lotes são sempre de um único tenant
+            for (Object item : itens) {
+                return tenantDe(item);
+            }
+        } else if (entity instanceof Optional<?> opt) {
+            return opt.map(this::tenantDe).orElse(null);
+        }
+        return empresa != null ? empresa.getId() : null;
+    }
+}
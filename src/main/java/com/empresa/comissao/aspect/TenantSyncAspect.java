@@ -1,6 +1,8 @@
 package com.empresa.comissao.aspect;
 
 import com.empresa.comissao.config.TenantContext;
+import com.empresa.comissao.service.SyncChangeLogService;
+import com.empresa.comissao.service.SyncWatermarkService;
 import com.empresa.comissao.service.TenantVersionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,6 +20,8 @@ import java.util.Optional;
 public class TenantSyncAspect {
 
     private final TenantVersionService tenantVersionService;
+    private final SyncChangeLogService syncChangeLogService;
+    private final SyncWatermarkService syncWatermarkService;
 
     // Intercept save() on Syncable Repositories
     // We target repositories that handle core business data sent to mobile
@@ -29,6 +33,14 @@ public class TenantSyncAspect {
             "execution(* com.empresa.comissao.repository.UserRepository.save*(..))", returning = "result")
     public void afterSave(JoinPoint joinPoint, Object result) {
         bumpTenant(result);
+        syncChangeLogService.registrar(result);
+        syncWatermarkService.registrar(result);
+    }
+
+    // Comissões não vão para o app, mas o /sync/status avisa quando mudam
+    @AfterReturning(pointcut = "execution(* com.empresa.comissao.repository.ComissaoCalculadaRepository.save*(..))", returning = "result")
+    public void afterSaveComissao(Object result) {
+        syncWatermarkService.registrar(result);
     }
 
     // Intercept delete() is harder because we might not have the entity if
@@ -40,6 +52,11 @@ public class TenantSyncAspect {
 
     @AfterReturning("execution(* com.empresa.comissao.repository.*.delete*(..))")
     public void afterDelete(JoinPoint joinPoint) {
+        // delete(entity)/deleteAll(entities) entram no change log; deleteById não tem a entidade
+        for (Object arg : joinPoint.getArgs()) {
+            syncChangeLogService.registrarRemocao(arg);
+        }
+
         // Fallback to current tenant in context
         Long currentTenant = TenantContext.getCurrentTenant();
         if (currentTenant != null) {
@@ -0,0 +1,45 @@
+package com.empresa.comissao.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Propaga invalidações de caches locais (por JVM) para todas as instâncias
+ * da aplicação.
+ *
+ * O bus não conhece os caches: cada domínio registra os próprios tópicos
+ * ({@link #subscribe}, ou {@link #subscribeCache} para um cache do
+ * CacheManager) e publica neles. Mensagem de tópico sem inscrito é ignorada.
+ *
+ * Implementações:
+ * - {@link PostgresInvalidationBus}: NOTIFY/LISTEN (multi-nó)
+ * - {@link LocalInvalidationBus}: apenas a JVM atual (dev/testes)
+ */
+public interface InvalidationBus {
+
+    /**
+     * Publica a invalidação de uma entrada. Dentro de transação, só tem efeito
+     * após o commit.
+     */
+    void publish(String topico, Long key);
+
+    /**
+     * Registra o handler de um tópico. Recebe null quando mensagens podem ter
+     * sido perdidas (reconexão do LISTEN): tudo inválido.
+     */
+    void subscribe(String topico, Consumer<Long> handler);
+
+    /**
+     * Tópico com o nome do cache: evict da chave; null limpa o cache inteiro.
+     */
+    default void subscribeCache(Cache cache) {
+        subscribe(cache.getName(), key -> {
+            if (key == null) {
+                cache.clear();
+            } else {
+                cache.evict(key);
+            }
+        });
+    }
+}
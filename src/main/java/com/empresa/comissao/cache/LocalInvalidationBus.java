@@ -0,0 +1,49 @@
+package com.empresa.comissao.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Fallback in-JVM: invalida apenas no nó atual (single instance, testes).
+ */
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.bus", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class LocalInvalidationBus implements InvalidationBus {
+
+    private final Map<String, Consumer<Long>> handlers = new ConcurrentHashMap<>();
+
+    @Override
+    public void subscribe(String topico, Consumer<Long> handler) {
+        handlers.put(topico, handler);
+    }
+
+    @Override
+    public void publish(String topico, Long key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entregar(topico, key);
+                }
+            });
+            return;
+        }
+        entregar(topico, key);
+    }
+
+    private void entregar(String topico, Long key) {
+        Consumer<Long> handler = handlers.get(topico);
+        if (handler != null) {
+            handler.accept(key);
+            log.debug("[Invalidation] Local {}:{}", topico, key);
+        }
+    }
+}
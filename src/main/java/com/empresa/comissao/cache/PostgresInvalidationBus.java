@@ -0,0 +1,154 @@
+package com.empresa.comissao.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Invalidação cross-node via Postgres NOTIFY/LISTEN.
+ *
+ * - publish: pg_notify na conexão da transação corrente (entregue só no
+ * commit; rollback descarta).
+ * - listen: conexão JDBC dedicada (fora do pool Hikari de 5 conexões) em uma
+ * thread daemon. Ao reconectar, entrega null a todos os tópicos registrados
+ * (tudo inválido), pois notificações perdidas durante a queda não são
+ * reenviadas.
+ *
+ * Payload: "{tópico}:{key}".
+ */
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.bus", havingValue = "postgres")
+@Slf4j
+public class PostgresInvalidationBus implements InvalidationBus {
+
+    static final String CHANNEL = "cache_invalidation";
+    private static final int POLL_TIMEOUT_MS = 5_000;
+    private static final long RECONNECT_DELAY_MS = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+
+    private final Map<String, Consumer<Long>> handlers = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresInvalidationBus(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+    }
+
+    @Override
+    public void publish(String topico, Long key) {
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class, CHANNEL, topico + ":" + key);
+        log.debug("[Invalidation] NOTIFY {}:{}", topico, key);
+    }
+
+    @Override
+    public void subscribe(String topico, Consumer<Long> handler) {
+        handlers.put(topico, handler);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("LISTEN " + CHANNEL);
+                }
+                // Notificações perdidas enquanto desconectado: invalida tudo
+                clearAll();
+                log.info("[Invalidation] LISTEN {} ativo", CHANNEL);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("[Invalidation] Conexão LISTEN perdida: {}. Reconectando em {}ms", e.getMessage(),
+                        RECONNECT_DELAY_MS);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    void handle(String payload) {
+        int sep = payload != null ? payload.lastIndexOf(':') : -1;
+        if (sep <= 0) {
+            log.warn("[Invalidation] Payload de invalidação inválido: {}", payload);
+            return;
+        }
+        String topico = payload.substring(0, sep);
+        Long key;
+        try {
+            key = Long.valueOf(payload.substring(sep + 1));
+        } catch (NumberFormatException e) {
+            log.warn("[Invalidation] Payload de invalidação inválido: {}", payload);
+            return;
+        }
+        Consumer<Long> handler = handlers.get(topico);
+        if (handler != null) {
+            entregar(topico, handler, key);
+            log.debug("[Invalidation] Remoto {}:{}", topico, key);
+        }
+    }
+
+    private void entregar(String topico, Consumer<Long> handler, Long key) {
+        try {
+            handler.accept(key);
+        } catch (Exception e) {
+            // Não derruba a thread do LISTEN
+            log.warn("[Invalidation] Falha no handler de {}:{}: {}", topico, key, e.getMessage());
+        }
+    }
+
+    private void clearAll() {
+        handlers.forEach((topico, handler) -> entregar(topico, handler, null));
+    }
+}
@@ -0,0 +1,44 @@
+package com.empresa.comissao.config;
+
+import com.empresa.comissao.cache.InvalidationBus;
+import com.empresa.comissao.security.AuthVersionService;
+import com.empresa.comissao.service.RelatorioCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * TTL próprio para os caches do CacheManager invalidados pelo bus (auth e
+ * versão financeira).
+ *
+ * Com a invalidação propagada pelo {@link InvalidationBus}, o TTL
+ * deixa de ser o limite de staleness e pode ser bem maior que o spec global
+ * (spring.cache.caffeine.spec). Cada domínio tem o seu spec.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> authCacheCustomizer(
+            @Value("${security.auth-cache.spec:maximumSize=20000,expireAfterWrite=60s}") String authCacheSpec) {
+        return cacheManager -> {
+            cacheManager.registerCustomCache(AuthVersionService.USER_AUTH_CACHE,
+                    Caffeine.from(authCacheSpec).recordStats().build());
+            cacheManager.registerCustomCache(AuthVersionService.TENANT_ACCESS_CACHE,
+                    Caffeine.from(authCacheSpec).recordStats().build());
+        };
+    }
+
+    /**
+     * Versão financeira por tenant (chave do cache de relatórios).
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> versaoFinanceiraCacheCustomizer(
+            @Value("${relatorio.versao-financeira.spec:maximumSize=10000,expireAfterWrite=30m}") String versaoSpec) {
+        return cacheManager -> cacheManager.registerCustomCache(RelatorioCache.VERSAO_FINANCEIRA_CACHE,
+                Caffeine.from(versaoSpec).recordStats().build());
+    }
+}
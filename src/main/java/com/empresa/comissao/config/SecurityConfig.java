@@ -36,6 +36,9 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // Redispatch de respostas assíncronas (PDF via StreamingResponseBody):
+                        // o request original já foi autorizado
+                        .dispatcherTypeMatchers(jakarta.servlet.DispatcherType.ASYNC).permitAll()
                         // Platform API (Super Admin & Resellers)
                         .requestMatchers("/api/v1/platform/**")
                         .hasAnyRole("SUPER_ADMIN", "REVENDEDOR", "ADMIN_LICENCA")
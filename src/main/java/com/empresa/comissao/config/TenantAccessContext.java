@@ -0,0 +1,68 @@
+package com.empresa.comissao.config;
+
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.security.AuthVersionService.TenantAccessSnapshot;
+import com.empresa.comissao.security.AuthVersionService.UserAuthSnapshot;
+
+/**
+ * Snapshots de acesso resolvidos pelo JwtAuthenticationFilter, compartilhados
+ * com interceptor, controllers e services durante o mesmo request.
+ *
+ * Evita nova ida ao cache (proxy Spring) no TenantAccessInterceptor e recargas
+ * repetidas de {@link Empresa} no mesmo request. Limpo pelo filtro ao final.
+ */
+public final class TenantAccessContext {
+
+    private static final ThreadLocal<State> STATE = new ThreadLocal<>();
+
+    private TenantAccessContext() {
+    }
+
+    public static void set(UserAuthSnapshot user, TenantAccessSnapshot tenant) {
+        STATE.set(new State(user, tenant));
+    }
+
+    public static UserAuthSnapshot getUserSnapshot() {
+        State state = STATE.get();
+        return state != null ? state.user : null;
+    }
+
+    public static TenantAccessSnapshot getTenantSnapshot() {
+        State state = STATE.get();
+        return state != null ? state.tenant : null;
+    }
+
+    /**
+     * Empresa do tenant corrente, carregada no máximo 1 vez por request.
+     */
+    public static Empresa getEmpresa(EmpresaRepository empresaRepository) {
+        Long tenantId = TenantContext.getCurrentTenant();
+        if (tenantId == null) {
+            return null;
+        }
+        State state = STATE.get();
+        if (state == null) {
+            return empresaRepository.findById(tenantId).orElse(null);
+        }
+        if (state.empresa == null || !tenantId.equals(state.empresa.getId())) {
+            state.empresa = empresaRepository.findById(tenantId).orElse(null);
+        }
+        return state.empresa;
+    }
+
+    public static void clear() {
+        STATE.remove();
+    }
+
+    private static final class State {
+        private final UserAuthSnapshot user;
+        private final TenantAccessSnapshot tenant;
+        private Empresa empresa;
+
+        private State(UserAuthSnapshot user, TenantAccessSnapshot tenant) {
+            this.user = user;
+            this.tenant = tenant;
+        }
+    }
+}
@@ -30,8 +30,12 @@ public class TenantAccessInterceptor implements HandlerInterceptor {
         Long tenantId = TenantContext.getCurrentTenant();
 
         if (tenantId != null) {
-            // ✅ USAR CACHE: 0 DB Hits se estiver quente
-            var snapshot = authVersionService.getTenantAccessVersion(tenantId);
+            // ✅ Snapshot já resolvido pelo JwtAuthenticationFilter neste request
+            var snapshot = TenantAccessContext.getTenantSnapshot();
+            if (snapshot == null || !tenantId.equals(snapshot.getId())) {
+                // Fallback: tenant definido fora do filtro JWT (cache, 0 DB Hits se quente)
+                snapshot = authVersionService.getTenantAccessVersion(tenantId);
+            }
 
             if (snapshot != null) {
                 // 1. Verificar se Tenant está bloqueado
@@ -1,6 +1,8 @@
 package com.empresa.comissao.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -9,9 +11,26 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class WebConfig implements WebMvcConfigurer {
 
     private final TenantAccessInterceptor tenantAccessInterceptor;
+    private final int pdfTimeoutSeconds;
+    private final int pdfRenderTimeoutSeconds;
 
-    public WebConfig(TenantAccessInterceptor tenantAccessInterceptor) {
+    public WebConfig(TenantAccessInterceptor tenantAccessInterceptor,
+            @Value("${app.pdf.timeout-seconds:30}") int pdfTimeoutSeconds,
+            @Value("${app.pdf.render-timeout-seconds:60}") int pdfRenderTimeoutSeconds) {
         this.tenantAccessInterceptor = tenantAccessInterceptor;
+        this.pdfTimeoutSeconds = pdfTimeoutSeconds;
+        this.pdfRenderTimeoutSeconds = pdfRenderTimeoutSeconds;
+    }
+
+    /**
+     * Timeout padrão das respostas assíncronas (PDFs por StreamingResponseBody):
+     * espera pelo semáforo de PDFs + renderização. Quem espera demais recebe o
+     * 429 do PdfService antes de o container cortar a resposta. ZIP de OS e
+     * sync pull usam WebAsyncTask com timeout próprio.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout((pdfTimeoutSeconds + pdfRenderTimeoutSeconds) * 1000L);
     }
 
     @Override
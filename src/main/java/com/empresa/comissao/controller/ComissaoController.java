@@ -22,6 +22,7 @@ public class ComissaoController {
 
     private final ComissaoService comissaoService;
     private final EmpresaRepository empresaRepository;
+    private final com.empresa.comissao.service.ComissaoRecalculoService comissaoRecalculoService;
 
     @GetMapping("/{ano}/{mes}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'ADMIN_EMPRESA', 'FUNCIONARIO')")
@@ -207,6 +208,23 @@ public class ComissaoController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Recalcula em cascata as comissões da empresa a partir de um mês
+     * (formato yyyy-MM), propagando o carryover para os meses seguintes.
+     */
+    @PostMapping("/empresa/recalcular")
+    @PreAuthorize("hasRole('ADMIN_EMPRESA')")
+    public ResponseEntity<com.empresa.comissao.dto.response.RecalculoComissaoResponse> recalcularEmCascata(
+            @RequestParam @org.springframework.format.annotation.DateTimeFormat(pattern = "yyyy-MM") java.time.YearMonth desde) {
+        Long tenantId = com.empresa.comissao.config.TenantContext.getCurrentTenant();
+        if (tenantId == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        log.info("🔁 Recálculo em cascata solicitado: empresa {} desde {}", tenantId, desde);
+        return ResponseEntity.ok(comissaoRecalculoService.recalcularEmCascata(tenantId, desde));
+    }
+
     @Getter
     @AllArgsConstructor
     public static class ComissaoFuncionarioResponse {
@@ -32,6 +32,7 @@ public class DespesaController {
     private final com.empresa.comissao.repository.CartaoCreditoRepository cartaoRepository;
     private final com.empresa.comissao.repository.DespesaRepository despesaRepository;
     private final com.empresa.comissao.repository.UserRepository userRepository;
+    private final com.empresa.comissao.service.ResumoFinanceiroService resumoFinanceiroService;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA')")
@@ -165,6 +166,9 @@ public class DespesaController {
             }
         }
 
+        resumoFinanceiroService.invalidar(usuario.getEmpresa(),
+                parcelas.stream().map(Despesa::getDataDespesa).toArray(java.time.LocalDate[]::new));
+
         log.info("✅ Despesa parcelada criada: {} parcelas de R$ {} = Total R$ {}",
                 request.getNumeroParcelas(), valorParcela, request.getValor());
 
@@ -192,6 +196,7 @@ public class DespesaController {
         java.time.LocalDate dataDespesa = despesa.getDataDespesa();
 
         despesaRepository.delete(despesa);
+        resumoFinanceiroService.invalidar(despesa.getEmpresa(), dataDespesa);
 
         if (cartao != null) {
             // Recalcular fatura associada
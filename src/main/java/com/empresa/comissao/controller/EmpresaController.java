@@ -170,11 +170,7 @@ public class EmpresaController {
     }
 
     private Empresa resolveEmpresa() {
-        Long tenantId = com.empresa.comissao.config.TenantContext.getCurrentTenant();
-        if (tenantId != null) {
-            return empresaRepository.findById(tenantId).orElse(null);
-        }
-        return null;
+        return com.empresa.comissao.config.TenantAccessContext.getEmpresa(empresaRepository);
     }
 
     /**
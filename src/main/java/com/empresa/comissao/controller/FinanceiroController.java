@@ -27,6 +27,7 @@ public class FinanceiroController {
 
     private final FinanceiroService financeiroService;
     private final com.empresa.comissao.service.PdfService pdfService;
+    private final com.empresa.comissao.service.RelatorioCache relatorioCache;
 
     // ========================================
     // CONTAS A PAGAR
@@ -200,9 +201,10 @@ public class FinanceiroController {
     @GetMapping(value = "/fluxo-caixa/pdf", produces = org.springframework.http.MediaType.APPLICATION_PDF_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA')")
     @io.swagger.v3.oas.annotations.Operation(summary = "Exportar Fluxo de Caixa em PDF", description = "Gera PDF do fluxo de caixa do período com entradas, saídas e saldo.")
-    public ResponseEntity<byte[]> exportarFluxoCaixaPdf(
+    public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> exportarFluxoCaixaPdf(
             @RequestParam int mes,
-            @RequestParam int ano) {
+            @RequestParam int ano,
+            org.springframework.web.context.request.WebRequest webRequest) {
 
         Empresa empresa = resolveEmpresa();
         if (empresa == null) {
@@ -213,12 +215,19 @@ public class FinanceiroController {
         BigDecimal entradas = financeiroService.getTotalRecebidoNoPeriodo(empresa, periodo);
         BigDecimal saidas = financeiroService.getTotalPagoNoPeriodo(empresa, periodo);
 
-        byte[] pdfBytes = pdfService.gerarFluxoCaixaPdf(periodo, entradas, saidas, empresa);
+        com.empresa.comissao.service.PdfService.PdfStream pdf = pdfService.streamFluxoCaixaPdf(periodo, entradas,
+                saidas, empresa);
+        if (webRequest.checkNotModified(pdf.etag())) {
+            return ResponseEntity.status(org.springframework.http.HttpStatus.NOT_MODIFIED).eTag(pdf.etag()).build();
+        }
 
         return ResponseEntity.ok()
                 .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
                         "attachment; filename=fluxo-caixa-" + ano + "-" + mes + ".pdf")
-                .body(pdfBytes);
+                .contentType(org.springframework.http.MediaType.APPLICATION_PDF)
+                .eTag(pdf.etag())
+                .cacheControl(org.springframework.http.CacheControl.noCache().cachePrivate())
+                .body(pdf.body());
     }
 
     // ========================================
@@ -254,7 +263,11 @@ public class FinanceiroController {
             throw new BusinessException("Empresa não encontrada no contexto");
         }
 
-        return ResponseEntity.ok(financeiroService.getResumoFinanceiro(empresa));
+        // Vencimentos "próximos 7 dias" e saldo atual dependem do dia corrente
+        return ResponseEntity.ok(relatorioCache.obter(
+                com.empresa.comissao.service.RelatorioCache.TipoRelatorio.RESUMO_FINANCEIRO,
+                empresa.getId(), java.time.LocalDate.now().toString(),
+                () -> financeiroService.getResumoFinanceiro(empresa)));
     }
 
     // ========================================
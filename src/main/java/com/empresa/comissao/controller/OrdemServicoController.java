@@ -15,6 +15,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/v1/ordens-servico")
@@ -24,6 +25,7 @@ public class OrdemServicoController {
 
     private final OrdemServicoService osService;
     private final PdfService pdfService;
+    private final com.empresa.comissao.service.OrdemServicoPdfLoteService pdfLoteService;
 
     @PostMapping
     @Operation(summary = "Criar nova OS")
@@ -84,6 +86,25 @@ public class OrdemServicoController {
         return ResponseEntity.ok(result);
     }
 
+    @GetMapping("/sync")
+    @Operation(summary = "Sync incremental paginado de OS", description = "Páginas ordenadas por (updatedAt, id). Primeira chamada com ?since=ISO8601 (ou sem, para sync completo); as seguintes com ?cursor=nextCursor enquanto hasMore")
+    public ResponseEntity<com.empresa.comissao.dto.response.SyncPageResponse<OrdemServicoResponse>> sync(
+            @RequestParam(required = false) java.time.Instant since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+
+        long start = System.currentTimeMillis();
+        java.time.LocalDateTime sinceLocal = com.empresa.comissao.util.SyncUtils.normalizeSince(since);
+        com.empresa.comissao.dto.response.SyncPageResponse<OrdemServicoResponse> result = osService
+                .listarSyncPagina(sinceLocal, cursor, limit);
+
+        org.slf4j.LoggerFactory.getLogger(OrdemServicoController.class)
+                .info("[SYNC_METRIC] resource={}, items={}, hasMore={}, duration={}ms", "ordens-servico/sync",
+                        result.getItems().size(), result.isHasMore(), System.currentTimeMillis() - start);
+
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/grid")
     @Operation(summary = "Listar OS com paginação e filtros (Web)", description = "Endpoint otimizado para grid do frontend")
     public ResponseEntity<org.springframework.data.domain.Page<OrdemServicoResponse>> listarGrid(
@@ -144,9 +165,13 @@ public class OrdemServicoController {
 
     @GetMapping("/{id}/pdf")
     @Operation(summary = "Download PDF da OS")
-    public ResponseEntity<byte[]> downloadPdf(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> downloadPdf(@PathVariable Long id,
+            org.springframework.web.context.request.WebRequest webRequest) {
         OrdemServico os = osService.buscarEntidadePorId(id);
-        byte[] pdfBytes = pdfService.gerarOrdemServicoPdf(os);
+        PdfService.PdfStream pdf = pdfService.streamOrdemServicoPdf(os);
+        if (webRequest.checkNotModified(pdf.etag())) {
+            return ResponseEntity.status(org.springframework.http.HttpStatus.NOT_MODIFIED).eTag(pdf.etag()).build();
+        }
 
         // Montar nome do arquivo: empresa-os-123.pdf
         String nomeEmpresa = "empresa";
@@ -167,9 +192,39 @@ public class OrdemServicoController {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", nomeArquivo);
+        headers.setETag(pdf.etag());
+        headers.setCacheControl(org.springframework.http.CacheControl.noCache().cachePrivate());
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(pdfBytes);
+                .body(pdf.body());
+    }
+
+    @GetMapping(value = "/pdf/lote", produces = "application/zip")
+    @Operation(summary = "Download em lote dos PDFs das OS (ZIP)", description = "Mesmos filtros do grid; o ZIP é enviado conforme os PDFs ficam prontos. Lotes acima de app.pdf.lote.max-os OS são recusados (400)")
+    public org.springframework.web.context.request.async.WebAsyncTask<Void> downloadPdfLote(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) java.time.LocalDate date,
+            @RequestParam(required = false) Boolean atrasado,
+            jakarta.servlet.http.HttpServletResponse response) {
+
+        org.springframework.data.jpa.domain.Specification<OrdemServico> filtro = osService.especificacaoFiltro(status,
+                search, date, atrasado);
+        if (filtro == null) {
+            throw new com.empresa.comissao.exception.BusinessException("Empresa não identificada");
+        }
+
+        StreamingResponseBody zip = pdfLoteService.exportar(filtro);
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, org.springframework.http.ContentDisposition
+                .formData().name("attachment").filename("ordens-servico.zip").build().toString());
+
+        // Timeout próprio: o padrão do container cortaria o ZIP no meio de um lote grande
+        return new org.springframework.web.context.request.async.WebAsyncTask<>(
+                pdfLoteService.getTimeout().toMillis(), () -> {
+                    zip.writeTo(response.getOutputStream());
+                    return null;
+                });
     }
 }
@@ -1,8 +1,11 @@
 package com.empresa.comissao.controller;
 
 import com.empresa.comissao.dto.request.RegraComissaoRequest;
+import com.empresa.comissao.dto.request.SimulacaoComissaoRequest;
 import com.empresa.comissao.dto.response.RegraComissaoResponse;
+import com.empresa.comissao.dto.response.SimulacaoComissaoResponse;
 import com.empresa.comissao.service.RegraComissaoService;
+import com.empresa.comissao.service.SimulacaoComissaoService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +26,7 @@ import java.util.List;
 public class RegraComissaoController {
 
     private final RegraComissaoService regraComissaoService;
+    private final SimulacaoComissaoService simulacaoComissaoService;
 
     /**
      * Lista todas as regras de comissão de uma empresa.
@@ -46,6 +50,19 @@ public class RegraComissaoController {
         return ResponseEntity.ok(regra);
     }
 
+    /**
+     * Simula regras candidatas sobre os recebimentos de um período, sem gravar
+     * nada, comparando com a regra ativa.
+     */
+    @PostMapping("/empresas/{empresaId}/regras-comissao/simular")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA', 'SUPER_ADMIN')")
+    public ResponseEntity<SimulacaoComissaoResponse> simular(
+            @PathVariable Long empresaId,
+            @Valid @RequestBody SimulacaoComissaoRequest request) {
+        log.info("🧪 POST /empresas/{}/regras-comissao/simular", empresaId);
+        return ResponseEntity.ok(simulacaoComissaoService.simular(empresaId, request));
+    }
+
     /**
      * Busca uma regra por ID.
      */
@@ -5,6 +5,8 @@ import com.empresa.comissao.dto.*;
 import com.empresa.comissao.repository.EmpresaRepository;
 import com.empresa.comissao.service.FinanceiroService;
 import com.empresa.comissao.service.PdfService;
+import com.empresa.comissao.service.RelatorioCache;
+import com.empresa.comissao.service.RelatorioCache.TipoRelatorio;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +16,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.YearMonth;
 
@@ -27,87 +30,102 @@ public class RelatorioContabilController {
     private final FinanceiroService financeiroService;
     private final PdfService pdfService;
     private final EmpresaRepository empresaRepository;
+    private final RelatorioCache relatorioCache;
 
     @GetMapping(value = "/receita-caixa", produces = MediaType.APPLICATION_PDF_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA', 'CONTADOR')")
     @Operation(summary = "Exportar Relatório de Receita por Caixa (Base DAS)")
-    public ResponseEntity<byte[]> gerarRelatorioReceitaCaixa(
+    public ResponseEntity<StreamingResponseBody> gerarRelatorioReceitaCaixa(
             @RequestParam int ano,
-            @RequestParam int mes) {
+            @RequestParam int mes,
+            org.springframework.web.context.request.WebRequest webRequest) {
 
         log.info("📄 Solicitado Relatório de Receita por Caixa: {}/{}", mes, ano);
         Empresa empresa = getEmpresaFromContext();
         YearMonth periodo = YearMonth.of(ano, mes);
 
-        RelatorioReceitaCaixaDTO relatorio = financeiroService.getRelatorioReceitaCaixaDetalhada(empresa, periodo);
-        byte[] pdfBytes = pdfService.gerarRelatorioReceitaCaixaPdf(relatorio, empresa);
-
-        return gerarResponsePdf(pdfBytes, "receita-caixa-" + ano + "-" + mes + ".pdf");
+        RelatorioReceitaCaixaDTO relatorio = relatorioCache.obter(TipoRelatorio.RECEITA_CAIXA, tenantId(empresa),
+                periodo.toString(), () -> financeiroService.getRelatorioReceitaCaixaDetalhada(empresa, periodo));
+        return gerarResponsePdf(pdfService.streamRelatorioReceitaCaixaPdf(relatorio, empresa),
+                "receita-caixa-" + ano + "-" + mes + ".pdf", webRequest);
     }
 
     @GetMapping(value = "/fluxo-caixa", produces = MediaType.APPLICATION_PDF_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA')")
     @Operation(summary = "Exportar Fluxo de Caixa Mensal Detalhado")
-    public ResponseEntity<byte[]> gerarRelatorioFluxoCaixa(
+    public ResponseEntity<StreamingResponseBody> gerarRelatorioFluxoCaixa(
             @RequestParam int ano,
-            @RequestParam int mes) {
+            @RequestParam int mes,
+            org.springframework.web.context.request.WebRequest webRequest) {
 
         log.info("📄 Solicitado Fluxo de Caixa Detalhado: {}/{}", mes, ano);
         Empresa empresa = getEmpresaFromContext();
         YearMonth periodo = YearMonth.of(ano, mes);
 
-        RelatorioFluxoCaixaDTO relatorio = financeiroService.getRelatorioFluxoCaixaMensal(empresa, periodo);
-        byte[] pdfBytes = pdfService.gerarRelatorioFluxoCaixaDetalhadoPdf(relatorio, empresa);
-
-        return gerarResponsePdf(pdfBytes, "fluxo-caixa-" + ano + "-" + mes + ".pdf");
+        RelatorioFluxoCaixaDTO relatorio = relatorioCache.obter(TipoRelatorio.FLUXO_CAIXA, tenantId(empresa),
+                periodo.toString(), () -> financeiroService.getRelatorioFluxoCaixaMensal(empresa, periodo));
+        return gerarResponsePdf(pdfService.streamRelatorioFluxoCaixaDetalhadoPdf(relatorio, empresa),
+                "fluxo-caixa-" + ano + "-" + mes + ".pdf", webRequest);
     }
 
     @GetMapping(value = "/contas-pagar", produces = MediaType.APPLICATION_PDF_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA')")
     @Operation(summary = "Exportar Relatório de Contas a Pagar")
-    public ResponseEntity<byte[]> gerarRelatorioContasPagar(
+    public ResponseEntity<StreamingResponseBody> gerarRelatorioContasPagar(
             @RequestParam int ano,
-            @RequestParam int mes) {
+            @RequestParam int mes,
+            org.springframework.web.context.request.WebRequest webRequest) {
 
         log.info("📄 Solicitado Relatório Contas a Pagar: {}/{}", mes, ano);
         Empresa empresa = getEmpresaFromContext();
         YearMonth periodo = YearMonth.of(ano, mes);
 
-        RelatorioContasPagarDTO relatorio = financeiroService.getRelatorioContasPagar(empresa, periodo);
-        byte[] pdfBytes = pdfService.gerarRelatorioContasPagarPdf(relatorio, empresa);
-
-        return gerarResponsePdf(pdfBytes, "contas-pagar-" + ano + "-" + mes + ".pdf");
+        // "Vencido" depende do dia corrente
+        RelatorioContasPagarDTO relatorio = relatorioCache.obter(TipoRelatorio.CONTAS_PAGAR, tenantId(empresa),
+                periodo + "@" + java.time.LocalDate.now(),
+                () -> financeiroService.getRelatorioContasPagar(empresa, periodo));
+        return gerarResponsePdf(pdfService.streamRelatorioContasPagarPdf(relatorio, empresa),
+                "contas-pagar-" + ano + "-" + mes + ".pdf", webRequest);
     }
 
     @GetMapping(value = "/distribuicao-lucros", produces = MediaType.APPLICATION_PDF_VALUE)
     @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA')")
     @Operation(summary = "Exportar Demonstrativo de Distribuição de Lucros")
-    public ResponseEntity<byte[]> gerarRelatorioDistribuicaoLucros(
+    public ResponseEntity<StreamingResponseBody> gerarRelatorioDistribuicaoLucros(
             @RequestParam int ano,
-            @RequestParam int mes) {
+            @RequestParam int mes,
+            org.springframework.web.context.request.WebRequest webRequest) {
 
         log.info("📄 Solicitado Relatório Distribuição Lucros: {}/{}", mes, ano);
         Empresa empresa = getEmpresaFromContext();
         YearMonth periodo = YearMonth.of(ano, mes);
 
-        RelatorioDistribuicaoLucrosDTO relatorio = financeiroService.getRelatorioDistribuicaoLucros(empresa, periodo);
-        byte[] pdfBytes = pdfService.gerarRelatorioDistribuicaoLucrosPdf(relatorio, empresa);
+        RelatorioDistribuicaoLucrosDTO relatorio = relatorioCache.obter(TipoRelatorio.DISTRIBUICAO_LUCROS,
+                tenantId(empresa), periodo.toString(),
+                () -> financeiroService.getRelatorioDistribuicaoLucros(empresa, periodo));
+        return gerarResponsePdf(pdfService.streamRelatorioDistribuicaoLucrosPdf(relatorio, empresa),
+                "distribuicao-lucros-" + ano + "-" + mes + ".pdf", webRequest);
+    }
 
-        return gerarResponsePdf(pdfBytes, "distribuicao-lucros-" + ano + "-" + mes + ".pdf");
+    private static Long tenantId(Empresa empresa) {
+        return empresa != null ? empresa.getId() : null;
     }
 
     private Empresa getEmpresaFromContext() {
-        Long tenantId = com.empresa.comissao.config.TenantContext.getCurrentTenant();
-        if (tenantId != null) {
-            return empresaRepository.findById(tenantId).orElse(null);
-        }
-        return null;
+        return com.empresa.comissao.config.TenantAccessContext.getEmpresa(empresaRepository);
     }
 
-    private ResponseEntity<byte[]> gerarResponsePdf(byte[] pdfBytes, String filename) {
+    private ResponseEntity<StreamingResponseBody> gerarResponsePdf(PdfService.PdfStream pdf, String filename,
+            org.springframework.web.context.request.WebRequest webRequest) {
+        // Mesmo conteúdo já baixado: 304 sem renderizar
+        if (webRequest.checkNotModified(pdf.etag())) {
+            return ResponseEntity.status(org.springframework.http.HttpStatus.NOT_MODIFIED).eTag(pdf.etag()).build();
+        }
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
                 .contentType(MediaType.APPLICATION_PDF)
-                .body(pdfBytes);
+                .eTag(pdf.etag())
+                .cacheControl(org.springframework.http.CacheControl.noCache().cachePrivate())
+                .body(pdf.body());
     }
 }
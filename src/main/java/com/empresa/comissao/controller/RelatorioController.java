@@ -6,6 +6,8 @@ import com.empresa.comissao.dto.RelatorioFinanceiroDTO;
 import com.empresa.comissao.dto.RelatorioAnualDTO;
 import com.empresa.comissao.repository.EmpresaRepository;
 import com.empresa.comissao.service.ComissaoService;
+import com.empresa.comissao.service.RelatorioCache;
+import com.empresa.comissao.service.RelatorioCache.TipoRelatorio;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +28,8 @@ public class RelatorioController {
         private final ComissaoService comissaoService;
         private final com.empresa.comissao.service.PdfService pdfService;
         private final EmpresaRepository empresaRepository;
+        private final com.empresa.comissao.service.ResumoFinanceiroService resumoFinanceiroService;
+        private final RelatorioCache relatorioCache;
 
         @GetMapping("/{ano}/{mes}")
         @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA')")
@@ -38,30 +42,40 @@ public class RelatorioController {
                 Empresa empresaFresh = resolveEmpresa(authentication);
                 User usuario = resolveUser(authentication, empresaFresh);
 
-                RelatorioFinanceiroDTO relatorio = comissaoService.gerarRelatorioFinanceiro(ano, mes, usuario,
-                                empresaFresh);
+                RelatorioFinanceiroDTO relatorio = relatorioCache.obter(TipoRelatorio.DRE_MENSAL,
+                                tenantId(empresaFresh), ano + "-" + mes,
+                                () -> comissaoService.gerarRelatorioFinanceiro(ano, mes, usuario, empresaFresh));
                 return ResponseEntity.ok(relatorio);
         }
 
         @GetMapping(value = "/{ano}/{mes}/pdf", produces = org.springframework.http.MediaType.APPLICATION_PDF_VALUE)
         @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA')")
         @Operation(summary = "Exportar relatório em PDF")
-        public ResponseEntity<byte[]> gerarRelatorioPdf(
+        public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> gerarRelatorioPdf(
                         @PathVariable int ano,
                         @PathVariable int mes,
-                        org.springframework.security.core.Authentication authentication) {
+                        org.springframework.security.core.Authentication authentication,
+                        org.springframework.web.context.request.WebRequest webRequest) {
 
                 Empresa empresaFresh = resolveEmpresa(authentication);
                 User usuario = resolveUser(authentication, empresaFresh);
 
-                RelatorioFinanceiroDTO relatorio = comissaoService.gerarRelatorioFinanceiro(ano, mes, usuario,
-                                empresaFresh);
-                byte[] pdfBytes = pdfService.gerarRelatorioFinanceiroPdf(relatorio, empresaFresh);
+                RelatorioFinanceiroDTO relatorio = relatorioCache.obter(TipoRelatorio.DRE_MENSAL,
+                                tenantId(empresaFresh), ano + "-" + mes,
+                                () -> comissaoService.gerarRelatorioFinanceiro(ano, mes, usuario, empresaFresh));
+                com.empresa.comissao.service.PdfService.PdfStream pdf = pdfService.streamRelatorioFinanceiroPdf(relatorio, empresaFresh);
+                if (webRequest.checkNotModified(pdf.etag())) {
+                        return ResponseEntity.status(org.springframework.http.HttpStatus.NOT_MODIFIED).eTag(pdf.etag())
+                                        .build();
+                }
 
                 return ResponseEntity.ok()
                                 .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
                                                 "attachment; filename=relatorio-" + ano + "-" + mes + ".pdf")
-                                .body(pdfBytes);
+                                .contentType(org.springframework.http.MediaType.APPLICATION_PDF)
+                                .eTag(pdf.etag())
+                                .cacheControl(org.springframework.http.CacheControl.noCache().cachePrivate())
+                                .body(pdf.body());
         }
 
         @GetMapping("/anual/{ano}")
@@ -74,27 +88,39 @@ public class RelatorioController {
                 Empresa empresaFresh = resolveEmpresa(authentication);
                 User usuario = resolveUser(authentication, empresaFresh);
 
-                RelatorioAnualDTO relatorio = comissaoService.gerarRelatorioAnual(ano, usuario, empresaFresh);
+                RelatorioAnualDTO relatorio = relatorioCache.obter(TipoRelatorio.ANUAL, tenantId(empresaFresh),
+                                String.valueOf(ano),
+                                () -> comissaoService.gerarRelatorioAnual(ano, usuario, empresaFresh));
                 return ResponseEntity.ok(relatorio);
         }
 
         @GetMapping(value = "/anual/{ano}/pdf", produces = org.springframework.http.MediaType.APPLICATION_PDF_VALUE)
         @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA')")
         @Operation(summary = "Exportar relatório anual em PDF")
-        public ResponseEntity<byte[]> gerarRelatorioAnualPdf(
+        public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> gerarRelatorioAnualPdf(
                         @PathVariable int ano,
-                        org.springframework.security.core.Authentication authentication) {
+                        org.springframework.security.core.Authentication authentication,
+                        org.springframework.web.context.request.WebRequest webRequest) {
 
                 Empresa empresaFresh = resolveEmpresa(authentication);
                 User usuario = resolveUser(authentication, empresaFresh);
 
-                RelatorioAnualDTO relatorio = comissaoService.gerarRelatorioAnual(ano, usuario, empresaFresh);
-                byte[] pdfBytes = pdfService.gerarRelatorioAnualPdf(relatorio, empresaFresh);
+                RelatorioAnualDTO relatorio = relatorioCache.obter(TipoRelatorio.ANUAL, tenantId(empresaFresh),
+                                String.valueOf(ano),
+                                () -> comissaoService.gerarRelatorioAnual(ano, usuario, empresaFresh));
+                com.empresa.comissao.service.PdfService.PdfStream pdf = pdfService.streamRelatorioAnualPdf(relatorio, empresaFresh);
+                if (webRequest.checkNotModified(pdf.etag())) {
+                        return ResponseEntity.status(org.springframework.http.HttpStatus.NOT_MODIFIED).eTag(pdf.etag())
+                                        .build();
+                }
 
                 return ResponseEntity.ok()
                                 .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION,
                                                 "attachment; filename=relatorio-anual-" + ano + ".pdf")
-                                .body(pdfBytes);
+                                .contentType(org.springframework.http.MediaType.APPLICATION_PDF)
+                                .eTag(pdf.etag())
+                                .cacheControl(org.springframework.http.CacheControl.noCache().cachePrivate())
+                                .body(pdf.body());
         }
 
         @GetMapping(value = "/ranking-clientes")
@@ -108,15 +134,44 @@ public class RelatorioController {
                 Empresa empresaFresh = resolveEmpresa(authentication);
                 User usuario = resolveUser(authentication, empresaFresh);
 
-                return ResponseEntity.ok(comissaoService.gerarRankingClientes(ano, mes, usuario, empresaFresh));
+                return ResponseEntity.ok(relatorioCache.obter(TipoRelatorio.RANKING_CLIENTES, tenantId(empresaFresh),
+                                ano + "-" + (mes != null ? mes : "*"),
+                                () -> comissaoService.gerarRankingClientes(ano, mes, usuario, empresaFresh)));
         }
 
-        private Empresa resolveEmpresa(org.springframework.security.core.Authentication authentication) {
-                Long tenantId = com.empresa.comissao.config.TenantContext.getCurrentTenant();
-                if (tenantId != null) {
-                        return empresaRepository.findById(tenantId).orElse(null);
+        @org.springframework.web.bind.annotation.PostMapping("/resumo/reconstruir")
+        @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA')")
+        @Operation(summary = "Reconstruir resumo financeiro", description = "Recalcula o resumo mensal materializado (DRE, anual, YoY) de cada mês do período (yyyy-MM)")
+        public ResponseEntity<java.util.Map<String, Object>> reconstruirResumo(
+                        @org.springframework.web.bind.annotation.RequestParam String desde,
+                        @org.springframework.web.bind.annotation.RequestParam String ate) {
+
+                Empresa empresaFresh = resolveEmpresa(null);
+                if (empresaFresh == null) {
+                        throw new com.empresa.comissao.exception.BusinessException("Empresa não identificada");
                 }
-                return null;
+                java.time.YearMonth inicio;
+                java.time.YearMonth fim;
+                try {
+                        inicio = java.time.YearMonth.parse(desde);
+                        fim = java.time.YearMonth.parse(ate);
+                } catch (java.time.format.DateTimeParseException e) {
+                        throw new com.empresa.comissao.exception.BusinessException("Mês inválido (use yyyy-MM)");
+                }
+
+                int meses = resumoFinanceiroService.reconstruir(empresaFresh.getId(), inicio, fim);
+                return ResponseEntity.ok(java.util.Map.of(
+                                "desde", inicio.toString(),
+                                "ate", fim.toString(),
+                                "mesesReconstruidos", meses));
+        }
+
+        private static Long tenantId(Empresa empresa) {
+                return empresa != null ? empresa.getId() : null;
+        }
+
+        private Empresa resolveEmpresa(org.springframework.security.core.Authentication authentication) {
+                return com.empresa.comissao.config.TenantAccessContext.getEmpresa(empresaRepository);
         }
 
         private User resolveUser(org.springframework.security.core.Authentication authentication, Empresa empresa) {
@@ -0,0 +1,181 @@
+package com.empresa.comissao.controller;
+
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.RelatorioJob;
+import com.empresa.comissao.domain.entity.User;
+import com.empresa.comissao.domain.enums.StatusRelatorioJob;
+import com.empresa.comissao.dto.response.RelatorioJobResponse;
+import com.empresa.comissao.exception.BusinessException;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.service.ComissaoService;
+import com.empresa.comissao.service.FinanceiroService;
+import com.empresa.comissao.service.PdfService;
+import com.empresa.comissao.service.RelatorioCache;
+import com.empresa.comissao.service.RelatorioCache.TipoRelatorio;
+import com.empresa.comissao.service.RelatorioJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/v1/relatorios/jobs")
+@RequiredArgsConstructor
+@Tag(name = "Relatórios (assíncrono)", description = "Geração de PDFs em background: submete, consulta o status e baixa quando pronto")
+@Slf4j
+public class RelatorioJobController {
+
+    private final RelatorioJobService relatorioJobService;
+    private final ComissaoService comissaoService;
+    private final FinanceiroService financeiroService;
+    private final PdfService pdfService;
+    private final EmpresaRepository empresaRepository;
+    private final RelatorioCache relatorioCache;
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA') or (hasRole('CONTADOR') and #tipo.name() == 'RECEITA_CAIXA')")
+    @Operation(summary = "Solicitar PDF de relatório", description = "Enfileira a geração do PDF e retorna o job (202). Tipos: DRE_MENSAL, ANUAL (mes ignorado), RECEITA_CAIXA, FLUXO_CAIXA, CONTAS_PAGAR, DISTRIBUICAO_LUCROS")
+    public ResponseEntity<RelatorioJobResponse> submeter(
+            @RequestParam TipoRelatorio tipo,
+            @RequestParam int ano,
+            @RequestParam(required = false) Integer mes,
+            Authentication authentication) {
+
+        Empresa empresa = getEmpresaFromContext();
+        if (empresa == null) {
+            throw new BusinessException("Empresa não identificada");
+        }
+        if (tipo != TipoRelatorio.ANUAL && mes == null) {
+            throw new BusinessException("Mês é obrigatório para o relatório " + tipo);
+        }
+        Long tenantId = empresa.getId();
+        String periodo = tipo == TipoRelatorio.ANUAL ? String.valueOf(ano) : YearMonth.of(ano, mes).toString();
+        User usuario = resolveUser(authentication, empresa);
+
+        Supplier<byte[]> gerarPdf;
+        String nomeArquivo;
+        switch (tipo) {
+            case DRE_MENSAL -> {
+                nomeArquivo = "relatorio-" + ano + "-" + mes + ".pdf";
+                gerarPdf = () -> pdfService.gerarRelatorioFinanceiroPdf(
+                        relatorioCache.obter(TipoRelatorio.DRE_MENSAL, tenantId, ano + "-" + mes,
+                                () -> comissaoService.gerarRelatorioFinanceiro(ano, mes, usuario, empresa)),
+                        empresa);
+            }
+            case ANUAL -> {
+                nomeArquivo = "relatorio-anual-" + ano + ".pdf";
+                gerarPdf = () -> pdfService.gerarRelatorioAnualPdf(
+                        relatorioCache.obter(TipoRelatorio.ANUAL, tenantId, String.valueOf(ano),
+                                () -> comissaoService.gerarRelatorioAnual(ano, usuario, empresa)),
+                        empresa);
+            }
+            case RECEITA_CAIXA -> {
+                YearMonth mesRef = YearMonth.of(ano, mes);
+                nomeArquivo = "receita-caixa-" + ano + "-" + mes + ".pdf";
+                gerarPdf = () -> pdfService.gerarRelatorioReceitaCaixaPdf(
+                        relatorioCache.obter(TipoRelatorio.RECEITA_CAIXA, tenantId, mesRef.toString(),
+                                () -> financeiroService.getRelatorioReceitaCaixaDetalhada(empresa, mesRef)),
+                        empresa);
+            }
+            case FLUXO_CAIXA -> {
+                YearMonth mesRef = YearMonth.of(ano, mes);
+                nomeArquivo = "fluxo-caixa-" + ano + "-" + mes + ".pdf";
+                gerarPdf = () -> pdfService.gerarRelatorioFluxoCaixaDetalhadoPdf(
+                        relatorioCache.obter(TipoRelatorio.FLUXO_CAIXA, tenantId, mesRef.toString(),
+                                () -> financeiroService.getRelatorioFluxoCaixaMensal(empresa, mesRef)),
+                        empresa);
+            }
+            case CONTAS_PAGAR -> {
+                YearMonth mesRef = YearMonth.of(ano, mes);
+                // "Vencido" depende do dia corrente
+                periodo = periodo + "@" + java.time.LocalDate.now();
+                String chaveCache = periodo;
+                nomeArquivo = "contas-pagar-" + ano + "-" + mes + ".pdf";
+                gerarPdf = () -> pdfService.gerarRelatorioContasPagarPdf(
+                        relatorioCache.obter(TipoRelatorio.CONTAS_PAGAR, tenantId, chaveCache,
+                                () -> financeiroService.getRelatorioContasPagar(empresa, mesRef)),
+                        empresa);
+            }
+            case DISTRIBUICAO_LUCROS -> {
+                YearMonth mesRef = YearMonth.of(ano, mes);
+                nomeArquivo = "distribuicao-lucros-" + ano + "-" + mes + ".pdf";
+                gerarPdf = () -> pdfService.gerarRelatorioDistribuicaoLucrosPdf(
+                        relatorioCache.obter(TipoRelatorio.DISTRIBUICAO_LUCROS, tenantId, mesRef.toString(),
+                                () -> financeiroService.getRelatorioDistribuicaoLucros(empresa, mesRef)),
+                        empresa);
+            }
+            default -> throw new BusinessException("Relatório sem versão em PDF: " + tipo);
+        }
+
+        log.info("📄 Solicitado PDF assíncrono {} {} (tenant {})", tipo, periodo, tenantId);
+        RelatorioJob job = relatorioJobService.submeter(tipo, tenantId, periodo, nomeArquivo, gerarPdf);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/v1/relatorios/jobs/" + job.getId())
+                .body(RelatorioJobResponse.of(job));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA', 'CONTADOR')")
+    @Operation(summary = "Status do job de relatório")
+    public ResponseEntity<RelatorioJobResponse> status(@PathVariable String id) {
+        return ResponseEntity.ok(RelatorioJobResponse.of(relatorioJobService.buscar(tenantId(), id)));
+    }
+
+    @GetMapping(value = "/{id}/download", produces = MediaType.APPLICATION_PDF_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA', 'CONTADOR')")
+    @Operation(summary = "Baixar PDF do job", description = "200 com o PDF quando CONCLUIDO; 202 enquanto em processamento")
+    public ResponseEntity<byte[]> download(@PathVariable String id) {
+        Long tenantId = tenantId();
+        RelatorioJob job = relatorioJobService.buscar(tenantId, id);
+        if (job.getStatus() == StatusRelatorioJob.ERRO) {
+            throw new BusinessException("Falha ao gerar o relatório: " + job.getErro());
+        }
+        byte[] pdfBytes = relatorioJobService.baixar(tenantId, id);
+        if (pdfBytes == null) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header("Retry-After", "2")
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + job.getNomeArquivo())
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(pdfBytes);
+    }
+
+    private Long tenantId() {
+        Long tenantId = com.empresa.comissao.config.TenantContext.getCurrentTenant();
+        if (tenantId == null) {
+            throw new BusinessException("Empresa não identificada");
+        }
+        return tenantId;
+    }
+
+    private Empresa getEmpresaFromContext() {
+        return com.empresa.comissao.config.TenantAccessContext.getEmpresa(empresaRepository);
+    }
+
+    private User resolveUser(Authentication authentication, Empresa empresa) {
+        if (authentication != null && authentication
+                .getPrincipal() instanceof com.empresa.comissao.security.AuthPrincipal principal) {
+            if (principal.getUserId() != null) {
+                User u = new User();
+                u.setId(principal.getUserId());
+                u.setEmpresa(empresa);
+                return u;
+            }
+        } else if (authentication != null && authentication.getPrincipal() instanceof User) {
+            return (User) authentication.getPrincipal();
+        }
+        return null;
+    }
+}
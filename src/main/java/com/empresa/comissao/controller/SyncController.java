@@ -1,12 +1,11 @@
 package com.empresa.comissao.controller;
 
+import com.empresa.comissao.dto.response.SyncChangesResponse;
 import com.empresa.comissao.dto.response.SyncStatusResponse;
-import com.empresa.comissao.repository.ClienteRepository;
-import com.empresa.comissao.repository.OrdemServicoRepository;
-import com.empresa.comissao.repository.TipoPecaRepository;
-import com.empresa.comissao.repository.UserRepository;
-import com.empresa.comissao.repository.ComissaoCalculadaRepository;
-import com.empresa.comissao.service.TenantVersionService;
+import com.empresa.comissao.service.SyncChangeLogService;
+import com.empresa.comissao.service.SyncPullService;
+import com.empresa.comissao.service.SyncNotificacaoService;
+import com.empresa.comissao.service.SyncWatermarkService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -27,15 +26,13 @@ import java.time.LocalDateTime;
 @Slf4j
 public class SyncController {
 
-        private final ClienteRepository clienteRepository;
-        private final OrdemServicoRepository osRepository;
-        private final TipoPecaRepository tipoPecaRepository;
-        private final UserRepository userRepository;
-        private final ComissaoCalculadaRepository comissaoRepository;
-        private final TenantVersionService tenantVersionService;
+        private final SyncWatermarkService syncWatermarkService;
+        private final SyncNotificacaoService syncNotificacaoService;
+        private final SyncChangeLogService syncChangeLogService;
+        private final SyncPullService syncPullService;
 
         @GetMapping("/status")
-        @Operation(summary = "Verificar status de sincronização", description = "Retorna os timestamps mais recentes de atualização para verificação leve")
+        @Operation(summary = "Verificar status de sincronização", description = "Retorna os timestamps mais recentes de atualização para verificação leve. Servido de memória: escritas de outra instância aparecem assim que o aviso entre instâncias chega; se ele se perder (queda do LISTEN) ou para UPDATEs em lote, em até sync.watermark.verificacao-intervalo-ms")
         public ResponseEntity<SyncStatusResponse> getSyncStatus(
                         @org.springframework.web.bind.annotation.RequestParam(required = false) Instant lastSync) {
                 Long tenantId = com.empresa.comissao.config.TenantContext.getCurrentTenant();
@@ -45,15 +42,51 @@ public class SyncController {
                                         "Tenant não identificado no contexto");
                 }
 
+                return ResponseEntity.ok(montarStatus(tenantId, lastSync));
+        }
+
+        @GetMapping("/status/aguardar")
+        @Operation(summary = "Aguardar mudanças (long-poll)", description = "Mesma resposta de /status, mas só responde quando os dados do tenant mudarem ou após o timeout (sync.push.long-poll-timeout-ms). Com version=lastTenantVersion local, responde na hora se o app já estiver atrasado")
+        public org.springframework.web.context.request.async.DeferredResult<SyncStatusResponse> aguardarStatus(
+                        @org.springframework.web.bind.annotation.RequestParam(required = false) Long version,
+                        @org.springframework.web.bind.annotation.RequestParam(required = false) Instant lastSync) {
+                Long tenantId = com.empresa.comissao.config.TenantContext.getCurrentTenant();
+
+                if (tenantId == null) {
+                        throw new com.empresa.comissao.exception.BusinessException(
+                                        "Tenant não identificado no contexto");
+                }
+
+                return syncNotificacaoService.aguardar(tenantId, version,
+                                () -> syncWatermarkService.getMarcas(tenantId),
+                                () -> montarStatus(tenantId, lastSync));
+        }
+
+        @GetMapping(value = "/eventos", produces = org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE)
+        @Operation(summary = "Stream de mudanças (SSE)", description = "Evento 'sync' com lastTenantVersion e lastChangeSeq ao conectar e a cada mudança dos dados do tenant")
+        public org.springframework.web.servlet.mvc.method.annotation.SseEmitter eventos() {
+                Long tenantId = com.empresa.comissao.config.TenantContext.getCurrentTenant();
+
+                if (tenantId == null) {
+                        throw new com.empresa.comissao.exception.BusinessException(
+                                        "Tenant não identificado no contexto");
+                }
+
+                return syncNotificacaoService.assinar(tenantId, () -> syncWatermarkService.getMarcas(tenantId));
+        }
+
+        private SyncStatusResponse montarStatus(Long tenantId, Instant lastSync) {
                 // Truncate compareTime to millis to match client storage precision
                 Instant compareTime = lastSync != null ? lastSync.truncatedTo(java.time.temporal.ChronoUnit.MILLIS)
                                 : Instant.EPOCH;
 
-                LocalDateTime maxClientes = clienteRepository.findMaxUpdatedAtByEmpresaId(tenantId);
-                LocalDateTime maxOS = osRepository.findMaxUpdatedAtByEmpresaId(tenantId);
-                LocalDateTime maxTipoPeca = tipoPecaRepository.findMaxUpdatedAtByEmpresaId(tenantId);
-                LocalDateTime maxUser = userRepository.findMaxUpdatedAtByEmpresaId(tenantId);
-                LocalDateTime maxComissao = comissaoRepository.findMaxUpdatedAtByEmpresaId(tenantId);
+                // Marcas em memória: o poll não consulta o banco
+                SyncWatermarkService.Marcas marcas = syncWatermarkService.getMarcas(tenantId);
+                LocalDateTime maxClientes = marcas.clientes();
+                LocalDateTime maxOS = marcas.ordensServico();
+                LocalDateTime maxTipoPeca = marcas.tiposPeca();
+                LocalDateTime maxUser = marcas.usuarios();
+                LocalDateTime maxComissao = marcas.comissoes();
 
                 // Convert to Instant and Truncate to Millis
                 // Use application time zone (America/Sao_Paulo) for conversion
@@ -92,9 +125,7 @@ public class SyncController {
                                 maxComissaoInstant,
                                 clientesUpdated, osUpdated, tiposPecaUpdated, usersUpdated, comissoesUpdated);
 
-                Long currentVersion = tenantVersionService.getCurrentVersion(tenantId);
-
-                SyncStatusResponse response = SyncStatusResponse.builder()
+                return SyncStatusResponse.builder()
                                 .serverTime(Instant.now().truncatedTo(java.time.temporal.ChronoUnit.MILLIS))
                                 .clientesUpdatedAtMax(maxClientesInstant)
                                 .osUpdatedAtMax(maxOSInstant)
@@ -103,9 +134,77 @@ public class SyncController {
                                 .tiposPecaUpdated(tiposPecaUpdated)
                                 .usersUpdated(usersUpdated)
                                 .comissoesUpdated(comissoesUpdated)
-                                .lastTenantVersion(currentVersion)
+                                .lastTenantVersion(marcas.dataVersion())
+                                .lastChangeSeq(marcas.changeSeq())
                                 .build();
+        }
 
+        @GetMapping("/changes")
+        @Operation(summary = "Mudanças desde um seq", description = "Ids alterados/removidos por entidade com seq > after, na ordem de commit. Após um sync completo use lastChangeSeq de /status como after; depois repita com ?after=cursor enquanto hasMore")
+        public ResponseEntity<SyncChangesResponse> getChanges(
+                        @org.springframework.web.bind.annotation.RequestParam(defaultValue = "0") long after,
+                        @org.springframework.web.bind.annotation.RequestParam(required = false) Integer limit,
+                        org.springframework.security.core.Authentication authentication) {
+                Long tenantId = com.empresa.comissao.config.TenantContext.getCurrentTenant();
+
+                if (tenantId == null) {
+                        throw new com.empresa.comissao.exception.BusinessException(
+                                        "Tenant não identificado no contexto");
+                }
+
+                Long usuarioId = usuarioRestrito(authentication);
+                SyncChangesResponse response = syncChangeLogService.listar(tenantId, usuarioId, after, limit);
+                log.info("[SYNC_CHANGES] after={}, cursor={}, hasMore={}", after, response.getCursor(),
+                                response.isHasMore());
                 return ResponseEntity.ok(response);
         }
+
+        @GetMapping(value = "/pull", produces = org.springframework.http.MediaType.APPLICATION_JSON_VALUE)
+        @Operation(summary = "Sync de todas as entidades em uma chamada", description = "Clientes, OS, tipos de peça e equipe de um mesmo snapshot, em JSON enviado por streaming. Sem after: sync completo; com after=cursor: apenas o que mudou depois dele. Guarde o cursor da resposta para a próxima chamada. 429 com Retry-After quando não há snapshot livre a tempo")
+        public org.springframework.web.context.request.async.WebAsyncTask<Void> pull(
+                        @org.springframework.web.bind.annotation.RequestParam(required = false) Long after,
+                        org.springframework.security.core.Authentication authentication,
+                        jakarta.servlet.http.HttpServletResponse response) {
+                Long tenantId = com.empresa.comissao.config.TenantContext.getCurrentTenant();
+
+                if (tenantId == null) {
+                        throw new com.empresa.comissao.exception.BusinessException(
+                                        "Tenant não identificado no contexto");
+                }
+
+                org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody corpo = syncPullService
+                                .pull(tenantId, usuarioRestrito(authentication), after);
+
+                // Timeout do próprio pull (vaga + snapshot + envio), não o padrão do container
+                return new org.springframework.web.context.request.async.WebAsyncTask<>(
+                                syncPullService.getTimeout().toMillis(), () -> {
+                                        response.setContentType(org.springframework.http.MediaType.APPLICATION_JSON_VALUE);
+                                        corpo.writeTo(response.getOutputStream());
+                                        return null;
+                                });
+        }
+
+        /**
+         * Usuário comum só recebe as próprias OS (mesma regra do sync de OS);
+         * null para admin.
+         */
+        private Long usuarioRestrito(org.springframework.security.core.Authentication authentication) {
+                boolean isAdmin = authentication.getAuthorities().stream()
+                                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN_EMPRESA") ||
+                                                a.getAuthority().equals("ROLE_SUPER_ADMIN") ||
+                                                a.getAuthority().equals("ROLE_ADMIN_LICENCA"));
+                if (isAdmin) {
+                        return null;
+                }
+                Long usuarioId = null;
+                if (authentication.getPrincipal() instanceof com.empresa.comissao.security.AuthPrincipal principal) {
+                        usuarioId = principal.getUserId();
+                } else if (authentication.getPrincipal() instanceof com.empresa.comissao.domain.entity.User user) {
+                        usuarioId = user.getId();
+                }
+                if (usuarioId == null) {
+                        throw new com.empresa.comissao.exception.BusinessException("Usuário não identificado");
+                }
+                return usuarioId;
+        }
 }
@@ -21,6 +21,7 @@ public class UserController {
     private final com.empresa.comissao.repository.EmpresaRepository empresaRepository;
     private final com.empresa.comissao.repository.FaturaTenantRepository faturaTenantRepository;
     private final com.empresa.comissao.repository.FaturaLicencaRepository faturaLicencaRepository;
+    private final com.empresa.comissao.security.AuthVersionService authVersionService;
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'ADMIN_EMPRESA', 'SUPER_ADMIN')")
@@ -174,7 +175,10 @@ public class UserController {
     public ResponseEntity<User> approveUser(@PathVariable Long id) {
         User user = repository.findById(id).orElseThrow();
         user.setActive(true);
-        return ResponseEntity.ok(repository.save(user));
+        User saved = repository.save(user);
+        // Status ativo vai no snapshot de auth: invalida o cache em todos os nós
+        authVersionService.incrementUserAuthVersion(id);
+        return ResponseEntity.ok(saved);
     }
 
     private final com.empresa.comissao.repository.FeatureRepository featureRepository;
@@ -240,6 +244,8 @@ public class UserController {
         }
 
         repository.save(user);
+        // Role/features vão no token: força refresh em todos os nós
+        authVersionService.incrementUserAuthVersion(user.getId());
 
         java.util.Set<String> featureCodes = user.getFeatures().stream()
                 .map(com.empresa.comissao.domain.entity.Feature::getCodigo)
@@ -255,7 +261,9 @@ public class UserController {
     public ResponseEntity<User> updateUserRole(@PathVariable Long id, @RequestBody Role role) {
         User user = repository.findById(id).orElseThrow();
         user.setRole(role);
-        return ResponseEntity.ok(repository.save(user));
+        User saved = repository.save(user);
+        authVersionService.incrementUserAuthVersion(id);
+        return ResponseEntity.ok(saved);
     }
 
     @PostMapping
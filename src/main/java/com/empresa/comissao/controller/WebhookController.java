@@ -22,6 +22,7 @@ public class WebhookController {
 
     private final FaturaTenantRepository faturaTenantRepository;
     private final EmpresaRepository empresaRepository;
+    private final com.empresa.comissao.security.AuthVersionService authVersionService;
 
     @PostMapping("/mercadopago")
     public ResponseEntity<Void> handleMercadoPagoWebhook(
@@ -88,6 +89,7 @@ public class WebhookController {
         if (empresa.getStatus() == StatusEmpresa.BLOQUEADA) {
             empresa.setStatus(StatusEmpresa.ATIVA);
             empresaRepository.save(empresa);
+            authVersionService.incrementTenantVersion(empresa.getId());
             log.info("Tenant {} UNBLOCKED after payment", empresa.getId());
         }
     }
@@ -0,0 +1,58 @@
+package com.empresa.comissao.domain.entity;
+
+import com.empresa.comissao.config.YearMonthConverter;
+import com.empresa.comissao.domain.enums.StatusFechamento;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Progresso do fechamento mensal de comissões por empresa.
+ */
+@Entity
+@Table(name = "comissao_fechamento", uniqueConstraints = @UniqueConstraint(name = "uk_comissao_fechamento", columnNames = {
+        "ano_mes_referencia", "empresa_id" }))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComissaoFechamento {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Convert(converter = YearMonthConverter.class)
+    @Column(name = "ano_mes_referencia", nullable = false, length = 7)
+    private YearMonth anoMesReferencia;
+
+    @Column(name = "empresa_id", nullable = false)
+    private Long empresaId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private StatusFechamento status = StatusFechamento.PENDENTE;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int tentativas = 0;
+
+    @Column(name = "comissoes_calculadas", nullable = false)
+    @Builder.Default
+    private int comissoesCalculadas = 0;
+
+    @Column(name = "iniciado_em")
+    private LocalDateTime iniciadoEm;
+
+    @Column(name = "concluido_em")
+    private LocalDateTime concluidoEm;
+
+    @Column(length = 500)
+    private String erro;
+}
@@ -0,0 +1,62 @@
+package com.empresa.comissao.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import com.empresa.comissao.config.YearMonthConverter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Totais correntes da base de comissão por (empresa, funcionário, mês).
+ *
+ * Mantido de forma incremental na mesma transação que grava/estorna
+ * Recebimentos e Adiantamentos; o cálculo de comissão lê 1 linha em vez de
+ * somar as tabelas de origem. O registro com funcionarioId = 0
+ * ({@link #EMPRESA_TOTAL}) guarda o total da empresa.
+ */
+@Entity
+@Table(name = "comissao_ledger", uniqueConstraints = @UniqueConstraint(name = "uk_comissao_ledger", columnNames = {
+        "empresa_id", "funcionario_id", "ano_mes_referencia" }))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComissaoLedger {
+
+    public static final Long EMPRESA_TOTAL = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "empresa_id", nullable = false)
+    private Long empresaId;
+
+    @Column(name = "funcionario_id", nullable = false)
+    private Long funcionarioId;
+
+    @Convert(converter = YearMonthConverter.class)
+    @Column(name = "ano_mes_referencia", nullable = false, length = 7)
+    private YearMonth anoMesReferencia;
+
+    @Builder.Default
+    @Column(name = "total_recebido", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalRecebido = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "total_adiantamentos", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAdiantamentos = BigDecimal.ZERO;
+
+    @Column(name = "data_atualizacao", nullable = false)
+    private LocalDateTime dataAtualizacao;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        dataAtualizacao = LocalDateTime.now();
+    }
+}
@@ -105,7 +105,10 @@ public class Empresa {
 
     @Builder.Default
     @Column(nullable = false)
-    private Long tenantVersion = 0L;
+    private Long tenantVersion = 0L; // Versão de acesso (plano/status) embutida no JWT
+
+    // data_version (versão de dados do sync) não é mapeada, como sync_seq: só
+    // muda e é lida pelas queries do EmpresaRepository
 
     @Builder.Default
     private boolean ativo = true; // Mantido por compatibilidade, mas usar status preferencialmente
@@ -0,0 +1,70 @@
+package com.empresa.comissao.domain.entity;
+
+import com.empresa.comissao.domain.enums.StatusRelatorioJob;
+import com.empresa.comissao.service.RelatorioCache.TipoRelatorio;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Job assíncrono de PDF de relatório. Compartilhado entre as instâncias: quem
+ * gera atualiza o status, qualquer uma responde status e download.
+ */
+@Entity
+@Table(name = "relatorio_job")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatorioJob {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "empresa_id", nullable = false)
+    private Long empresaId;
+
+    // (tenant, tipo, período, versão financeira): submissões iguais reaproveitam o job
+    @Column(nullable = false, length = 120)
+    private String chave;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TipoRelatorio tipo;
+
+    @Column(nullable = false, length = 20)
+    private String periodo;
+
+    @Column(name = "nome_arquivo", nullable = false, length = 120)
+    private String nomeArquivo;
+
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    @Column(nullable = false, length = 20)
+    private StatusRelatorioJob status = StatusRelatorioJob.PENDENTE;
+
+    @Column(name = "storage_key")
+    private String storageKey;
+
+    @Column(columnDefinition = "TEXT")
+    private String erro;
+
+    @Builder.Default
+    @Column(name = "criado_em", nullable = false)
+    private LocalDateTime criadoEm = LocalDateTime.now();
+
+    @Column(name = "concluido_em")
+    private LocalDateTime concluidoEm;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    public boolean isEmAndamento() {
+        return status == StatusRelatorioJob.PENDENTE || status == StatusRelatorioJob.PROCESSANDO;
+    }
+}
@@ -0,0 +1,115 @@
+package com.empresa.comissao.domain.entity;
+
+import com.empresa.comissao.config.YearMonthConverter;
+import com.empresa.comissao.domain.enums.CategoriaDespesa;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Resumo financeiro materializado por (empresa, mês): base do DRE, do
+ * relatório anual e da comparação YoY.
+ *
+ * {@link #versao} é incrementada (apenas via UPDATE) a cada escrita que afeta
+ * o mês; o resumo está atualizado quando {@link #versaoCalculada} == versao.
+ */
+@Entity
+@Table(name = "resumo_financeiro_mensal", uniqueConstraints = @UniqueConstraint(name = "uk_resumo_financeiro_mensal", columnNames = {
+        "empresa_id", "ano_mes_referencia" }))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoFinanceiroMensal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "empresa_id", nullable = false)
+    private Long empresaId;
+
+    @Convert(converter = YearMonthConverter.class)
+    @Column(name = "ano_mes_referencia", nullable = false, length = 7)
+    private YearMonth anoMesReferencia;
+
+    // Regime de competência (contas a receber pela data da OS)
+    @Builder.Default
+    @Column(name = "receita_competencia", nullable = false, precision = 19, scale = 2)
+    private BigDecimal receitaCompetencia = BigDecimal.ZERO;
+
+    // Faturamentos pela data de faturamento (relatório anual / YoY)
+    @Builder.Default
+    @Column(name = "faturamento", nullable = false, precision = 19, scale = 2)
+    private BigDecimal faturamento = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "recebido_caixa", nullable = false, precision = 19, scale = 2)
+    private BigDecimal recebidoCaixa = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "pago", nullable = false, precision = 19, scale = 2)
+    private BigDecimal pago = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "imposto", nullable = false, precision = 19, scale = 2)
+    private BigDecimal imposto = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "comissao_bruta", nullable = false, precision = 19, scale = 2)
+    private BigDecimal comissaoBruta = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "comissao_adiantamentos", nullable = false, precision = 19, scale = 2)
+    private BigDecimal comissaoAdiantamentos = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "comissao_saldo", nullable = false, precision = 19, scale = 2)
+    private BigDecimal comissaoSaldo = BigDecimal.ZERO;
+
+    /**
+     * As comissões do mês foram calculadas antes da consolidação (caminho do
+     * DRE)? Recalculos do relatório anual/YoY apenas somam as existentes.
+     */
+    @Builder.Default
+    @Column(name = "comissao_completa", nullable = false)
+    private boolean comissaoCompleta = false;
+
+    // Despesas pela data da despesa, todas as categorias
+    @Builder.Default
+    @ElementCollection
+    @CollectionTable(name = "resumo_financeiro_despesa", joinColumns = @JoinColumn(name = "resumo_id"))
+    @MapKeyEnumerated(EnumType.STRING)
+    @MapKeyColumn(name = "categoria", length = 50)
+    @Column(name = "valor", nullable = false, precision = 19, scale = 2)
+    private Map<CategoriaDespesa, BigDecimal> despesasPorCategoria = new EnumMap<>(CategoriaDespesa.class);
+
+    @Builder.Default
+    @Column(name = "versao", nullable = false, updatable = false)
+    private Long versao = 0L;
+
+    @Builder.Default
+    @Column(name = "versao_calculada", nullable = false)
+    private Long versaoCalculada = -1L;
+
+    @Column(name = "data_atualizacao", nullable = false)
+    private LocalDateTime dataAtualizacao;
+
+    public boolean isAtualizado() {
+        return versaoCalculada != null && versaoCalculada.equals(versao);
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        dataAtualizacao = LocalDateTime.now();
+    }
+}
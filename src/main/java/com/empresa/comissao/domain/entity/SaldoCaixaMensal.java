@@ -0,0 +1,77 @@
+package com.empresa.comissao.domain.entity;
+
+import com.empresa.comissao.config.YearMonthConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Saldo de caixa no fechamento de um mês (empresa, mês): totais acumulados
+ * desde o início até o último dia do mês.
+ *
+ * {@link #versao} é incrementada (apenas via UPDATE) quando um recebimento,
+ * estorno ou pagamento cai neste mês ou em um anterior; o snapshot vale quando
+ * {@link #versaoCalculada} == versao.
+ */
+@Entity
+@Table(name = "saldo_caixa_mensal", uniqueConstraints = @UniqueConstraint(name = "uk_saldo_caixa_mensal", columnNames = {
+        "empresa_id", "ano_mes_referencia" }))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoCaixaMensal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "empresa_id", nullable = false)
+    private Long empresaId;
+
+    @Convert(converter = YearMonthConverter.class)
+    @Column(name = "ano_mes_referencia", nullable = false, length = 7)
+    private YearMonth anoMesReferencia;
+
+    // Recebimentos (valor pago) pela data do pagamento
+    @Builder.Default
+    @Column(name = "recebido_acumulado", nullable = false, precision = 19, scale = 2)
+    private BigDecimal recebidoAcumulado = BigDecimal.ZERO;
+
+    // Contas a receber quitadas pela data de recebimento (fluxo de caixa)
+    @Builder.Default
+    @Column(name = "recebido_contas_acumulado", nullable = false, precision = 19, scale = 2)
+    private BigDecimal recebidoContasAcumulado = BigDecimal.ZERO;
+
+    // Contas a pagar PAGAS pela data de pagamento
+    @Builder.Default
+    @Column(name = "pago_acumulado", nullable = false, precision = 19, scale = 2)
+    private BigDecimal pagoAcumulado = BigDecimal.ZERO;
+
+    @Builder.Default
+    @Column(name = "versao", nullable = false, updatable = false)
+    private Long versao = 0L;
+
+    @Builder.Default
+    @Column(name = "versao_calculada", nullable = false)
+    private Long versaoCalculada = -1L;
+
+    @Column(name = "data_atualizacao", nullable = false)
+    private LocalDateTime dataAtualizacao;
+
+    public boolean isAtualizado() {
+        return versaoCalculada != null && versaoCalculada.equals(versao);
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        dataAtualizacao = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,55 @@
+package com.empresa.comissao.domain.entity;
+
+import com.empresa.comissao.domain.enums.EntidadeSync;
+import com.empresa.comissao.domain.enums.OperacaoSync;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Uma mudança em entidade sincronizável, na ordem de commit do tenant
+ * ({@link #seq}). Append-only: só é removida pela compactação quando há
+ * entrada mais nova para a mesma entidade.
+ */
+@Entity
+@Table(name = "sync_change_log", uniqueConstraints = @UniqueConstraint(name = "uk_sync_change_log_seq", columnNames = {
+        "empresa_id", "seq" }))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncChangeLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "empresa_id", nullable = false)
+    private Long empresaId;
+
+    @Column(nullable = false)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private EntidadeSync entidade;
+
+    @Column(name = "entidade_id", nullable = false)
+    private Long entidadeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private OperacaoSync operacao;
+
+    // Dono da OS: usuário comum só recebe mudanças das próprias OS
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Builder.Default
+    @Column(name = "criado_em", nullable = false)
+    private LocalDateTime criadoEm = LocalDateTime.now();
+}
@@ -0,0 +1,12 @@
+package com.empresa.comissao.domain.enums;
+
+/**
+ * Entidades acompanhadas pelo log de mudanças do sync. Veículos e peças são
+ * registrados como mudança da OS a que pertencem.
+ */
+public enum EntidadeSync {
+    ORDEM_SERVICO,
+    CLIENTE,
+    TIPO_PECA,
+    USUARIO
+}
@@ -0,0 +1,6 @@
+package com.empresa.comissao.domain.enums;
+
+public enum OperacaoSync {
+    UPSERT,
+    DELETE
+}
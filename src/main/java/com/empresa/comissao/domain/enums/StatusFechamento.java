@@ -0,0 +1,11 @@
+package com.empresa.comissao.domain.enums;
+
+/**
+ * Status do pré-cálculo de comissões de uma empresa no fechamento do mês.
+ */
+public enum StatusFechamento {
+    PENDENTE, // Ainda não processada
+    EM_ANDAMENTO, // Reservada por um worker (expira se o nó cair)
+    CONCLUIDO, // Comissões do mês gravadas
+    ERRO // Falhou; será tentada de novo na próxima execução
+}
@@ -0,0 +1,8 @@
+package com.empresa.comissao.domain.enums;
+
+public enum StatusRelatorioJob {
+    PENDENTE,
+    PROCESSANDO,
+    CONCLUIDO,
+    ERRO
+}
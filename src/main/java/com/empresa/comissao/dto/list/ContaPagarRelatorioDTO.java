@@ -0,0 +1,26 @@
+package com.empresa.comissao.dto.list;
+
+import com.empresa.comissao.domain.enums.StatusConta;
+import com.empresa.comissao.domain.enums.TipoContaPagar;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Projeção de conta a pagar para relatórios (contas a pagar, fluxo de caixa).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContaPagarRelatorioDTO {
+    private LocalDate dataVencimento;
+    private LocalDate dataPagamento;
+    private BigDecimal valor;
+    private String descricao;
+    private String funcionarioEmail; // null = fornecedor/terceiro
+    private TipoContaPagar tipo;
+    private StatusConta status;
+}
@@ -0,0 +1,39 @@
+package com.empresa.comissao.dto.list;
+
+import com.empresa.comissao.domain.enums.MeioPagamento;
+import com.empresa.comissao.domain.enums.TipoContaReceber;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Projeção de conta recebida para relatórios (receita por caixa, fluxo de
+ * caixa): apenas as colunas usadas, sem carregar a OS, veículos e peças.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContaReceberRelatorioDTO {
+    private LocalDate dataRecebimento;
+    private BigDecimal valor;
+    private String descricao;
+    private TipoContaReceber tipo;
+    private MeioPagamento meioPagamento;
+    private Long ordemServicoId;
+    private Long faturamentoId;
+    private String clienteOrdemServico; // razão social do cliente da OS
+    private String cliente; // razão social do cliente da conta (venda direta)
+
+    public String getOrigem() {
+        if (ordemServicoId != null) {
+            return "OS #" + ordemServicoId;
+        }
+        if (faturamentoId != null) {
+            return "Faturamento #" + faturamentoId;
+        }
+        return descricao != null ? descricao : "Recebimento";
+    }
+}
@@ -0,0 +1,71 @@
+package com.empresa.comissao.dto.request;
+
+import com.empresa.comissao.domain.enums.TipoRegraComissao;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO para simulação (what-if) de regras de comissão. Nada é gravado.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimulacaoComissaoRequest {
+
+    @NotNull(message = "Mês inicial é obrigatório")
+    @Pattern(regexp = "\\d{4}-\\d{2}", message = "Mês inicial deve estar no formato yyyy-MM")
+    private String desde;
+
+    @NotNull(message = "Mês final é obrigatório")
+    @Pattern(regexp = "\\d{4}-\\d{2}", message = "Mês final deve estar no formato yyyy-MM")
+    private String ate;
+
+    /**
+     * Regras já cadastradas (ativas ou não) a comparar.
+     */
+    private List<Long> regraIds;
+
+    /**
+     * Regras ainda não cadastradas, avaliadas apenas em memória.
+     */
+    @Valid
+    @Size(max = 10, message = "Máximo de 10 regras candidatas por simulação")
+    private List<Candidata> candidatas;
+
+    /**
+     * Incluir a regra ativa atual como referência (diferenças são calculadas
+     * contra ela).
+     */
+    @Builder.Default
+    private boolean incluirRegraAtiva = true;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Candidata {
+
+        @NotBlank(message = "Nome da regra é obrigatório")
+        @Size(max = 100, message = "Nome deve ter no máximo 100 caracteres")
+        private String nome;
+
+        @NotNull(message = "Tipo de regra é obrigatório")
+        private TipoRegraComissao tipoRegra;
+
+        private BigDecimal percentualFixo;
+
+        @Valid
+        private List<RegraComissaoRequest.FaixaComissaoRequest> faixas;
+    }
+}
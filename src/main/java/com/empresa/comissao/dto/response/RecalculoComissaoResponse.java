@@ -0,0 +1,36 @@
+package com.empresa.comissao.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resultado do recálculo em cascata (mês inicial → último mês calculado).
+ */
+@Data
+@Builder
+public class RecalculoComissaoResponse {
+    private Long empresaId;
+    private String desde;
+    private String ate;
+    private int comissoesRecalculadas;
+    private List<Alteracao> alteracoes; // apenas meses cujo valor mudou
+    private List<String> erros;
+    private long duracaoMs;
+
+    @Data
+    @Builder
+    public static class Alteracao {
+        private Long comissaoId;
+        private Long funcionarioId; // null = comissão consolidada da empresa
+        private String anoMesReferencia;
+        private BigDecimal saldoAnteriorAntes;
+        private BigDecimal saldoAnteriorDepois;
+        private BigDecimal valorBrutoAntes;
+        private BigDecimal valorBrutoDepois;
+        private BigDecimal saldoAReceberAntes;
+        private BigDecimal saldoAReceberDepois;
+    }
+}
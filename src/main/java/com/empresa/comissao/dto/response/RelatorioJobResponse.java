@@ -0,0 +1,41 @@
+package com.empresa.comissao.dto.response;
+
+import com.empresa.comissao.domain.entity.RelatorioJob;
+import com.empresa.comissao.domain.enums.StatusRelatorioJob;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status de um job assíncrono de PDF. downloadUrl preenchido quando CONCLUIDO.
+ */
+@Data
+@Builder
+public class RelatorioJobResponse {
+    private String id;
+    private String tipo;
+    private String periodo;
+    private String status;
+    private String nomeArquivo;
+    private String erro;
+    private String downloadUrl;
+    private LocalDateTime criadoEm;
+    private LocalDateTime concluidoEm;
+
+    public static RelatorioJobResponse of(RelatorioJob job) {
+        return RelatorioJobResponse.builder()
+                .id(job.getId())
+                .tipo(job.getTipo().name())
+                .periodo(job.getPeriodo())
+                .status(job.getStatus().name())
+                .nomeArquivo(job.getNomeArquivo())
+                .erro(job.getErro())
+                .downloadUrl(job.getStatus() == StatusRelatorioJob.CONCLUIDO
+                        ? "/api/v1/relatorios/jobs/" + job.getId() + "/download"
+                        : null)
+                .criadoEm(job.getCriadoEm())
+                .concluidoEm(job.getConcluidoEm())
+                .build();
+    }
+}
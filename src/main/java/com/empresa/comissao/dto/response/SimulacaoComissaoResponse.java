@@ -0,0 +1,44 @@
+package com.empresa.comissao.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado da simulação: comissão bruta (base × percentual da faixa) de cada
+ * regra no período, sem adiantamentos/carryover.
+ */
+@Data
+@Builder
+public class SimulacaoComissaoResponse {
+    private Long empresaId;
+    private String desde;
+    private String ate;
+    private String modoComissao;
+    private BigDecimal baseTotal; // recebido no período
+    private List<ResultadoRegra> resultados;
+
+    @Data
+    @Builder
+    public static class ResultadoRegra {
+        private Long regraId; // null = candidata não cadastrada
+        private String nome;
+        private boolean regraAtiva;
+        private BigDecimal totalComissao;
+        private BigDecimal diferencaRegraAtiva; // null se a regra ativa não foi incluída
+        private Map<String, BigDecimal> totalPorMes; // "yyyy-MM" → comissão
+        private List<PorFuncionario> porFuncionario; // vazio no modo COLETIVA
+    }
+
+    @Data
+    @Builder
+    public static class PorFuncionario {
+        private Long funcionarioId;
+        private String funcionarioEmail;
+        private BigDecimal base;
+        private BigDecimal totalComissao;
+    }
+}
@@ -0,0 +1,21 @@
+package com.empresa.comissao.dto.response;
+
+import com.empresa.comissao.domain.enums.EntidadeSync;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mudanças desde um seq: ids a (re)buscar e ids a remover, por entidade.
+ * O cliente guarda cursor e repete com ?after=cursor enquanto hasMore.
+ */
+@Data
+@Builder
+public class SyncChangesResponse {
+    private Long cursor;
+    private boolean hasMore;
+    private Map<EntidadeSync, List<Long>> alterados;
+    private Map<EntidadeSync, List<Long>> removidos;
+}
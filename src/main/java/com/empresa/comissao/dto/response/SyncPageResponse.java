@@ -0,0 +1,18 @@
+package com.empresa.comissao.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Página do sync incremental. Enquanto hasMore, o cliente pede a próxima com
+ * ?cursor=nextCursor; ao terminar guarda nextCursor para o próximo sync.
+ */
+@Data
+@Builder
+public class SyncPageResponse<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
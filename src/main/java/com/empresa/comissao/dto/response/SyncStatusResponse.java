@@ -15,5 +15,6 @@ public class SyncStatusResponse {
     private Boolean tiposPecaUpdated;
     private Boolean usersUpdated;
     private Boolean comissoesUpdated;
-    private Long lastTenantVersion;
+    private Long lastTenantVersion; // data_version (independente do v_t do JWT)
+    private Long lastChangeSeq; // último seq do change log (cursor de /sync/changes)
 }
@@ -1,7 +1,8 @@
 package com.empresa.comissao.exception;
 
 /**
- * Lançada quando o limite de PDFs simultâneos é atingido.
+ * Lançada quando o limite de PDFs simultâneos é atingido (também usada pelo
+ * sync pull quando não há snapshot livre a tempo).
  * Produz HTTP 429 Too Many Requests com header Retry-After.
  */
 public class PdfConcurrencyException extends RuntimeException {
@@ -24,7 +24,29 @@ public interface ComissaoCalculadaRepository extends JpaRepository<ComissaoCalcu
     // For cleanup: find all for empresa (including user-specific ones)
     List<ComissaoCalculada> findByAnoMesReferenciaAndEmpresa(YearMonth anoMesReferencia, Empresa empresa);
 
+    // Recálculo em cascata: ano_mes_referencia é "YYYY-MM", ordem de string = ordem cronológica
+    List<ComissaoCalculada> findByEmpresaAndAnoMesReferenciaGreaterThanEqualOrderByAnoMesReferenciaAsc(
+            Empresa empresa, YearMonth anoMesReferencia);
+
     @org.springframework.data.jpa.repository.Query("SELECT MAX(c.dataAtualizacao) FROM ComissaoCalculada c WHERE c.empresa.id = :empresaId")
     java.time.LocalDateTime findMaxUpdatedAtByEmpresaId(
             @org.springframework.data.repository.query.Param("empresaId") Long empresaId);
+
+    // Resumo financeiro (DRE): [bruto, adiantamentos, saldo] da comissão consolidada da empresa
+    @org.springframework.data.jpa.repository.Query("SELECT COALESCE(SUM(c.valorBrutoComissao), 0), " +
+            "COALESCE(SUM(c.valorTotalAdiantamentos), 0), COALESCE(SUM(c.saldoAReceber), 0) " +
+            "FROM ComissaoCalculada c WHERE c.empresa = :empresa AND c.anoMesReferencia = :anoMes " +
+            "AND c.usuario IS NULL")
+    List<Object[]> sumEmpresaByAnoMesReferencia(
+            @org.springframework.data.repository.query.Param("empresa") Empresa empresa,
+            @org.springframework.data.repository.query.Param("anoMes") YearMonth anoMes);
+
+    // Resumo financeiro (DRE): [bruto, adiantamentos, saldo] das comissões individuais da equipe
+    @org.springframework.data.jpa.repository.Query("SELECT COALESCE(SUM(c.valorBrutoComissao), 0), " +
+            "COALESCE(SUM(c.valorTotalAdiantamentos), 0), COALESCE(SUM(c.saldoAReceber), 0) " +
+            "FROM ComissaoCalculada c WHERE c.empresa = :empresa AND c.anoMesReferencia = :anoMes " +
+            "AND c.usuario.participaComissao = true")
+    List<Object[]> sumFuncionariosByAnoMesReferencia(
+            @org.springframework.data.repository.query.Param("empresa") Empresa empresa,
+            @org.springframework.data.repository.query.Param("anoMes") YearMonth anoMes);
 }
@@ -0,0 +1,48 @@
+package com.empresa.comissao.repository;
+
+import com.empresa.comissao.domain.entity.ComissaoFechamento;
+import com.empresa.comissao.domain.enums.StatusFechamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+@Repository
+public interface ComissaoFechamentoRepository extends JpaRepository<ComissaoFechamento, Long> {
+
+    List<ComissaoFechamento> findByAnoMesReferencia(YearMonth anoMesReferencia);
+
+    List<ComissaoFechamento> findByAnoMesReferenciaAndStatusNot(YearMonth anoMesReferencia, StatusFechamento status);
+
+    /**
+     * Reserva a empresa para este worker. EM_ANDAMENTO mais antigo que
+     * :expiracao é considerado abandonado (nó reiniciado) e pode ser retomado.
+     *
+     * @return 1 se reservou, 0 se outro worker/nó já está com ela ou concluiu
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ComissaoFechamento f SET f.status = 'EM_ANDAMENTO', f.iniciadoEm = :agora, " +
+            "f.tentativas = f.tentativas + 1, f.erro = NULL " +
+            "WHERE f.id = :id AND (f.status IN ('PENDENTE', 'ERRO') " +
+            "OR (f.status = 'EM_ANDAMENTO' AND f.iniciadoEm < :expiracao))")
+    int reservar(@Param("id") Long id, @Param("agora") LocalDateTime agora,
+            @Param("expiracao") LocalDateTime expiracao);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ComissaoFechamento f SET f.status = 'CONCLUIDO', f.concluidoEm = :agora, " +
+            "f.comissoesCalculadas = :quantidade WHERE f.id = :id")
+    int concluir(@Param("id") Long id, @Param("agora") LocalDateTime agora, @Param("quantidade") int quantidade);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ComissaoFechamento f SET f.status = 'ERRO', f.erro = :erro WHERE f.id = :id")
+    int registrarErro(@Param("id") Long id, @Param("erro") String erro);
+}
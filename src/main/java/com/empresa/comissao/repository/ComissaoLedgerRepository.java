@@ -0,0 +1,51 @@
+package com.empresa.comissao.repository;
+
+import com.empresa.comissao.domain.entity.ComissaoLedger;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ComissaoLedgerRepository extends JpaRepository<ComissaoLedger, Long> {
+
+    Optional<ComissaoLedger> findByEmpresaIdAndFuncionarioIdAndAnoMesReferencia(Long empresaId, Long funcionarioId,
+            YearMonth anoMesReferencia);
+
+    List<ComissaoLedger> findByEmpresaIdAndAnoMesReferencia(Long empresaId, YearMonth anoMesReferencia);
+
+    // Simulação: ano_mes_referencia é "YYYY-MM", ordem de string = ordem cronológica
+    List<ComissaoLedger> findByEmpresaIdAndAnoMesReferenciaBetween(Long empresaId, YearMonth desde, YearMonth ate);
+
+    // Reconciliação: bloqueia as linhas do mês enquanto compara com as tabelas de origem
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM ComissaoLedger l WHERE l.empresaId = :empresaId AND l.anoMesReferencia = :anoMes")
+    List<ComissaoLedger> findForUpdate(@Param("empresaId") Long empresaId, @Param("anoMes") YearMonth anoMes);
+
+    /**
+     * Soma atômica (INSERT ... ON CONFLICT DO UPDATE SET x = x + delta) na
+     * transação do chamador: a primeira movimentação do mês cria a linha, as
+     * seguintes somam. anoMes no formato da coluna ("2026-03").
+     */
+    @Modifying
+    @Query(value = "INSERT INTO comissao_ledger (empresa_id, funcionario_id, ano_mes_referencia, " +
+            "total_recebido, total_adiantamentos, data_atualizacao) " +
+            "VALUES (:empresaId, :funcionarioId, :anoMes, :recebido, :adiantamentos, NOW()) " +
+            "ON CONFLICT (empresa_id, funcionario_id, ano_mes_referencia) DO UPDATE SET " +
+            "total_recebido = comissao_ledger.total_recebido + EXCLUDED.total_recebido, " +
+            "total_adiantamentos = comissao_ledger.total_adiantamentos + EXCLUDED.total_adiantamentos, " +
+            "data_atualizacao = NOW()", nativeQuery = true)
+    int somar(@Param("empresaId") Long empresaId,
+            @Param("funcionarioId") Long funcionarioId,
+            @Param("anoMes") String anoMes,
+            @Param("recebido") BigDecimal recebido,
+            @Param("adiantamentos") BigDecimal adiantamentos);
+}
@@ -4,8 +4,11 @@ import com.empresa.comissao.domain.entity.ContaPagar;
 import com.empresa.comissao.domain.entity.Empresa;
 import com.empresa.comissao.domain.entity.User;
 import com.empresa.comissao.domain.enums.StatusConta;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -117,6 +120,12 @@ public interface ContaPagarRepository extends JpaRepository<ContaPagar, Long> {
                         "WHERE c.comissao = :comissao AND c.status = 'PAGO'")
         BigDecimal sumPaidByComissao(@Param("comissao") com.empresa.comissao.domain.entity.ComissaoCalculada comissao);
 
+        // Comissão em lote: linhas [comissaoId, soma PAGO]
+        @Query("SELECT c.comissao.id, COALESCE(SUM(c.valor), 0) FROM ContaPagar c " +
+                        "WHERE c.comissao IN :comissoes AND c.status = 'PAGO' GROUP BY c.comissao.id")
+        List<Object[]> sumPaidGroupByComissao(
+                        @Param("comissoes") java.util.Collection<com.empresa.comissao.domain.entity.ComissaoCalculada> comissoes);
+
         // Somar valor de faturas pendentes por cartão (para cálculo de limite
         // disponível)
         @Query("SELECT COALESCE(SUM(c.valor), 0) FROM ContaPagar c " +
@@ -149,6 +158,34 @@ public interface ContaPagarRepository extends JpaRepository<ContaPagar, Long> {
                         @Param("inicio") LocalDate inicio,
                         @Param("fim") LocalDate fim);
 
+        // Relatório de contas a pagar: vencidas OU pagas no período, em 1 consulta
+        // projetada (sem entidades, sem merge/dedup em memória)
+        @Query("SELECT new com.empresa.comissao.dto.list.ContaPagarRelatorioDTO(" +
+                        "c.dataVencimento, c.dataPagamento, c.valor, c.descricao, fu.email, c.tipo, c.status) " +
+                        "FROM ContaPagar c " +
+                        "LEFT JOIN c.funcionario fu " +
+                        "WHERE c.empresa = :empresa " +
+                        "AND (c.dataVencimento BETWEEN :inicio AND :fim " +
+                        "OR (c.dataPagamento BETWEEN :inicio AND :fim AND c.status = 'PAGO')) " +
+                        "ORDER BY c.dataVencimento")
+        List<com.empresa.comissao.dto.list.ContaPagarRelatorioDTO> findVencidasOuPagasBetweenParaRelatorio(
+                        @Param("empresa") Empresa empresa,
+                        @Param("inicio") LocalDate inicio,
+                        @Param("fim") LocalDate fim);
+
+        // Fluxo de caixa: projeção das contas pagas no período
+        @Query("SELECT new com.empresa.comissao.dto.list.ContaPagarRelatorioDTO(" +
+                        "c.dataVencimento, c.dataPagamento, c.valor, c.descricao, fu.email, c.tipo, c.status) " +
+                        "FROM ContaPagar c " +
+                        "LEFT JOIN c.funcionario fu " +
+                        "WHERE c.empresa = :empresa " +
+                        "AND c.dataPagamento BETWEEN :inicio AND :fim AND c.status = 'PAGO' " +
+                        "ORDER BY c.dataPagamento")
+        List<com.empresa.comissao.dto.list.ContaPagarRelatorioDTO> findPagasBetweenParaRelatorio(
+                        @Param("empresa") Empresa empresa,
+                        @Param("inicio") LocalDate inicio,
+                        @Param("fim") LocalDate fim);
+
         // Buscar por tipo e status e período de vencimento (para Distribuição de
         // Lucros)
         List<ContaPagar> findByEmpresaAndTipoAndDataVencimentoBetweenOrderByDataVencimentoDesc(
@@ -170,4 +207,10 @@ public interface ContaPagarRepository extends JpaRepository<ContaPagar, Long> {
         java.util.List<com.empresa.comissao.dto.list.ContaResumoDTO> findTop10VencendoProximos(
                         @Param("empresa") com.empresa.comissao.domain.entity.Empresa empresa,
                         org.springframework.data.domain.Pageable pageable);
+
+        // Data ainda gravada no banco: FlushMode COMMIT não descarrega antes a
+        // alteração pendente da própria entidade (mudança de mês invalida os dois)
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+        @Query("SELECT c.dataPagamento FROM ContaPagar c WHERE c.id = :id")
+        java.util.Optional<LocalDate> findDataPagamentoGravada(@Param("id") Long id);
 }
@@ -119,6 +119,23 @@ public interface ContaReceberRepository extends JpaRepository<ContaReceber, Long
                         @Param("inicio") LocalDate inicio,
                         @Param("fim") LocalDate fim);
 
+        // Relatórios de caixa: projeção das contas recebidas no período (sem entidades)
+        @Query("SELECT new com.empresa.comissao.dto.list.ContaReceberRelatorioDTO(" +
+                        "c.dataRecebimento, c.valor, c.descricao, c.tipo, c.meioPagamento, " +
+                        "os.id, f.id, osc.razaoSocial, cli.razaoSocial) " +
+                        "FROM ContaReceber c " +
+                        "LEFT JOIN c.ordemServico os " +
+                        "LEFT JOIN os.cliente osc " +
+                        "LEFT JOIN c.faturamento f " +
+                        "LEFT JOIN c.cliente cli " +
+                        "WHERE c.empresa = :empresa " +
+                        "AND c.dataRecebimento BETWEEN :inicio AND :fim AND c.status = 'PAGO' " +
+                        "ORDER BY c.dataRecebimento")
+        List<com.empresa.comissao.dto.list.ContaReceberRelatorioDTO> findRecebidosBetweenParaRelatorio(
+                        @Param("empresa") Empresa empresa,
+                        @Param("inicio") LocalDate inicio,
+                        @Param("fim") LocalDate fim);
+
         // Contar pendentes/parciais a vencer nos próximos X dias
         @Query("SELECT COUNT(c) FROM ContaReceber c WHERE c.empresa = :empresa " +
                         "AND c.status IN ('PENDENTE', 'PARCIAL') AND c.dataVencimento BETWEEN :hoje AND :limite")
@@ -2,8 +2,11 @@ package com.empresa.comissao.repository;
 
 import com.empresa.comissao.domain.entity.Despesa;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -55,4 +58,10 @@ public interface DespesaRepository extends JpaRepository<Despesa, Long> {
                         com.empresa.comissao.domain.entity.CartaoCredito cartao,
                         LocalDate inicio,
                         LocalDate fim);
+
+        // Data ainda gravada no banco: FlushMode COMMIT não descarrega antes a
+        // alteração pendente da própria entidade (mudança de mês invalida os dois)
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+        @Query("SELECT d.dataDespesa FROM Despesa d WHERE d.id = :id")
+        Optional<LocalDate> findDataDespesaGravada(@Param("id") Long id);
 }
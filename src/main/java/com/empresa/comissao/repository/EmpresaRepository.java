@@ -37,6 +37,8 @@ public interface EmpresaRepository extends JpaRepository<Empresa, Long> {
     // Orphan tenants (no reseller, direct owner management)
     java.util.List<Empresa> findByLicencaIsNull();
 
+    java.util.List<Empresa> findByStatus(StatusEmpresa status);
+
     long countByLicencaIsNull();
 
     // Risk Management: Tenants linked to suspended/cancelled resellers
@@ -61,4 +63,21 @@ public interface EmpresaRepository extends JpaRepository<Empresa, Long> {
     @org.springframework.transaction.annotation.Transactional
     @Query("UPDATE Empresa e SET e.tenantVersion = e.tenantVersion + 1 WHERE e.id = :tenantId")
     void incrementTenantVersion(@Param("tenantId") Long tenantId);
+
+    // data_version e sync_seq não são mapeados em Empresa: um save/flush da
+    // entidade nunca sobrescreve os contadores com um valor antigo
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.transaction.annotation.Transactional
+    @Query(value = "UPDATE empresas SET data_version = data_version + 1 WHERE id = :tenantId", nativeQuery = true)
+    void incrementDataVersion(@Param("tenantId") Long tenantId);
+
+    @org.springframework.data.jpa.repository.Modifying
+    @Query(value = "UPDATE empresas SET sync_seq = sync_seq + :quantidade WHERE id = :tenantId", nativeQuery = true)
+    int reservarSyncSeq(@Param("tenantId") Long tenantId, @Param("quantidade") long quantidade);
+
+    @Query(value = "SELECT sync_seq FROM empresas WHERE id = :tenantId", nativeQuery = true)
+    Long findSyncSeqById(@Param("tenantId") Long tenantId);
+
+    @Query(value = "SELECT data_version FROM empresas WHERE id = :tenantId", nativeQuery = true)
+    java.util.Optional<Long> findDataVersionById(@Param("tenantId") Long tenantId);
 }
@@ -7,7 +7,8 @@ import java.util.List;
 
 @Repository
 public interface OrdemServicoRepository extends JpaRepository<OrdemServico, Long>,
-                org.springframework.data.jpa.repository.JpaSpecificationExecutor<OrdemServico> {
+                org.springframework.data.jpa.repository.JpaSpecificationExecutor<OrdemServico>,
+                OrdemServicoRepositoryCustom {
         List<OrdemServico> findByClienteId(Long clienteId);
 
         List<OrdemServico> findByEmpresa(com.empresa.comissao.domain.entity.Empresa empresa);
@@ -76,6 +77,32 @@ public interface OrdemServicoRepository extends JpaRepository<OrdemServico, Long
                         @org.springframework.data.repository.query.Param("start") java.time.LocalDate start,
                         @org.springframework.data.repository.query.Param("end") java.time.LocalDate end);
 
+        // Sync paginado (fase 1): só a posição (updatedAt, id) das linhas após o cursor
+        @org.springframework.data.jpa.repository.Query("SELECT new com.empresa.comissao.util.SyncCursor(os.updatedAt, os.id) FROM OrdemServico os WHERE os.empresa.id = :empresaId AND (os.updatedAt > :updatedAt OR (os.updatedAt = :updatedAt AND os.id > :id)) ORDER BY os.updatedAt, os.id")
+        List<com.empresa.comissao.util.SyncCursor> findSyncCursorPage(
+                        @org.springframework.data.repository.query.Param("empresaId") Long empresaId,
+                        @org.springframework.data.repository.query.Param("updatedAt") java.time.LocalDateTime updatedAt,
+                        @org.springframework.data.repository.query.Param("id") Long id,
+                        org.springframework.data.domain.Pageable pageable);
+
+        @org.springframework.data.jpa.repository.Query("SELECT new com.empresa.comissao.util.SyncCursor(os.updatedAt, os.id) FROM OrdemServico os WHERE os.empresa.id = :empresaId AND os.usuario.id = :usuarioId AND (os.updatedAt > :updatedAt OR (os.updatedAt = :updatedAt AND os.id > :id)) ORDER BY os.updatedAt, os.id")
+        List<com.empresa.comissao.util.SyncCursor> findSyncCursorPageByUsuario(
+                        @org.springframework.data.repository.query.Param("empresaId") Long empresaId,
+                        @org.springframework.data.repository.query.Param("usuarioId") Long usuarioId,
+                        @org.springframework.data.repository.query.Param("updatedAt") java.time.LocalDateTime updatedAt,
+                        @org.springframework.data.repository.query.Param("id") Long id,
+                        org.springframework.data.domain.Pageable pageable);
+
+        // Sync paginado (fase 2): grafo das OS da página (produto cartesiano limitado à página)
+        @org.springframework.data.jpa.repository.Query("SELECT DISTINCT os FROM OrdemServico os LEFT JOIN FETCH os.cliente LEFT JOIN FETCH os.usuario LEFT JOIN FETCH os.veiculos v LEFT JOIN FETCH v.pecas p LEFT JOIN FETCH p.tipoPeca WHERE os.id IN :ids")
+        List<OrdemServico> findSyncGrafoByIdIn(
+                        @org.springframework.data.repository.query.Param("ids") java.util.Collection<Long> ids);
+
+        // Grafo completo usado no PDF da OS (exportação em lote)
+        @org.springframework.data.jpa.repository.Query("SELECT DISTINCT os FROM OrdemServico os JOIN FETCH os.empresa LEFT JOIN FETCH os.cliente LEFT JOIN FETCH os.veiculos v LEFT JOIN FETCH v.pecas p LEFT JOIN FETCH p.tipoPeca WHERE os.id IN :ids ORDER BY os.id")
+        List<OrdemServico> findGrafoPdfByIdIn(
+                        @org.springframework.data.repository.query.Param("ids") java.util.Collection<Long> ids);
+
         @org.springframework.data.jpa.repository.Query("SELECT DISTINCT os FROM OrdemServico os LEFT JOIN FETCH os.cliente LEFT JOIN FETCH os.veiculos v LEFT JOIN FETCH v.pecas p WHERE os.updatedAt > :since AND os.empresa.id = :empresaId")
         List<OrdemServico> findSyncData(
                         @org.springframework.data.repository.query.Param("empresaId") Long empresaId,
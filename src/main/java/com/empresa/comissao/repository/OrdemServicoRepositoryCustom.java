@@ -0,0 +1,15 @@
+package com.empresa.comissao.repository;
+
+import com.empresa.comissao.domain.entity.OrdemServico;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface OrdemServicoRepositoryCustom {
+
+        /**
+         * Próxima página de ids (keyset: id > aposId, ordem crescente) que
+         * atendem ao filtro, sem carregar as entidades.
+         */
+        List<Long> findIdsByFiltro(Specification<OrdemServico> filtro, Long aposId, int limite);
+}
@@ -0,0 +1,39 @@
+package com.empresa.comissao.repository;
+
+import com.empresa.comissao.domain.entity.OrdemServico;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OrdemServicoRepositoryCustomImpl implements OrdemServicoRepositoryCustom {
+
+        private final EntityManager entityManager;
+
+        @Override
+        public List<Long> findIdsByFiltro(Specification<OrdemServico> filtro, Long aposId, int limite) {
+                CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+                // Resultado Long: a specification não aplica os JOIN FETCH, então o LIMIT vai para o SQL
+                CriteriaQuery<Long> query = cb.createQuery(Long.class);
+                Root<OrdemServico> root = query.from(OrdemServico.class);
+
+                Predicate predicado = cb.greaterThan(root.get("id"), aposId);
+                Predicate predicadoFiltro = filtro.toPredicate(root, query, cb);
+                if (predicadoFiltro != null) {
+                        predicado = cb.and(predicadoFiltro, predicado);
+                }
+
+                query.select(root.get("id"))
+                                .where(predicado)
+                                .orderBy(cb.asc(root.get("id")));
+                return entityManager.createQuery(query)
+                                .setMaxResults(limite)
+                                .getResultList();
+        }
+}
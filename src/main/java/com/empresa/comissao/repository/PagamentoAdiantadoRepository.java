@@ -29,4 +29,10 @@ public interface PagamentoAdiantadoRepository extends JpaRepository<PagamentoAdi
         @Query("SELECT SUM(p.valor) FROM PagamentoAdiantado p WHERE p.empresa = :empresa AND p.dataPagamento BETWEEN :startDate AND :endDate")
         Optional<BigDecimal> sumValorByDataPagamentoBetweenAndEmpresa(@Param("startDate") LocalDate startDate,
                         @Param("endDate") LocalDate endDate, @Param("empresa") Empresa empresa);
+
+        // Reconciliação do ledger: linhas [usuarioId, soma] da empresa
+        @Query("SELECT p.usuario.id, SUM(p.valor) FROM PagamentoAdiantado p WHERE p.empresa = :empresa AND p.dataPagamento BETWEEN :startDate AND :endDate GROUP BY p.usuario.id")
+        java.util.List<Object[]> sumValorByEmpresaAndDataPagamentoBetweenGroupByUsuario(
+                        @Param("empresa") Empresa empresa, @Param("startDate") LocalDate startDate,
+                        @Param("endDate") LocalDate endDate);
 }
@@ -75,4 +75,19 @@ public interface RecebimentoRepository extends JpaRepository<Recebimento, Long>
             @Param("empresa") Empresa empresa,
             @Param("inicio") LocalDate inicio,
             @Param("fim") LocalDate fim);
+
+    // ========================================
+    // COMISSÃO EM LOTE: soma por funcionário (1 query para toda a equipe)
+    // Linhas: [funcionarioId, soma]
+    // ========================================
+
+    @Query("SELECT r.funcionarioResponsavel.id, COALESCE(SUM(r.valorPago), 0) FROM Recebimento r " +
+            "WHERE r.empresa = :empresa " +
+            "AND r.funcionarioResponsavel IS NOT NULL " +
+            "AND r.dataPagamento BETWEEN :inicio AND :fim " +
+            "GROUP BY r.funcionarioResponsavel.id")
+    List<Object[]> sumByEmpresaAndDataPagamentoBetweenGroupByFuncionario(
+            @Param("empresa") Empresa empresa,
+            @Param("inicio") LocalDate inicio,
+            @Param("fim") LocalDate fim);
 }
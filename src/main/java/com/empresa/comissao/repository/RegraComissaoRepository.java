@@ -59,4 +59,11 @@ public interface RegraComissaoRepository extends JpaRepository<RegraComissao, Lo
      */
     @Query("SELECT DISTINCT r FROM RegraComissao r LEFT JOIN FETCH r.faixas WHERE r.empresa = :empresa AND r.ativo = true")
     Optional<RegraComissao> findActiveWithFaixasByEmpresa(@Param("empresa") Empresa empresa);
+
+    /**
+     * Regras da empresa com faixas carregadas (simulação).
+     */
+    @Query("SELECT DISTINCT r FROM RegraComissao r LEFT JOIN FETCH r.faixas WHERE r.empresa.id = :empresaId AND r.id IN :ids")
+    List<RegraComissao> findWithFaixasByEmpresaIdAndIdIn(@Param("empresaId") Long empresaId,
+            @Param("ids") java.util.Collection<Long> ids);
 }
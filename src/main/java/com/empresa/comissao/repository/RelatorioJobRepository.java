@@ -0,0 +1,30 @@
+package com.empresa.comissao.repository;
+
+import com.empresa.comissao.domain.entity.RelatorioJob;
+import com.empresa.comissao.domain.enums.StatusRelatorioJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RelatorioJobRepository extends JpaRepository<RelatorioJob, String> {
+
+    Optional<RelatorioJob> findFirstByChaveAndStatusNotAndExpiraEmAfterOrderByCriadoEmDesc(String chave,
+            StatusRelatorioJob status, LocalDateTime agora);
+
+    List<RelatorioJob> findByExpiraEmBefore(LocalDateTime agora, Pageable pageable);
+
+    /**
+     * Trava da chave do job até o fim da transação (advisory lock, classe
+     * 41 = V41): submissões iguais em instâncias diferentes passam uma de
+     * cada vez pela busca + criação.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(41, hashtext(:chave))", nativeQuery = true)
+    Integer travarChave(@Param("chave") String chave);
+}
@@ -0,0 +1,37 @@
+package com.empresa.comissao.repository;
+
+import com.empresa.comissao.domain.entity.ResumoFinanceiroMensal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ResumoFinanceiroMensalRepository extends JpaRepository<ResumoFinanceiroMensal, Long> {
+
+    Optional<ResumoFinanceiroMensal> findByEmpresaIdAndAnoMesReferencia(Long empresaId, YearMonth anoMesReferencia);
+
+    // ano_mes_referencia é "YYYY-MM", ordem de string = ordem cronológica
+    List<ResumoFinanceiroMensal> findByEmpresaIdAndAnoMesReferenciaBetween(Long empresaId, YearMonth desde,
+            YearMonth ate);
+
+    // Lida por query escalar para não depender do estado em memória da sessão
+    @Query("SELECT r.versao FROM ResumoFinanceiroMensal r WHERE r.empresaId = :empresaId AND r.anoMesReferencia = :anoMes")
+    Optional<Long> findVersao(@Param("empresaId") Long empresaId, @Param("anoMes") YearMonth anoMes);
+
+    /**
+     * Marca o mês como desatualizado. Retorna 0 se o resumo ainda não existe (será
+     * calculado na primeira leitura).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ResumoFinanceiroMensal r SET r.versao = r.versao + 1 " +
+            "WHERE r.empresaId = :empresaId AND r.anoMesReferencia = :anoMes")
+    int invalidar(@Param("empresaId") Long empresaId, @Param("anoMes") YearMonth anoMes);
+}
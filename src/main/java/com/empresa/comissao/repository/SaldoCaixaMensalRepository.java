@@ -0,0 +1,60 @@
+package com.empresa.comissao.repository;
+
+import com.empresa.comissao.domain.entity.SaldoCaixaMensal;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SaldoCaixaMensalRepository extends JpaRepository<SaldoCaixaMensal, Long> {
+
+    Optional<SaldoCaixaMensal> findByEmpresaIdAndAnoMesReferencia(Long empresaId, YearMonth anoMesReferencia);
+
+    // Snapshot válido mais recente antes do mês (ano_mes_referencia "YYYY-MM": ordem de string = cronológica)
+    @Query("SELECT s FROM SaldoCaixaMensal s WHERE s.empresaId = :empresaId AND s.anoMesReferencia < :anoMes " +
+            "AND s.versaoCalculada = s.versao ORDER BY s.anoMesReferencia DESC")
+    List<SaldoCaixaMensal> findValidosAntesDe(@Param("empresaId") Long empresaId,
+            @Param("anoMes") YearMonth anoMes, Pageable pageable);
+
+    // Lida por query escalar para não depender do estado em memória da sessão
+    @Query("SELECT s.versao FROM SaldoCaixaMensal s WHERE s.empresaId = :empresaId AND s.anoMesReferencia = :anoMes")
+    Optional<Long> findVersao(@Param("empresaId") Long empresaId, @Param("anoMes") YearMonth anoMes);
+
+    /**
+     * Invalida os snapshots do mês em diante (o saldo acumulado de todos eles
+     * mudou).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SaldoCaixaMensal s SET s.versao = s.versao + 1 " +
+            "WHERE s.empresaId = :empresaId AND s.anoMesReferencia >= :anoMes")
+    int invalidarAPartirDe(@Param("empresaId") Long empresaId, @Param("anoMes") YearMonth anoMes);
+
+    // Linha vazia (inválida) do mês; corrida entre duas instâncias do job resolvida pela unique
+    @Modifying
+    @Query(value = "INSERT INTO saldo_caixa_mensal (empresa_id, ano_mes_referencia) VALUES (:empresaId, :anoMes) " +
+            "ON CONFLICT (empresa_id, ano_mes_referencia) DO NOTHING", nativeQuery = true)
+    int criarSeAusente(@Param("empresaId") Long empresaId, @Param("anoMes") String anoMes);
+
+    /**
+     * Trava compartilhada da empresa até o fim da transação de escrita
+     * (advisory lock, classe 38 = V38). Escritas não esperam umas pelas outras.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock_shared(38, CAST(:empresaId AS INTEGER))", nativeQuery = true)
+    Integer travarEscrita(@Param("empresaId") Long empresaId);
+
+    /**
+     * Trava exclusiva para gravar um snapshot, sem esperar: false enquanto
+     * houver escrita da empresa em andamento.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(38, CAST(:empresaId AS INTEGER))", nativeQuery = true)
+    boolean travarRecalculo(@Param("empresaId") Long empresaId);
+}
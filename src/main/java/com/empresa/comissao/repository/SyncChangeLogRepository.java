@@ -0,0 +1,66 @@
+package com.empresa.comissao.repository;
+
+import com.empresa.comissao.domain.entity.SyncChangeLog;
+import com.empresa.comissao.domain.enums.EntidadeSync;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SyncChangeLogRepository extends JpaRepository<SyncChangeLog, Long> {
+
+    List<SyncChangeLog> findByEmpresaIdAndSeqGreaterThanOrderBySeqAsc(Long empresaId, Long seq, Pageable pageable);
+
+    // Usuário comum: mudanças de OS apenas das próprias
+    @Query("SELECT c FROM SyncChangeLog c WHERE c.empresaId = :empresaId AND c.seq > :seq " +
+            "AND (c.entidade <> :os OR c.usuarioId = :usuarioId) ORDER BY c.seq")
+    List<SyncChangeLog> findPaginaDoUsuario(@Param("empresaId") Long empresaId,
+            @Param("seq") Long seq,
+            @Param("os") EntidadeSync os,
+            @Param("usuarioId") Long usuarioId,
+            Pageable pageable);
+
+    // Entrada mais recente de cada id (responsável atual das OS)
+    @Query("SELECT c FROM SyncChangeLog c WHERE c.empresaId = :empresaId AND c.entidade = :entidade " +
+            "AND c.entidadeId IN :ids AND c.seq = (SELECT MAX(n.seq) FROM SyncChangeLog n " +
+            "WHERE n.empresaId = c.empresaId AND n.entidade = c.entidade AND n.entidadeId = c.entidadeId)")
+    List<SyncChangeLog> findUltimas(@Param("empresaId") Long empresaId,
+            @Param("entidade") EntidadeSync entidade,
+            @Param("ids") Collection<Long> ids);
+
+    /**
+     * Reserva o próximo seq do tenant e grava a mudança em um só comando, na
+     * transação do chamador ou, sem ela, na própria.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH s AS (UPDATE empresas SET sync_seq = sync_seq + 1 WHERE id = :empresaId RETURNING sync_seq) "
+            + "INSERT INTO sync_change_log (empresa_id, seq, entidade, entidade_id, operacao, usuario_id) "
+            + "SELECT :empresaId, s.sync_seq, :entidade, :entidadeId, :operacao, CAST(:usuarioId AS BIGINT) FROM s",
+            nativeQuery = true)
+    int inserirComSeq(@Param("empresaId") Long empresaId,
+            @Param("entidade") String entidade,
+            @Param("entidadeId") Long entidadeId,
+            @Param("operacao") String operacao,
+            @Param("usuarioId") Long usuarioId);
+
+    /**
+     * Remove entradas que já têm outra mais nova da mesma entidade e do mesmo
+     * usuário: quem lê seq > cursor recebe a mais nova, que reflete o estado
+     * final. O DELETE de uma OS para o responsável anterior só é substituído
+     * por outra entrada dele (o feed do usuário só vê as próprias OS).
+     */
+    @Modifying
+    @Query("DELETE FROM SyncChangeLog c WHERE EXISTS (SELECT 1 FROM SyncChangeLog n " +
+            "WHERE n.empresaId = c.empresaId AND n.entidade = c.entidade " +
+            "AND n.entidadeId = c.entidadeId AND n.seq > c.seq " +
+            "AND (n.usuarioId = c.usuarioId OR (n.usuarioId IS NULL AND c.usuarioId IS NULL)))")
+    int compactar();
+}
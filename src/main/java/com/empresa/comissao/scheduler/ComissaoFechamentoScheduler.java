@@ -0,0 +1,62 @@
+package com.empresa.comissao.scheduler;
+
+import com.empresa.comissao.service.ComissaoFechamentoService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Fechamento mensal de comissões (pré-cálculo do mês anterior).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ComissaoFechamentoScheduler {
+
+    private final ComissaoFechamentoService comissaoFechamentoService;
+
+    @Value("${comissao.fechamento.enabled:true}")
+    private boolean enabled;
+
+    // Janela (dias do mês) em que um fechamento incompleto é retomado no startup
+    @Value("${comissao.fechamento.dias-retomada:5}")
+    private int diasRetomada;
+
+    // Pré-calcular comissões do mês anterior - Dia 1º às 03:30
+    @Scheduled(cron = "${comissao.fechamento.cron:0 30 3 1 * ?}")
+    public void fecharMesAnterior() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Running job: Close Previous Month Commissions");
+        comissaoFechamentoService.fecharMes(YearMonth.now().minusMonths(1));
+    }
+
+    // Retomar fechamento interrompido (restart/deploy durante o job)
+    @EventListener(ApplicationReadyEvent.class)
+    public void retomarFechamento() {
+        if (!enabled || LocalDate.now().getDayOfMonth() > diasRetomada) {
+            return;
+        }
+        YearMonth mes = YearMonth.now().minusMonths(1);
+        Thread thread = new Thread(() -> {
+            try {
+                if (comissaoFechamentoService.isPendente(mes)) {
+                    log.info("Running job: Resume Commission Month Close {}", mes);
+                    comissaoFechamentoService.fecharMes(mes);
+                }
+            } catch (Exception e) {
+                log.error("❌ Falha ao retomar fechamento de comissões {}: {}", mes, e.getMessage());
+            }
+        }, "comissao-fechamento-retomada");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,49 @@
+package com.empresa.comissao.scheduler;
+
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.enums.StatusEmpresa;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.service.ComissaoLedgerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+/**
+ * Reconciliação noturna do ledger de comissão contra recebimentos e
+ * adiantamentos. Cobre o mês corrente e os (meses - 1) anteriores, onde
+ * lançamentos retroativos e estornos costumam cair.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ComissaoLedgerScheduler {
+
+    private final ComissaoLedgerService comissaoLedgerService;
+    private final EmpresaRepository empresaRepository;
+
+    @Value("${comissao.ledger.reconcile.months:3}")
+    private int meses;
+
+    // Todos os dias às 04:30
+    @Scheduled(cron = "${comissao.ledger.reconcile.cron:0 30 4 * * ?}")
+    public void reconciliarLedger() {
+        log.info("Running job: Reconcile Commission Ledger");
+
+        YearMonth atual = YearMonth.now();
+        int corrigidas = 0;
+        for (Empresa empresa : empresaRepository.findByStatus(StatusEmpresa.ATIVA)) {
+            for (int i = 0; i < meses; i++) {
+                try {
+                    corrigidas += comissaoLedgerService.reconciliar(empresa, atual.minusMonths(i));
+                } catch (Exception e) {
+                    log.error("❌ Falha ao reconciliar ledger da empresa {}: {}", empresa.getId(), e.getMessage());
+                }
+            }
+        }
+        log.info("✅ Reconciliação do ledger concluída. Linhas corrigidas: {}", corrigidas);
+    }
+}
@@ -0,0 +1,22 @@
+package com.empresa.comissao.scheduler;
+
+import com.empresa.comissao.service.RelatorioJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RelatorioJobScheduler {
+
+    private final RelatorioJobService relatorioJobService;
+
+    // Apagar jobs de PDF expirados e seus arquivos - A cada 10 minutos
+    @Scheduled(cron = "${relatorio.jobs.limpeza-cron:0 */10 * * * ?}")
+    public void limparJobsExpirados() {
+        log.debug("Running job: Clean expired report jobs");
+        relatorioJobService.limparExpirados();
+    }
+}
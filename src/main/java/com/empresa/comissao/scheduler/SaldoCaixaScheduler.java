@@ -0,0 +1,43 @@
+package com.empresa.comissao.scheduler;
+
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.enums.StatusEmpresa;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.service.SaldoCaixaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Grava o snapshot de caixa do último mês fechado de cada empresa (criado na
+ * virada do mês ou invalidado por escrita retroativa). As leituras só
+ * consultam snapshots; nunca gravam.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SaldoCaixaScheduler {
+
+    private final SaldoCaixaService saldoCaixaService;
+    private final EmpresaRepository empresaRepository;
+
+    // Todos os dias às 04:45
+    @Scheduled(cron = "${financeiro.saldo-caixa.snapshot-cron:0 45 4 * * ?}")
+    public void atualizarSnapshots() {
+        log.info("Running job: Update cash balance snapshots");
+
+        int adiadas = 0;
+        for (Empresa empresa : empresaRepository.findByStatus(StatusEmpresa.ATIVA)) {
+            try {
+                if (!saldoCaixaService.atualizarSnapshot(empresa)) {
+                    adiadas++;
+                }
+            } catch (Exception e) {
+                log.error("❌ Falha ao atualizar snapshot de caixa da empresa {}: {}", empresa.getId(),
+                        e.getMessage());
+            }
+        }
+        log.info("✅ Snapshots de caixa atualizados. Empresas adiadas (escrita em andamento): {}", adiadas);
+    }
+}
@@ -0,0 +1,22 @@
+package com.empresa.comissao.scheduler;
+
+import com.empresa.comissao.service.SyncChangeLogService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SyncChangeLogScheduler {
+
+    private final SyncChangeLogService syncChangeLogService;
+
+    // Compactar change log do sync - Diariamente às 04:15
+    @Scheduled(cron = "${sync.changelog.compactacao-cron:0 15 4 * * ?}")
+    public void compactarChangeLog() {
+        log.info("Running job: Compact sync change log");
+        syncChangeLogService.compactar();
+    }
+}
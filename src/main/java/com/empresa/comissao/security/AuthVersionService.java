@@ -1,11 +1,14 @@
 package com.empresa.comissao.security;
 
+import com.empresa.comissao.cache.InvalidationBus;
 import com.empresa.comissao.domain.enums.StatusEmpresa;
 import com.empresa.comissao.domain.enums.StatusLicenca;
 import com.empresa.comissao.repository.EmpresaRepository;
 import com.empresa.comissao.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
@@ -14,14 +17,33 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class AuthVersionService {
 
+    public static final String USER_AUTH_CACHE = "userAuthVersion";
+    public static final String TENANT_ACCESS_CACHE = "tenantAccessVersion";
+
     private final UserRepository userRepository;
     private final EmpresaRepository empresaRepository;
+    private final InvalidationBus invalidationBus;
+    private final CacheManager cacheManager;
+
+    /**
+     * Tópicos dos caches de auth no bus (evict em todos os nós).
+     */
+    @PostConstruct
+    void registrarInvalidacao() {
+        for (String nome : new String[] { USER_AUTH_CACHE, TENANT_ACCESS_CACHE }) {
+            org.springframework.cache.Cache cache = cacheManager.getCache(nome);
+            if (cache != null) {
+                invalidationBus.subscribeCache(cache);
+            }
+        }
+    }
 
     /**
-     * Busca versão de auth do usuário (cacheado por 60s).
+     * Busca versão de auth do usuário (cacheado; invalidado em todos os nós via
+     * {@link InvalidationBus}).
      * Cache miss → 1 query leve (SELECT id, auth_version, active).
      */
-    @Cacheable(value = "userAuthVersion", key = "#userId", unless = "#result == null")
+    @Cacheable(value = USER_AUTH_CACHE, key = "#userId", unless = "#result == null")
     public UserAuthSnapshot getUserAuthVersion(Long userId) {
         log.debug("[AuthCache] Cache miss para userId={}", userId);
 
@@ -35,11 +57,12 @@ public class AuthVersionService {
     }
 
     /**
-     * Busca versão de tenant (cacheado por 60s).
+     * Busca versão de tenant (cacheado; invalidado em todos os nós via
+     * {@link InvalidationBus}).
      * Cache miss → 1 query leve (SELECT id, tenant_version, status,
      * licenca_status).
      */
-    @Cacheable(value = "tenantAccessVersion", key = "#tenantId", unless = "#result == null")
+    @Cacheable(value = TENANT_ACCESS_CACHE, key = "#tenantId", unless = "#result == null")
     public TenantAccessSnapshot getTenantAccessVersion(Long tenantId) {
         log.debug("[AuthCache] Cache miss para tenantId={}", tenantId);
 
@@ -56,20 +79,22 @@ public class AuthVersionService {
      * Incrementa versão de auth (força invalidação de tokens).
      * Chamado quando: role muda, permissões mudam, usuário desativado, etc.
      */
-    @org.springframework.cache.annotation.CacheEvict(value = "userAuthVersion", key = "#userId")
+    @org.springframework.cache.annotation.CacheEvict(value = USER_AUTH_CACHE, key = "#userId")
     public void incrementUserAuthVersion(Long userId) {
         log.info("[AuthInvalidate] Incrementando auth_version para userId={}", userId);
         userRepository.incrementAuthVersion(userId);
+        invalidationBus.publish(USER_AUTH_CACHE, userId);
     }
 
     /**
      * Incrementa versão de tenant (força invalidação de tokens).
      * Chamado quando: plano muda, empresa bloqueada, licença suspensa, etc.
      */
-    @org.springframework.cache.annotation.CacheEvict(value = "tenantAccessVersion", key = "#tenantId")
+    @org.springframework.cache.annotation.CacheEvict(value = TENANT_ACCESS_CACHE, key = "#tenantId")
     public void incrementTenantVersion(Long tenantId) {
         log.info("[AuthInvalidate] Incrementando tenant_version para tenantId={}", tenantId);
         empresaRepository.incrementTenantVersion(tenantId);
+        invalidationBus.publish(TENANT_ACCESS_CACHE, tenantId);
     }
 
     // ===== DTOs para snapshots leves =====
@@ -1,9 +1,9 @@
 package com.empresa.comissao.security;
 
+import com.empresa.comissao.config.TenantAccessContext;
 import com.empresa.comissao.config.TenantContext;
 import com.empresa.comissao.domain.enums.StatusEmpresa;
 import com.empresa.comissao.domain.enums.StatusLicenca;
-import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -55,52 +55,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             jwt = authHeader.substring(7);
         }
 
-        // 2) Validar assinatura + expiração
-        if (!jwtService.isTokenValid(jwt)) {
+        // 2) Validar assinatura + expiração (1 parse; hit no cache = 0 parses)
+        VerifiedToken token = jwtService.verify(jwt);
+        if (token == null) {
             log.warn("[JWT] Token inválido ou expirado");
-            // Proceed without auth (let Spring Security handle 401 if needed) or return 401
-            // immediately?
-            // Usually if token is invalid but present, we might want to return 401.
-            // But strict standard is: if auth fails, context is empty. Endpoints protected
-            // by config will fail.
-            // However, blueprint says "return 401".
-            // Let's keep it safe: continue filter chain but with empty context.
-            // OR if the blueprint explicitly wrote response...
-            // Blueprint: response.setStatus(HttpServletResponse.SC_UNAUTHORIZED); return;
-            // This is "gatekeeper" style.
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("{\"error\": \"Token inválido ou expirado\"}");
             return;
         }
 
-        // 3) Extrair userId (subject)
-        userId = jwtService.extractUserId(jwt);
-        if (userId == null) {
-            log.warn("[JWT] Não conseguiu extrair userId do token");
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.getWriter().write("{\"error\": \"Token malformado\"}");
-            return;
-        }
-
-        // 4) Extrair claims do token
-        Claims claims = jwtService.extractAllClaims(jwt);
-        Long tenantId = claims.get("tid", Long.class);
-        Integer userVersionToken = claims.get("v_u", Integer.class);
-
-        // Fix: Handle v_t as Long safely (it might be Integer in token)
-        Number tenantVersionClaim = claims.get("v_t", Number.class);
-        Long tenantVersionToken = tenantVersionClaim != null ? tenantVersionClaim.longValue() : null;
-
-        @SuppressWarnings("unchecked")
-        List<String> rolesToken = (List<String>) claims.get("roles");
-        @SuppressWarnings("unchecked")
-        List<String> featsToken = (List<String>) claims.get("feats");
-        String email = claims.get("email", String.class);
+        // 3) Extrair claims do snapshot verificado
+        userId = token.userId();
+        Long tenantId = token.tenantId();
+        Integer userVersionToken = token.userVersion();
+        Long tenantVersionToken = token.tenantVersion();
+        List<String> rolesToken = token.roles();
+        List<String> featsToken = token.features();
+        String email = token.email();
 
         log.debug("[JWT] Token extraído: userId={}, tenantId={}, roles={}, features={}",
                 userId, tenantId, rolesToken, featsToken);
 
-        // 5) ✅ VALIDAR VERSÃO DE AUTH (cache hit esperado)
+        // 4) ✅ VALIDAR VERSÃO DE AUTH (cache hit esperado)
         AuthVersionService.UserAuthSnapshot userSnapshot = authVersionService.getUserAuthVersion(userId);
         if (userSnapshot == null || !userSnapshot.isActive()) {
             log.warn("[JWT] Usuário não encontrado ou inativo: userId={}", userId);
@@ -123,10 +99,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        // 6) ✅ VALIDAR VERSÃO DE TENANT (cache hit esperado)
+        // 5) ✅ VALIDAR VERSÃO DE TENANT (cache hit esperado)
+        AuthVersionService.TenantAccessSnapshot tenantSnapshot = null;
         if (tenantId != null) {
-            AuthVersionService.TenantAccessSnapshot tenantSnapshot = authVersionService
-                    .getTenantAccessVersion(tenantId);
+            tenantSnapshot = authVersionService.getTenantAccessVersion(tenantId);
             if (tenantSnapshot == null) {
                 log.warn("[JWT] Tenant não encontrado: tenantId={}", tenantId);
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -162,15 +138,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             TenantContext.setCurrentTenant(tenantId);
         }
 
-        // 7) ✅ MONTAR AUTHENTICATION (sem carregar User do banco)
+        // Publicar snapshots para interceptor/controllers (evita nova consulta no request)
+        TenantAccessContext.set(userSnapshot, tenantSnapshot);
+
+        // 6) ✅ MONTAR AUTHENTICATION (sem carregar User do banco)
         List<GrantedAuthority> authorities = rolesToken.stream()
                 .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
 
         // Adicionar features como authorities
-        if (featsToken != null) {
-            featsToken.forEach(feat -> authorities.add(new SimpleGrantedAuthority("FEATURE_" + feat)));
-        }
+        featsToken.forEach(feat -> authorities.add(new SimpleGrantedAuthority("FEATURE_" + feat)));
 
         // Criar principal leve (DTO, não Entity)
         AuthPrincipal principal = new AuthPrincipal(userId, email, tenantId);
@@ -189,6 +166,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             filterChain.doFilter(request, response);
         } finally {
             TenantContext.clear();
+            TenantAccessContext.clear();
         }
     }
 
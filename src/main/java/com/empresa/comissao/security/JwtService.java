@@ -2,18 +2,29 @@ package com.empresa.comissao.security;
 
 import com.empresa.comissao.domain.entity.Feature;
 import com.empresa.comissao.domain.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -32,16 +43,88 @@ public class JwtService {
     @Value("${security.jwt.expiration:86400000}") // 24h default
     private long jwtExpiration;
 
+    @Value("${security.jwt.verified-cache-size:10000}")
+    private long verifiedCacheSize;
+
+    private final MeterRegistry meterRegistry;
+
+    // Construídos uma vez: chave HMAC e parser são imutáveis e thread-safe
+    private Key signInKey;
+    private JwtParser parser;
+
     /**
-     * Extrai userId (subject) do token.
+     * Digest SHA-256 do token → claims já verificadas.
+     * Polling do mobile reenvia o mesmo token; hit evita HMAC + parse JSON.
      */
-    public Long extractUserId(String token) {
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfterWrite(java.time.Duration.ofMillis(jwtExpiration))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtVerifiedTokens");
+    }
+
+    /**
+     * Verifica assinatura + expiração com UM único parse e devolve snapshot
+     * imutável das claims. Retorna null se o token for inválido.
+     */
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        Instant now = Instant.now();
+
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            verifiedTokens.invalidate(digest);
+            return null;
+        }
+
+        final Claims claims;
+        try {
+            claims = extractAllClaims(token); // parseClaimsJws já rejeita expirados
+        } catch (Exception e) {
+            log.warn("[JWT] Token inválido: {}", e.getMessage());
+            return null;
+        }
+
+        Long userId;
         try {
-            return Long.parseLong(extractClaim(token, Claims::getSubject));
+            userId = Long.parseLong(claims.getSubject());
         } catch (NumberFormatException e) {
-            log.warn("Token com subject inválido (não é Long): {}", extractClaim(token, Claims::getSubject));
+            log.warn("Token com subject inválido (não é Long): {}", claims.getSubject());
             return null;
         }
+
+        VerifiedToken verified = new VerifiedToken(
+                userId,
+                toLong(claims.get("tid", Number.class)),
+                claims.get("v_u", Integer.class),
+                toLong(claims.get("v_t", Number.class)),
+                stringList(claims.get("roles")),
+                stringList(claims.get("feats")),
+                claims.get("email", String.class),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+
+        verifiedTokens.put(digest, verified);
+        return verified;
+    }
+
+    /**
+     * Extrai userId (subject) do token.
+     */
+    public Long extractUserId(String token) {
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.userId() : null;
     }
 
     /**
@@ -104,7 +187,7 @@ public class JwtService {
                 .setSubject(subject) // userId como string
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -113,33 +196,31 @@ public class JwtService {
      * ✅ NOVO: Não valida contra UserDetails (isso vem depois no filtro).
      */
     public boolean isTokenValid(String token) {
-        try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            log.warn("[JWT] Token inválido: {}", e.getMessage());
-            return false;
-        }
+        return verify(token) != null;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
     }
 
-    public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static Long toLong(Number value) {
+        return value != null ? value.longValue() : null;
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static List<String> stringList(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return List.of();
+        }
+        return list.stream().map(String::valueOf).collect(Collectors.toList());
     }
 }
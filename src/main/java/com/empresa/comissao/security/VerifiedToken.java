@@ -0,0 +1,30 @@
+package com.empresa.comissao.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Snapshot imutável das claims de um JWT já verificado (assinatura +
+ * expiração).
+ * Produzido uma única vez por {@link JwtService#verify(String)} e reutilizado
+ * pelo filtro, sem novos parses.
+ */
+public record VerifiedToken(
+        Long userId,
+        Long tenantId,
+        Integer userVersion,
+        Long tenantVersion,
+        List<String> roles,
+        List<String> features,
+        String email,
+        Instant expiresAt) {
+
+    public VerifiedToken {
+        roles = roles != null ? List.copyOf(roles) : List.of();
+        features = features != null ? List.copyOf(features) : List.of();
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
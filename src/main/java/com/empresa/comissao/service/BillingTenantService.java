@@ -29,6 +29,7 @@ public class BillingTenantService {
     private final EmpresaRepository empresaRepository;
     private final LicencaRepository licencaRepository;
     private final PaymentGatewayFactory gatewayFactory;
+    private final com.empresa.comissao.security.AuthVersionService authVersionService;
     // private final EmailService emailService;
 
     /**
@@ -116,6 +117,7 @@ public class BillingTenantService {
             if (empresa.getStatus() == StatusEmpresa.ATIVA) {
                 empresa.setStatus(StatusEmpresa.BLOQUEADA);
                 empresaRepository.save(empresa);
+                authVersionService.incrementTenantVersion(empresa.getId());
 
                 // Atualizar status da fatura
                 fatura.setStatus(StatusFatura.VENCIDO);
@@ -154,7 +154,7 @@ public class ClienteService {
             c.setCorrelationId(r.getCorrelationId());
     }
 
-    private ClienteResponse mapToResponse(Cliente c) {
+    ClienteResponse mapToResponse(Cliente c) {
         return ClienteResponse.builder()
                 .id(c.getId())
                 .razaoSocial(c.getRazaoSocial())
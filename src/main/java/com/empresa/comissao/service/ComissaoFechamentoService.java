@@ -0,0 +1,242 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.ComissaoFechamento;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.enums.ModoComissao;
+import com.empresa.comissao.domain.enums.StatusEmpresa;
+import com.empresa.comissao.domain.enums.StatusFechamento;
+import com.empresa.comissao.repository.ComissaoFechamentoRepository;
+import com.empresa.comissao.repository.EmpresaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fechamento mensal: pré-calcula as ComissaoCalculada do mês anterior de
+ * todas as empresas ativas, para que a tela de comissões não recalcule no
+ * request nos primeiros dias do mês.
+ *
+ * - Particionado por empresa: cada empresa é 1 transação (cálculo em lote de
+ * toda a equipe + consolidada no modo COLETIVA).
+ * - Throttle: no máximo comissao.fechamento.max-conexoes workers, cada um com 1
+ * conexão por vez (pool Hikari = 5), e pausa entre empresas.
+ * - Retomável: progresso em comissao_fechamento. Após restart, empresas
+ * CONCLUIDO são puladas; EM_ANDAMENTO expirado é retomado.
+ */
+@Service
+@Slf4j
+public class ComissaoFechamentoService {
+
+    private final ComissaoService comissaoService;
+    private final EmpresaRepository empresaRepository;
+    private final ComissaoFechamentoRepository fechamentoRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int maxConexoes;
+    private final long pausaMs;
+    private final long expiracaoMinutos;
+
+    private final AtomicBoolean executando = new AtomicBoolean(false);
+    private final AtomicInteger empresasTotal = new AtomicInteger();
+    private final AtomicInteger empresasProcessadas = new AtomicInteger();
+    private final Counter concluidas;
+    private final Counter falhas;
+    private final Timer tempoPorEmpresa;
+
+    public ComissaoFechamentoService(ComissaoService comissaoService,
+            EmpresaRepository empresaRepository,
+            ComissaoFechamentoRepository fechamentoRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${comissao.fechamento.max-conexoes:2}") int maxConexoes,
+            @Value("${comissao.fechamento.pausa-ms:200}") long pausaMs,
+            @Value("${comissao.fechamento.expiracao-minutos:30}") long expiracaoMinutos) {
+        this.comissaoService = comissaoService;
+        this.empresaRepository = empresaRepository;
+        this.fechamentoRepository = fechamentoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxConexoes = Math.max(1, maxConexoes);
+        this.pausaMs = pausaMs;
+        this.expiracaoMinutos = expiracaoMinutos;
+
+        meterRegistry.gauge("comissao.fechamento.empresas.total", empresasTotal);
+        meterRegistry.gauge("comissao.fechamento.empresas.processadas", empresasProcessadas);
+        this.concluidas = meterRegistry.counter("comissao.fechamento.empresas", "result", "concluido");
+        this.falhas = meterRegistry.counter("comissao.fechamento.empresas", "result", "erro");
+        this.tempoPorEmpresa = meterRegistry.timer("comissao.fechamento.empresa.tempo");
+    }
+
+    /**
+     * Resumo de uma execução.
+     */
+    public record Resultado(YearMonth mes, int total, int concluidas, int falhas, int puladas) {
+    }
+
+    /**
+     * Executa (ou retoma) o fechamento de um mês. Chamadas concorrentes no mesmo
+     * nó são ignoradas.
+     */
+    public Resultado fecharMes(YearMonth mes) {
+        if (!executando.compareAndSet(false, true)) {
+            log.info("⏭️ Fechamento de comissões já em execução neste nó; ignorando {}", mes);
+            return new Resultado(mes, 0, 0, 0, 0);
+        }
+        ExecutorService executor = null;
+        try {
+            List<ComissaoFechamento> pendentes = prepararMes(mes);
+            int total = fechamentoRepository.findByAnoMesReferencia(mes).size();
+            int jaConcluidas = total - pendentes.size();
+
+            empresasTotal.set(total);
+            empresasProcessadas.set(jaConcluidas);
+            log.info("📅 Fechamento de comissões {}: {} empresas ({} já concluídas, {} workers)",
+                    mes, total, jaConcluidas, maxConexoes);
+
+            AtomicInteger ok = new AtomicInteger();
+            AtomicInteger erro = new AtomicInteger();
+            AtomicInteger puladas = new AtomicInteger();
+
+            AtomicInteger seq = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(Math.min(maxConexoes, Math.max(1, pendentes.size())), r -> {
+                Thread t = new Thread(r, "comissao-fechamento-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (ComissaoFechamento f : pendentes) {
+                futures.add(executor.submit(() -> {
+                    switch (processar(f)) {
+                        case CONCLUIDO -> ok.incrementAndGet();
+                        case ERRO -> erro.incrementAndGet();
+                        default -> puladas.incrementAndGet();
+                    }
+                    pausar();
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (java.util.concurrent.ExecutionException e) {
+                    log.error("❌ Worker de fechamento falhou: {}", e.getCause().getMessage());
+                }
+            }
+
+            Resultado resultado = new Resultado(mes, total, ok.get(), erro.get(), puladas.get());
+            log.info("✅ Fechamento de comissões {} finalizado: {}", mes, resultado);
+            return resultado;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("⚠️ Fechamento de comissões {} interrompido; será retomado na próxima execução", mes);
+            return new Resultado(mes, empresasTotal.get(), 0, 0, 0);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            executando.set(false);
+        }
+    }
+
+    /**
+     * Garante 1 linha de progresso por empresa ativa e devolve as não
+     * concluídas.
+     */
+    private List<ComissaoFechamento> prepararMes(YearMonth mes) {
+        Set<Long> existentes = new HashSet<>();
+        for (ComissaoFechamento f : fechamentoRepository.findByAnoMesReferencia(mes)) {
+            existentes.add(f.getEmpresaId());
+        }
+        for (Empresa empresa : empresaRepository.findByStatus(StatusEmpresa.ATIVA)) {
+            if (existentes.contains(empresa.getId())) {
+                continue;
+            }
+            try {
+                fechamentoRepository.saveAndFlush(ComissaoFechamento.builder()
+                        .anoMesReferencia(mes)
+                        .empresaId(empresa.getId())
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Progresso de fechamento já criado por outro nó: empresa {}", empresa.getId());
+            }
+        }
+        return fechamentoRepository.findByAnoMesReferenciaAndStatusNot(mes, StatusFechamento.CONCLUIDO);
+    }
+
+    StatusFechamento processar(ComissaoFechamento fechamento) {
+        LocalDateTime agora = LocalDateTime.now();
+        if (fechamentoRepository.reservar(fechamento.getId(), agora, agora.minusMinutes(expiracaoMinutos)) == 0) {
+            return StatusFechamento.EM_ANDAMENTO; // outro worker/nó está com ela (ou já concluiu)
+        }
+
+        YearMonth mes = fechamento.getAnoMesReferencia();
+        Timer.Sample sample = Timer.start();
+        try {
+            Integer quantidade = transactionTemplate.execute(status -> {
+                Empresa empresa = empresaRepository.findById(fechamento.getEmpresaId()).orElse(null);
+                if (empresa == null) {
+                    return 0;
+                }
+                int n = comissaoService
+                        .listarComissoesEmpresa(mes.getYear(), mes.getMonthValue(), empresa, true).size();
+                if (empresa.getModoComissao() == ModoComissao.COLETIVA) {
+                    comissaoService.calcularComissaoEmpresaMensal(mes.getYear(), mes.getMonthValue(), empresa,
+                            true);
+                    n++;
+                }
+                return n;
+            });
+            fechamentoRepository.concluir(fechamento.getId(), LocalDateTime.now(),
+                    quantidade != null ? quantidade : 0);
+            concluidas.increment();
+            return StatusFechamento.CONCLUIDO;
+        } catch (Exception e) {
+            log.error("❌ Falha no fechamento de comissões da empresa {} ({}): {}",
+                    fechamento.getEmpresaId(), mes, e.getMessage());
+            String msg = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            fechamentoRepository.registrarErro(fechamento.getId(), msg.length() > 500 ? msg.substring(0, 500) : msg);
+            falhas.increment();
+            return StatusFechamento.ERRO;
+        } finally {
+            sample.stop(tempoPorEmpresa);
+            empresasProcessadas.incrementAndGet();
+        }
+    }
+
+    /**
+     * O mês ainda não foi iniciado ou tem empresas não concluídas?
+     */
+    public boolean isPendente(YearMonth mes) {
+        List<ComissaoFechamento> progresso = fechamentoRepository.findByAnoMesReferencia(mes);
+        return progresso.isEmpty()
+                || progresso.stream().anyMatch(f -> f.getStatus() != StatusFechamento.CONCLUIDO);
+    }
+
+    private void pausar() {
+        if (pausaMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pausaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
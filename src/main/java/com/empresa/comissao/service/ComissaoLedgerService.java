@@ -0,0 +1,219 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.ComissaoLedger;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.User;
+import com.empresa.comissao.repository.ComissaoLedgerRepository;
+import com.empresa.comissao.repository.PagamentoAdiantadoRepository;
+import com.empresa.comissao.repository.RecebimentoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ledger incremental da base de comissão (tabela comissao_ledger).
+ *
+ * Escritas: chamadas na MESMA transação que grava/estorna Recebimentos e
+ * Adiantamentos (propagation MANDATORY), via upsert atômico de soma.
+ * Leituras: 1 linha por (empresa, funcionário, mês), substituindo os SUMs sobre
+ * recebimentos/pagamentos_adiantados no cálculo de comissão.
+ *
+ * {@link #reconciliar(Empresa, YearMonth)} compara o ledger com as tabelas de
+ * origem e corrige divergências (ver ComissaoLedgerScheduler).
+ */
+@Service
+@Slf4j
+public class ComissaoLedgerService {
+
+    private final ComissaoLedgerRepository ledgerRepository;
+    private final RecebimentoRepository recebimentoRepository;
+    private final PagamentoAdiantadoRepository pagamentoAdiantadoRepository;
+    private final Counter divergencias;
+
+    public ComissaoLedgerService(ComissaoLedgerRepository ledgerRepository,
+            RecebimentoRepository recebimentoRepository,
+            PagamentoAdiantadoRepository pagamentoAdiantadoRepository,
+            MeterRegistry meterRegistry) {
+        this.ledgerRepository = ledgerRepository;
+        this.recebimentoRepository = recebimentoRepository;
+        this.pagamentoAdiantadoRepository = pagamentoAdiantadoRepository;
+        this.divergencias = meterRegistry.counter("comissao.ledger.divergencias");
+    }
+
+    /**
+     * Totais do ledger para um mês. Linha inexistente = nada lançado.
+     */
+    public record Totais(BigDecimal recebido, BigDecimal adiantamentos) {
+        public static final Totais ZERO = new Totais(BigDecimal.ZERO, BigDecimal.ZERO);
+
+        static Totais of(ComissaoLedger l) {
+            return new Totais(l.getTotalRecebido(), l.getTotalAdiantamentos());
+        }
+    }
+
+    // ========================================
+    // ESCRITAS (delta na transação do chamador)
+    // ========================================
+
+    /**
+     * Lança um recebimento (valor positivo) ou estorno (valor negativo) no total
+     * da empresa e do funcionário responsável.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarRecebimento(Empresa empresa, User funcionario, LocalDate dataPagamento, BigDecimal valor) {
+        if (empresa == null || dataPagamento == null || valor == null) {
+            return;
+        }
+        YearMonth mes = YearMonth.from(dataPagamento);
+        somar(empresa.getId(), ComissaoLedger.EMPRESA_TOTAL, mes, valor, BigDecimal.ZERO);
+        if (funcionario != null) {
+            somar(empresa.getId(), funcionario.getId(), mes, valor, BigDecimal.ZERO);
+        }
+    }
+
+    /**
+     * Lança um adiantamento no total da empresa e do funcionário.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarAdiantamento(Empresa empresa, User usuario, LocalDate dataPagamento, BigDecimal valor) {
+        if (empresa == null || usuario == null || dataPagamento == null || valor == null) {
+            return;
+        }
+        YearMonth mes = YearMonth.from(dataPagamento);
+        somar(empresa.getId(), ComissaoLedger.EMPRESA_TOTAL, mes, BigDecimal.ZERO, valor);
+        somar(empresa.getId(), usuario.getId(), mes, BigDecimal.ZERO, valor);
+    }
+
+    private void somar(Long empresaId, Long funcionarioId, YearMonth mes, BigDecimal recebido,
+            BigDecimal adiantamentos) {
+        // Cria a linha na primeira movimentação do mês; uma única instrução, sem
+        // corrida entre consulta e insert
+        ledgerRepository.somar(empresaId, funcionarioId, mes.toString(), recebido, adiantamentos);
+    }
+
+    // ========================================
+    // LEITURAS
+    // ========================================
+
+    @Transactional(readOnly = true)
+    public Totais getTotaisEmpresa(Empresa empresa, YearMonth mes) {
+        return getTotais(empresa.getId(), ComissaoLedger.EMPRESA_TOTAL, mes);
+    }
+
+    @Transactional(readOnly = true)
+    public Totais getTotaisFuncionario(Empresa empresa, User funcionario, YearMonth mes) {
+        return getTotais(empresa.getId(), funcionario.getId(), mes);
+    }
+
+    private Totais getTotais(Long empresaId, Long funcionarioId, YearMonth mes) {
+        return ledgerRepository.findByEmpresaIdAndFuncionarioIdAndAnoMesReferencia(empresaId, funcionarioId, mes)
+                .map(Totais::of)
+                .orElse(Totais.ZERO);
+    }
+
+    /**
+     * Todas as linhas do mês (funcionarioId → totais), incluindo
+     * {@link ComissaoLedger#EMPRESA_TOTAL}. 1 query para a equipe inteira.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Totais> getTotaisMes(Empresa empresa, YearMonth mes) {
+        Map<Long, Totais> totais = new HashMap<>();
+        for (ComissaoLedger l : ledgerRepository.findByEmpresaIdAndAnoMesReferencia(empresa.getId(), mes)) {
+            totais.put(l.getFuncionarioId(), Totais.of(l));
+        }
+        return totais;
+    }
+
+    // ========================================
+    // RECONCILIAÇÃO
+    // ========================================
+
+    /**
+     * Recalcula o mês a partir de recebimentos/pagamentos_adiantados e corrige as
+     * linhas divergentes. As linhas existentes ficam bloqueadas (FOR UPDATE)
+     * durante a comparação, então escritas concorrentes entram antes ou depois
+     * por inteiro.
+     *
+     * @return quantidade de linhas corrigidas
+     */
+    @Transactional
+    public int reconciliar(Empresa empresa, YearMonth mes) {
+        Map<Long, ComissaoLedger> ledger = new HashMap<>();
+        for (ComissaoLedger l : ledgerRepository.findForUpdate(empresa.getId(), mes)) {
+            ledger.put(l.getFuncionarioId(), l);
+        }
+
+        LocalDate inicio = mes.atDay(1);
+        LocalDate fim = mes.atEndOfMonth();
+
+        Map<Long, Totais> esperado = new HashMap<>();
+        esperado.put(ComissaoLedger.EMPRESA_TOTAL, new Totais(
+                recebimentoRepository.sumByEmpresaAndDataPagamentoBetween(empresa, inicio, fim),
+                pagamentoAdiantadoRepository.sumValorByDataPagamentoBetweenAndEmpresa(inicio, fim, empresa)
+                        .orElse(BigDecimal.ZERO)));
+        acumular(esperado, recebimentoRepository
+                .sumByEmpresaAndDataPagamentoBetweenGroupByFuncionario(empresa, inicio, fim), true);
+        acumular(esperado, pagamentoAdiantadoRepository
+                .sumValorByEmpresaAndDataPagamentoBetweenGroupByUsuario(empresa, inicio, fim), false);
+
+        // Linhas do ledger sem origem devem ficar zeradas
+        ledger.keySet().forEach(id -> esperado.putIfAbsent(id, Totais.ZERO));
+
+        int corrigidas = 0;
+        for (Map.Entry<Long, Totais> e : esperado.entrySet()) {
+            Totais valor = e.getValue();
+            ComissaoLedger linha = ledger.get(e.getKey());
+            if (linha == null) {
+                if (valor.recebido().signum() == 0 && valor.adiantamentos().signum() == 0) {
+                    continue;
+                }
+                linha = ComissaoLedger.builder()
+                        .empresaId(empresa.getId())
+                        .funcionarioId(e.getKey())
+                        .anoMesReferencia(mes)
+                        .build();
+            } else if (linha.getTotalRecebido().compareTo(valor.recebido()) == 0
+                    && linha.getTotalAdiantamentos().compareTo(valor.adiantamentos()) == 0) {
+                continue;
+            }
+
+            log.warn("⚠️ Ledger de comissão divergente (empresa={}, funcionario={}, mes={}): " +
+                    "recebido {} → {}, adiantamentos {} → {}",
+                    empresa.getId(), e.getKey(), mes,
+                    linha.getTotalRecebido(), valor.recebido(),
+                    linha.getTotalAdiantamentos(), valor.adiantamentos());
+            linha.setTotalRecebido(valor.recebido());
+            linha.setTotalAdiantamentos(valor.adiantamentos());
+            ledgerRepository.save(linha);
+            corrigidas++;
+        }
+
+        if (corrigidas > 0) {
+            divergencias.increment(corrigidas);
+        }
+        return corrigidas;
+    }
+
+    private static void acumular(Map<Long, Totais> esperado, List<Object[]> linhas, boolean recebido) {
+        for (Object[] linha : linhas) {
+            if (linha[0] == null) {
+                continue;
+            }
+            Long id = ((Number) linha[0]).longValue();
+            BigDecimal valor = linha[1] != null ? (BigDecimal) linha[1] : BigDecimal.ZERO;
+            Totais atual = esperado.getOrDefault(id, Totais.ZERO);
+            esperado.put(id, recebido ? new Totais(valor, atual.adiantamentos())
+                    : new Totais(atual.recebido(), valor));
+        }
+    }
+}
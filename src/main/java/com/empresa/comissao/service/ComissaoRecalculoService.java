@@ -0,0 +1,234 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.ComissaoCalculada;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.User;
+import com.empresa.comissao.dto.response.RecalculoComissaoResponse;
+import com.empresa.comissao.exception.BusinessException;
+import com.empresa.comissao.repository.ComissaoCalculadaRepository;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recálculo em cascata das comissões a partir de um mês.
+ *
+ * O saldo negativo de um mês entra como saldoAnterior do mês seguinte, então
+ * recalcular março deixa abril..dezembro desatualizados. Aqui cada cadeia
+ * (funcionário ou comissão consolidada da empresa) é recalculada em ordem
+ * cronológica, um mês por transação, para que o mês seguinte leia o carryover
+ * já gravado. Cadeias diferentes rodam em paralelo, limitadas por
+ * comissao.recalculo.paralelismo (abaixo do pool Hikari).
+ *
+ * Apenas meses que já possuem ComissaoCalculada são recalculados.
+ */
+@Service
+@Slf4j
+public class ComissaoRecalculoService {
+
+    private final ComissaoService comissaoService;
+    private final ComissaoCalculadaRepository comissaoCalculadaRepository;
+    private final EmpresaRepository empresaRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final ExecutorService executor;
+
+    public ComissaoRecalculoService(ComissaoService comissaoService,
+            ComissaoCalculadaRepository comissaoCalculadaRepository,
+            EmpresaRepository empresaRepository,
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${comissao.recalculo.paralelismo:3}") int paralelismo) {
+        this.comissaoService = comissaoService;
+        this.comissaoCalculadaRepository = comissaoCalculadaRepository;
+        this.empresaRepository = empresaRepository;
+        this.userRepository = userRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, paralelismo), r -> {
+            Thread t = new Thread(r, "comissao-recalculo-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Estado de uma ComissaoCalculada antes do recálculo.
+     */
+    private record Snapshot(Long comissaoId, YearMonth mes, BigDecimal saldoAnterior, BigDecimal valorBruto,
+            BigDecimal saldoAReceber) {
+    }
+
+    /**
+     * Cadeia de meses de um funcionário (usuario == null: consolidada da empresa).
+     */
+    private record Cadeia(User usuario, List<Snapshot> meses) {
+    }
+
+    private record ResultadoCadeia(List<RecalculoComissaoResponse.Alteracao> alteracoes, int recalculadas,
+            String erro) {
+    }
+
+    public RecalculoComissaoResponse recalcularEmCascata(Long empresaId, YearMonth desde) {
+        if (desde == null) {
+            throw new BusinessException("Mês inicial é obrigatório.");
+        }
+        long inicio = System.currentTimeMillis();
+
+        // 1. Snapshot das comissões afetadas (uma leitura)
+        Map<Long, List<Snapshot>> porUsuario = new LinkedHashMap<>();
+        List<Snapshot> consolidadas = new ArrayList<>();
+        Empresa empresa = readOnlyTx.execute(status -> {
+            Empresa e = empresaRepository.findById(empresaId)
+                    .orElseThrow(() -> new BusinessException("Empresa não encontrada: " + empresaId));
+            for (ComissaoCalculada c : comissaoCalculadaRepository
+                    .findByEmpresaAndAnoMesReferenciaGreaterThanEqualOrderByAnoMesReferenciaAsc(e, desde)) {
+                Snapshot s = new Snapshot(c.getId(), c.getAnoMesReferencia(), c.getSaldoAnterior(),
+                        c.getValorBrutoComissao(), c.getSaldoAReceber());
+                if (c.getUsuario() != null) {
+                    porUsuario.computeIfAbsent(c.getUsuario().getId(), id -> new ArrayList<>()).add(s);
+                } else {
+                    consolidadas.add(s);
+                }
+            }
+            return e;
+        });
+
+        List<Cadeia> cadeias = new ArrayList<>();
+        if (!porUsuario.isEmpty()) {
+            List<User> usuarios = readOnlyTx.execute(status -> userRepository.findAllById(porUsuario.keySet()));
+            for (User u : usuarios) {
+                u.setEmpresa(empresa); // já inicializada: evita lazy load fora de sessão nas threads
+                cadeias.add(new Cadeia(u, porUsuario.get(u.getId())));
+            }
+        }
+        if (!consolidadas.isEmpty()) {
+            cadeias.add(new Cadeia(null, consolidadas));
+        }
+
+        YearMonth ate = cadeias.stream()
+                .flatMap(c -> c.meses().stream())
+                .map(Snapshot::mes)
+                .max(YearMonth::compareTo)
+                .orElse(desde);
+
+        log.info("🔁 Recálculo em cascata: empresa {} de {} até {} ({} cadeias)", empresaId, desde, ate,
+                cadeias.size());
+
+        // 2. Paralelo entre cadeias, sequencial entre meses
+        List<Callable<ResultadoCadeia>> tarefas = new ArrayList<>();
+        for (Cadeia cadeia : cadeias) {
+            tarefas.add(() -> recalcularCadeia(empresa, cadeia));
+        }
+
+        List<RecalculoComissaoResponse.Alteracao> alteracoes = new ArrayList<>();
+        List<String> erros = new ArrayList<>();
+        int recalculadas = 0;
+        try {
+            for (Future<ResultadoCadeia> f : executor.invokeAll(tarefas)) {
+                ResultadoCadeia r = f.get();
+                alteracoes.addAll(r.alteracoes());
+                recalculadas += r.recalculadas();
+                if (r.erro() != null) {
+                    erros.add(r.erro());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Recálculo interrompido.");
+        } catch (ExecutionException e) {
+            throw new BusinessException("Falha no recálculo: " + e.getCause().getMessage());
+        }
+
+        alteracoes.sort((a, b) -> a.getAnoMesReferencia().compareTo(b.getAnoMesReferencia()));
+        long duracao = System.currentTimeMillis() - inicio;
+        log.info("✅ Recálculo em cascata concluído: {} comissões, {} alteradas, {} erros em {} ms",
+                recalculadas, alteracoes.size(), erros.size(), duracao);
+
+        return RecalculoComissaoResponse.builder()
+                .empresaId(empresaId)
+                .desde(desde.toString())
+                .ate(ate.toString())
+                .comissoesRecalculadas(recalculadas)
+                .alteracoes(alteracoes)
+                .erros(erros.isEmpty() ? Collections.emptyList() : erros)
+                .duracaoMs(duracao)
+                .build();
+    }
+
+    private ResultadoCadeia recalcularCadeia(Empresa empresa, Cadeia cadeia) {
+        List<RecalculoComissaoResponse.Alteracao> alteracoes = new ArrayList<>();
+        int recalculadas = 0;
+        Long usuarioId = cadeia.usuario() != null ? cadeia.usuario().getId() : null;
+
+        for (Snapshot antes : cadeia.meses()) {
+            ComissaoCalculada depois;
+            try {
+                YearMonth mes = antes.mes();
+                depois = cadeia.usuario() != null
+                        ? comissaoService.calcularEObterComissaoMensal(mes.getYear(), mes.getMonthValue(),
+                                cadeia.usuario(), true)
+                        : comissaoService.calcularComissaoEmpresaMensal(mes.getYear(), mes.getMonthValue(),
+                                empresa, true);
+            } catch (Exception e) {
+                // Meses seguintes dependem deste: interrompe apenas esta cadeia
+                log.warn("⚠️ Recálculo interrompido em {} (funcionário {}): {}", antes.mes(), usuarioId,
+                        e.getMessage());
+                return new ResultadoCadeia(alteracoes, recalculadas,
+                        "Funcionário " + (usuarioId != null ? usuarioId : "EMPRESA") + " em " + antes.mes()
+                                + ": " + e.getMessage());
+            }
+            recalculadas++;
+
+            if (!mesmoValor(antes.saldoAnterior(), depois.getSaldoAnterior())
+                    || !mesmoValor(antes.valorBruto(), depois.getValorBrutoComissao())
+                    || !mesmoValor(antes.saldoAReceber(), depois.getSaldoAReceber())) {
+                alteracoes.add(RecalculoComissaoResponse.Alteracao.builder()
+                        .comissaoId(antes.comissaoId())
+                        .funcionarioId(usuarioId)
+                        .anoMesReferencia(antes.mes().toString())
+                        .saldoAnteriorAntes(antes.saldoAnterior())
+                        .saldoAnteriorDepois(depois.getSaldoAnterior())
+                        .valorBrutoAntes(antes.valorBruto())
+                        .valorBrutoDepois(depois.getValorBrutoComissao())
+                        .saldoAReceberAntes(antes.saldoAReceber())
+                        .saldoAReceberDepois(depois.getSaldoAReceber())
+                        .build());
+            }
+        }
+        return new ResultadoCadeia(alteracoes, recalculadas, null);
+    }
+
+    private static boolean mesmoValor(BigDecimal a, BigDecimal b) {
+        if (a == null || b == null) {
+            return Objects.equals(a, b);
+        }
+        return a.compareTo(b) == 0;
+    }
+}
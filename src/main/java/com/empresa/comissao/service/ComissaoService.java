@@ -13,10 +13,6 @@ import com.empresa.comissao.repository.ComissaoCalculadaRepository;
 import com.empresa.comissao.repository.DespesaRepository;
 import com.empresa.comissao.repository.FaturamentoRepository;
 import com.empresa.comissao.repository.PagamentoAdiantadoRepository;
-import com.empresa.comissao.repository.RegraComissaoRepository;
-import com.empresa.comissao.domain.entity.RegraComissao;
-import com.empresa.comissao.domain.entity.FaixaComissaoConfig;
-import com.empresa.comissao.domain.enums.TipoRegraComissao;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -41,11 +37,13 @@ public class ComissaoService {
         private final ComissaoCalculadaRepository comissaoCalculadaRepository;
         private final DespesaRepository despesaRepository;
         private final com.empresa.comissao.repository.OrdemServicoRepository ordemServicoRepository;
-        private final RegraComissaoRepository regraComissaoRepository;
+        private final RegraComissaoCache regraComissaoCache;
         private final com.empresa.comissao.repository.ContaReceberRepository contaReceberRepository;
         private final com.empresa.comissao.repository.RecebimentoRepository recebimentoRepository;
         private final com.empresa.comissao.repository.UserRepository userRepository;
         private final com.empresa.comissao.repository.ContaPagarRepository contaPagarRepository;
+        private final ComissaoLedgerService comissaoLedgerService;
+        private final ResumoFinanceiroService resumoFinanceiroService;
 
         @org.springframework.beans.factory.annotation.Autowired
         @org.springframework.context.annotation.Lazy
@@ -103,17 +101,8 @@ public class ComissaoService {
 
                 // 2a. Buscar saldo do mês anterior (CARRYOVER)
                 YearMonth mesAnterior = anoMesReferencia.minusMonths(1);
-                BigDecimal saldoAnterior = BigDecimal.ZERO;
-                Optional<ComissaoCalculada> comissaoMesAnterior = comissaoCalculadaRepository
-                                .findFirstByAnoMesReferenciaAndUsuario(mesAnterior, usuario);
-                if (comissaoMesAnterior.isPresent()) {
-                        BigDecimal saldoMesAnterior = comissaoMesAnterior.get().getSaldoAReceber();
-                        // Se o saldo do mês anterior é negativo, transferimos como dívida
-                        if (saldoMesAnterior.compareTo(BigDecimal.ZERO) < 0) {
-                                saldoAnterior = saldoMesAnterior; // Valor negativo (dívida)
-                                log.info("⚠️ Saldo anterior negativo (carryover): {}", saldoAnterior);
-                        }
-                }
+                BigDecimal saldoAnterior = calcularSaldoAnterior(comissaoCalculadaRepository
+                                .findFirstByAnoMesReferenciaAndUsuario(mesAnterior, usuario));
 
                 // 2. Somar o RECEBIDO total do mês (ContaReceber.PAGO - base para comissão)
                 // MUDANÇA CRÍTICA: Comissão agora é baseada em CAIXA, não COMPETÊNCIA
@@ -121,21 +110,23 @@ public class ComissaoService {
                 LocalDate fimDoMes = anoMesReferencia.atEndOfMonth();
 
                 BigDecimal faturamentoMensalTotal;
+                ComissaoLedgerService.Totais totaisFuncionario = null;
                 if (usuario != null && usuario.getEmpresa() != null) {
+                        // Totais correntes do ledger (mantidos a cada recebimento/estorno/adiantamento)
+                        totaisFuncionario = comissaoLedgerService.getTotaisFuncionario(usuario.getEmpresa(), usuario,
+                                        anoMesReferencia);
+
                         // Verificar o MODO de comissão da empresa
                         com.empresa.comissao.domain.enums.ModoComissao modo = usuario.getEmpresa().getModoComissao();
 
                         if (modo == com.empresa.comissao.domain.enums.ModoComissao.COLETIVA) {
                                 // Modo COLETIVA: Soma real de caixa da EMPRESA inteira (Recebimentos)
-                                faturamentoMensalTotal = recebimentoRepository
-                                                .sumByEmpresaAndDataPagamentoBetween(usuario.getEmpresa(), inicioDoMes,
-                                                                fimDoMes);
+                                faturamentoMensalTotal = comissaoLedgerService
+                                                .getTotaisEmpresa(usuario.getEmpresa(), anoMesReferencia).recebido();
                                 log.info("💰 Faturamento Base (COLETIVA - Recebimentos): {}", faturamentoMensalTotal);
                         } else {
                                 // Modo INDIVIDUAL: Soma recebimentos do funcionário
-                                faturamentoMensalTotal = recebimentoRepository
-                                                .sumByEmpresaAndFuncionarioAndDataPagamentoBetween(
-                                                                usuario.getEmpresa(), usuario, inicioDoMes, fimDoMes);
+                                faturamentoMensalTotal = totaisFuncionario.recebido();
                                 log.info("💰 Faturamento Base (INDIVIDUAL - Recebimentos): {}", faturamentoMensalTotal);
                         }
                 } else {
@@ -150,7 +141,9 @@ public class ComissaoService {
 
                 // 3. Somar os adiantamentos totais do mês
                 BigDecimal valorTotalAdiantamentos;
-                if (usuario != null) {
+                if (totaisFuncionario != null) {
+                        valorTotalAdiantamentos = totaisFuncionario.adiantamentos();
+                } else if (usuario != null) {
                         valorTotalAdiantamentos = pagamentoAdiantadoRepository
                                         .sumValorByDataPagamentoBetweenAndUsuario(inicioDoMes, fimDoMes, usuario)
                                         .orElse(BigDecimal.ZERO);
@@ -162,89 +155,14 @@ public class ComissaoService {
 
                 log.info("💸 Adiantamentos total: {}", valorTotalAdiantamentos);
 
-                // 4. Determinar a faixa e calcular comissão
-                BigDecimal percentualAplicado = BigDecimal.ZERO;
-                String faixaDescricao = "Sem comissão definida";
-
-                boolean regraEncontrada = false;
-
-                // Tentar Regra Dinâmica (Prioridade)
-                if (usuario != null && usuario.getEmpresa() != null) {
-                        Optional<RegraComissao> regraOpt = regraComissaoRepository
-                                        .findActiveWithFaixasByEmpresa(usuario.getEmpresa());
-
-                        if (regraOpt.isPresent()) {
-                                RegraComissao regra = regraOpt.get();
-                                regraEncontrada = true;
-                                log.info("📏 Regra dinâmica aplicada: {}", regra.getNome());
-
-                                if (regra.getTipoRegra() == TipoRegraComissao.FIXA_EMPRESA) {
-                                        percentualAplicado = regra.getPercentualFixo() != null
-                                                        ? regra.getPercentualFixo().divide(new BigDecimal("100"), 4,
-                                                                        RoundingMode.HALF_UP)
-                                                        : BigDecimal.ZERO;
-                                        faixaDescricao = "Fixa: " + regra.getNome();
-                                } else {
-                                        // Percorrer faixas
-                                        if (regra.getFaixas() != null) {
-                                                for (FaixaComissaoConfig fc : regra.getFaixas()) {
-                                                        boolean maiorIgualMin = faturamentoMensalTotal
-                                                                        .compareTo(fc.getMinFaturamento()) >= 0;
-                                                        boolean menorIgualMax = fc.getMaxFaturamento() == null
-                                                                        || faturamentoMensalTotal.compareTo(
-                                                                                        fc.getMaxFaturamento()) <= 0;
-
-                                                        if (maiorIgualMin && menorIgualMax) {
-                                                                percentualAplicado = fc.getPorcentagem() != null
-                                                                                ? fc.getPorcentagem().divide(
-                                                                                                new BigDecimal("100"),
-                                                                                                4, RoundingMode.HALF_UP)
-                                                                                : BigDecimal.ZERO;
-                                                                // Fallback: generate description if null
-                                                                String minStr = String.format("%,.2f",
-                                                                                fc.getMinFaturamento());
-                                                                String maxStr = fc.getMaxFaturamento() != null
-                                                                                ? String.format("%,.2f",
-                                                                                                fc.getMaxFaturamento())
-                                                                                : "∞";
-                                                                String rangeStr = "R$ " + minStr + " até R$ " + maxStr;
-
-                                                                log.info("🔍 [DEBUG FAIXA] Calculando Faixa: Min={}, Max={}, Nome={}",
-                                                                                minStr, maxStr, fc.getDescricao());
-
-                                                                if (fc.getDescricao() != null
-                                                                                && !fc.getDescricao().isBlank()) {
-                                                                        faixaDescricao = rangeStr + " ("
-                                                                                        + fc.getDescricao() + ")";
-                                                                } else {
-                                                                        faixaDescricao = rangeStr;
-                                                                }
-                                                                log.info("✅ [DEBUG FAIXA] Descrição Final Gerada: {}",
-                                                                                faixaDescricao);
-                                                                break;
-                                                        }
-                                                }
-                                        }
-                                }
-                        }
-                }
-
-                // Fallback Legacy (Tabela Estática)
-                if (!regraEncontrada) {
+                // 4. Determinar a faixa (regra dinâmica ativa da empresa)
+                RegraComissaoCompilada regra = regraComissaoCache
+                                .getRegraAtiva(usuario != null ? usuario.getEmpresa() : null);
+                if (regra.isSemRegra()) {
                         log.warn("⚠️ Nenhuma regra de comissão ativa encontrada para usuário {}",
                                         usuario != null ? usuario.getUsername() : "N/A");
-                        percentualAplicado = BigDecimal.ZERO;
-                        faixaDescricao = "Nenhuma regra de comissão configurada";
                 }
-
-                log.info("📈 Percentual aplicado: {} ({})", percentualAplicado, faixaDescricao);
-
-                // 5. Calcular o valor bruto da comissão
-                // 5. Calcular o valor bruto da comissão
-                BigDecimal valorBrutoComissao = faturamentoMensalTotal.multiply(percentualAplicado)
-                                .setScale(2, RoundingMode.HALF_UP);
-
-                log.info("💵 Valor bruto da comissão: {}", valorBrutoComissao);
+                RegraComissaoCompilada.Faixa faixa = regra.resolver(faturamentoMensalTotal);
 
                 // 6. Somar pagamentos já realizados (valor_quitado vindo de ContaPagar)
                 BigDecimal valorQuitado = BigDecimal.ZERO;
@@ -254,42 +172,23 @@ public class ComissaoService {
 
                 log.info("💳 Pagamentos já realizados (valor_quitado): {}", valorQuitado);
 
-                // 7. Calcular o saldo a receber (incluindo carryover e abatendo o que já foi
-                // pago)
-                // Fórmula: (valorBruto - adiantamentos + saldoAnterior) - valorQuitado
-                BigDecimal saldoAReceber = valorBrutoComissao.subtract(valorTotalAdiantamentos)
-                                .add(saldoAnterior)
-                                .subtract(valorQuitado)
-                                .setScale(2, RoundingMode.HALF_UP);
-
-                log.info("✅ Saldo a receber (com carryover e pagamentos): {}", saldoAReceber);
-
-                // 8. Criar ou Atualizar o objeto ComissaoCalculada
+                // 5/7/8. Calcular bruto e saldo; criar ou atualizar o objeto ComissaoCalculada
                 ComissaoCalculada comissao = comissaoExistente.orElseGet(() -> ComissaoCalculada.builder()
                                 .anoMesReferencia(anoMesReferencia)
                                 .usuario(usuario)
                                 .empresa(usuario != null ? usuario.getEmpresa() : null)
                                 .build());
 
-                comissao.setFaturamentoMensalTotal(faturamentoMensalTotal);
-                comissao.setFaixaComissaoDescricao(faixaDescricao);
-                comissao.setPorcentagemComissaoAplicada(percentualAplicado.multiply(new BigDecimal("100")));
-                comissao.setValorBrutoComissao(valorBrutoComissao);
-                comissao.setValorTotalAdiantamentos(valorTotalAdiantamentos);
-                comissao.setValorQuitado(valorQuitado);
-                comissao.setSaldoAReceber(saldoAReceber);
-                comissao.setSaldoAnterior(saldoAnterior);
+                aplicarCalculo(comissao, faturamentoMensalTotal, valorTotalAdiantamentos, saldoAnterior,
+                                valorQuitado, faixa);
 
-                // Status Auto-Update: Se saldo zerado, marca como quitado. Se saldo positivo,
-                // reabre.
-                comissao.setQuitado(saldoAReceber.compareTo(BigDecimal.ZERO) <= 0
-                                && valorQuitado.compareTo(BigDecimal.ZERO) > 0);
-                if (comissao.getQuitado()) {
-                        comissao.setDataQuitacao(java.time.LocalDateTime.now());
-                }
+                log.info("✅ Saldo a receber (com carryover e pagamentos): {}", comissao.getSaldoAReceber());
 
                 ComissaoCalculada salva = comissaoCalculadaRepository.save(comissao);
                 log.info("💾 Comissão salva/atualizada com ID: {}", salva.getId());
+                if (salva.getEmpresa() != null) {
+                        resumoFinanceiroService.invalidar(salva.getEmpresa().getId(), anoMesReferencia);
+                }
 
                 return salva;
         }
@@ -341,105 +240,29 @@ public class ComissaoService {
 
                 // 2a. Buscar saldo do mês anterior (CARRYOVER) para empresa
                 YearMonth mesAnterior = anoMesReferencia.minusMonths(1);
-                BigDecimal saldoAnterior = BigDecimal.ZERO;
-                Optional<ComissaoCalculada> comissaoMesAnterior = comissaoCalculadaRepository
-                                .findFirstByAnoMesReferenciaAndEmpresaAndUsuarioIsNull(mesAnterior, empresa);
-                if (comissaoMesAnterior.isPresent()) {
-                        BigDecimal saldoMesAnterior = comissaoMesAnterior.get().getSaldoAReceber();
-                        // Se o saldo do mês anterior é negativo, transferimos como dívida
-                        if (saldoMesAnterior.compareTo(BigDecimal.ZERO) < 0) {
-                                saldoAnterior = saldoMesAnterior; // Valor negativo (dívida)
-                                log.info("⚠️ Saldo anterior negativo (carryover empresa): {}", saldoAnterior);
-                        }
-                }
+                BigDecimal saldoAnterior = calcularSaldoAnterior(comissaoCalculadaRepository
+                                .findFirstByAnoMesReferenciaAndEmpresaAndUsuarioIsNull(mesAnterior, empresa));
 
-                // 2. Somar o RECEBIDO total do mês para a empresa (Recebimentos reais)
+                // 2. RECEBIDO total do mês para a empresa (ledger de Recebimentos reais)
                 // CORREÇÃO CRÍTICA: Usa tabela recebimentos, não contas_receber
-                LocalDate inicioDoMes = anoMesReferencia.atDay(1);
-                LocalDate fimDoMes = anoMesReferencia.atEndOfMonth();
-
-                BigDecimal faturamentoMensalTotal = recebimentoRepository
-                                .sumByEmpresaAndDataPagamentoBetween(empresa, inicioDoMes, fimDoMes);
+                ComissaoLedgerService.Totais totaisEmpresa = comissaoLedgerService.getTotaisEmpresa(empresa,
+                                anoMesReferencia);
+                BigDecimal faturamentoMensalTotal = totaisEmpresa.recebido();
 
                 log.info("💰 Recebido total da empresa (Recebimentos reais): {}", faturamentoMensalTotal);
 
-                // 3. Sum all adiantamentos for the empresa
-                BigDecimal valorTotalAdiantamentos = pagamentoAdiantadoRepository
-                                .sumValorByDataPagamentoBetweenAndEmpresa(inicioDoMes, fimDoMes, empresa)
-                                .orElse(BigDecimal.ZERO);
+                // 3. Adiantamentos da empresa
+                BigDecimal valorTotalAdiantamentos = totaisEmpresa.adiantamentos();
 
                 log.info("💸 Adiantamentos total da empresa: {}", valorTotalAdiantamentos);
 
-                // 4. Calculate commission
-                BigDecimal percentualAplicado = BigDecimal.ZERO;
-                String faixaDescricao = "Sem comissão definida";
-                boolean regraEncontrada = false;
-
-                // Try Dynamic Rule
-                Optional<RegraComissao> regraOpt = regraComissaoRepository.findActiveWithFaixasByEmpresa(empresa);
-                if (regraOpt.isPresent()) {
-                        RegraComissao regra = regraOpt.get();
-                        regraEncontrada = true;
-                        if (regra.getTipoRegra() == TipoRegraComissao.FIXA_EMPRESA) {
-                                percentualAplicado = regra.getPercentualFixo() != null
-                                                ? regra.getPercentualFixo().divide(new BigDecimal("100"), 4,
-                                                                RoundingMode.HALF_UP)
-                                                : BigDecimal.ZERO;
-                                faixaDescricao = "Fixa: " + regra.getNome();
-                        } else {
-                                if (regra.getFaixas() != null) {
-                                        for (FaixaComissaoConfig fc : regra.getFaixas()) {
-                                                boolean maiorIgualMin = faturamentoMensalTotal
-                                                                .compareTo(fc.getMinFaturamento()) >= 0;
-                                                boolean menorIgualMax = fc.getMaxFaturamento() == null
-                                                                || faturamentoMensalTotal
-                                                                                .compareTo(fc.getMaxFaturamento()) <= 0;
-                                                if (maiorIgualMin && menorIgualMax) {
-                                                        percentualAplicado = fc.getPorcentagem() != null
-                                                                        ? fc.getPorcentagem().divide(
-                                                                                        new BigDecimal("100"), 4,
-                                                                                        RoundingMode.HALF_UP)
-                                                                        : BigDecimal.ZERO;
-                                                        // Fallback: generate description if null
-                                                        String minStr = String.format("%,.2f", fc.getMinFaturamento());
-                                                        String maxStr = fc.getMaxFaturamento() != null
-                                                                        ? String.format("%,.2f", fc.getMaxFaturamento())
-                                                                        : "∞";
-                                                        String rangeStr = "R$ " + minStr + " até R$ " + maxStr;
-
-                                                        log.info("🔍 [DEBUG FAIXA EMPRESA] Calculando: Min={}, Max={}, Nome={}",
-                                                                        minStr, maxStr, fc.getDescricao());
-
-                                                        if (fc.getDescricao() != null && !fc.getDescricao().isBlank()) {
-                                                                faixaDescricao = rangeStr + " (" + fc.getDescricao()
-                                                                                + ")";
-                                                        } else {
-                                                                faixaDescricao = rangeStr;
-                                                        }
-                                                        log.info("✅ [DEBUG FAIXA EMPRESA] Descrição Final: {}",
-                                                                        faixaDescricao);
-                                                        break;
-                                                }
-                                        }
-                                }
-                        }
-                }
-
-                // Fallback Legacy
-                if (!regraEncontrada) {
+                // 4. Calculate commission (Dynamic Rule)
+                RegraComissaoCompilada regra = regraComissaoCache.getRegraAtiva(empresa);
+                if (regra.isSemRegra()) {
                         log.warn("⚠️ Nenhuma regra de comissão ativa encontrada para empresa {}",
                                         empresa.getNome());
-                        percentualAplicado = BigDecimal.ZERO;
-                        faixaDescricao = "Nenhuma regra de comissão configurada";
                 }
-
-                log.info("📈 Faixa encontrada: {} - {}%", faixaDescricao, percentualAplicado);
-
-                // 5. Calcular o valor bruto da comissão
-                BigDecimal valorBrutoComissao = faturamentoMensalTotal.multiply(percentualAplicado)
-                                .setScale(2, RoundingMode.HALF_UP);
-
-                log.info("💵 Valor bruto da empresa: {}", valorBrutoComissao);
+                RegraComissaoCompilada.Faixa faixa = regra.resolver(faturamentoMensalTotal);
 
                 // 6. Somar pagamentos já realizados (da empresa consolidada)
                 BigDecimal valorQuitado = BigDecimal.ZERO;
@@ -449,14 +272,6 @@ public class ComissaoService {
 
                 log.info("💳 Pagamentos empresa já realizados: {}", valorQuitado);
 
-                // 7. Calcular o saldo a receber consolidado
-                BigDecimal saldoAReceber = valorBrutoComissao.subtract(valorTotalAdiantamentos)
-                                .add(saldoAnterior)
-                                .subtract(valorQuitado)
-                                .setScale(2, RoundingMode.HALF_UP);
-
-                log.info("✅ Saldo a receber empresa (com carryover e pagamentos): {}", saldoAReceber);
-
                 // 8. Atualizar ou Criar
                 ComissaoCalculada comissao = comissaoExistente.orElseGet(() -> ComissaoCalculada.builder()
                                 .anoMesReferencia(anoMesReferencia)
@@ -464,25 +279,65 @@ public class ComissaoService {
                                 .empresa(empresa)
                                 .build());
 
+                aplicarCalculo(comissao, faturamentoMensalTotal, valorTotalAdiantamentos, saldoAnterior,
+                                valorQuitado, faixa);
+
+                log.info("✅ Saldo a receber empresa (com carryover e pagamentos): {}", comissao.getSaldoAReceber());
+
+                ComissaoCalculada salva = comissaoCalculadaRepository.save(comissao);
+                log.info("💾 Comissão empresa salva/atualizada com ID: {}", salva.getId());
+                resumoFinanceiroService.invalidar(empresa.getId(), anoMesReferencia);
+
+                return salva;
+        }
+
+        /**
+         * Carryover: apenas saldo NEGATIVO do mês anterior é transferido (dívida).
+         */
+        private BigDecimal calcularSaldoAnterior(Optional<ComissaoCalculada> comissaoMesAnterior) {
+                if (comissaoMesAnterior.isPresent()) {
+                        BigDecimal saldoMesAnterior = comissaoMesAnterior.get().getSaldoAReceber();
+                        if (saldoMesAnterior != null && saldoMesAnterior.compareTo(BigDecimal.ZERO) < 0) {
+                                log.info("⚠️ Saldo anterior negativo (carryover): {}", saldoMesAnterior);
+                                return saldoMesAnterior;
+                        }
+                }
+                return BigDecimal.ZERO;
+        }
+
+        /**
+         * Aplica a fórmula de comissão sobre a entidade (nova ou existente):
+         * saldo = (base * percentual - adiantamentos + saldoAnterior) - valorQuitado
+         */
+        private void aplicarCalculo(ComissaoCalculada comissao, BigDecimal faturamentoMensalTotal,
+                        BigDecimal valorTotalAdiantamentos, BigDecimal saldoAnterior, BigDecimal valorQuitado,
+                        RegraComissaoCompilada.Faixa faixa) {
+                log.info("📈 Percentual aplicado: {} ({})", faixa.percentual(), faixa.descricao());
+
+                BigDecimal valorBrutoComissao = faturamentoMensalTotal.multiply(faixa.percentual())
+                                .setScale(2, RoundingMode.HALF_UP);
+
+                BigDecimal saldoAReceber = valorBrutoComissao.subtract(valorTotalAdiantamentos)
+                                .add(saldoAnterior)
+                                .subtract(valorQuitado)
+                                .setScale(2, RoundingMode.HALF_UP);
+
                 comissao.setFaturamentoMensalTotal(faturamentoMensalTotal);
-                comissao.setFaixaComissaoDescricao(faixaDescricao);
-                comissao.setPorcentagemComissaoAplicada(percentualAplicado.multiply(new BigDecimal("100")));
+                comissao.setFaixaComissaoDescricao(faixa.descricao());
+                comissao.setPorcentagemComissaoAplicada(faixa.percentual().multiply(new BigDecimal("100")));
                 comissao.setValorBrutoComissao(valorBrutoComissao);
                 comissao.setValorTotalAdiantamentos(valorTotalAdiantamentos);
                 comissao.setValorQuitado(valorQuitado);
                 comissao.setSaldoAReceber(saldoAReceber);
                 comissao.setSaldoAnterior(saldoAnterior);
 
+                // Status Auto-Update: Se saldo zerado, marca como quitado. Se saldo positivo,
+                // reabre.
                 comissao.setQuitado(saldoAReceber.compareTo(BigDecimal.ZERO) <= 0
                                 && valorQuitado.compareTo(BigDecimal.ZERO) > 0);
                 if (comissao.getQuitado()) {
                         comissao.setDataQuitacao(java.time.LocalDateTime.now());
                 }
-
-                ComissaoCalculada salva = comissaoCalculadaRepository.save(comissao);
-                log.info("💾 Comissão empresa salva/atualizada com ID: {}", salva.getId());
-
-                return salva;
         }
 
         /**
@@ -631,6 +486,7 @@ public class ComissaoService {
 
                 Faturamento salvo = faturamentoRepository.save(faturamento);
                 log.info("✅ Faturamento registrado com ID: {}", salvo.getId());
+                resumoFinanceiroService.invalidar(salvo.getEmpresa(), data);
 
                 // Invalidate Cache for this user's month
                 invalidarCache(usuario, YearMonth.from(data));
@@ -654,6 +510,7 @@ public class ComissaoService {
 
                 PagamentoAdiantado salvo = pagamentoAdiantadoRepository.save(adiantamento);
                 log.info("✅ Adiantamento registrado com ID: {}", salvo.getId());
+                comissaoLedgerService.registrarAdiantamento(salvo.getEmpresa(), usuario, data, valor);
 
                 // Invalidate Cache for this user's month
                 invalidarCache(usuario, YearMonth.from(data));
@@ -686,13 +543,20 @@ public class ComissaoService {
 
                 Despesa salva = despesaRepository.save(despesa);
                 log.info("✅ Despesa registrada com ID: {}", salva.getId());
+                resumoFinanceiroService.invalidar(salva.getEmpresa(), data);
 
                 return salva;
         }
 
         @Transactional
         public Despesa atualizarDespesa(Despesa despesa) {
-                return despesaRepository.save(despesa);
+                // Mês anterior também muda se a data foi alterada
+                LocalDate dataAnterior = despesa.getId() != null
+                                ? despesaRepository.findDataDespesaGravada(despesa.getId()).orElse(null)
+                                : null;
+                Despesa salva = despesaRepository.save(despesa);
+                resumoFinanceiroService.invalidar(salva.getEmpresa(), dataAnterior, salva.getDataDespesa());
+                return salva;
         }
 
         public RelatorioFinanceiroDTO gerarRelatorioFinanceiro(int ano, int mes,
@@ -710,21 +574,9 @@ public class ComissaoService {
                 // Diferente da comissão que usa Regime de Caixa (data do recebimento)
                 // ====================================================================
                 BigDecimal faturamentoTotal;
+                BigDecimal imposto;
 
-                if (empresaFresh != null) {
-                        // Para a Auditoria Financeira / DRE, queremos SEMPRE a visão global da empresa
-                        faturamentoTotal = contaReceberRepository
-                                        .sumByCompetenciaBetweenForReports(empresaFresh, inicioDoMes, fimDoMes);
-                        log.info("💰 Receita DRE (Competência global): {}", faturamentoTotal);
-                } else {
-                        // Fallback: usar faturamento tradicional se não houver empresa
-                        faturamentoTotal = faturamentoRepository
-                                        .sumValorByDataFaturamentoBetween(inicioDoMes, fimDoMes)
-                                        .orElse(BigDecimal.ZERO);
-                        log.info("💰 Receita DRE (Fallback legacy): {}", faturamentoTotal);
-                }
-
-                // 1. Obter Comissão do Mês (CONTINUA usando CAIXA como antes)
+                // 1. Comissão do Mês (CONTINUA usando CAIXA como antes)
                 ComissaoCalculada comissao = ComissaoCalculada.builder()
                                 .faturamentoMensalTotal(BigDecimal.ZERO)
                                 .valorBrutoComissao(BigDecimal.ZERO)
@@ -732,85 +584,59 @@ public class ComissaoService {
                                 .valorTotalAdiantamentos(BigDecimal.ZERO)
                                 .build();
 
-                if (empresaFresh != null) {
-                        if (empresaFresh.getModoComissao() == com.empresa.comissao.domain.enums.ModoComissao.COLETIVA) {
-                                log.info("📊 Comissão calculada em modo COLETIVA para DRE da empresa: {}",
-                                                empresaFresh.getNome());
-                                comissao = calcularComissaoEmpresaMensal(ano, mes, empresaFresh);
-                        } else {
-                                log.info("📊 Agregando comissões INDIVIDUAIS de todos os funcionários para DRE da empresa: {}",
-                                                empresaFresh.getNome());
-                                List<ComissaoCalculada> comissoes = listarComissoesEmpresa(ano, mes, empresaFresh);
-
-                                BigDecimal totalBruto = BigDecimal.ZERO;
-                                BigDecimal totalAdiantamentos = BigDecimal.ZERO;
-                                BigDecimal totalSaldo = BigDecimal.ZERO;
-
-                                for (ComissaoCalculada c : comissoes) {
-                                        totalBruto = totalBruto.add(
-                                                        c.getValorBrutoComissao() != null ? c.getValorBrutoComissao()
-                                                                        : BigDecimal.ZERO);
-                                        totalAdiantamentos = totalAdiantamentos
-                                                        .add(c.getValorTotalAdiantamentos() != null
-                                                                        ? c.getValorTotalAdiantamentos()
-                                                                        : BigDecimal.ZERO);
-                                        totalSaldo = totalSaldo.add(c.getSaldoAReceber() != null ? c.getSaldoAReceber()
-                                                        : BigDecimal.ZERO);
-                                }
-
-                                comissao = ComissaoCalculada.builder()
-                                                .valorBrutoComissao(totalBruto)
-                                                .valorTotalAdiantamentos(totalAdiantamentos)
-                                                .saldoAReceber(totalSaldo)
-                                                .build();
-                        }
-                }
-
-                // 2. Calcular Imposto (usar alíquota configurada na empresa, default 6%)
-                BigDecimal aliquota = (empresaFresh != null && empresaFresh.getAliquotaImposto() != null)
-                                ? empresaFresh.getAliquotaImposto()
-                                : new BigDecimal("0.06"); // Fallback: 6% Simples Nacional 1ª faixa
-                BigDecimal imposto = faturamentoTotal.multiply(aliquota)
-                                .setScale(2, RoundingMode.HALF_UP);
-
-                BigDecimal aliquotaPercent = aliquota.multiply(new BigDecimal("100"));
-                log.info("🏷️ Imposto calculado ({}%): {}", aliquotaPercent, imposto);
-
-                // 3. Obter Despesas por Categoria e Total
+                // 3. Despesas por Categoria (inicializa o mapa com zero)
                 Map<CategoriaDespesa, BigDecimal> despesasPorCategoria = new EnumMap<>(CategoriaDespesa.class);
-
-                // Inicializa o mapa com zero
                 for (CategoriaDespesa cat : CategoriaDespesa.values()) {
                         despesasPorCategoria.put(cat, BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP));
                 }
 
-                // DRE: Regime de Competência
-                // Despesas são contabilizadas pelo valor integral no mês em que ocorreram,
-                // independente do pagamento da fatura do cartão.
-                // (A lógica de caixa/rateio proporcional fica apenas no Fluxo de Caixa)
-
-                // Buscar despesas do mês
-                List<Despesa> despesasRaw;
                 if (empresaFresh != null) {
-                        despesasRaw = despesaRepository.findByEmpresaAndDataDespesaBetween(empresaFresh, inicioDoMes,
-                                        fimDoMes);
+                        // Para a Auditoria Financeira / DRE, queremos SEMPRE a visão global da empresa:
+                        // receita por competência, imposto, despesas e comissões vêm do resumo mensal
+                        com.empresa.comissao.domain.entity.ResumoFinanceiroMensal resumo = obterResumoParaDre(ano, mes,
+                                        empresaFresh);
+
+                        faturamentoTotal = resumo.getReceitaCompetencia();
+                        imposto = resumo.getImposto();
+                        log.info("💰 Receita DRE (Competência global): {} | Imposto: {}", faturamentoTotal, imposto);
+
+                        comissao = ComissaoCalculada.builder()
+                                        .valorBrutoComissao(resumo.getComissaoBruta())
+                                        .valorTotalAdiantamentos(resumo.getComissaoAdiantamentos())
+                                        .saldoAReceber(resumo.getComissaoSaldo())
+                                        .build();
+
+                        // DRE: Regime de Competência (valor integral no mês da despesa; o rateio
+                        // de caixa fica apenas no Fluxo de Caixa)
+                        resumo.getDespesasPorCategoria().forEach((categoria, valor) -> {
+                                if (!isExcluidaDoDre(categoria)) {
+                                        despesasPorCategoria.put(categoria, valor.setScale(2, RoundingMode.HALF_UP));
+                                }
+                        });
                 } else {
-                        despesasRaw = despesaRepository.findByDataDespesaBetween(inicioDoMes, fimDoMes);
-                }
+                        // Fallback: usar faturamento tradicional se não houver empresa
+                        faturamentoTotal = faturamentoRepository
+                                        .sumValorByDataFaturamentoBetween(inicioDoMes, fimDoMes)
+                                        .orElse(BigDecimal.ZERO);
+                        log.info("💰 Receita DRE (Fallback legacy): {}", faturamentoTotal);
 
-                // Agregar despesas por categoria (valor integral, sem fator de pagamento)
-                for (Despesa d : despesasRaw) {
-                        // Excluir categorias já calculadas separadamente no DRE
-                        boolean isExcluded = d.getCategoria() == CategoriaDespesa.IMPOSTOS_SOBRE_VENDA ||
-                                        d.getCategoria() == CategoriaDespesa.PROLABORE;
-
-                        if (!isExcluded) {
-                                BigDecimal current = despesasPorCategoria.getOrDefault(d.getCategoria(),
-                                                BigDecimal.ZERO);
-                                despesasPorCategoria.put(d.getCategoria(),
-                                                current.add(d.getValor()).setScale(2, RoundingMode.HALF_UP));
+                        // 2. Imposto com alíquota padrão (6% Simples Nacional 1ª faixa)
+                        imposto = faturamentoTotal.multiply(new BigDecimal("0.06"))
+                                        .setScale(2, RoundingMode.HALF_UP);
+
+                        // Soma por categoria no banco (GROUP BY), sem carregar as despesas
+                        for (Object[] row : despesaRepository.sumValorByCategoriaAndDataDespesaBetween(inicioDoMes,
+                                        fimDoMes)) {
+                                CategoriaDespesa categoria = (CategoriaDespesa) row[0];
+                                // Excluir categorias já calculadas separadamente no DRE
+                                if (categoria != null && row[1] != null && !isExcluidaDoDre(categoria)) {
+                                        despesasPorCategoria.put(categoria,
+                                                        ((BigDecimal) row[1]).setScale(2, RoundingMode.HALF_UP));
+                                }
                         }
                 }
+                log.info("🏷️ Imposto calculado: {}", imposto);
+
                 // Sum only valid operational expenses (excluding taxes and prolabore)
                 BigDecimal despesasTotal = despesasPorCategoria.values().stream()
                                 .reduce(BigDecimal.ZERO, BigDecimal::add)
@@ -852,6 +678,37 @@ public class ComissaoService {
                                 .build();
         }
 
+        /**
+         * Resumo do mês para o DRE. Se ausente ou desatualizado, garante as
+         * comissões do mês (calcula apenas as que faltam, como antes) e reagrega o
+         * mês a partir das tabelas de origem.
+         */
+        private com.empresa.comissao.domain.entity.ResumoFinanceiroMensal obterResumoParaDre(int ano, int mes,
+                        com.empresa.comissao.domain.entity.Empresa empresa) {
+                YearMonth anoMes = YearMonth.of(ano, mes);
+                Optional<com.empresa.comissao.domain.entity.ResumoFinanceiroMensal> atualizado = resumoFinanceiroService
+                                .buscarParaDre(empresa.getId(), anoMes);
+                if (atualizado.isPresent()) {
+                        log.info("📒 DRE {} a partir do resumo mensal materializado", anoMes);
+                        return atualizado.get();
+                }
+
+                if (empresa.getModoComissao() == com.empresa.comissao.domain.enums.ModoComissao.COLETIVA) {
+                        log.info("📊 Comissão calculada em modo COLETIVA para DRE da empresa: {}", empresa.getNome());
+                        calcularComissaoEmpresaMensal(ano, mes, empresa);
+                } else {
+                        log.info("📊 Garantindo comissões INDIVIDUAIS de todos os funcionários para DRE da empresa: {}",
+                                        empresa.getNome());
+                        listarComissoesEmpresa(ano, mes, empresa);
+                }
+                return resumoFinanceiroService.recalcular(empresa.getId(), anoMes, true);
+        }
+
+        // Categorias calculadas separadamente no DRE (imposto calculado e pró-labore)
+        private static boolean isExcluidaDoDre(CategoriaDespesa categoria) {
+                return categoria == CategoriaDespesa.IMPOSTOS_SOBRE_VENDA || categoria == CategoriaDespesa.PROLABORE;
+        }
+
         public List<Faturamento> listarFaturamentos(com.empresa.comissao.domain.entity.Empresa empresa) {
                 if (empresa != null) {
                         // USA QUERY OTIMIZADA COM JOIN FETCH
@@ -906,20 +763,16 @@ public class ComissaoService {
                                         "Empresa é obrigatória para cálculo de comparação YoY.");
                 }
 
-                // Get current year/month revenue
-                LocalDate inicio = LocalDate.of(ano, mes, 1);
-                LocalDate fim = inicio.withDayOfMonth(inicio.lengthOfMonth());
+                // Faturamento do mês atual e do mesmo mês do ano anterior (resumo mensal)
+                YearMonth mesAtual = YearMonth.of(ano, mes);
+                YearMonth mesAnoAnterior = mesAtual.minusYears(1);
 
-                BigDecimal faturamentoAtual = faturamentoRepository
-                                .sumValorByDataBetweenAndEmpresa(inicio, fim, empresaToUse);
-
-                // Get previous year revenue for the same month
-                int anoAnterior = ano - 1;
-                LocalDate inicioAnterior = LocalDate.of(anoAnterior, mes, 1);
-                LocalDate fimAnterior = inicioAnterior.withDayOfMonth(inicioAnterior.lengthOfMonth());
-
-                BigDecimal faturamentoAnoAnterior = faturamentoRepository
-                                .sumValorByDataBetweenAndEmpresa(inicioAnterior, fimAnterior, empresaToUse);
+                BigDecimal faturamentoAtual = resumoFinanceiroService
+                                .obterPeriodo(empresaToUse.getId(), mesAtual, mesAtual)
+                                .get(mesAtual).getFaturamento();
+                BigDecimal faturamentoAnoAnterior = resumoFinanceiroService
+                                .obterPeriodo(empresaToUse.getId(), mesAnoAnterior, mesAnoAnterior)
+                                .get(mesAnoAnterior).getFaturamento();
 
                 boolean temDadosAnoAnterior = faturamentoAnoAnterior.compareTo(BigDecimal.ZERO) > 0;
 
@@ -978,36 +831,14 @@ public class ComissaoService {
                                         "Empresa é obrigatória para geração de relatório anual.");
                 }
 
-                // Get monthly revenue for current year
-                LocalDate inicioAno = LocalDate.of(ano, 1, 1);
-                LocalDate fimAno = LocalDate.of(ano, 12, 31);
-
-                List<Object[]> faturamentosMensais = faturamentoRepository
-                                .findFaturamentoMensalByDataBetweenAndEmpresa(inicioAno, fimAno, empresaToUse);
+                // Faturamento mensal do ano e do ano anterior: 1 leitura do resumo mensal
+                Map<YearMonth, com.empresa.comissao.domain.entity.ResumoFinanceiroMensal> resumos = resumoFinanceiroService
+                                .obterPeriodo(empresaToUse.getId(), YearMonth.of(ano - 1, 1), YearMonth.of(ano, 12));
 
-                // Build map for quick lookup
                 Map<Integer, BigDecimal> faturamentoPorMes = new java.util.HashMap<>();
-                for (Object[] row : faturamentosMensais) {
-                        Integer mes = (Integer) row[0];
-                        BigDecimal total = (BigDecimal) row[1];
-                        faturamentoPorMes.put(mes, total);
-                }
-
-                // Get previous year data
-                int anoAnterior = ano - 1;
-                LocalDate inicioAnoAnterior = LocalDate.of(anoAnterior, 1, 1);
-                LocalDate fimAnoAnterior = LocalDate.of(anoAnterior, 12, 31);
-
-                List<Object[]> faturamentosMensaisAnoAnterior = faturamentoRepository
-                                .findFaturamentoMensalByDataBetweenAndEmpresa(inicioAnoAnterior, fimAnoAnterior,
-                                                empresaToUse);
-
                 Map<Integer, BigDecimal> faturamentoPorMesAnoAnterior = new java.util.HashMap<>();
-                for (Object[] row : faturamentosMensaisAnoAnterior) {
-                        Integer mes = (Integer) row[0];
-                        BigDecimal total = (BigDecimal) row[1];
-                        faturamentoPorMesAnoAnterior.put(mes, total);
-                }
+                resumos.forEach((anoMes, resumo) -> (anoMes.getYear() == ano ? faturamentoPorMes
+                                : faturamentoPorMesAnoAnterior).put(anoMes.getMonthValue(), resumo.getFaturamento()));
 
                 // Build list of months with revenue data
                 List<MesFaturamentoDTO> mesesComFaturamento = new java.util.ArrayList<>();
@@ -1124,23 +955,132 @@ public class ComissaoService {
                 log.info("📊 Listando comissões de todos os funcionários para {}/{} - Empresa: {}",
                                 ano, mes, empresa.getNome());
 
-                List<com.empresa.comissao.domain.entity.User> funcionarios = userRepository.findByEmpresa(empresa);
-                List<ComissaoCalculada> comissoes = new java.util.ArrayList<>();
+                List<com.empresa.comissao.domain.entity.User> funcionarios = userRepository.findByEmpresa(empresa)
+                                .stream()
+                                .filter(com.empresa.comissao.domain.entity.User::isParticipaComissao)
+                                .toList();
 
-                for (com.empresa.comissao.domain.entity.User funcionario : funcionarios) {
-                        try {
-                                if (!funcionario.isParticipaComissao()) {
-                                        continue; // Skip without error log
-                                }
-                                ComissaoCalculada comissao = calcularEObterComissaoMensal(ano, mes, funcionario, force);
-                                comissoes.add(comissao);
-                        } catch (Exception e) {
-                                log.warn("⚠️ Erro ao calcular comissão para {}: {}", funcionario.getEmail(),
-                                                e.getMessage());
-                        }
-                }
+                List<ComissaoCalculada> comissoes = calcularComissoesEmLote(YearMonth.of(ano, mes), empresa,
+                                funcionarios, force);
 
                 log.info("✅ Retornando {} comissões calculadas", comissoes.size());
                 return comissoes;
         }
-}
\ No newline at end of file
+
+        /**
+         * Calcula o mês de todos os funcionários em um número CONSTANTE de queries
+         * (independente do tamanho da equipe), com o mesmo resultado de
+         * {@link #calcularEObterComissaoMensal(int, int, com.empresa.comissao.domain.entity.User, boolean)}
+         * por usuário:
+         * comissões do mês e do mês anterior, linhas do ledger do mês, 1 carga de
+         * regra e pagamentos (ContaPagar) agrupados por comissão. A gravação usa saveAll (batch JDBC via hibernate.jdbc.batch_size).
+         */
+        private List<ComissaoCalculada> calcularComissoesEmLote(YearMonth anoMesReferencia,
+                        com.empresa.comissao.domain.entity.Empresa empresa,
+                        List<com.empresa.comissao.domain.entity.User> funcionarios, boolean force) {
+                if (funcionarios.isEmpty()) {
+                        return new java.util.ArrayList<>();
+                }
+
+                // 1. Comissões já calculadas no mês (por usuário)
+                Map<Long, ComissaoCalculada> existentes = indexarPorUsuario(
+                                comissaoCalculadaRepository.findByAnoMesReferenciaAndEmpresa(anoMesReferencia, empresa));
+
+                List<com.empresa.comissao.domain.entity.User> pendentes = force ? funcionarios
+                                : funcionarios.stream().filter(f -> !existentes.containsKey(f.getId())).toList();
+
+                if (pendentes.isEmpty()) {
+                        log.info("✅ Todas as {} comissões de {} já calculadas (cache)", funcionarios.size(),
+                                        anoMesReferencia);
+                        return funcionarios.stream().map(f -> existentes.get(f.getId()))
+                                        .collect(java.util.stream.Collectors.toList());
+                }
+
+                log.info("📊 Calculando {} comissões em lote para {} - Empresa: {}", pendentes.size(),
+                                anoMesReferencia, empresa.getNome());
+
+                // 2. Carryover do mês anterior
+                Map<Long, ComissaoCalculada> anteriores = indexarPorUsuario(comissaoCalculadaRepository
+                                .findByAnoMesReferenciaAndEmpresa(anoMesReferencia.minusMonths(1), empresa));
+
+                // 3/4. Recebimentos e adiantamentos do mês: 1 leitura do ledger para a equipe
+                Map<Long, ComissaoLedgerService.Totais> totais = comissaoLedgerService.getTotaisMes(empresa,
+                                anoMesReferencia);
+                boolean coletiva = empresa.getModoComissao() == com.empresa.comissao.domain.enums.ModoComissao.COLETIVA;
+                BigDecimal baseColetiva = totais
+                                .getOrDefault(com.empresa.comissao.domain.entity.ComissaoLedger.EMPRESA_TOTAL,
+                                                ComissaoLedgerService.Totais.ZERO)
+                                .recebido();
+
+                // 5. Regra ativa: 1 carga para toda a equipe
+                RegraComissaoCompilada regra = regraComissaoCache.getRegraAtiva(empresa);
+                if (regra.isSemRegra()) {
+                        log.warn("⚠️ Nenhuma regra de comissão ativa encontrada para empresa {}", empresa.getNome());
+                }
+
+                // 6. Pagamentos já realizados: 1 GROUP BY comissão
+                List<ComissaoCalculada> existentesPendentes = pendentes.stream()
+                                .map(f -> existentes.get(f.getId()))
+                                .filter(java.util.Objects::nonNull)
+                                .toList();
+                Map<Long, BigDecimal> pagoPorComissao = existentesPendentes.isEmpty() ? Map.of()
+                                : somasPorId(contaPagarRepository.sumPaidGroupByComissao(existentesPendentes));
+
+                List<ComissaoCalculada> calculadas = new java.util.ArrayList<>(pendentes.size());
+                for (com.empresa.comissao.domain.entity.User funcionario : pendentes) {
+                        ComissaoCalculada comissao = existentes.get(funcionario.getId());
+                        if (comissao == null) {
+                                comissao = ComissaoCalculada.builder()
+                                                .anoMesReferencia(anoMesReferencia)
+                                                .usuario(funcionario)
+                                                .empresa(empresa)
+                                                .build();
+                        }
+
+                        ComissaoLedgerService.Totais totaisFuncionario = totais.getOrDefault(funcionario.getId(),
+                                        ComissaoLedgerService.Totais.ZERO);
+                        BigDecimal base = coletiva ? baseColetiva : totaisFuncionario.recebido();
+                        BigDecimal valorQuitado = comissao.getId() != null
+                                        ? pagoPorComissao.getOrDefault(comissao.getId(), BigDecimal.ZERO)
+                                        : BigDecimal.ZERO;
+
+                        aplicarCalculo(comissao, base,
+                                        totaisFuncionario.adiantamentos(),
+                                        calcularSaldoAnterior(Optional.ofNullable(anteriores.get(funcionario.getId()))),
+                                        valorQuitado,
+                                        regra.resolver(base));
+                        calculadas.add(comissao);
+                }
+
+                Map<Long, ComissaoCalculada> salvas = indexarPorUsuario(comissaoCalculadaRepository.saveAll(calculadas));
+                resumoFinanceiroService.invalidar(empresa.getId(), anoMesReferencia);
+
+                return funcionarios.stream()
+                                .map(f -> salvas.containsKey(f.getId()) ? salvas.get(f.getId()) : existentes.get(f.getId()))
+                                .collect(java.util.stream.Collectors.toList());
+        }
+
+        private static Map<Long, ComissaoCalculada> indexarPorUsuario(List<ComissaoCalculada> comissoes) {
+                Map<Long, ComissaoCalculada> porUsuario = new java.util.HashMap<>();
+                for (ComissaoCalculada c : comissoes) {
+                        if (c.getUsuario() != null) {
+                                porUsuario.putIfAbsent(c.getUsuario().getId(), c);
+                        }
+                }
+                return porUsuario;
+        }
+
+        /**
+         * Converte linhas [id, soma] de queries agrupadas em mapa id → soma.
+         */
+        private static Map<Long, BigDecimal> somasPorId(List<Object[]> linhas) {
+                Map<Long, BigDecimal> somas = new java.util.HashMap<>();
+                for (Object[] linha : linhas) {
+                        if (linha[0] != null) {
+                                somas.put(((Number) linha[0]).longValue(),
+                                                linha[1] != null ? (BigDecimal) linha[1] : BigDecimal.ZERO);
+                        }
+                }
+                return somas;
+        }
+}
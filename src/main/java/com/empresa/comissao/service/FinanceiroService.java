@@ -19,6 +19,8 @@ import com.empresa.comissao.dto.RelatorioReceitaCaixaDTO;
 import com.empresa.comissao.dto.RelatorioFluxoCaixaDTO;
 import com.empresa.comissao.dto.RelatorioContasPagarDTO;
 import com.empresa.comissao.dto.RelatorioDistribuicaoLucrosDTO;
+import com.empresa.comissao.dto.list.ContaPagarRelatorioDTO;
+import com.empresa.comissao.dto.list.ContaReceberRelatorioDTO;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -37,6 +39,9 @@ public class FinanceiroService {
         private final RecebimentoRepository recebimentoRepository;
         private final com.empresa.comissao.repository.FaturamentoRepository faturamentoRepository;
         private final ComissaoService comissaoService;
+        private final ComissaoLedgerService comissaoLedgerService;
+        private final ResumoFinanceiroService resumoFinanceiroService;
+        private final SaldoCaixaService saldoCaixaService;
 
         // ========================================
         // CONTAS A PAGAR
@@ -70,6 +75,7 @@ public class FinanceiroService {
                                 .build();
 
                 ContaPagar salva = contaPagarRepository.save(conta);
+                resumoFinanceiroService.invalidar(salva.getEmpresa(), dataPagamento);
                 log.info("✅ Conta a pagar criada com ID: {} | Status: {}", salva.getId(), status);
                 return salva;
         }
@@ -160,13 +166,20 @@ public class FinanceiroService {
                 conta.setStatus(StatusConta.PAGO);
 
                 ContaPagar salva = contaPagarRepository.save(conta);
+                resumoFinanceiroService.invalidar(salva.getEmpresa(), dataPagamento);
                 log.info("✅ Conta {} marcada como paga em {}", contaId, dataPagamento);
                 return salva;
         }
 
         @Transactional
         public ContaPagar salvarContaPagar(ContaPagar conta) {
-                return contaPagarRepository.save(conta);
+                // Mês anterior também muda se a data de pagamento foi alterada
+                LocalDate dataAnterior = conta.getId() != null
+                                ? contaPagarRepository.findDataPagamentoGravada(conta.getId()).orElse(null)
+                                : null;
+                ContaPagar salva = contaPagarRepository.save(conta);
+                resumoFinanceiroService.invalidar(salva.getEmpresa(), dataAnterior, salva.getDataPagamento());
+                return salva;
         }
 
         /**
@@ -264,6 +277,7 @@ public class FinanceiroService {
                                 .build();
 
                 ContaPagar salva = contaPagarRepository.save(conta);
+                resumoFinanceiroService.invalidar(empresa, salva.getDataPagamento());
                 log.info("✅ Despesa/Conta Paga ID {} criada para adiantamento", salva.getId());
                 return salva;
         }
@@ -345,6 +359,7 @@ public class FinanceiroService {
                                 .build();
 
                 ContaPagar salva = contaPagarRepository.save(conta);
+                resumoFinanceiroService.invalidar(empresa, salva.getDataPagamento());
                 log.info("✅ Conta a pagar (PAGA) ID {} criada para comissão", salva.getId());
                 return salva;
         }
@@ -515,6 +530,8 @@ public class FinanceiroService {
 
                 ContaReceber conta = builder.build();
                 ContaReceber salva = contaReceberRepository.save(conta);
+                // Competência e (à vista) recebimento caem no mês do faturamento
+                resumoFinanceiroService.invalidar(salva.getEmpresa(), faturamento.getDataFaturamento());
 
                 // Se à vista, criar Recebimento automático
                 if (pagamentoAvista) {
@@ -528,6 +545,9 @@ public class FinanceiroService {
                                         .observacao("Pagamento à vista na finalização da OS")
                                         .build();
                         recebimentoRepository.save(recebimento);
+                        comissaoLedgerService.registrarRecebimento(recebimento.getEmpresa(),
+                                        recebimento.getFuncionarioResponsavel(), recebimento.getDataPagamento(),
+                                        recebimento.getValorPago());
                         log.info("💰 Recebimento automático criado para pagamento à vista");
                 }
 
@@ -587,6 +607,9 @@ public class FinanceiroService {
                                 .funcionarioResponsavel(conta.getFuncionarioResponsavel())
                                 .build();
                 recebimentoRepository.save(recebimento);
+                comissaoLedgerService.registrarRecebimento(recebimento.getEmpresa(),
+                                recebimento.getFuncionarioResponsavel(), recebimento.getDataPagamento(), valorRecebido);
+                resumoFinanceiroService.invalidar(recebimento.getEmpresa(), recebimento.getDataPagamento());
 
                 // 2. Atualizar saldo da conta (domain logic)
                 conta.registrarRecebimento(valorRecebido);
@@ -651,12 +674,18 @@ public class FinanceiroService {
 
                 ContaReceber conta = recebimento.getContaReceber();
                 BigDecimal valorEstornado = recebimento.getValorPago();
+                LocalDate dataQuitacaoAnterior = conta.getDataRecebimento(); // deixa de contar no caixa
 
                 // Devolver valor ao saldo
                 conta.estornarRecebimento(valorEstornado);
 
                 // Deletar o registro de recebimento
                 recebimentoRepository.delete(recebimento);
+                comissaoLedgerService.registrarRecebimento(recebimento.getEmpresa(),
+                                recebimento.getFuncionarioResponsavel(), recebimento.getDataPagamento(),
+                                valorEstornado.negate());
+                resumoFinanceiroService.invalidar(recebimento.getEmpresa(), recebimento.getDataPagamento(),
+                                dataQuitacaoAnterior);
                 ContaReceber salva = contaReceberRepository.save(conta);
 
                 log.info("↩️ Estorno de R$ {} na conta {} | Novo status: {} | Novo saldo: {}",
@@ -796,21 +825,17 @@ public class FinanceiroService {
                 LocalDate inicio = periodo.atDay(1);
                 LocalDate fim = periodo.atEndOfMonth();
 
-                // Buscar todas as contas recebidas no período
-                List<ContaReceber> contasRecebidas = contaReceberRepository
-                                .findRecebidosBetween(empresa, inicio, fim);
+                // Buscar todas as contas recebidas no período (projeção, sem entidades)
+                List<ContaReceberRelatorioDTO> contasRecebidas = contaReceberRepository
+                                .findRecebidosBetweenParaRelatorio(empresa, inicio, fim);
 
                 // Converter para DTOs
                 List<com.empresa.comissao.dto.ReceitaCaixaDTO> recebimentos = contasRecebidas.stream()
                                 .map(conta -> com.empresa.comissao.dto.ReceitaCaixaDTO.builder()
                                                 .dataRecebimento(conta.getDataRecebimento())
                                                 .valor(conta.getValor())
-                                                .origem(gerarOrigemConta(conta))
-                                                .cliente(conta.getOrdemServico() != null
-                                                                && conta.getOrdemServico().getCliente() != null
-                                                                                ? conta.getOrdemServico().getCliente()
-                                                                                                .getRazaoSocial()
-                                                                                : null)
+                                                .origem(conta.getOrigem())
+                                                .cliente(conta.getClienteOrdemServico())
                                                 .meioPagamento(conta.getMeioPagamento() != null
                                                                 ? conta.getMeioPagamento().name()
                                                                 : null)
@@ -835,16 +860,6 @@ public class FinanceiroService {
                                 .build();
         }
 
-        private String gerarOrigemConta(ContaReceber conta) {
-                if (conta.getOrdemServico() != null) {
-                        return "OS #" + conta.getOrdemServico().getId();
-                }
-                if (conta.getFaturamento() != null) {
-                        return "Faturamento #" + conta.getFaturamento().getId();
-                }
-                return conta.getDescricao() != null ? conta.getDescricao() : "Recebimento";
-        }
-
         // ========================================
         // RELATÓRIOS CONTÁBEIS (PDF)
         // ========================================
@@ -856,21 +871,17 @@ public class FinanceiroService {
                 LocalDate inicio = periodo.atDay(1);
                 LocalDate fim = periodo.atEndOfMonth();
 
-                List<ContaReceber> recebimentos = contaReceberRepository.findRecebidosBetween(empresa, inicio, fim);
+                List<ContaReceberRelatorioDTO> recebimentos = contaReceberRepository
+                                .findRecebidosBetweenParaRelatorio(empresa, inicio, fim);
 
                 List<RelatorioReceitaCaixaDTO.ItemReceitaDTO> itens = recebimentos.stream()
                                 .map(c -> RelatorioReceitaCaixaDTO.ItemReceitaDTO.builder()
                                                 .dataRecebimento(c.getDataRecebimento())
                                                 .valor(c.getValor())
-                                                .origem(gerarOrigemConta(c))
-                                                .cliente(c.getOrdemServico() != null
-                                                                && c.getOrdemServico().getCliente() != null
-                                                                                ? c.getOrdemServico().getCliente()
-                                                                                                .getRazaoSocial()
-                                                                                : (c.getCliente() != null ? c
-                                                                                                .getCliente()
-                                                                                                .getRazaoSocial()
-                                                                                                : "N/A"))
+                                                .origem(c.getOrigem())
+                                                .cliente(c.getClienteOrdemServico() != null
+                                                                ? c.getClienteOrdemServico()
+                                                                : (c.getCliente() != null ? c.getCliente() : "N/A"))
                                                 .meioPagamento(c.getMeioPagamento() != null
                                                                 ? c.getMeioPagamento().name()
                                                                 : "N/A")
@@ -898,14 +909,15 @@ public class FinanceiroService {
                 LocalDate inicio = periodo.atDay(1);
                 LocalDate fim = periodo.atEndOfMonth();
 
-                // 1. Calcular Saldo Inicial (Acumulado até o dia anterior ao inicio)
-                BigDecimal totalRecebidoAntes = contaReceberRepository.sumByRecebimentoBefore(empresa, inicio);
-                BigDecimal totalPagoAntes = contaPagarRepository.sumByPagamentoBefore(empresa, inicio);
-                BigDecimal saldoInicial = totalRecebidoAntes.subtract(totalPagoAntes);
+                // 1. Calcular Saldo Inicial (Acumulado até o dia anterior ao inicio):
+                // snapshot do último mês fechado + movimento desde então
+                BigDecimal saldoInicial = saldoCaixaService.saldoAntes(empresa, inicio).getSaldoContas();
 
                 // 2. Movimentações do Mês
-                List<ContaReceber> entradasList = contaReceberRepository.findRecebidosBetween(empresa, inicio, fim);
-                List<ContaPagar> saidasList = contaPagarRepository.findPagasBetween(empresa, inicio, fim);
+                List<ContaReceberRelatorioDTO> entradasList = contaReceberRepository
+                                .findRecebidosBetweenParaRelatorio(empresa, inicio, fim);
+                List<ContaPagarRelatorioDTO> saidasList = contaPagarRepository
+                                .findPagasBetweenParaRelatorio(empresa, inicio, fim);
 
                 List<RelatorioFluxoCaixaDTO.ItemFluxoDTO> entradasDTO = entradasList.stream()
                                 .map(c -> RelatorioFluxoCaixaDTO.ItemFluxoDTO.builder()
@@ -959,31 +971,21 @@ public class FinanceiroService {
                 LocalDate inicio = periodo.atDay(1);
                 LocalDate fim = periodo.atEndOfMonth();
 
-                // 1. Vencimentos no período (Standard view)
-                List<ContaPagar> porVencimento = contaPagarRepository.findByVencimentoBetween(empresa, inicio, fim);
-
-                // 2. Pagamentos no período (Cash view - captura pagamentos atrasados feitos
-                // agora)
-                List<ContaPagar> porPagamento = contaPagarRepository.findPagasBetween(empresa, inicio, fim);
-
-                // 3. Merge lists removing duplicates
-                java.util.Set<ContaPagar> merged = new java.util.HashSet<>();
-                merged.addAll(porVencimento);
-                merged.addAll(porPagamento);
-
-                // Sort by Vencimento
-                List<ContaPagar> sortedList = new ArrayList<>(merged);
-                sortedList.sort((c1, c2) -> c1.getDataVencimento().compareTo(c2.getDataVencimento()));
+                // Vencimentos no período (Standard view) + pagamentos no período (Cash view -
+                // captura pagamentos atrasados feitos agora): 1 consulta projetada, já sem
+                // duplicatas e ordenada por vencimento
+                List<ContaPagarRelatorioDTO> contas = contaPagarRepository
+                                .findVencidasOuPagasBetweenParaRelatorio(empresa, inicio, fim);
 
-                List<RelatorioContasPagarDTO.ItemContaPagarDTO> itens = sortedList.stream()
+                List<RelatorioContasPagarDTO.ItemContaPagarDTO> itens = contas.stream()
                                 .map(c -> RelatorioContasPagarDTO.ItemContaPagarDTO.builder()
                                                 .dataVencimento(c.getDataVencimento())
                                                 .dataPagamento(c.getDataPagamento())
                                                 .valor(c.getValor())
                                                 .descricao(c.getDescricao())
                                                 .fornecedor(
-                                                                c.getFuncionario() != null
-                                                                                ? c.getFuncionario().getUsername()
+                                                                c.getFuncionarioEmail() != null
+                                                                                ? c.getFuncionarioEmail()
                                                                                 : "Fornecedor/Terceiro")
                                                 .tipo(c.getTipo().name())
                                                 .status(c.getStatus().name())
@@ -1072,9 +1074,8 @@ public class FinanceiroService {
                 long recebimentosVencendo = contaReceberRepository.countVencendoProximos(
                                 empresa, LocalDate.now(), LocalDate.now().plusDays(7));
 
-                BigDecimal totalRecebidoCaixa = recebimentoRepository.sumByEmpresaAndDataPagamentoBefore(empresa, LocalDate.now().plusDays(1));
-                BigDecimal totalPagoCaixa = contaPagarRepository.sumByPagamentoBefore(empresa, LocalDate.now().plusDays(1));
-                BigDecimal saldoAtual = totalRecebidoCaixa.subtract(totalPagoCaixa);
+                BigDecimal saldoAtual = saldoCaixaService.saldoAntes(empresa, LocalDate.now().plusDays(1))
+                                .getSaldoRecebimentos();
 
                 return new ResumoFinanceiro(totalAPagar, totalAReceber, contasVencendo, recebimentosVencendo, saldoAtual);
         }
@@ -33,6 +33,7 @@ public class LicencaService {
     private final PlanoLicencaRepository planoLicencaRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final com.empresa.comissao.security.AuthVersionService authVersionService;
 
     /**
      * Criar nova licença (revendedor) com usuário admin
@@ -116,6 +117,7 @@ public class LicencaService {
         tenants.forEach(empresa -> {
             empresa.setStatus(StatusEmpresa.BLOQUEADA);
             empresaRepository.save(empresa);
+            authVersionService.incrementTenantVersion(empresa.getId());
         });
 
         log.warn("Licença {} suspensa: {}", licencaId, motivo);
@@ -45,6 +45,16 @@ public class LocalStorageService implements StorageService {
         return key;
     }
 
+    @Override
+    public String uploadBytes(byte[] content, String key, String contentType) throws IOException {
+        Path filePath = Paths.get(uploadDir).resolve(key);
+        Files.createDirectories(filePath.getParent());
+        Files.write(filePath, content);
+        log.info("File stored locally: {} ({} bytes)", filePath, content.length);
+
+        return key;
+    }
+
     @Override
     public String getFileUrl(String key) {
         return "/api/v1/empresa/logo/" + key;
@@ -0,0 +1,215 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.OrdemServico;
+import com.empresa.comissao.exception.BusinessException;
+import com.empresa.comissao.repository.OrdemServicoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exportação em lote dos PDFs de OS em um ZIP enviado por streaming.
+ *
+ * As OS do filtro são percorridas em páginas por id (keyset, sem OFFSET):
+ * cada página busca os ids, carrega o grafo completo em uma transação curta e
+ * monta o HTML; a renderização roda em paralelo (app.pdf.max-concurrent,
+ * o mesmo orçamento do semáforo do {@link PdfService}) e cada PDF vira uma
+ * entrada do ZIP assim que fica pronto. Em memória fica no máximo uma página
+ * (app.pdf.lote.pagina), qualquer que seja o total de OS.
+ *
+ * Os PDFs do lote não passam pelo cache de PDFs e esperam o semáforo sem
+ * timeout: com downloads concorrentes o ZIP demora mais, mas não perde OS.
+ * Por isso o lote tem tamanho máximo (app.pdf.lote.max-os, recusado antes de
+ * começar o ZIP) e a resposta assíncrona tem timeout próprio
+ * (app.pdf.lote.timeout), dimensionado para ele, no lugar do padrão do
+ * container. OS que falham não interrompem o arquivo: são listadas em
+ * erros.txt.
+ */
+@Service
+@Slf4j
+public class OrdemServicoPdfLoteService {
+
+    static final String ARQUIVO_ERROS = "erros.txt";
+
+    private final OrdemServicoRepository osRepository;
+    private final PdfService pdfService;
+    private final TransactionTemplate readOnlyTx;
+    private final ExecutorService executor;
+    private final int tamanhoPagina;
+    private final int maxOs;
+    private final Duration timeout;
+
+    public OrdemServicoPdfLoteService(OrdemServicoRepository osRepository,
+            PdfService pdfService,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.pdf.max-concurrent:2}") int paralelismo,
+            @Value("${app.pdf.lote.pagina:20}") int tamanhoPagina,
+            @Value("${app.pdf.lote.max-os:200}") int maxOs,
+            @Value("${app.pdf.lote.timeout:PT10M}") Duration timeout) {
+        this.osRepository = osRepository;
+        this.pdfService = pdfService;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.tamanhoPagina = Math.max(1, tamanhoPagina);
+        this.maxOs = maxOs;
+        this.timeout = timeout;
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, paralelismo), r -> {
+            Thread t = new Thread(r, "os-pdf-lote-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * HTML de uma OS pronto para renderizar (montado dentro da transação),
+     * ou o erro ao montá-lo.
+     */
+    private record Documento(Long id, String html, String erro) {
+    }
+
+    /**
+     * PDF renderizado, ou a mensagem de erro da OS.
+     */
+    private record Entrada(Long id, byte[] pdf, String erro) {
+    }
+
+    /**
+     * Corpo da resposta. Só a quantidade de OS é consultada agora (lote acima
+     * de app.pdf.lote.max-os: {@link BusinessException}, 400); o resto quando
+     * o corpo for escrito.
+     */
+    public StreamingResponseBody exportar(Specification<OrdemServico> filtro) {
+        long total = osRepository.count(filtro);
+        if (total > maxOs) {
+            throw new BusinessException("O lote tem " + total + " OS; o máximo por download é " + maxOs
+                    + ". Refine os filtros.");
+        }
+        return out -> escreverZip(filtro, out);
+    }
+
+    /**
+     * Timeout da resposta assíncrona do ZIP (app.pdf.lote.timeout).
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    void escreverZip(Specification<OrdemServico> filtro, OutputStream out) throws IOException {
+        long inicio = System.currentTimeMillis();
+        // O stream da resposta é fechado pelo container
+        ZipOutputStream zip = new ZipOutputStream(StreamUtils.nonClosing(out));
+        // PDFs já são comprimidos: deflate rápido só para não inflar o ZIP
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        List<String> erros = new ArrayList<>();
+        int total = 0;
+        Long ultimoId = 0L;
+        while (true) {
+            Long aposId = ultimoId;
+            List<Documento> pagina = readOnlyTx.execute(status -> carregarPagina(filtro, aposId));
+            if (pagina == null || pagina.isEmpty()) {
+                break;
+            }
+            ultimoId = pagina.get(pagina.size() - 1).id();
+
+            CompletionService<Entrada> renderizacoes = new ExecutorCompletionService<>(executor);
+            for (Documento doc : pagina) {
+                renderizacoes.submit(() -> renderizar(doc));
+            }
+            for (int i = 0; i < pagina.size(); i++) {
+                Entrada entrada = proxima(renderizacoes);
+                if (entrada.erro() != null) {
+                    erros.add("OS " + entrada.id() + ": " + entrada.erro());
+                    continue;
+                }
+                zip.putNextEntry(new ZipEntry("os-" + entrada.id() + ".pdf"));
+                zip.write(entrada.pdf());
+                zip.closeEntry();
+                total++;
+            }
+            // Entrega a página ao cliente antes de buscar a próxima
+            zip.flush();
+        }
+
+        if (!erros.isEmpty()) {
+            zip.putNextEntry(new ZipEntry(ARQUIVO_ERROS));
+            zip.write(String.join("\n", erros).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        log.info("📦 ZIP de OS gerado: {} PDFs, {} erros em {}ms", total, erros.size(),
+                System.currentTimeMillis() - inicio);
+    }
+
+    private List<Documento> carregarPagina(Specification<OrdemServico> filtro, Long aposId) {
+        List<Long> ids = osRepository.findIdsByFiltro(filtro, aposId, tamanhoPagina);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Documento> pagina = new ArrayList<>(ids.size());
+        for (OrdemServico os : osRepository.findGrafoPdfByIdIn(ids)) {
+            try {
+                pagina.add(new Documento(os.getId(), pdfService.htmlOrdemServicoLote(os), null));
+            } catch (Exception e) {
+                pagina.add(new Documento(os.getId(), null, e.getMessage()));
+            }
+        }
+        return pagina;
+    }
+
+    private Entrada renderizar(Documento doc) {
+        if (doc.erro() != null) {
+            return new Entrada(doc.id(), null, doc.erro());
+        }
+        try {
+            ByteArrayOutputStream pdf = new ByteArrayOutputStream();
+            pdfService.renderizarOrdemServicoLote(doc.html(), pdf);
+            return new Entrada(doc.id(), pdf.toByteArray(), null);
+        } catch (Exception e) {
+            log.warn("⚠️ Falha ao renderizar PDF da OS {} no lote: {}", doc.id(), e.getMessage());
+            return new Entrada(doc.id(), null, e.getMessage());
+        }
+    }
+
+    private static Entrada proxima(CompletionService<Entrada> renderizacoes) throws IOException {
+        try {
+            return renderizacoes.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Exportação de PDFs interrompida");
+        } catch (ExecutionException e) {
+            // renderizar() já captura as falhas de cada OS
+            throw new IOException("Falha inesperada na exportação de PDFs", e.getCause());
+        }
+    }
+}
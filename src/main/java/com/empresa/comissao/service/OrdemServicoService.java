@@ -6,6 +6,7 @@ import com.empresa.comissao.dto.request.PecaServicoRequest;
 import com.empresa.comissao.dto.request.VeiculoRequest;
 import com.empresa.comissao.dto.response.*;
 import com.empresa.comissao.repository.*;
+import com.empresa.comissao.util.SyncCursor;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -33,15 +34,31 @@ public class OrdemServicoService {
         private final FinanceiroService financeiroService;
         private final UserRepository userRepository;
         private final ContaReceberRepository contaReceberRepository;
+        private final ResumoFinanceiroService resumoFinanceiroService;
 
         @Autowired
         private TenantVersionService tenantVersionService;
 
+        @Autowired
+        private SyncChangeLogService syncChangeLogService;
+
+        @Autowired
+        private SyncWatermarkService syncWatermarkService;
+
+        @org.springframework.beans.factory.annotation.Value("${sync.os.page-size:200}")
+        private int syncPageSize;
+
+        @org.springframework.beans.factory.annotation.Value("${sync.os.page-size-max:1000}")
+        private int syncPageSizeMax;
+
         // ... existing fields ...
 
         private void bumpTenantVersion(OrdemServico os) {
                 if (os != null && os.getEmpresa() != null) {
                         tenantVersionService.bump(os.getEmpresa().getId());
+                        // Alterações por dirty checking não passam pelo save() do aspect
+                        syncChangeLogService.registrar(os);
+                        syncWatermarkService.registrar(os);
                 }
         }
 
@@ -104,6 +121,7 @@ public class OrdemServicoService {
                                         .build();
 
                         faturamentoRepository.save(faturamento);
+                        resumoFinanceiroService.invalidar(os.getEmpresa(), dataReferencia);
                         log.info("✅ Faturamento gerado com sucesso para OS ID: {} (data: {})", id, dataReferencia);
 
                         bumpTenantVersion(os);
@@ -703,21 +721,8 @@ public class OrdemServicoService {
                                         .getContext().getAuthentication();
 
                         // Determine if user is Admin
-                        boolean isAdmin = auth.getAuthorities().stream()
-                                        .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN_EMPRESA") ||
-                                                        a.getAuthority().equals("ROLE_SUPER_ADMIN") ||
-                                                        a.getAuthority().equals("ROLE_ADMIN_LICENCA"));
-
-                        Long userId = null;
-                        if (!isAdmin) {
-                                if (auth.getPrincipal() instanceof com.empresa.comissao.security.AuthPrincipal) {
-                                        userId = ((com.empresa.comissao.security.AuthPrincipal) auth.getPrincipal())
-                                                        .getUserId();
-                                } else if (auth.getPrincipal() instanceof com.empresa.comissao.domain.entity.User) {
-                                        userId = ((com.empresa.comissao.domain.entity.User) auth.getPrincipal())
-                                                        .getId();
-                                }
-                        }
+                        boolean isAdmin = isAdminSync(auth);
+                        Long userId = isAdmin ? null : usuarioIdSync(auth);
 
                         List<OrdemServico> list;
                         if (isAdmin) {
@@ -746,6 +751,87 @@ public class OrdemServicoService {
                 return java.util.Collections.emptyList();
         }
 
+        /**
+         * Sync incremental paginado por (updatedAt, id).
+         *
+         * Fase 1 busca só as posições da página (índice empresa/updated_at/id);
+         * fase 2 carrega o grafo apenas dessas OS. Memória e payload ficam
+         * limitados ao tamanho da página, qualquer que seja o volume do tenant.
+         * Com cursor, since é ignorado.
+         */
+        @Transactional(readOnly = true)
+        public SyncPageResponse<OrdemServicoResponse> listarSyncPagina(java.time.LocalDateTime since, String cursor,
+                        Integer limit) {
+                SyncCursor inicio = cursor != null ? SyncCursor.decode(cursor) : SyncCursor.apos(since);
+                SyncPageResponse<OrdemServicoResponse> vazia = SyncPageResponse.<OrdemServicoResponse>builder()
+                                .items(java.util.Collections.emptyList())
+                                .nextCursor(inicio.encode())
+                                .hasMore(false)
+                                .build();
+
+                Long tenantId = com.empresa.comissao.config.TenantContext.getCurrentTenant();
+                if (tenantId == null) {
+                        return vazia;
+                }
+                org.springframework.security.core.Authentication auth = org.springframework.security.core.context.SecurityContextHolder
+                                .getContext().getAuthentication();
+                boolean isAdmin = isAdminSync(auth);
+                Long userId = isAdmin ? null : usuarioIdSync(auth);
+                if (!isAdmin && userId == null) {
+                        return vazia;
+                }
+
+                int tamanho = Math.min(Math.max(1, limit != null ? limit : syncPageSize), syncPageSizeMax);
+                // Uma linha a mais só para saber se há próxima página
+                org.springframework.data.domain.Pageable pagina = org.springframework.data.domain.PageRequest.of(0,
+                                tamanho + 1);
+                List<SyncCursor> posicoes = isAdmin
+                                ? osRepository.findSyncCursorPage(tenantId, inicio.updatedAt(), inicio.id(), pagina)
+                                : osRepository.findSyncCursorPageByUsuario(tenantId, userId, inicio.updatedAt(),
+                                                inicio.id(), pagina);
+
+                boolean hasMore = posicoes.size() > tamanho;
+                if (hasMore) {
+                        posicoes = posicoes.subList(0, tamanho);
+                }
+                if (posicoes.isEmpty()) {
+                        return vazia;
+                }
+
+                List<Long> ids = posicoes.stream().map(SyncCursor::id).collect(Collectors.toList());
+                java.util.Map<Long, OrdemServico> porId = osRepository.findSyncGrafoByIdIn(ids).stream()
+                                .collect(Collectors.toMap(OrdemServico::getId, os -> os));
+
+                // Mantém a ordem do cursor; OS removida entre as fases é ignorada
+                List<OrdemServicoResponse> items = ids.stream()
+                                .map(porId::get)
+                                .filter(java.util.Objects::nonNull)
+                                .map(this::mapToResponse)
+                                .collect(Collectors.toList());
+
+                return SyncPageResponse.<OrdemServicoResponse>builder()
+                                .items(items)
+                                .nextCursor(posicoes.get(posicoes.size() - 1).encode())
+                                .hasMore(hasMore)
+                                .build();
+        }
+
+        private boolean isAdminSync(org.springframework.security.core.Authentication auth) {
+                return auth.getAuthorities().stream()
+                                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN_EMPRESA") ||
+                                                a.getAuthority().equals("ROLE_SUPER_ADMIN") ||
+                                                a.getAuthority().equals("ROLE_ADMIN_LICENCA"));
+        }
+
+        private Long usuarioIdSync(org.springframework.security.core.Authentication auth) {
+                if (auth.getPrincipal() instanceof com.empresa.comissao.security.AuthPrincipal) {
+                        return ((com.empresa.comissao.security.AuthPrincipal) auth.getPrincipal()).getUserId();
+                } else if (auth.getPrincipal() instanceof com.empresa.comissao.domain.entity.User) {
+                        return ((com.empresa.comissao.domain.entity.User) auth.getPrincipal()).getId();
+                }
+                return null;
+        }
+
         @Transactional(readOnly = true)
         public org.springframework.data.domain.Page<OrdemServicoResponse> listarPaginated(
                         org.springframework.data.domain.Pageable pageable,
@@ -754,9 +840,33 @@ public class OrdemServicoService {
                         java.time.LocalDate date,
                         Boolean atrasado) {
 
+                org.springframework.data.jpa.domain.Specification<OrdemServico> spec = especificacaoFiltro(status,
+                                search, date, atrasado);
+                if (spec == null) {
+                        return org.springframework.data.domain.Page.empty();
+                }
+
+                // Optimized Query: Find All with Filters AND Fetches (via Specification)
+                // Note: The Specification now handles JOIN FETCH for relations to avoid N+1.
+                org.springframework.data.domain.Page<OrdemServico> page = osRepository.findAll(spec, pageable);
+
+                return page.map(this::mapToResponse);
+        }
+
+        /**
+         * Filtro do grid (tenant atual; usuário comum só vê as próprias OS).
+         * Null quando não há tenant no contexto.
+         */
+        @Transactional(readOnly = true)
+        public org.springframework.data.jpa.domain.Specification<OrdemServico> especificacaoFiltro(
+                        String status,
+                        String search,
+                        java.time.LocalDate date,
+                        Boolean atrasado) {
+
                 Long tenantId = com.empresa.comissao.config.TenantContext.getCurrentTenant();
                 if (tenantId == null) {
-                        return org.springframework.data.domain.Page.empty();
+                        return null;
                 }
 
                 com.empresa.comissao.domain.entity.User usuario = null;
@@ -779,18 +889,11 @@ public class OrdemServicoService {
                         }
                 }
 
-                // 1. First Query: Find IDs with Filters (Efficient Count + Pagination)
-                org.springframework.data.jpa.domain.Specification<OrdemServico> spec = com.empresa.comissao.repository.spec.OrdemServicoSpecification
+                return com.empresa.comissao.repository.spec.OrdemServicoSpecification
                                 .withFilter(tenantId, usuario, status, search, date, atrasado);
-
-                // Optimized Query: Find All with Filters AND Fetches (via Specification)
-                // Note: The Specification now handles JOIN FETCH for relations to avoid N+1.
-                org.springframework.data.domain.Page<OrdemServico> page = osRepository.findAll(spec, pageable);
-
-                return page.map(this::mapToResponse);
         }
 
-        private OrdemServicoResponse mapToResponse(OrdemServico os) {
+        OrdemServicoResponse mapToResponse(OrdemServico os) {
                 // Calculate if overdue: status=EM_EXECUCAO and due date past today
                 boolean atrasado = os.getStatus() == com.empresa.comissao.domain.enums.StatusOrdemServico.EM_EXECUCAO
                                 && os.getDataVencimento() != null
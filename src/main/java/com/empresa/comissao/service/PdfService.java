@@ -13,10 +13,15 @@ import com.empresa.comissao.dto.RelatorioDistribuicaoLucrosDTO;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.lowagie.text.DocumentException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 import org.xhtmlrenderer.pdf.ITextRenderer;
@@ -27,7 +32,9 @@ import jakarta.annotation.PostConstruct;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.math.RoundingMode;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -48,6 +55,11 @@ public class PdfService {
 
     private final TemplateEngine templateEngine;
     private final StorageService storageService;
+    private final MeterRegistry meterRegistry;
+
+    // Renderers reaproveitados entre documentos (fontes, CSS padrão e classes já
+    // carregados). No máximo maxConcurrentPdfs em uso, controlado pelo semáforo.
+    private final java.util.Queue<ITextRenderer> renderers = new java.util.concurrent.ConcurrentLinkedQueue<>();
 
     // Cache de logos Base64 — evita re-download do S3 a cada PDF
     private final Cache<String, String> logoCache = Caffeine.newBuilder()
@@ -67,34 +79,184 @@ public class PdfService {
 
     private Semaphore pdfSemaphore;
 
+    // Cache de PDFs renderizados por hash (só memória, limitado por peso)
+    // dataGeracao entra no HTML como marcador e é trocada só antes do layout,
+    // para que o hash dependa apenas do conteúdo
+    private static final LocalDateTime GERACAO_MARCADOR = LocalDateTime.of(1111, 11, 11, 11, 11);
+    private static final String GERACAO_MARCADOR_TEXTO = "11/11/1111 11:11";
+    private static final java.time.format.DateTimeFormatter FORMATO_GERACAO = java.time.format.DateTimeFormatter
+            .ofPattern("dd/MM/yyyy HH:mm");
+
+    @Value("${app.pdf.cache.spec:maximumWeight=16777216,expireAfterAccess=30m}")
+    private String cacheSpec;
+
+    // Incrementar ao mudar CSS/fontes/renderer sem mudar o HTML gerado
+    @Value("${app.pdf.cache.versao:1}")
+    private String cacheVersao;
+
+    // PDF maior que isso não é copiado para o cache (nem fica duas vezes no heap)
+    @Value("${app.pdf.cache.max-bytes:2097152}")
+    private int cacheMaxBytes;
+
+    private Cache<String, byte[]> pdfCache;
+
+    // Renderiza cada template uma vez no startup (ApplicationReadyEvent)
+    @Value("${app.pdf.warmup:true}")
+    private boolean warmup;
+
+    public PdfService(TemplateEngine templateEngine, StorageService storageService) {
+        this(templateEngine, storageService, new io.micrometer.core.instrument.simple.SimpleMeterRegistry());
+    }
+
     @Autowired
-    public PdfService(TemplateEngine templateEngine, @Autowired(required = false) StorageService storageService) {
+    public PdfService(TemplateEngine templateEngine, @Autowired(required = false) StorageService storageService,
+            MeterRegistry meterRegistry) {
         this.templateEngine = templateEngine;
         this.storageService = storageService;
+        this.meterRegistry = meterRegistry;
     }
 
     @PostConstruct
     public void init() {
         this.pdfSemaphore = new Semaphore(maxConcurrentPdfs, true); // fair = true (FIFO)
-        log.info("📄 PdfService: max concurrent PDFs = {}, timeout = {}s", maxConcurrentPdfs, pdfTimeoutSeconds);
+        for (int i = 0; i < maxConcurrentPdfs; i++) {
+            renderers.offer(new ITextRenderer());
+        }
+        Caffeine<Object, Object> builder = Caffeine.from(cacheSpec);
+        this.pdfCache = cacheSpec.contains("maximumWeight")
+                ? builder.weigher((String hash, byte[] pdf) -> pdf.length).build()
+                : builder.build();
+        log.info("📄 PdfService: max concurrent PDFs = {}, timeout = {}s, cache = {}", maxConcurrentPdfs,
+                pdfTimeoutSeconds, cacheSpec);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void agendarAquecimento() {
+        if (!warmup) {
+            return;
+        }
+        Thread t = new Thread(this::aquecer, "pdf-warmup");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Renderiza cada template com dados de exemplo uma vez em cada renderer do
+     * pool, para que o primeiro PDF após o deploy não pague parse de template,
+     * carga de classes/fontes e JIT. Não passa pelo cache nem pelas métricas.
+     */
+    int aquecer() {
+        long inicio = System.currentTimeMillis();
+        Map<String, java.util.function.Supplier<String>> amostras = amostrasAquecimento();
+        int aquecidos = 0;
+        for (Map.Entry<String, java.util.function.Supplier<String>> amostra : amostras.entrySet()) {
+            try {
+                String html = comDataGeracao(amostra.getValue().get());
+                // Pool FIFO: chamadas sequenciais passam por todos os renderers
+                for (int i = 0; i < maxConcurrentPdfs; i++) {
+                    renderizar(null, html, OutputStream.nullOutputStream(), false);
+                }
+                aquecidos++;
+            } catch (Exception e) {
+                log.warn("⚠️ Aquecimento do template {} falhou: {}", amostra.getKey(), e.getMessage());
+            }
+        }
+        log.info("🔥 PDF warm-up: {}/{} templates em {}ms", aquecidos, amostras.size(),
+                System.currentTimeMillis() - inicio);
+        return aquecidos;
+    }
+
+    private Map<String, java.util.function.Supplier<String>> amostrasAquecimento() {
+        Empresa empresa = Empresa.builder().nome("Aquecimento").build();
+        java.time.YearMonth mes = java.time.YearMonth.now();
+        Map<String, java.util.function.Supplier<String>> amostras = new java.util.LinkedHashMap<>();
+        amostras.put("pdf/relatorio-anual", () -> htmlRelatorioAnual(RelatorioAnualDTO.builder()
+                .ano(mes.getYear())
+                .mesesComFaturamento(List.of())
+                .faturamentoTotalAno(BigDecimal.ZERO)
+                .faturamentoTotalAnoAnterior(BigDecimal.ZERO)
+                .diferencaAnual(BigDecimal.ZERO)
+                .crescimentoPercentualAnual(BigDecimal.ZERO)
+                .build(), empresa));
+        amostras.put("pdf/relatorio-financeiro", () -> htmlRelatorioFinanceiro(RelatorioFinanceiroDTO.builder()
+                .ano(mes.getYear())
+                .mes(mes.getMonthValue())
+                .despesasPorCategoria(Map.of())
+                .faturamentoTotal(BigDecimal.ZERO)
+                .despesasTotal(BigDecimal.ZERO)
+                .imposto(BigDecimal.ZERO)
+                .adiantamentosTotal(BigDecimal.ZERO)
+                .comissaoAlocada(BigDecimal.ZERO)
+                .saldoRemanescenteComissao(BigDecimal.ZERO)
+                .totalGeral(BigDecimal.ZERO)
+                .lucroLiquido(BigDecimal.ZERO)
+                .build(), empresa));
+        amostras.put("pdf/fluxo-caixa",
+                () -> htmlFluxoCaixa(mes, BigDecimal.ZERO, BigDecimal.ZERO, empresa));
+        amostras.put("pdf/receita-caixa", () -> htmlGeneric("pdf/receita-caixa", RelatorioReceitaCaixaDTO.builder()
+                .dataInicio(mes.atDay(1))
+                .dataFim(mes.atEndOfMonth())
+                .totalRecebido(BigDecimal.ZERO)
+                .itens(List.of())
+                .build(), empresa));
+        amostras.put("pdf/fluxo-caixa-detalhado", () -> htmlGeneric("pdf/fluxo-caixa-detalhado",
+                RelatorioFluxoCaixaDTO.builder()
+                        .periodo(mes.toString())
+                        .saldoInicial(BigDecimal.ZERO)
+                        .totalEntradas(BigDecimal.ZERO)
+                        .totalSaidas(BigDecimal.ZERO)
+                        .resultadoPeriodo(BigDecimal.ZERO)
+                        .saldoFinal(BigDecimal.ZERO)
+                        .entradas(List.of())
+                        .saidas(List.of())
+                        .build(),
+                empresa));
+        amostras.put("pdf/contas-pagar", () -> htmlGeneric("pdf/contas-pagar", RelatorioContasPagarDTO.builder()
+                .periodo(mes.toString())
+                .totalPago(BigDecimal.ZERO)
+                .totalPendente(BigDecimal.ZERO)
+                .totalVencido(BigDecimal.ZERO)
+                .itens(List.of())
+                .build(), empresa));
+        amostras.put("pdf/distribuicao-lucros", () -> htmlGeneric("pdf/distribuicao-lucros",
+                RelatorioDistribuicaoLucrosDTO.builder()
+                        .periodo(mes.toString())
+                        .totalMes(BigDecimal.ZERO)
+                        .totalAcumuladoAno(BigDecimal.ZERO)
+                        .distribuicoes(List.of())
+                        .build(),
+                empresa));
+        amostras.put("pdf/ordem-servico", () -> htmlOrdemServico(OrdemServico.builder()
+                .id(0L)
+                .data(mes.atDay(1))
+                .empresa(empresa)
+                .cliente(com.empresa.comissao.domain.entity.Cliente.builder().razaoSocial("Cliente").build())
+                .build()));
+        return amostras;
     }
 
     public byte[] gerarRelatorioAnualPdf(RelatorioAnualDTO relatorio, Empresa empresa) {
+        return gerarBytes("pdf/relatorio-anual", htmlRelatorioAnual(relatorio, empresa));
+    }
+
+    public PdfStream streamRelatorioAnualPdf(RelatorioAnualDTO relatorio, Empresa empresa) {
+        return stream("pdf/relatorio-anual", htmlRelatorioAnual(relatorio, empresa));
+    }
+
+    private String htmlRelatorioAnual(RelatorioAnualDTO relatorio, Empresa empresa) {
         try {
             // Prepare template context
             Context context = new Context(Locale.of("pt", "BR"));
             context.setVariable("empresa", prepararDadosEmpresa(empresa));
             context.setVariable("relatorio", relatorio);
-            context.setVariable("dataGeracao", LocalDateTime.now());
+            context.setVariable("dataGeracao", GERACAO_MARCADOR);
 
             // Process HTML template
             String htmlContent = templateEngine.process("pdf/relatorio-anual", context);
             if (htmlContent == null) {
                 throw new RuntimeException("Erro ao processar template: resultado nulo");
             }
-
-            // Convert to PDF
-            return htmlToPdf(htmlContent);
+            return htmlContent;
         } catch (Exception e) {
             log.error("Erro ao gerar PDF do relatório anual", e);
             throw new RuntimeException("Erro ao gerar PDF", e);
@@ -103,6 +265,16 @@ public class PdfService {
 
     public byte[] gerarFluxoCaixaPdf(java.time.YearMonth periodo, BigDecimal entradas,
             BigDecimal saidas, Empresa empresa) {
+        return gerarBytes("pdf/fluxo-caixa", htmlFluxoCaixa(periodo, entradas, saidas, empresa));
+    }
+
+    public PdfStream streamFluxoCaixaPdf(java.time.YearMonth periodo, BigDecimal entradas,
+            BigDecimal saidas, Empresa empresa) {
+        return stream("pdf/fluxo-caixa", htmlFluxoCaixa(periodo, entradas, saidas, empresa));
+    }
+
+    private String htmlFluxoCaixa(java.time.YearMonth periodo, BigDecimal entradas,
+            BigDecimal saidas, Empresa empresa) {
         try {
             Context context = new Context(Locale.of("pt", "BR"));
             context.setVariable("empresa", prepararDadosEmpresa(empresa));
@@ -112,14 +284,13 @@ public class PdfService {
             context.setVariable("saidas", saidas != null ? saidas : BigDecimal.ZERO);
             context.setVariable("saldo", (entradas != null ? entradas : BigDecimal.ZERO)
                     .subtract(saidas != null ? saidas : BigDecimal.ZERO));
-            context.setVariable("dataGeracao", LocalDateTime.now());
+            context.setVariable("dataGeracao", GERACAO_MARCADOR);
 
             String htmlContent = templateEngine.process("pdf/fluxo-caixa", context);
             if (htmlContent == null) {
                 throw new RuntimeException("Erro ao processar template: resultado nulo");
             }
-
-            return htmlToPdf(htmlContent);
+            return htmlContent;
         } catch (Exception e) {
             log.error("Erro ao gerar PDF do fluxo de caixa", e);
             throw new RuntimeException("Erro ao gerar PDF", e);
@@ -127,12 +298,20 @@ public class PdfService {
     }
 
     public byte[] gerarRelatorioFinanceiroPdf(RelatorioFinanceiroDTO relatorio, Empresa empresa) {
+        return gerarBytes("pdf/relatorio-financeiro", htmlRelatorioFinanceiro(relatorio, empresa));
+    }
+
+    public PdfStream streamRelatorioFinanceiroPdf(RelatorioFinanceiroDTO relatorio, Empresa empresa) {
+        return stream("pdf/relatorio-financeiro", htmlRelatorioFinanceiro(relatorio, empresa));
+    }
+
+    private String htmlRelatorioFinanceiro(RelatorioFinanceiroDTO relatorio, Empresa empresa) {
         try {
             // Prepare template context
             Context context = new Context(Locale.of("pt", "BR"));
             context.setVariable("empresa", prepararDadosEmpresa(empresa));
             context.setVariable("relatorio", relatorio);
-            context.setVariable("dataGeracao", LocalDateTime.now());
+            context.setVariable("dataGeracao", GERACAO_MARCADOR);
 
             // Process refined expense data with pre-calculated percentages
             context.setVariable("despesasDetalhadas", prepararDespesasComPercentual(relatorio));
@@ -142,9 +321,7 @@ public class PdfService {
             if (htmlContent == null) {
                 throw new RuntimeException("Erro ao processar template: resultado nulo");
             }
-
-            // Convert to PDF
-            return htmlToPdf(htmlContent);
+            return htmlContent;
         } catch (Exception e) {
             log.error("Erro ao gerar PDF do relatório financeiro", e);
             throw new RuntimeException("Erro ao gerar PDF", e);
@@ -152,34 +329,52 @@ public class PdfService {
     }
 
     public byte[] gerarRelatorioReceitaCaixaPdf(RelatorioReceitaCaixaDTO relatorio, Empresa empresa) {
-        return gerarPdfGeneric("pdf/receita-caixa", relatorio, empresa);
+        return gerarBytes("pdf/receita-caixa", htmlGeneric("pdf/receita-caixa", relatorio, empresa));
+    }
+
+    public PdfStream streamRelatorioReceitaCaixaPdf(RelatorioReceitaCaixaDTO relatorio, Empresa empresa) {
+        return stream("pdf/receita-caixa", htmlGeneric("pdf/receita-caixa", relatorio, empresa));
     }
 
     public byte[] gerarRelatorioFluxoCaixaDetalhadoPdf(RelatorioFluxoCaixaDTO relatorio, Empresa empresa) {
-        return gerarPdfGeneric("pdf/fluxo-caixa-detalhado", relatorio, empresa);
+        return gerarBytes("pdf/fluxo-caixa-detalhado", htmlGeneric("pdf/fluxo-caixa-detalhado", relatorio, empresa));
+    }
+
+    public PdfStream streamRelatorioFluxoCaixaDetalhadoPdf(RelatorioFluxoCaixaDTO relatorio,
+            Empresa empresa) {
+        return stream("pdf/fluxo-caixa-detalhado", htmlGeneric("pdf/fluxo-caixa-detalhado", relatorio, empresa));
     }
 
     public byte[] gerarRelatorioContasPagarPdf(RelatorioContasPagarDTO relatorio, Empresa empresa) {
-        return gerarPdfGeneric("pdf/contas-pagar", relatorio, empresa);
+        return gerarBytes("pdf/contas-pagar", htmlGeneric("pdf/contas-pagar", relatorio, empresa));
+    }
+
+    public PdfStream streamRelatorioContasPagarPdf(RelatorioContasPagarDTO relatorio, Empresa empresa) {
+        return stream("pdf/contas-pagar", htmlGeneric("pdf/contas-pagar", relatorio, empresa));
     }
 
     public byte[] gerarRelatorioDistribuicaoLucrosPdf(RelatorioDistribuicaoLucrosDTO relatorio, Empresa empresa) {
-        return gerarPdfGeneric("pdf/distribuicao-lucros", relatorio, empresa);
+        return gerarBytes("pdf/distribuicao-lucros", htmlGeneric("pdf/distribuicao-lucros", relatorio, empresa));
+    }
+
+    public PdfStream streamRelatorioDistribuicaoLucrosPdf(RelatorioDistribuicaoLucrosDTO relatorio,
+            Empresa empresa) {
+        return stream("pdf/distribuicao-lucros", htmlGeneric("pdf/distribuicao-lucros", relatorio, empresa));
     }
 
     // Método genérico para simplificar
-    private byte[] gerarPdfGeneric(String template, Object relatorioObj, Empresa empresa) {
+    private String htmlGeneric(String template, Object relatorioObj, Empresa empresa) {
         try {
             Context context = new Context(Locale.of("pt", "BR"));
             context.setVariable("empresa", prepararDadosEmpresa(empresa));
             context.setVariable("relatorio", relatorioObj);
-            context.setVariable("dataGeracao", LocalDateTime.now());
+            context.setVariable("dataGeracao", GERACAO_MARCADOR);
 
             String htmlContent = templateEngine.process(template, context);
             if (htmlContent == null) {
                 throw new RuntimeException("Erro ao processar template " + template);
             }
-            return htmlToPdf(htmlContent);
+            return htmlContent;
         } catch (Exception e) {
             log.error("Erro ao gerar PDF " + template, e);
             throw new RuntimeException("Erro ao gerar PDF", e);
@@ -272,11 +467,40 @@ public class PdfService {
      * Gera PDF da Ordem de Serviço com dados da empresa, cliente e veículos.
      */
     public byte[] gerarOrdemServicoPdf(OrdemServico os) {
+        return gerarBytes("pdf/ordem-servico", htmlOrdemServico(os));
+    }
+
+    public PdfStream streamOrdemServicoPdf(OrdemServico os) {
+        return stream("pdf/ordem-servico", htmlOrdemServico(os));
+    }
+
+    /**
+     * HTML da OS para exportação em lote, montado na transação que carregou o
+     * grafo; renderizado depois por {@link #renderizarOrdemServicoLote}.
+     */
+    public String htmlOrdemServicoLote(OrdemServico os) {
+        return comDataGeracao(htmlOrdemServico(os));
+    }
+
+    /**
+     * Renderização do lote: fora do cache (cada OS sai uma vez e só expulsaria
+     * os downloads) e esperando o semáforo sem timeout, porque quem espera é o
+     * worker do lote, não um request.
+     */
+    public void renderizarOrdemServicoLote(String html, OutputStream outputStream) throws IOException {
+        try {
+            renderizar("pdf/ordem-servico", html, outputStream, true);
+        } catch (DocumentException e) {
+            throw new IOException("Erro ao gerar PDF", e);
+        }
+    }
+
+    private String htmlOrdemServico(OrdemServico os) {
         try {
             Context context = new Context(Locale.of("pt", "BR"));
             context.setVariable("empresa", prepararDadosEmpresa(os.getEmpresa()));
             context.setVariable("os", os);
-            context.setVariable("dataGeracao", LocalDateTime.now());
+            context.setVariable("dataGeracao", GERACAO_MARCADOR);
 
             // Status description
             context.setVariable("statusDescricao", getStatusDescricao(os.getStatus()));
@@ -296,8 +520,7 @@ public class PdfService {
             if (htmlContent == null) {
                 throw new RuntimeException("Erro ao processar template: resultado nulo");
             }
-
-            return htmlToPdf(htmlContent);
+            return htmlContent;
         } catch (Exception e) {
             log.error("Erro ao gerar PDF da Ordem de Serviço {}", os.getId(), e);
             throw new RuntimeException("Erro ao gerar PDF", e);
@@ -328,10 +551,157 @@ public class PdfService {
         }
     }
 
-    private byte[] htmlToPdf(String html) throws DocumentException, IOException {
+    /**
+     * PDF em memória (jobs assíncronos / armazenamento). Para download use os
+     * métodos stream*, que não mantêm o arquivo inteiro no heap.
+     */
+    private byte[] gerarBytes(String template, String html) {
+        String hash = hash(template, html);
+        byte[] cached = buscarCache(hash);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(32768); // pre-size 32KB
+            renderizar(template, comDataGeracao(html), outputStream, false);
+            byte[] pdf = outputStream.toByteArray();
+            if (pdf.length <= cacheMaxBytes) {
+                guardarCache(hash, pdf);
+            }
+            return pdf;
+        } catch (com.empresa.comissao.exception.PdfConcurrencyException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Erro ao gerar PDF {}", template, e);
+            throw new RuntimeException("Erro ao gerar PDF", e);
+        }
+    }
+
+    /**
+     * Renderiza direto no output stream da resposta (ou copia o PDF do cache).
+     * O HTML já foi processado na thread do request; o semáforo só é ocupado
+     * durante a renderização.
+     */
+    private PdfStream stream(String template, String html) {
+        String hash = hash(template, html);
+        return new PdfStream("\"" + hash + "\"", outputStream -> {
+            byte[] cached = buscarCache(hash);
+            if (cached != null) {
+                outputStream.write(cached);
+                return;
+            }
+            // Cópia para o cache enquanto escreve na resposta
+            CopiaLimitada destino = new CopiaLimitada(outputStream, cacheMaxBytes);
+            try {
+                renderizar(template, comDataGeracao(html), destino, false);
+            } catch (DocumentException e) {
+                log.error("Erro ao gerar PDF {}", template, e);
+                throw new IOException("Erro ao gerar PDF", e);
+            }
+            byte[] pdf = destino.conteudo();
+            if (pdf != null) {
+                guardarCache(hash, pdf);
+            } else {
+                log.debug("📄 PDF acima de {} bytes, fora do cache: {}", cacheMaxBytes, hash);
+            }
+        });
+    }
+
+    /**
+     * Repassa o PDF para a resposta e guarda uma cópia até maxBytes. Passou do
+     * limite, descarta a cópia e segue só repassando.
+     */
+    private static class CopiaLimitada extends java.io.FilterOutputStream {
+        private final int maxBytes;
+        private ByteArrayOutputStream copia;
+
+        CopiaLimitada(OutputStream out, int maxBytes) {
+            super(out);
+            this.maxBytes = maxBytes;
+            this.copia = new ByteArrayOutputStream(Math.min(32768, Math.max(maxBytes, 0)));
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (copia != null) {
+                if (copia.size() + len > maxBytes) {
+                    copia = null;
+                } else {
+                    copia.write(b, off, len);
+                }
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush(); // iText fecha o stream ao final; quem fecha a resposta é o Spring
+        }
+
+        byte[] conteudo() {
+            return copia != null ? copia.toByteArray() : null;
+        }
+    }
+
+    /**
+     * PDF pronto para download: ETag (hash do conteúdo) disponível antes de
+     * renderizar, para responder 304 sem layout.
+     */
+    public record PdfStream(String etag, StreamingResponseBody body) {
+    }
+
+    /**
+     * Endereço do PDF: template + versão de renderização + HTML (com a data
+     * de geração ainda como marcador). Mesmo HTML = mesmo PDF.
+     */
+    private String hash(String template, String html) {
+        try {
+            java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-256");
+            digest.update((template + "|" + cacheVersao + "|").getBytes(StandardCharsets.UTF_8));
+            digest.update(html.getBytes(StandardCharsets.UTF_8));
+            return java.util.HexFormat.of().formatHex(digest.digest());
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String comDataGeracao(String html) {
+        return html.replace(GERACAO_MARCADOR_TEXTO, LocalDateTime.now().format(FORMATO_GERACAO));
+    }
+
+    private byte[] buscarCache(String hash) {
+        byte[] pdf = pdfCache.getIfPresent(hash);
+        if (pdf != null) {
+            log.debug("📄 PDF cache hit: {}", hash);
+        }
+        return pdf;
+    }
+
+    private void guardarCache(String hash, byte[] pdf) {
+        pdfCache.put(hash, pdf);
+    }
+
+    /**
+     * Layout + escrita do PDF com um renderer do pool. Tempo (sem a espera
+     * pelo semáforo) registrado em pdf.renderizacao{template}, p50/p99;
+     * template null (aquecimento) não entra na métrica. aguardar: espera o
+     * semáforo sem timeout (lote em background).
+     */
+    private void renderizar(String template, String html, OutputStream outputStream, boolean aguardar)
+            throws DocumentException, IOException {
         boolean acquired = false;
         try {
-            acquired = pdfSemaphore.tryAcquire(pdfTimeoutSeconds, TimeUnit.SECONDS);
+            if (aguardar) {
+                pdfSemaphore.acquire();
+                acquired = true;
+            } else {
+                acquired = pdfSemaphore.tryAcquire(pdfTimeoutSeconds, TimeUnit.SECONDS);
+            }
             if (!acquired) {
                 log.warn("⚠️ PDF semaphore timeout — {} PDFs em execução, fila cheia", maxConcurrentPdfs);
                 throw new com.empresa.comissao.exception.PdfConcurrencyException(
@@ -341,18 +711,32 @@ public class PdfService {
 
             log.debug("📄 PDF acquire — permits restantes: {}", pdfSemaphore.availablePermits());
 
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(32768); // pre-size 32KB
-            ITextRenderer renderer = new ITextRenderer();
+            ITextRenderer renderer = renderers.poll();
+            if (renderer == null) {
+                renderer = new ITextRenderer();
+            }
+            boolean reutilizavel = false;
+            Timer.Sample amostra = Timer.start(meterRegistry);
             try {
                 renderer.setDocumentFromString(java.util.Objects.requireNonNull(html, "HTML content cannot be null"));
                 renderer.layout();
                 renderer.createPDF(outputStream);
+                reutilizavel = true;
+                if (template != null) {
+                    amostra.stop(Timer.builder("pdf.renderizacao")
+                            .description("Tempo de layout + escrita do PDF por template")
+                            .tag("template", template)
+                            .publishPercentiles(0.5, 0.99)
+                            .register(meterRegistry));
+                }
             } finally {
                 // Libera referências internas para ajudar o GC
                 renderer.getSharedContext().reset();
+                // Renderer que falhou pode ter ficado em estado inconsistente: descarta
+                if (reutilizavel) {
+                    renderers.offer(renderer);
+                }
             }
-
-            return outputStream.toByteArray();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new RuntimeException("Geração de PDF interrompida", e);
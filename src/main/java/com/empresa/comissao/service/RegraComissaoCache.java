@@ -0,0 +1,71 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.cache.InvalidationBus;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.repository.RegraComissaoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache por empresa da regra de comissão ativa já compilada.
+ *
+ * Carga atômica por chave (Caffeine): uma invalidação publicada após o commit
+ * aguarda uma carga em andamento e a descarta, então nenhuma versão antiga da
+ * regra sobrevive a criar/atualizar/ativar. A invalidação passa pelo
+ * {@link InvalidationBus} (tópico próprio, {@link #TOPICO}) para
+ * alcançar todos os nós; o TTL (comissao.regra-cache.spec) é independente do
+ * dos caches de auth.
+ */
+@Component
+@Slf4j
+public class RegraComissaoCache {
+
+    static final String TOPICO = "regraComissao";
+
+    private final RegraComissaoRepository regraComissaoRepository;
+    private final InvalidationBus invalidationBus;
+    private final Cache<Long, RegraComissaoCompilada> cache;
+
+    public RegraComissaoCache(RegraComissaoRepository regraComissaoRepository,
+            InvalidationBus invalidationBus,
+            @Value("${comissao.regra-cache.spec:maximumSize=10000,expireAfterWrite=30m}") String spec) {
+        this.regraComissaoRepository = regraComissaoRepository;
+        this.invalidationBus = invalidationBus;
+        this.cache = Caffeine.from(spec).recordStats().build();
+        invalidationBus.subscribe(TOPICO, empresaId -> {
+            if (empresaId == null) {
+                cache.invalidateAll();
+            } else {
+                cache.invalidate(empresaId);
+            }
+        });
+    }
+
+    public RegraComissaoCompilada getRegraAtiva(Empresa empresa) {
+        if (empresa == null || empresa.getId() == null) {
+            return RegraComissaoCompilada.SEM_REGRA;
+        }
+        return cache.get(empresa.getId(), id -> compilar(empresa));
+    }
+
+    /**
+     * Invalida a regra compilada da empresa (efetivo após o commit da transação
+     * corrente).
+     */
+    public void invalidar(Long empresaId) {
+        if (empresaId != null) {
+            invalidationBus.publish(TOPICO, empresaId);
+        }
+    }
+
+    private RegraComissaoCompilada compilar(Empresa empresa) {
+        RegraComissaoCompilada compilada = RegraComissaoCompilada.compilar(
+                regraComissaoRepository.findActiveWithFaixasByEmpresa(empresa).orElse(null));
+        log.debug("📏 Regra de comissão compilada para empresa {}: regra={} versao={}",
+                empresa.getId(), compilada.getRegraId(), compilada.getVersao());
+        return compilada;
+    }
+}
@@ -0,0 +1,236 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.FaixaComissaoConfig;
+import com.empresa.comissao.domain.entity.RegraComissao;
+import com.empresa.comissao.domain.enums.TipoRegraComissao;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Regra de comissão "compilada": tabela imutável de faixas com percentuais e
+ * descrições pré-calculados, pronta para ser cacheada por empresa
+ * ({@link RegraComissaoCache}).
+ *
+ * Faixas disjuntas são ordenadas por mínimo e resolvidas por busca binária em
+ * centavos (long). Faixas sobrepostas ou com mais de 2 casas decimais mantêm a
+ * semântica original (primeira faixa na ordem cadastrada que contém a base).
+ */
+public final class RegraComissaoCompilada {
+
+    private static final BigDecimal CEM = new BigDecimal("100");
+
+    /**
+     * Faixa resolvida para uma base de cálculo: percentual como fração (0.15 =
+     * 15%) e descrição gravada em ComissaoCalculada.
+     */
+    public record Faixa(BigDecimal percentual, String descricao) {
+    }
+
+    public static final RegraComissaoCompilada SEM_REGRA = new RegraComissaoCompilada(null, null, null,
+            new Faixa(BigDecimal.ZERO, "Nenhuma regra de comissão configurada"));
+
+    private static final Faixa SEM_FAIXA = new Faixa(BigDecimal.ZERO, "Sem comissão definida");
+
+    private final Long regraId;
+    private final String nome;
+    private final LocalDateTime versao;
+
+    // FIXA_EMPRESA (ou sem regra): mesma faixa para qualquer base
+    private final Faixa faixaFixa;
+
+    // Faixas na ordem de resolução
+    private final BigDecimal[] minimos;
+    private final BigDecimal[] maximos; // null = sem limite superior
+    private final long[] minimosCentavos;
+    private final long[] maximosCentavos;
+    private final Faixa[] faixas;
+    private final boolean buscaBinaria;
+
+    private RegraComissaoCompilada(Long regraId, String nome, LocalDateTime versao, Faixa faixaFixa) {
+        this.regraId = regraId;
+        this.nome = nome;
+        this.versao = versao;
+        this.faixaFixa = faixaFixa;
+        this.minimos = new BigDecimal[0];
+        this.maximos = new BigDecimal[0];
+        this.minimosCentavos = new long[0];
+        this.maximosCentavos = new long[0];
+        this.faixas = new Faixa[0];
+        this.buscaBinaria = false;
+    }
+
+    private RegraComissaoCompilada(RegraComissao regra, List<FaixaComissaoConfig> configs) {
+        this.regraId = regra.getId();
+        this.nome = regra.getNome();
+        this.versao = regra.getDataAtualizacao();
+        this.faixaFixa = null;
+
+        int n = configs.size();
+        long[] minC = new long[n];
+        long[] maxC = new long[n];
+        boolean emCentavos = true;
+        for (int i = 0; i < n; i++) {
+            Long min = centavos(configs.get(i).getMinFaturamento());
+            Long max = configs.get(i).getMaxFaturamento() == null ? Long.valueOf(Long.MAX_VALUE)
+                    : centavos(configs.get(i).getMaxFaturamento());
+            if (min == null || max == null) {
+                emCentavos = false;
+                break;
+            }
+            minC[i] = min;
+            maxC[i] = max;
+        }
+
+        List<FaixaComissaoConfig> ordenadas = configs;
+        boolean disjuntas = false;
+        if (emCentavos) {
+            // Ordena por mínimo e verifica se nenhuma faixa se sobrepõe à seguinte
+            Integer[] idx = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                idx[i] = i;
+            }
+            java.util.Arrays.sort(idx, Comparator.comparingLong(i -> minC[i]));
+            disjuntas = true;
+            for (int i = 1; i < n; i++) {
+                if (maxC[idx[i - 1]] >= minC[idx[i]]) {
+                    disjuntas = false;
+                    break;
+                }
+            }
+            if (disjuntas) {
+                ordenadas = new ArrayList<>(n);
+                long[] minOrd = new long[n];
+                long[] maxOrd = new long[n];
+                for (int i = 0; i < n; i++) {
+                    ordenadas.add(configs.get(idx[i]));
+                    minOrd[i] = minC[idx[i]];
+                    maxOrd[i] = maxC[idx[i]];
+                }
+                System.arraycopy(minOrd, 0, minC, 0, n);
+                System.arraycopy(maxOrd, 0, maxC, 0, n);
+            }
+        }
+
+        this.buscaBinaria = disjuntas;
+        this.minimosCentavos = minC;
+        this.maximosCentavos = maxC;
+        this.minimos = new BigDecimal[n];
+        this.maximos = new BigDecimal[n];
+        this.faixas = new Faixa[n];
+        for (int i = 0; i < n; i++) {
+            FaixaComissaoConfig fc = ordenadas.get(i);
+            this.minimos[i] = fc.getMinFaturamento();
+            this.maximos[i] = fc.getMaxFaturamento();
+            this.faixas[i] = new Faixa(percentual(fc.getPorcentagem()), descricao(fc));
+        }
+    }
+
+    /**
+     * Compila a regra ativa. As faixas devem estar carregadas
+     * (findActiveWithFaixasByEmpresa).
+     */
+    public static RegraComissaoCompilada compilar(RegraComissao regra) {
+        if (regra == null) {
+            return SEM_REGRA;
+        }
+        if (regra.getTipoRegra() == TipoRegraComissao.FIXA_EMPRESA) {
+            return new RegraComissaoCompilada(regra.getId(), regra.getNome(), regra.getDataAtualizacao(),
+                    new Faixa(percentual(regra.getPercentualFixo()), "Fixa: " + regra.getNome()));
+        }
+        List<FaixaComissaoConfig> configs = regra.getFaixas() != null ? List.copyOf(regra.getFaixas()) : List.of();
+        return new RegraComissaoCompilada(regra, configs);
+    }
+
+    /**
+     * Resolve a faixa para a base de cálculo (recebido no mês).
+     */
+    public Faixa resolver(BigDecimal base) {
+        if (faixaFixa != null) {
+            return faixaFixa;
+        }
+        if (buscaBinaria) {
+            Long baseCentavos = centavos(base);
+            if (baseCentavos != null) {
+                return resolverBinaria(baseCentavos);
+            }
+        }
+        for (int i = 0; i < faixas.length; i++) {
+            if (base.compareTo(minimos[i]) >= 0 && (maximos[i] == null || base.compareTo(maximos[i]) <= 0)) {
+                return faixas[i];
+            }
+        }
+        return SEM_FAIXA;
+    }
+
+    private Faixa resolverBinaria(long base) {
+        // Última faixa com mínimo <= base
+        int lo = 0;
+        int hi = minimosCentavos.length - 1;
+        int candidata = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (minimosCentavos[mid] <= base) {
+                candidata = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (candidata >= 0 && base <= maximosCentavos[candidata]) {
+            return faixas[candidata];
+        }
+        return SEM_FAIXA;
+    }
+
+    public boolean isSemRegra() {
+        return this == SEM_REGRA;
+    }
+
+    public Long getRegraId() {
+        return regraId;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * dataAtualizacao da regra no momento da compilação.
+     */
+    public LocalDateTime getVersao() {
+        return versao;
+    }
+
+    private static BigDecimal percentual(BigDecimal porcentagem) {
+        return porcentagem != null ? porcentagem.divide(CEM, 4, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+
+    private static String descricao(FaixaComissaoConfig fc) {
+        String minStr = String.format("%,.2f", fc.getMinFaturamento());
+        String maxStr = fc.getMaxFaturamento() != null ? String.format("%,.2f", fc.getMaxFaturamento()) : "∞";
+        String rangeStr = "R$ " + minStr + " até R$ " + maxStr;
+        return (fc.getDescricao() != null && !fc.getDescricao().isBlank())
+                ? rangeStr + " (" + fc.getDescricao() + ")"
+                : rangeStr;
+    }
+
+    /**
+     * Valor em centavos, ou null se tiver mais de 2 casas decimais ou não couber
+     * em long.
+     */
+    private static Long centavos(BigDecimal valor) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return valor.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+}
@@ -29,6 +29,7 @@ public class RegraComissaoService {
     private final RegraComissaoRepository regraComissaoRepository;
     private final FaixaComissaoConfigRepository faixaComissaoConfigRepository;
     private final EmpresaRepository empresaRepository;
+    private final RegraComissaoCache regraComissaoCache;
 
     /**
      * Lista todas as regras de uma empresa.
@@ -92,6 +93,7 @@ public class RegraComissaoService {
             criarFaixas(regra, request.getFaixas());
         }
 
+        regraComissaoCache.invalidar(empresaId);
         log.info("✅ Regra criada com ID: {}", regra.getId());
         return RegraComissaoResponse.fromEntity(regra);
     }
@@ -123,6 +125,7 @@ public class RegraComissaoService {
         }
 
         regra = regraComissaoRepository.save(regra);
+        regraComissaoCache.invalidar(regra.getEmpresa().getId());
         log.info("✅ Regra atualizada: {}", regra.getId());
         return RegraComissaoResponse.fromEntity(regra);
     }
@@ -148,6 +151,7 @@ public class RegraComissaoService {
         // Ativar nova regra
         regra.setAtivo(true);
         regra = regraComissaoRepository.save(regra);
+        regraComissaoCache.invalidar(regra.getEmpresa().getId());
 
         log.info("✅ Regra ativada com sucesso: {}", regra.getId());
         return RegraComissaoResponse.fromEntity(regra);
@@ -165,6 +169,7 @@ public class RegraComissaoService {
 
         regra.setAtivo(false);
         regraComissaoRepository.save(regra);
+        regraComissaoCache.invalidar(regra.getEmpresa().getId());
 
         log.info("✅ Regra desativada: {}", regra.getId());
     }
@@ -184,12 +189,17 @@ public class RegraComissaoService {
         }
 
         regraComissaoRepository.delete(regra);
+        regraComissaoCache.invalidar(regra.getEmpresa().getId());
         log.info("✅ Regra deletada: {}", id);
     }
 
     // ==================== Métodos Auxiliares ====================
 
-    private void validarRequest(RegraComissaoRequest request) {
+    /**
+     * Regras de consistência da regra (também aplicadas às candidatas da
+     * {@link SimulacaoComissaoService}).
+     */
+    void validarRequest(RegraComissaoRequest request) {
         if (request.getTipoRegra() == TipoRegraComissao.FIXA_EMPRESA
                 && request.getPercentualFixo() == null) {
             throw new BusinessException("Percentual fixo é obrigatório para regras do tipo FIXA_EMPRESA");
@@ -0,0 +1,167 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.cache.InvalidationBus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache de resultados de relatórios financeiros por (tenant, tipo, período,
+ * versão financeira do tenant).
+ *
+ * Versão financeira: número local (por nó) guardado no cache
+ * {@link #VERSAO_FINANCEIRA_CACHE}, registrado no {@link InvalidationBus}.
+ * Escritas em dados financeiros ({@link com.empresa.comissao.aspect.FinanceiroCacheAspect})
+ * publicam a invalidação do tenant no bus; após o commit cada nó descarta a
+ * versão e a próxima leitura recebe um número novo, então todas as entradas
+ * antigas do tenant deixam de ser alcançáveis e expiram pelo peso/TTL.
+ *
+ * Cada tipo de relatório tem spec Caffeine própria
+ * (relatorio.cache.spec.{tipo}, padrão relatorio.cache.spec) e é pesado pelo
+ * tamanho em bytes do JSON do resultado.
+ */
+@Component
+@Slf4j
+public class RelatorioCache {
+
+    public enum TipoRelatorio {
+        DRE_MENSAL, ANUAL, RANKING_CLIENTES, RESUMO_FINANCEIRO,
+        RECEITA_CAIXA, FLUXO_CAIXA, CONTAS_PAGAR, DISTRIBUICAO_LUCROS;
+
+        String chave() {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    private record Chave(Long tenantId, String periodo, long versao) {
+    }
+
+    public static final String VERSAO_FINANCEIRA_CACHE = "versaoFinanceira";
+
+    private static final String TX_RESOURCE = RelatorioCache.class.getName() + ".invalidados";
+    private static final int PESO_PADRAO = 4 * 1024;
+
+    private final CacheManager cacheManager;
+    private final InvalidationBus invalidationBus;
+    private final ObjectMapper objectMapper;
+    private final Map<TipoRelatorio, Cache<Chave, Object>> caches = new EnumMap<>(TipoRelatorio.class);
+    private final AtomicLong sequenciaVersao = new AtomicLong();
+
+    public RelatorioCache(CacheManager cacheManager,
+            InvalidationBus invalidationBus,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            Environment environment,
+            @Value("${relatorio.cache.spec:maximumWeight=16777216,expireAfterWrite=10m}") String specPadrao) {
+        this.cacheManager = cacheManager;
+        this.invalidationBus = invalidationBus;
+        this.objectMapper = objectMapper;
+        org.springframework.cache.Cache versoes = cacheManager.getCache(VERSAO_FINANCEIRA_CACHE);
+        if (versoes != null) {
+            invalidationBus.subscribeCache(versoes);
+        }
+
+        for (TipoRelatorio tipo : TipoRelatorio.values()) {
+            String spec = environment.getProperty("relatorio.cache.spec." + tipo.chave(), specPadrao);
+            Caffeine<Object, Object> builder = Caffeine.from(spec).recordStats();
+            Cache<Chave, Object> cache = spec.contains("maximumWeight")
+                    ? builder.weigher((Chave k, Object v) -> pesar(v)).build()
+                    : builder.build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "relatorios", "tipo", tipo.chave());
+            caches.put(tipo, cache);
+            log.debug("📊 Cache de relatório {}: {}", tipo.chave(), spec);
+        }
+    }
+
+    /**
+     * Resultado do relatório em cache ou calculado (1 cálculo por chave mesmo com
+     * requisições concorrentes). Sem tenant, sempre calcula.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obter(TipoRelatorio tipo, Long tenantId, String periodo, Supplier<T> calcular) {
+        if (tenantId == null) {
+            return calcular.get();
+        }
+        // Versão lida ANTES de calcular: escrita concorrente troca a versão e o
+        // resultado gravado com a versão antiga não é mais lido.
+        Chave chave = new Chave(tenantId, periodo, versaoAtual(tenantId));
+        return (T) caches.get(tipo).get(chave, k -> calcular.get());
+    }
+
+    /**
+     * Dados financeiros do tenant mudaram: descarta a versão em todos os nós
+     * (após o commit). 1 publicação por tenant por transação.
+     */
+    public void invalidar(Long tenantId) {
+        if (tenantId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (!invalidadosNaTransacao().add(tenantId)) {
+                return;
+            }
+        }
+        invalidationBus.publish(VERSAO_FINANCEIRA_CACHE, tenantId);
+    }
+
+    /**
+     * Versão financeira corrente do tenant (muda a cada escrita financeira
+     * commitada). Usada como parte de chaves de deduplicação.
+     */
+    public long versao(Long tenantId) {
+        return versaoAtual(tenantId);
+    }
+
+    private long versaoAtual(Long tenantId) {
+        org.springframework.cache.Cache versoes = cacheManager.getCache(VERSAO_FINANCEIRA_CACHE);
+        if (versoes == null) {
+            return sequenciaVersao.incrementAndGet(); // sem cache de versões: nunca reutiliza
+        }
+        Long versao = versoes.get(tenantId, sequenciaVersao::incrementAndGet);
+        return versao != null ? versao : sequenciaVersao.incrementAndGet();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Long> invalidadosNaTransacao() {
+        Set<Long> invalidados = (Set<Long>) TransactionSynchronizationManager.getResource(TX_RESOURCE);
+        if (invalidados == null) {
+            invalidados = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(TX_RESOURCE, invalidados);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TX_RESOURCE);
+                }
+            });
+        }
+        return invalidados;
+    }
+
+    private int pesar(Object valor) {
+        if (valor instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        try {
+            return objectMapper.writeValueAsBytes(valor).length;
+        } catch (JsonProcessingException e) {
+            return PESO_PADRAO;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.config.TenantContext;
+import com.empresa.comissao.domain.entity.RelatorioJob;
+import com.empresa.comissao.domain.enums.StatusRelatorioJob;
+import com.empresa.comissao.exception.PdfConcurrencyException;
+import com.empresa.comissao.exception.ResourceNotFoundException;
+import com.empresa.comissao.repository.RelatorioJobRepository;
+import com.empresa.comissao.service.RelatorioCache.TipoRelatorio;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Geração assíncrona de PDFs de relatórios.
+ *
+ * O request apenas enfileira o job e recebe o id; um pool limitado
+ * (relatorio.jobs.workers, fila relatorio.jobs.fila) gera o PDF fora das
+ * threads do Tomcat e grava o arquivo via {@link StorageService}
+ * (relatorios/{tenant}/{job}.pdf). O cliente consulta o status e baixa o
+ * arquivo quando CONCLUIDO.
+ *
+ * O job fica na tabela relatorio_job: qualquer instância responde status e
+ * download, e um restart só perde o que ainda estava na fila do nó. Job em
+ * andamento há mais de relatorio.jobs.timeout é dado como interrompido (ERRO).
+ * Esperando o semáforo de renderização, o worker tenta de novo até esse
+ * mesmo prazo em vez de falhar.
+ *
+ * Submissões repetidas do mesmo (tenant, relatório, período, versão
+ * financeira) retornam o mesmo job enquanto ele não falhar, inclusive entre
+ * instâncias: busca e criação rodam numa transação com trava da chave. Jobs e
+ * arquivos são apagados pela limpeza após relatorio.jobs.retencao.
+ */
+@Service
+@Slf4j
+public class RelatorioJobService {
+
+    private static final int RETRY_AFTER_SEGUNDOS = 5;
+    private static final long PAUSA_SEMAFORO_MS = 1000;
+    private static final int LIMPEZA_LOTE = 200;
+
+    private final RelatorioCache relatorioCache;
+    private final RelatorioJobRepository relatorioJobRepository;
+    private final StorageService storageService;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final Duration retencao;
+    private final Duration timeout;
+    // Sem StorageService (dev) o PDF fica em memória no nó que gerou
+    private final Cache<String, byte[]> conteudoLocal;
+
+    @Autowired
+    public RelatorioJobService(RelatorioCache relatorioCache,
+            RelatorioJobRepository relatorioJobRepository,
+            @Autowired(required = false) StorageService storageService,
+            PlatformTransactionManager transactionManager,
+            @Value("${relatorio.jobs.workers:2}") int workers,
+            @Value("${relatorio.jobs.fila:50}") int fila,
+            @Value("${relatorio.jobs.retencao:PT30M}") Duration retencao,
+            @Value("${relatorio.jobs.timeout:PT10M}") Duration timeout) {
+        this.relatorioCache = relatorioCache;
+        this.relatorioJobRepository = relatorioJobRepository;
+        this.storageService = storageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retencao = retencao;
+        this.timeout = timeout;
+        this.conteudoLocal = Caffeine.newBuilder()
+                .expireAfterWrite(retencao)
+                .build();
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(Math.max(1, workers), Math.max(1, workers),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, fila)), r -> {
+                    Thread t = new Thread(r, "relatorio-pdf-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        log.info("📄 RelatorioJobService: workers = {}, fila = {}, retenção = {}, timeout = {}", workers, fila,
+                retencao, timeout);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Enfileira a geração do PDF ou retorna o job existente para a mesma
+     * chave. {@code gerarPdf} roda na thread do worker com o tenant no
+     * {@link TenantContext}. Fila cheia: {@link PdfConcurrencyException} (429).
+     */
+    public RelatorioJob submeter(TipoRelatorio tipo, Long tenantId, String periodo, String nomeArquivo,
+            Supplier<byte[]> gerarPdf) {
+        String chave = tenantId + ":" + tipo + ":" + periodo + ":" + relatorioCache.versao(tenantId);
+        LocalDateTime agora = LocalDateTime.now();
+
+        // Trava até o commit: a submissão concorrente da mesma chave só busca depois, e enxerga este job
+        RelatorioJob[] criado = new RelatorioJob[1];
+        RelatorioJob job = transactionTemplate.execute(status -> {
+            relatorioJobRepository.travarChave(chave);
+            RelatorioJob existente = relatorioJobRepository
+                    .findFirstByChaveAndStatusNotAndExpiraEmAfterOrderByCriadoEmDesc(chave, StatusRelatorioJob.ERRO,
+                            agora)
+                    .filter(j -> !interrompido(j, agora))
+                    .orElse(null);
+            if (existente != null) {
+                return existente;
+            }
+            criado[0] = relatorioJobRepository.save(RelatorioJob.builder()
+                    .id(UUID.randomUUID().toString())
+                    .empresaId(tenantId)
+                    .chave(chave)
+                    .tipo(tipo)
+                    .periodo(periodo)
+                    .nomeArquivo(nomeArquivo)
+                    .criadoEm(agora)
+                    .expiraEm(agora.plus(retencao))
+                    .build());
+            return criado[0];
+        });
+        if (criado[0] == null) {
+            log.debug("📄 Job {} reaproveitado para {}", job.getId(), chave);
+            return job;
+        }
+
+        // Enfileira só depois do commit: o worker atualiza uma linha já visível
+        RelatorioJob novo = criado[0];
+        try {
+            executor.execute(() -> executar(novo, gerarPdf));
+        } catch (RejectedExecutionException e) {
+            relatorioJobRepository.delete(novo);
+            log.warn("⚠️ Fila de PDFs cheia ({} jobs aguardando)", executor.getQueue().size());
+            throw new PdfConcurrencyException(
+                    "Muitos relatórios sendo gerados no momento. Tente novamente em alguns segundos.",
+                    RETRY_AFTER_SEGUNDOS);
+        }
+        log.info("📄 Job {} enfileirado: {} {} (tenant {})", novo.getId(), tipo, periodo, tenantId);
+        return novo;
+    }
+
+    /**
+     * Job do tenant (jobs de outros tenants são tratados como inexistentes).
+     */
+    public RelatorioJob buscar(Long tenantId, String jobId) {
+        RelatorioJob job = relatorioJobRepository.findById(jobId)
+                .filter(j -> j.getEmpresaId().equals(tenantId))
+                .orElseThrow(() -> new ResourceNotFoundException("Job de relatório não encontrado: " + jobId));
+        if (interrompido(job, LocalDateTime.now())) {
+            // Nó que gerava caiu (ou o job passou do prazo): não vai mais concluir
+            finalizarComErro(job, "Geração interrompida. Solicite o relatório novamente.");
+        }
+        return job;
+    }
+
+    /**
+     * Bytes do PDF de um job concluído; null se ainda não terminou.
+     */
+    public byte[] baixar(Long tenantId, String jobId) {
+        RelatorioJob job = buscar(tenantId, jobId);
+        if (job.getStatus() != StatusRelatorioJob.CONCLUIDO) {
+            return null;
+        }
+        byte[] bytes = job.getStorageKey() != null
+                ? storageService.getFileBytes(job.getStorageKey())
+                : conteudoLocal.getIfPresent(job.getId());
+        if (bytes == null) {
+            throw new ResourceNotFoundException("Arquivo do relatório não encontrado: " + jobId);
+        }
+        return bytes;
+    }
+
+    /**
+     * Apaga jobs expirados e seus arquivos (chamado pelo RelatorioJobScheduler;
+     * rodar em mais de uma instância ao mesmo tempo é inofensivo).
+     */
+    public int limparExpirados() {
+        int removidos = 0;
+        List<RelatorioJob> expirados;
+        do {
+            expirados = relatorioJobRepository.findByExpiraEmBefore(LocalDateTime.now(),
+                    PageRequest.of(0, LIMPEZA_LOTE));
+            for (RelatorioJob job : expirados) {
+                removerArquivo(job);
+                conteudoLocal.invalidate(job.getId());
+            }
+            relatorioJobRepository.deleteAll(expirados);
+            removidos += expirados.size();
+        } while (expirados.size() == LIMPEZA_LOTE);
+        if (removidos > 0) {
+            log.info("🧹 {} jobs de relatório expirados removidos", removidos);
+        }
+        return removidos;
+    }
+
+    private void executar(RelatorioJob job, Supplier<byte[]> gerarPdf) {
+        long inicio = System.currentTimeMillis();
+        job.setStatus(StatusRelatorioJob.PROCESSANDO);
+        relatorioJobRepository.save(job);
+        TenantContext.setCurrentTenant(job.getEmpresaId());
+        try {
+            byte[] pdf = gerarAguardandoSemaforo(job, gerarPdf);
+            if (storageService != null) {
+                String key = "relatorios/" + job.getEmpresaId() + "/" + job.getId() + ".pdf";
+                job.setStorageKey(storageService.uploadBytes(pdf, key, "application/pdf"));
+            } else {
+                conteudoLocal.put(job.getId(), pdf);
+            }
+            job.setConcluidoEm(LocalDateTime.now());
+            job.setStatus(StatusRelatorioJob.CONCLUIDO);
+            relatorioJobRepository.save(job);
+            log.info("✅ Job {} concluído em {}ms ({} bytes)", job.getId(), System.currentTimeMillis() - inicio,
+                    pdf.length);
+        } catch (Exception e) {
+            log.error("❌ Job {} falhou: {} {}", job.getId(), job.getTipo(), job.getPeriodo(), e);
+            finalizarComErro(job, e.getMessage());
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    /**
+     * O semáforo do PdfService é dimensionado para requests (falha em
+     * app.pdf.timeout-seconds). Aqui não há ninguém esperando a resposta:
+     * tenta de novo até o prazo do job.
+     */
+    private byte[] gerarAguardandoSemaforo(RelatorioJob job, Supplier<byte[]> gerarPdf) throws InterruptedException {
+        LocalDateTime prazo = job.getCriadoEm().plus(timeout);
+        while (true) {
+            try {
+                return gerarPdf.get();
+            } catch (PdfConcurrencyException e) {
+                if (!LocalDateTime.now().isBefore(prazo)) {
+                    throw e;
+                }
+                log.debug("⏳ Job {} aguardando vaga para renderizar", job.getId());
+                Thread.sleep(PAUSA_SEMAFORO_MS);
+            }
+        }
+    }
+
+    private boolean interrompido(RelatorioJob job, LocalDateTime agora) {
+        return job.isEmAndamento() && job.getCriadoEm().plus(timeout).isBefore(agora);
+    }
+
+    private void finalizarComErro(RelatorioJob job, String erro) {
+        job.setErro(erro);
+        job.setConcluidoEm(LocalDateTime.now());
+        job.setStatus(StatusRelatorioJob.ERRO);
+        relatorioJobRepository.save(job);
+    }
+
+    private void removerArquivo(RelatorioJob job) {
+        if (job.getStorageKey() != null && storageService != null) {
+            try {
+                storageService.deleteFile(job.getStorageKey());
+            } catch (Exception e) {
+                log.warn("Erro ao apagar arquivo do job {}: {}", job.getId(), e.getMessage());
+            }
+        }
+    }
+}
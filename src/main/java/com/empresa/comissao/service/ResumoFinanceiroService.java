@@ -0,0 +1,272 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.ResumoFinanceiroMensal;
+import com.empresa.comissao.domain.enums.CategoriaDespesa;
+import com.empresa.comissao.domain.enums.ModoComissao;
+import com.empresa.comissao.exception.BusinessException;
+import com.empresa.comissao.repository.ComissaoCalculadaRepository;
+import com.empresa.comissao.repository.ContaPagarRepository;
+import com.empresa.comissao.repository.ContaReceberRepository;
+import com.empresa.comissao.repository.DespesaRepository;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.repository.FaturamentoRepository;
+import com.empresa.comissao.repository.RecebimentoRepository;
+import com.empresa.comissao.repository.ResumoFinanceiroMensalRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Resumo financeiro mensal materializado (tabela resumo_financeiro_mensal).
+ *
+ * Escritas: FinanceiroService, ComissaoService, OrdemServicoService e
+ * DespesaController chamam {@link #invalidar} na mesma transação em que gravam
+ * receitas, faturamentos, recebimentos, pagamentos, despesas ou comissões; é um
+ * UPDATE de 1 linha (versao + 1), sem reagregar nada.
+ * Leituras: DRE, relatório anual e YoY leem o resumo e recalculam apenas os
+ * meses ausentes ou desatualizados (1 SUM por tabela de origem para o mês).
+ *
+ * {@link #reconstruir(Long, YearMonth, YearMonth)} faz a carga inicial.
+ * A invalidação também é repassada aos snapshots de caixa
+ * ({@link SaldoCaixaService}).
+ */
+@Service
+@Slf4j
+public class ResumoFinanceiroService {
+
+    static final int MAX_MESES_RECONSTRUCAO = 120;
+    private static final BigDecimal ALIQUOTA_PADRAO = new BigDecimal("0.06"); // Simples Nacional 1ª faixa
+
+    private final ResumoFinanceiroMensalRepository resumoRepository;
+    private final EmpresaRepository empresaRepository;
+    private final ContaReceberRepository contaReceberRepository;
+    private final FaturamentoRepository faturamentoRepository;
+    private final RecebimentoRepository recebimentoRepository;
+    private final ContaPagarRepository contaPagarRepository;
+    private final DespesaRepository despesaRepository;
+    private final ComissaoCalculadaRepository comissaoCalculadaRepository;
+    private final SaldoCaixaService saldoCaixaService;
+    private final TransactionTemplate requiresNewTx;
+    private final TransactionTemplate tx;
+
+    public ResumoFinanceiroService(ResumoFinanceiroMensalRepository resumoRepository,
+            EmpresaRepository empresaRepository,
+            ContaReceberRepository contaReceberRepository,
+            FaturamentoRepository faturamentoRepository,
+            RecebimentoRepository recebimentoRepository,
+            ContaPagarRepository contaPagarRepository,
+            DespesaRepository despesaRepository,
+            ComissaoCalculadaRepository comissaoCalculadaRepository,
+            SaldoCaixaService saldoCaixaService,
+            PlatformTransactionManager transactionManager) {
+        this.resumoRepository = resumoRepository;
+        this.empresaRepository = empresaRepository;
+        this.contaReceberRepository = contaReceberRepository;
+        this.faturamentoRepository = faturamentoRepository;
+        this.recebimentoRepository = recebimentoRepository;
+        this.contaPagarRepository = contaPagarRepository;
+        this.despesaRepository = despesaRepository;
+        this.comissaoCalculadaRepository = comissaoCalculadaRepository;
+        this.saldoCaixaService = saldoCaixaService;
+        this.requiresNewTx = new TransactionTemplate(transactionManager);
+        this.requiresNewTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    // ========================================
+    // ESCRITAS (na transação do chamador)
+    // ========================================
+
+    /**
+     * Marca como desatualizado o mês de cada data informada (nulos ignorados).
+     */
+    public void invalidar(Empresa empresa, LocalDate... datas) {
+        if (empresa == null || empresa.getId() == null) {
+            return;
+        }
+        YearMonth anterior = null;
+        for (LocalDate data : datas) {
+            if (data == null) {
+                continue;
+            }
+            YearMonth mes = YearMonth.from(data);
+            if (!mes.equals(anterior)) {
+                invalidar(empresa.getId(), mes);
+                anterior = mes;
+            }
+        }
+    }
+
+    public void invalidar(Long empresaId, YearMonth mes) {
+        if (empresaId == null || mes == null) {
+            return;
+        }
+        resumoRepository.invalidar(empresaId, mes);
+        saldoCaixaService.invalidar(empresaId, mes); // back-dated em mês fechado
+    }
+
+    // ========================================
+    // LEITURAS
+    // ========================================
+
+    /**
+     * Resumo do mês usado pelo DRE, se atualizado e com as comissões do mês já
+     * calculadas. Vazio: o chamador calcula as comissões e chama
+     * {@link #recalcular(Long, YearMonth, boolean)} com comissaoCompleta = true.
+     */
+    @Transactional(readOnly = true)
+    public Optional<ResumoFinanceiroMensal> buscarParaDre(Long empresaId, YearMonth mes) {
+        return resumoRepository.findByEmpresaIdAndAnoMesReferencia(empresaId, mes)
+                .filter(r -> r.isAtualizado() && r.isComissaoCompleta())
+                .map(r -> {
+                    r.getDespesasPorCategoria().size(); // inicializa fora do caminho crítico do DRE
+                    return r;
+                });
+    }
+
+    /**
+     * Resumos de um período (1 leitura), recalculando apenas os meses ausentes
+     * ou desatualizados.
+     */
+    @Transactional
+    public Map<YearMonth, ResumoFinanceiroMensal> obterPeriodo(Long empresaId, YearMonth desde, YearMonth ate) {
+        Map<YearMonth, ResumoFinanceiroMensal> resumos = new TreeMap<>();
+        for (ResumoFinanceiroMensal r : resumoRepository.findByEmpresaIdAndAnoMesReferenciaBetween(empresaId, desde,
+                ate)) {
+            resumos.put(r.getAnoMesReferencia(), r);
+        }
+        int recalculados = 0;
+        for (YearMonth mes = desde; !mes.isAfter(ate); mes = mes.plusMonths(1)) {
+            ResumoFinanceiroMensal r = resumos.get(mes);
+            if (r == null || !r.isAtualizado()) {
+                resumos.put(mes, recalcular(empresaId, mes, r != null && r.isComissaoCompleta()));
+                recalculados++;
+            }
+        }
+        if (recalculados > 0) {
+            log.info("📒 Resumo financeiro empresa {} {}..{}: {} meses recalculados", empresaId, desde, ate,
+                    recalculados);
+        }
+        return resumos;
+    }
+
+    /**
+     * Reagrega o mês a partir das tabelas de origem e grava o resumo.
+     *
+     * @param comissaoCompleta as comissões do mês foram calculadas pelo chamador
+     *                         (caminho do DRE); caso contrário apenas soma as
+     *                         ComissaoCalculada existentes.
+     */
+    @Transactional
+    public ResumoFinanceiroMensal recalcular(Long empresaId, YearMonth mes, boolean comissaoCompleta) {
+        Empresa empresa = empresaRepository.findById(empresaId)
+                .orElseThrow(() -> new BusinessException("Empresa não encontrada: " + empresaId));
+
+        ResumoFinanceiroMensal resumo = resumoRepository.findByEmpresaIdAndAnoMesReferencia(empresaId, mes)
+                .orElseGet(() -> criar(empresaId, mes));
+
+        // Versão lida ANTES de agregar: uma escrita concorrente mantém o resumo
+        // desatualizado e ele é recalculado na próxima leitura.
+        long versao = resumoRepository.findVersao(empresaId, mes).orElse(0L);
+
+        LocalDate inicio = mes.atDay(1);
+        LocalDate fim = mes.atEndOfMonth();
+
+        BigDecimal receita = contaReceberRepository.sumByCompetenciaBetweenForReports(empresa, inicio, fim);
+        BigDecimal aliquota = empresa.getAliquotaImposto() != null ? empresa.getAliquotaImposto() : ALIQUOTA_PADRAO;
+
+        resumo.setReceitaCompetencia(receita);
+        resumo.setImposto(receita.multiply(aliquota).setScale(2, RoundingMode.HALF_UP));
+        resumo.setFaturamento(faturamentoRepository.sumValorByDataBetweenAndEmpresa(inicio, fim, empresa));
+        resumo.setRecebidoCaixa(recebimentoRepository.sumByEmpresaAndDataPagamentoBetween(empresa, inicio, fim));
+        resumo.setPago(contaPagarRepository.sumByPagamentoBetween(empresa, inicio, fim));
+
+        Map<CategoriaDespesa, BigDecimal> despesas = new EnumMap<>(CategoriaDespesa.class);
+        for (Object[] row : despesaRepository.sumValorByCategoriaAndDataDespesaBetweenAndEmpresa(inicio, fim,
+                empresa)) {
+            if (row[0] != null && row[1] != null) {
+                despesas.put((CategoriaDespesa) row[0], (BigDecimal) row[1]);
+            }
+        }
+        resumo.getDespesasPorCategoria().clear();
+        resumo.getDespesasPorCategoria().putAll(despesas);
+
+        List<Object[]> comissao = empresa.getModoComissao() == ModoComissao.COLETIVA
+                ? comissaoCalculadaRepository.sumEmpresaByAnoMesReferencia(empresa, mes)
+                : comissaoCalculadaRepository.sumFuncionariosByAnoMesReferencia(empresa, mes);
+        Object[] somas = comissao.isEmpty() ? null : comissao.get(0);
+        resumo.setComissaoBruta(somas != null ? (BigDecimal) somas[0] : BigDecimal.ZERO);
+        resumo.setComissaoAdiantamentos(somas != null ? (BigDecimal) somas[1] : BigDecimal.ZERO);
+        resumo.setComissaoSaldo(somas != null ? (BigDecimal) somas[2] : BigDecimal.ZERO);
+        resumo.setComissaoCompleta(comissaoCompleta);
+
+        resumo.setVersaoCalculada(versao);
+        ResumoFinanceiroMensal salvo = resumoRepository.save(resumo);
+        salvo.setVersao(versao); // coluna não atualizável: reflete o que foi lido
+        return salvo;
+    }
+
+    /**
+     * Carga inicial / reconstrução de um período, 1 transação por mês.
+     *
+     * @return quantidade de meses reconstruídos
+     */
+    public int reconstruir(Long empresaId, YearMonth desde, YearMonth ate) {
+        if (desde == null || ate == null || ate.isBefore(desde)) {
+            throw new BusinessException("Período inválido para reconstrução do resumo financeiro.");
+        }
+        if (ChronoUnit.MONTHS.between(desde, ate) >= MAX_MESES_RECONSTRUCAO) {
+            throw new BusinessException("Período máximo de reconstrução é de " + MAX_MESES_RECONSTRUCAO + " meses");
+        }
+        long inicio = System.currentTimeMillis();
+        Map<YearMonth, Boolean> comissaoCompleta = new HashMap<>();
+        for (ResumoFinanceiroMensal r : resumoRepository.findByEmpresaIdAndAnoMesReferenciaBetween(empresaId, desde,
+                ate)) {
+            comissaoCompleta.put(r.getAnoMesReferencia(), r.isComissaoCompleta());
+        }
+        int meses = 0;
+        for (YearMonth mes = desde; !mes.isAfter(ate); mes = mes.plusMonths(1)) {
+            YearMonth m = mes;
+            tx.executeWithoutResult(status -> recalcular(empresaId, m, comissaoCompleta.getOrDefault(m, false)));
+            meses++;
+        }
+        log.info("✅ Resumo financeiro reconstruído: empresa {} de {} até {} ({} meses) em {} ms", empresaId, desde,
+                ate, meses, System.currentTimeMillis() - inicio);
+        return meses;
+    }
+
+    /**
+     * Primeira leitura do mês: cria a linha vazia em transação própria (corrida
+     * entre duas leituras resolvida pela unique constraint).
+     */
+    private ResumoFinanceiroMensal criar(Long empresaId, YearMonth mes) {
+        try {
+            requiresNewTx.executeWithoutResult(status -> resumoRepository.saveAndFlush(ResumoFinanceiroMensal.builder()
+                    .empresaId(empresaId)
+                    .anoMesReferencia(mes)
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Resumo financeiro criado concorrentemente: empresa={} mes={}", empresaId, mes);
+        }
+        return resumoRepository.findByEmpresaIdAndAnoMesReferencia(empresaId, mes)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Resumo financeiro não encontrado após criação: " + empresaId + " " + mes));
+    }
+}
@@ -65,6 +65,23 @@ public class S3StorageService implements StorageService {
         return getFileUrl(key);
     }
 
+    /**
+     * Upload generated content to S3 bucket.
+     */
+    @Override
+    public String uploadBytes(byte[] content, String key, String contentType) throws IOException {
+        PutObjectRequest putRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType != null ? contentType : "application/octet-stream")
+                .build();
+
+        s3Client.putObject(putRequest, RequestBody.fromBytes(content));
+        log.info("File uploaded successfully: {} ({} bytes)", key, content.length);
+
+        return key;
+    }
+
     /**
      * Get public URL for a file.
      * Uses configured public URL if available (for CDN/custom domains).
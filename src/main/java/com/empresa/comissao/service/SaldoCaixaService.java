@@ -0,0 +1,228 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.SaldoCaixaMensal;
+import com.empresa.comissao.repository.ContaPagarRepository;
+import com.empresa.comissao.repository.ContaReceberRepository;
+import com.empresa.comissao.repository.RecebimentoRepository;
+import com.empresa.comissao.repository.SaldoCaixaMensalRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Saldo de caixa acumulado via snapshots de fechamento mensal (tabela
+ * saldo_caixa_mensal).
+ *
+ * O saldo antes de uma data é o snapshot do último mês fechado + o movimento
+ * do mês corrente, em vez de somar todo o histórico da empresa. Sem snapshot
+ * válido, a leitura usa o snapshot válido anterior + o movimento entre os dois
+ * (1 SUM com intervalo por tabela de origem) e não grava nada: só o
+ * SaldoCaixaScheduler ({@link #atualizarSnapshot}) grava snapshots, fora de
+ * request e em transação própria.
+ *
+ * Invalidação: {@link ResumoFinanceiroService#invalidar} repassa para
+ * {@link #invalidar(Long, YearMonth)} toda escrita datada; só meses já
+ * fechados têm snapshot, então escritas no mês corrente não fazem UPDATE.
+ *
+ * O UPDATE não alcança snapshots que ainda não existem, e a escrita só fica
+ * visível no commit. Por isso toda transação de escrita segura uma trava
+ * compartilhada da empresa (uma vez por transação, inclusive no mês corrente:
+ * cobre a virada do mês e relógios diferentes entre instâncias) e o snapshot só
+ * é gravado com a trava exclusiva. Se ela não sai na hora, o job pula a
+ * empresa até a próxima execução: não espera (nem trava) a escrita em
+ * andamento.
+ */
+@Service
+@Slf4j
+public class SaldoCaixaService {
+
+    private static final Object TX_RESOURCE = new Object(); // empresas já travadas na transação
+
+    private final SaldoCaixaMensalRepository saldoRepository;
+    private final RecebimentoRepository recebimentoRepository;
+    private final ContaReceberRepository contaReceberRepository;
+    private final ContaPagarRepository contaPagarRepository;
+
+    public SaldoCaixaService(SaldoCaixaMensalRepository saldoRepository,
+            RecebimentoRepository recebimentoRepository,
+            ContaReceberRepository contaReceberRepository,
+            ContaPagarRepository contaPagarRepository) {
+        this.saldoRepository = saldoRepository;
+        this.recebimentoRepository = recebimentoRepository;
+        this.contaReceberRepository = contaReceberRepository;
+        this.contaPagarRepository = contaPagarRepository;
+    }
+
+    /**
+     * Totais de caixa acumulados.
+     *
+     * @param recebido       recebimentos (valor pago) pela data do pagamento
+     * @param recebidoContas contas a receber quitadas pela data de recebimento
+     * @param pago           contas a pagar PAGAS pela data de pagamento
+     */
+    public record SaldoCaixa(BigDecimal recebido, BigDecimal recebidoContas, BigDecimal pago) {
+        static final SaldoCaixa ZERO = new SaldoCaixa(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        SaldoCaixa somar(SaldoCaixa outro) {
+            return new SaldoCaixa(recebido.add(outro.recebido), recebidoContas.add(outro.recebidoContas),
+                    pago.add(outro.pago));
+        }
+
+        public BigDecimal getSaldoRecebimentos() {
+            return recebido.subtract(pago);
+        }
+
+        public BigDecimal getSaldoContas() {
+            return recebidoContas.subtract(pago);
+        }
+    }
+
+    /**
+     * Marca como inválidos os snapshots do mês em diante.
+     */
+    public void invalidar(Long empresaId, YearMonth mes) {
+        if (empresaId == null || mes == null) {
+            return;
+        }
+        travarEscrita(empresaId);
+        if (!mes.isBefore(YearMonth.now())) {
+            return; // mês ainda aberto: não há snapshot
+        }
+        int afetados = saldoRepository.invalidarAPartirDe(empresaId, mes);
+        if (afetados > 0) {
+            log.info("🧾 Saldo de caixa: {} snapshots invalidados (empresa {}, a partir de {})", afetados, empresaId,
+                    mes);
+        }
+    }
+
+    /**
+     * Totais de caixa acumulados ANTES da data (exclusiva).
+     */
+    public SaldoCaixa saldoAntes(Empresa empresa, LocalDate data) {
+        YearMonth ultimoFechado = YearMonth.now().minusMonths(1);
+        YearMonth fechado = YearMonth.from(data).minusMonths(1);
+        if (fechado.isAfter(ultimoFechado)) {
+            fechado = ultimoFechado;
+        }
+
+        SaldoCaixa saldo = saldoFechamento(empresa, fechado);
+        LocalDate inicioMovimento = fechado.plusMonths(1).atDay(1);
+        if (data.isAfter(inicioMovimento)) {
+            saldo = saldo.somar(movimento(empresa, inicioMovimento, data.minusDays(1)));
+        }
+        return saldo;
+    }
+
+    /**
+     * Totais acumulados até o último dia do mês (snapshot válido ou calculado,
+     * sem gravar).
+     */
+    SaldoCaixa saldoFechamento(Empresa empresa, YearMonth mes) {
+        Optional<SaldoCaixaMensal> snapshot = saldoRepository.findByEmpresaIdAndAnoMesReferencia(empresa.getId(),
+                mes);
+        if (snapshot.isPresent() && snapshot.get().isAtualizado()) {
+            return valores(snapshot.get());
+        }
+        return calcular(empresa, mes);
+    }
+
+    /**
+     * Grava o snapshot do último mês fechado se ele não existe ou foi
+     * invalidado (SaldoCaixaScheduler).
+     *
+     * @return false se havia escrita da empresa em andamento (nada gravado)
+     */
+    @Transactional
+    public boolean atualizarSnapshot(Empresa empresa) {
+        long inicio = System.currentTimeMillis();
+        YearMonth mes = YearMonth.now().minusMonths(1);
+        // Antes de qualquer leitura: com a trava, nenhuma escrita da empresa está pendente
+        if (!saldoRepository.travarRecalculo(empresa.getId())) {
+            log.debug("🧾 Snapshot de caixa {} empresa {} adiado: escrita em andamento", mes, empresa.getId());
+            return false;
+        }
+        saldoRepository.criarSeAusente(empresa.getId(), mes.toString());
+        SaldoCaixaMensal snapshot = saldoRepository.findByEmpresaIdAndAnoMesReferencia(empresa.getId(), mes)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Saldo de caixa não encontrado após criação: " + empresa.getId() + " " + mes));
+        if (snapshot.isAtualizado()) {
+            return true;
+        }
+
+        // Versão lida ANTES de somar: escrita concorrente deixa o snapshot inválido
+        long versao = saldoRepository.findVersao(empresa.getId(), mes).orElse(0L);
+        SaldoCaixa totais = calcular(empresa, mes);
+        snapshot.setRecebidoAcumulado(totais.recebido());
+        snapshot.setRecebidoContasAcumulado(totais.recebidoContas());
+        snapshot.setPagoAcumulado(totais.pago());
+        snapshot.setVersaoCalculada(versao);
+        saldoRepository.save(snapshot);
+
+        log.info("🧾 Snapshot de caixa {} empresa {} recalculado em {} ms", mes, empresa.getId(),
+                System.currentTimeMillis() - inicio);
+        return true;
+    }
+
+    private SaldoCaixa calcular(Empresa empresa, YearMonth mes) {
+        LocalDate fim = mes.atEndOfMonth();
+        Optional<SaldoCaixaMensal> anterior = saldoRepository
+                .findValidosAntesDe(empresa.getId(), mes, PageRequest.of(0, 1)).stream().findFirst();
+        if (anterior.isPresent()) {
+            LocalDate desde = anterior.get().getAnoMesReferencia().plusMonths(1).atDay(1);
+            return valores(anterior.get()).somar(movimento(empresa, desde, fim));
+        }
+        // Nenhum snapshot válido: soma sobre todo o histórico
+        LocalDate limite = fim.plusDays(1);
+        return new SaldoCaixa(
+                recebimentoRepository.sumByEmpresaAndDataPagamentoBefore(empresa, limite),
+                contaReceberRepository.sumByRecebimentoBefore(empresa, limite),
+                contaPagarRepository.sumByPagamentoBefore(empresa, limite));
+    }
+
+    /**
+     * Trava compartilhada da empresa, uma vez por transação. Sem transação a
+     * escrita já está commitada: nada a proteger.
+     */
+    @SuppressWarnings("unchecked")
+    private void travarEscrita(Long empresaId) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        Set<Long> travadas = (Set<Long>) TransactionSynchronizationManager.getResource(TX_RESOURCE);
+        if (travadas == null) {
+            travadas = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(TX_RESOURCE, travadas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TX_RESOURCE);
+                }
+            });
+        }
+        if (travadas.add(empresaId)) {
+            saldoRepository.travarEscrita(empresaId);
+        }
+    }
+
+    private SaldoCaixa movimento(Empresa empresa, LocalDate inicio, LocalDate fim) {
+        return new SaldoCaixa(
+                recebimentoRepository.sumByEmpresaAndDataPagamentoBetween(empresa, inicio, fim),
+                contaReceberRepository.sumByRecebimentoBetween(empresa, inicio, fim),
+                contaPagarRepository.sumByPagamentoBetween(empresa, inicio, fim));
+    }
+
+    private static SaldoCaixa valores(SaldoCaixaMensal s) {
+        return new SaldoCaixa(s.getRecebidoAcumulado(), s.getRecebidoContasAcumulado(), s.getPagoAcumulado());
+    }
+}
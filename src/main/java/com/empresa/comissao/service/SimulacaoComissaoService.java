@@ -0,0 +1,263 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.ComissaoLedger;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.FaixaComissaoConfig;
+import com.empresa.comissao.domain.entity.RegraComissao;
+import com.empresa.comissao.domain.entity.User;
+import com.empresa.comissao.domain.enums.ModoComissao;
+import com.empresa.comissao.dto.request.RegraComissaoRequest;
+import com.empresa.comissao.dto.request.SimulacaoComissaoRequest;
+import com.empresa.comissao.dto.response.SimulacaoComissaoResponse;
+import com.empresa.comissao.exception.BusinessException;
+import com.empresa.comissao.repository.ComissaoLedgerRepository;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.repository.RegraComissaoRepository;
+import com.empresa.comissao.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Simulação (what-if) de regras de comissão.
+ *
+ * Os recebimentos do período são lidos 1 vez do ledger (por funcionário e mês,
+ * ou o total da empresa no modo COLETIVA); cada regra candidata é compilada e
+ * avaliada em memória, em paralelo entre candidatas. Nada é gravado: o
+ * resultado é a comissão bruta (base × percentual da faixa) de cada regra,
+ * sem adiantamentos, carryover ou pagamentos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SimulacaoComissaoService {
+
+    static final int MAX_MESES = 36;
+    static final int MAX_REGRAS = 10;
+
+    private final ComissaoLedgerRepository comissaoLedgerRepository;
+    private final EmpresaRepository empresaRepository;
+    private final RegraComissaoRepository regraComissaoRepository;
+    private final UserRepository userRepository;
+    private final RegraComissaoCache regraComissaoCache;
+    private final RegraComissaoService regraComissaoService;
+
+    /**
+     * Regra a simular (regraId == null: candidata não cadastrada).
+     */
+    private record RegraSimulada(Long regraId, String nome, boolean ativa, RegraComissaoCompilada regra) {
+    }
+
+    @Transactional(readOnly = true)
+    public SimulacaoComissaoResponse simular(Long empresaId, SimulacaoComissaoRequest request) {
+        YearMonth desde = parseMes(request.getDesde());
+        YearMonth ate = parseMes(request.getAte());
+        if (ate.isBefore(desde)) {
+            throw new BusinessException("Mês final não pode ser anterior ao mês inicial");
+        }
+        if (ChronoUnit.MONTHS.between(desde, ate) >= MAX_MESES) {
+            throw new BusinessException("Período máximo de simulação é de " + MAX_MESES + " meses");
+        }
+
+        Empresa empresa = empresaRepository.findById(empresaId)
+                .orElseThrow(() -> new BusinessException("Empresa não encontrada: " + empresaId));
+        long inicio = System.currentTimeMillis();
+
+        // 1. Regras: cadastradas (1 leitura com faixas), candidatas e a ativa (cache)
+        List<RegraSimulada> regras = carregarRegras(empresa, request);
+        if (regras.isEmpty()) {
+            throw new BusinessException("Informe ao menos uma regra para simular");
+        }
+
+        // 2. Bases do período: 1 leitura do ledger
+        boolean coletiva = empresa.getModoComissao() == ModoComissao.COLETIVA;
+        Map<YearMonth, Map<Long, BigDecimal>> bases = new TreeMap<>();
+        BigDecimal baseTotal = BigDecimal.ZERO;
+        for (ComissaoLedger l : comissaoLedgerRepository.findByEmpresaIdAndAnoMesReferenciaBetween(empresaId, desde,
+                ate)) {
+            boolean totalEmpresa = ComissaoLedger.EMPRESA_TOTAL.equals(l.getFuncionarioId());
+            if (coletiva != totalEmpresa || l.getTotalRecebido() == null) {
+                continue;
+            }
+            bases.computeIfAbsent(l.getAnoMesReferencia(), m -> new HashMap<>())
+                    .merge(l.getFuncionarioId(), l.getTotalRecebido(), BigDecimal::add);
+            baseTotal = baseTotal.add(l.getTotalRecebido());
+        }
+
+        Map<Long, String> emails = new HashMap<>();
+        if (!coletiva) {
+            for (User u : userRepository.findByEmpresa(empresa)) {
+                emails.put(u.getId(), u.getEmail());
+            }
+        }
+
+        // 3. Avaliação em memória, paralela entre regras
+        List<SimulacaoComissaoResponse.ResultadoRegra> resultados = regras.parallelStream()
+                .map(r -> avaliar(r, bases, desde, ate, coletiva, emails))
+                .toList();
+
+        BigDecimal totalAtiva = resultados.stream()
+                .filter(SimulacaoComissaoResponse.ResultadoRegra::isRegraAtiva)
+                .map(SimulacaoComissaoResponse.ResultadoRegra::getTotalComissao)
+                .findFirst()
+                .orElse(null);
+        if (totalAtiva != null) {
+            resultados.forEach(r -> r.setDiferencaRegraAtiva(r.getTotalComissao().subtract(totalAtiva)));
+        }
+
+        log.info("🧪 Simulação de comissão: empresa {} de {} até {} ({} regras, {} meses com base) em {} ms",
+                empresaId, desde, ate, regras.size(), bases.size(), System.currentTimeMillis() - inicio);
+
+        return SimulacaoComissaoResponse.builder()
+                .empresaId(empresaId)
+                .desde(desde.toString())
+                .ate(ate.toString())
+                .modoComissao(coletiva ? ModoComissao.COLETIVA.name() : ModoComissao.INDIVIDUAL.name())
+                .baseTotal(baseTotal)
+                .resultados(resultados)
+                .build();
+    }
+
+    private List<RegraSimulada> carregarRegras(Empresa empresa, SimulacaoComissaoRequest request) {
+        List<Long> regraIds = request.getRegraIds() != null ? request.getRegraIds() : List.of();
+        List<SimulacaoComissaoRequest.Candidata> candidatas = request.getCandidatas() != null
+                ? request.getCandidatas()
+                : List.of();
+        if (regraIds.size() + candidatas.size() > MAX_REGRAS) {
+            throw new BusinessException("Máximo de " + MAX_REGRAS + " regras por simulação");
+        }
+
+        List<RegraSimulada> regras = new ArrayList<>();
+        RegraComissaoCompilada ativa = request.isIncluirRegraAtiva()
+                ? regraComissaoCache.getRegraAtiva(empresa)
+                : RegraComissaoCompilada.SEM_REGRA;
+        if (!ativa.isSemRegra()) {
+            regras.add(new RegraSimulada(ativa.getRegraId(), ativa.getNome(), true, ativa));
+        }
+
+        if (!regraIds.isEmpty()) {
+            Map<Long, RegraComissao> cadastradas = new HashMap<>();
+            for (RegraComissao r : regraComissaoRepository.findWithFaixasByEmpresaIdAndIdIn(empresa.getId(),
+                    regraIds)) {
+                cadastradas.put(r.getId(), r);
+            }
+            for (Long id : regraIds) {
+                RegraComissao r = cadastradas.get(id);
+                if (r == null) {
+                    throw new BusinessException("Regra de comissão não encontrada: " + id);
+                }
+                if (!ativa.isSemRegra() && id.equals(ativa.getRegraId())) {
+                    continue; // já incluída como referência
+                }
+                regras.add(new RegraSimulada(r.getId(), r.getNome(), false, RegraComissaoCompilada.compilar(r)));
+            }
+        }
+
+        for (SimulacaoComissaoRequest.Candidata c : candidatas) {
+            regras.add(new RegraSimulada(null, c.getNome(), false, RegraComissaoCompilada.compilar(montar(c))));
+        }
+        return regras;
+    }
+
+    /**
+     * Monta uma RegraComissao transiente (não persistida) para a candidata,
+     * validada como no cadastro.
+     */
+    private RegraComissao montar(SimulacaoComissaoRequest.Candidata c) {
+        try {
+            regraComissaoService.validarRequest(RegraComissaoRequest.builder()
+                    .nome(c.getNome())
+                    .tipoRegra(c.getTipoRegra())
+                    .percentualFixo(c.getPercentualFixo())
+                    .faixas(c.getFaixas())
+                    .build());
+        } catch (BusinessException e) {
+            throw new BusinessException(e.getMessage() + " (" + c.getNome() + ")");
+        }
+
+        RegraComissao regra = RegraComissao.builder()
+                .nome(c.getNome())
+                .tipoRegra(c.getTipoRegra())
+                .percentualFixo(c.getPercentualFixo())
+                .faixas(new ArrayList<>())
+                .build();
+        if (c.getFaixas() != null) {
+            int ordem = 1;
+            for (RegraComissaoRequest.FaixaComissaoRequest f : c.getFaixas()) {
+                regra.getFaixas().add(FaixaComissaoConfig.builder()
+                        .minFaturamento(f.getMinFaturamento())
+                        .maxFaturamento(f.getMaxFaturamento())
+                        .porcentagem(f.getPorcentagem())
+                        .descricao(f.getDescricao())
+                        .ordem(f.getOrdem() != null ? f.getOrdem() : ordem++)
+                        .build());
+            }
+        }
+        return regra;
+    }
+
+    private static SimulacaoComissaoResponse.ResultadoRegra avaliar(RegraSimulada simulada,
+            Map<YearMonth, Map<Long, BigDecimal>> bases, YearMonth desde, YearMonth ate, boolean coletiva,
+            Map<Long, String> emails) {
+        Map<String, BigDecimal> porMes = new LinkedHashMap<>();
+        Map<Long, BigDecimal[]> porFuncionario = new TreeMap<>(); // [base, comissão]
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (YearMonth mes = desde; !mes.isAfter(ate); mes = mes.plusMonths(1)) {
+            BigDecimal totalMes = BigDecimal.ZERO;
+            for (Map.Entry<Long, BigDecimal> e : bases.getOrDefault(mes, Map.of()).entrySet()) {
+                BigDecimal base = e.getValue();
+                // Mesmo cálculo do valor bruto em ComissaoService.aplicarCalculo
+                BigDecimal comissao = base.multiply(simulada.regra().resolver(base).percentual())
+                        .setScale(2, RoundingMode.HALF_UP);
+                totalMes = totalMes.add(comissao);
+                if (!coletiva) {
+                    BigDecimal[] acc = porFuncionario.computeIfAbsent(e.getKey(),
+                            id -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+                    acc[0] = acc[0].add(base);
+                    acc[1] = acc[1].add(comissao);
+                }
+            }
+            porMes.put(mes.toString(), totalMes);
+            total = total.add(totalMes);
+        }
+
+        List<SimulacaoComissaoResponse.PorFuncionario> funcionarios = new ArrayList<>();
+        porFuncionario.forEach((id, acc) -> funcionarios.add(SimulacaoComissaoResponse.PorFuncionario.builder()
+                .funcionarioId(id)
+                .funcionarioEmail(emails.get(id))
+                .base(acc[0])
+                .totalComissao(acc[1])
+                .build()));
+
+        return SimulacaoComissaoResponse.ResultadoRegra.builder()
+                .regraId(simulada.regraId())
+                .nome(simulada.nome())
+                .regraAtiva(simulada.ativa())
+                .totalComissao(total)
+                .totalPorMes(porMes)
+                .porFuncionario(funcionarios)
+                .build();
+    }
+
+    private static YearMonth parseMes(String valor) {
+        try {
+            return YearMonth.parse(valor);
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new BusinessException("Mês inválido (use yyyy-MM): " + valor);
+        }
+    }
+}
@@ -19,6 +19,14 @@ public interface StorageService {
      */
     String uploadFile(MultipartFile file, String key) throws IOException;
 
+    /**
+     * Upload generated content (e.g. PDFs) to storage, without the image
+     * validation applied to user uploads.
+     *
+     * @return The storage key
+     */
+    String uploadBytes(byte[] content, String key, String contentType) throws IOException;
+
     /**
      * Get public URL for a file.
      */
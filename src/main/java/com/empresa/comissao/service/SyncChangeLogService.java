@@ -0,0 +1,317 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.config.TenantContext;
+import com.empresa.comissao.domain.entity.Cliente;
+import com.empresa.comissao.domain.entity.OrdemServico;
+import com.empresa.comissao.domain.entity.PecaServico;
+import com.empresa.comissao.domain.entity.SyncChangeLog;
+import com.empresa.comissao.domain.entity.TipoPeca;
+import com.empresa.comissao.domain.entity.User;
+import com.empresa.comissao.domain.entity.VeiculoServico;
+import com.empresa.comissao.domain.enums.EntidadeSync;
+import com.empresa.comissao.domain.enums.OperacaoSync;
+import com.empresa.comissao.dto.response.SyncChangesResponse;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.repository.SyncChangeLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Log de mudanças por tenant para o sync incremental por sequência.
+ *
+ * As escritas em entidades sincronizáveis registram (entidade, id, operação)
+ * durante a transação; no beforeCommit as mudanças (uma por entidade, a
+ * última vence) recebem seq do contador empresas.sync_seq e são gravadas na
+ * mesma transação. O UPDATE do contador trava a linha da empresa até o commit,
+ * então seq segue a ordem de commit do tenant: um cliente que leu até N nunca
+ * perde uma mudança que commita depois com seq menor (o problema do
+ * updated_at > since - skew). Rollback descarta as mudanças junto com os dados.
+ * Fora de transação, cada mudança reserva o seq e é gravada em um só comando.
+ *
+ * OS que troca de responsável gera antes um DELETE com o usuário anterior: o
+ * feed dele só lista as próprias OS e, sem isso, o app manteria a OS.
+ */
+@Service
+@Slf4j
+public class SyncChangeLogService {
+
+    private final SyncChangeLogRepository changeLogRepository;
+    private final EmpresaRepository empresaRepository;
+    private final SyncWatermarkService syncWatermarkService;
+
+    @Value("${sync.changelog.page-size:500}")
+    private int pageSize;
+
+    @Value("${sync.changelog.page-size-max:2000}")
+    private int pageSizeMax;
+
+    public SyncChangeLogService(SyncChangeLogRepository changeLogRepository,
+            EmpresaRepository empresaRepository,
+            SyncWatermarkService syncWatermarkService) {
+        this.changeLogRepository = changeLogRepository;
+        this.empresaRepository = empresaRepository;
+        this.syncWatermarkService = syncWatermarkService;
+    }
+
+    /**
+     * Mudança pendente de uma entidade (ainda sem seq).
+     */
+    record Mudanca(EntidadeSync entidade, Long entidadeId, OperacaoSync operacao, Long usuarioId) {
+    }
+
+    /**
+     * Registra a gravação de uma entidade sincronizável. Soft delete
+     * (deletedAt preenchido) vira DELETE; veículo e peça contam como mudança
+     * da OS. Outros tipos são ignorados.
+     */
+    public void registrar(Object entidade) {
+        registrar(entidade, false);
+    }
+
+    /**
+     * Registra a remoção física de uma entidade sincronizável.
+     */
+    public void registrarRemocao(Object entidade) {
+        registrar(entidade, true);
+    }
+
+    private void registrar(Object entidade, boolean removida) {
+        if (entidade instanceof Iterable<?> itens) {
+            itens.forEach(item -> registrar(item, removida));
+            return;
+        }
+        if (entidade instanceof java.util.Optional<?> opt) {
+            opt.ifPresent(item -> registrar(item, removida));
+            return;
+        }
+
+        if (entidade instanceof OrdemServico os) {
+            registrarOs(os, removida || os.getDeletedAt() != null);
+        } else if (entidade instanceof VeiculoServico v) {
+            // Remover um veículo altera a OS
+            registrarOs(v.getOrdemServico(), false);
+        } else if (entidade instanceof PecaServico p) {
+            registrarOs(p.getVeiculo() != null ? p.getVeiculo().getOrdemServico() : null, false);
+        } else if (entidade instanceof Cliente c) {
+            registrar(tenantDe(c.getEmpresa()), EntidadeSync.CLIENTE, c.getId(),
+                    removida || c.getDeletedAt() != null, null);
+        } else if (entidade instanceof TipoPeca t) {
+            registrar(tenantDe(t.getEmpresa()), EntidadeSync.TIPO_PECA, t.getId(), removida, null);
+        } else if (entidade instanceof User u) {
+            registrar(tenantDe(u.getEmpresa()), EntidadeSync.USUARIO, u.getId(), removida, null);
+        }
+    }
+
+    private void registrarOs(OrdemServico os, boolean removida) {
+        if (os == null) {
+            return;
+        }
+        boolean deletada = removida || os.getDeletedAt() != null;
+        registrar(tenantDe(os.getEmpresa()), EntidadeSync.ORDEM_SERVICO, os.getId(), deletada,
+                os.getUsuario() != null ? os.getUsuario().getId() : null);
+    }
+
+    private static Long tenantDe(com.empresa.comissao.domain.entity.Empresa empresa) {
+        return empresa != null ? empresa.getId() : TenantContext.getCurrentTenant();
+    }
+
+    private void registrar(Long tenantId, EntidadeSync entidade, Long entidadeId, boolean removida,
+            Long usuarioId) {
+        if (tenantId == null || entidadeId == null) {
+            log.debug("Mudança de {} {} sem tenant/id ignorada no change log", entidade, entidadeId);
+            return;
+        }
+        Mudanca mudanca = new Mudanca(entidade, entidadeId,
+                removida ? OperacaoSync.DELETE : OperacaoSync.UPSERT, usuarioId);
+
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // A escrita do chamador já commitou: seq e linha juntos, sem transação própria aqui
+            for (Mudanca m : comRemocaoDoDonoAnterior(tenantId, List.of(mudanca))) {
+                changeLogRepository.inserirComSeq(tenantId, m.entidade().name(), m.entidadeId(),
+                        m.operacao().name(), m.usuarioId());
+            }
+            Long seq = empresaRepository.findSyncSeqById(tenantId);
+            if (seq != null) {
+                syncWatermarkService.registrarChangeSeq(tenantId, seq);
+            }
+            return;
+        }
+        MudancasPendentes pendentes = mudancasPendentes();
+        pendentes.porTenant.computeIfAbsent(tenantId, k -> new LinkedHashMap<>())
+                .put(entidade + ":" + entidadeId, mudanca);
+    }
+
+    private MudancasPendentes mudancasPendentes() {
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sync instanceof MudancasPendentes pendentes) {
+                return pendentes;
+            }
+        }
+        MudancasPendentes pendentes = new MudancasPendentes();
+        TransactionSynchronizationManager.registerSynchronization(pendentes);
+        return pendentes;
+    }
+
+    /**
+     * Reserva um bloco de seq por tenant e grava as mudanças. Tenants em ordem
+     * crescente de id (mesma ordem de lock em todas as transações).
+     */
+    void gravar(Map<Long, ? extends Collection<Mudanca>> porTenant) {
+        for (Map.Entry<Long, ? extends Collection<Mudanca>> e : new TreeMap<>(porTenant).entrySet()) {
+            Long tenantId = e.getKey();
+            List<Mudanca> mudancas = comRemocaoDoDonoAnterior(tenantId, e.getValue());
+            int quantidade = mudancas.size();
+            if (quantidade == 0 || empresaRepository.reservarSyncSeq(tenantId, quantidade) == 0) {
+                continue;
+            }
+            long seq = empresaRepository.findSyncSeqById(tenantId) - quantidade;
+
+            List<SyncChangeLog> linhas = new ArrayList<>(quantidade);
+            for (Mudanca m : mudancas) {
+                linhas.add(SyncChangeLog.builder()
+                        .empresaId(tenantId)
+                        .seq(++seq)
+                        .entidade(m.entidade())
+                        .entidadeId(m.entidadeId())
+                        .operacao(m.operacao())
+                        .usuarioId(m.usuarioId())
+                        .build());
+            }
+            changeLogRepository.saveAll(linhas);
+            syncWatermarkService.registrarChangeSeq(tenantId, seq);
+            log.trace("Change log: {} mudanças do tenant {} até seq {}", quantidade, tenantId, seq);
+        }
+    }
+
+    /**
+     * Mudanças com um DELETE antes de cada OS cujo responsável mudou desde a
+     * última entrada do log (para o responsável anterior). A linha da OS já
+     * está travada pela escrita, então a última entrada não muda até o commit.
+     */
+    private List<Mudanca> comRemocaoDoDonoAnterior(Long tenantId, Collection<Mudanca> mudancas) {
+        Set<Long> osIds = new LinkedHashSet<>();
+        for (Mudanca m : mudancas) {
+            if (m.entidade() == EntidadeSync.ORDEM_SERVICO) {
+                osIds.add(m.entidadeId());
+            }
+        }
+        if (osIds.isEmpty()) {
+            return new ArrayList<>(mudancas);
+        }
+        Map<Long, Long> donos = new HashMap<>();
+        for (SyncChangeLog ultima : changeLogRepository.findUltimas(tenantId, EntidadeSync.ORDEM_SERVICO, osIds)) {
+            donos.put(ultima.getEntidadeId(), ultima.getUsuarioId());
+        }
+        List<Mudanca> resultado = new ArrayList<>(mudancas.size());
+        for (Mudanca m : mudancas) {
+            Long anterior = m.entidade() == EntidadeSync.ORDEM_SERVICO ? donos.get(m.entidadeId()) : null;
+            if (anterior != null && !anterior.equals(m.usuarioId())) {
+                resultado.add(new Mudanca(m.entidade(), m.entidadeId(), OperacaoSync.DELETE, anterior));
+            }
+            resultado.add(m);
+        }
+        return resultado;
+    }
+
+    /**
+     * Seq da última mudança commitada do tenant (ponto de partida após um
+     * sync completo).
+     */
+    @Transactional(readOnly = true)
+    public Long getSeqAtual(Long tenantId) {
+        if (tenantId == null) {
+            return 0L;
+        }
+        Long seq = empresaRepository.findSyncSeqById(tenantId);
+        return seq != null ? seq : 0L;
+    }
+
+    /**
+     * Ids alterados e removidos com seq > apos, agrupados por entidade (cada id
+     * aparece uma vez, com a última operação). usuarioId != null restringe as
+     * OS às do usuário.
+     */
+    @Transactional(readOnly = true)
+    public SyncChangesResponse listar(Long tenantId, Long usuarioId, long apos, Integer limit) {
+        int tamanho = Math.min(Math.max(1, limit != null ? limit : pageSize), pageSizeMax);
+        PageRequest pagina = PageRequest.of(0, tamanho + 1);
+        List<SyncChangeLog> linhas = usuarioId == null
+                ? changeLogRepository.findByEmpresaIdAndSeqGreaterThanOrderBySeqAsc(tenantId, apos, pagina)
+                : changeLogRepository.findPaginaDoUsuario(tenantId, apos, EntidadeSync.ORDEM_SERVICO, usuarioId,
+                        pagina);
+
+        boolean hasMore = linhas.size() > tamanho;
+        if (hasMore) {
+            linhas = linhas.subList(0, tamanho);
+        }
+
+        Map<EntidadeSync, Set<Long>> alterados = new EnumMap<>(EntidadeSync.class);
+        Map<EntidadeSync, Set<Long>> removidos = new EnumMap<>(EntidadeSync.class);
+        for (SyncChangeLog linha : linhas) {
+            alterados.computeIfAbsent(linha.getEntidade(), k -> new LinkedHashSet<>()).remove(linha.getEntidadeId());
+            removidos.computeIfAbsent(linha.getEntidade(), k -> new LinkedHashSet<>()).remove(linha.getEntidadeId());
+            (linha.getOperacao() == OperacaoSync.DELETE ? removidos : alterados)
+                    .get(linha.getEntidade()).add(linha.getEntidadeId());
+        }
+        alterados.values().removeIf(Set::isEmpty);
+        removidos.values().removeIf(Set::isEmpty);
+
+        return SyncChangesResponse.builder()
+                .cursor(linhas.isEmpty() ? apos : linhas.get(linhas.size() - 1).getSeq())
+                .hasMore(hasMore)
+                .alterados(paraListas(alterados))
+                .removidos(paraListas(removidos))
+                .build();
+    }
+
+    private static Map<EntidadeSync, List<Long>> paraListas(Map<EntidadeSync, Set<Long>> ids) {
+        Map<EntidadeSync, List<Long>> resultado = new EnumMap<>(EntidadeSync.class);
+        ids.forEach((entidade, set) -> resultado.put(entidade, new ArrayList<>(set)));
+        return resultado;
+    }
+
+    /**
+     * Remove entradas substituídas por outra mais nova da mesma entidade. O
+     * resultado para qualquer cursor continua exato; o log fica do tamanho do
+     * número de entidades mais as mudanças recentes.
+     */
+    @Transactional
+    public int compactar() {
+        int removidas = changeLogRepository.compactar();
+        log.info("🧹 Change log do sync compactado: {} entradas removidas", removidas);
+        return removidas;
+    }
+
+    /**
+     * Mudanças da transação corrente, por tenant; a última de cada entidade vence.
+     */
+    private class MudancasPendentes implements TransactionSynchronization {
+        private final Map<Long, Map<String, Mudanca>> porTenant = new TreeMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (readOnly || porTenant.isEmpty()) {
+                return;
+            }
+            Map<Long, Collection<Mudanca>> mudancas = new TreeMap<>();
+            porTenant.forEach((tenantId, porEntidade) -> mudancas.put(tenantId, porEntidade.values()));
+            gravar(mudancas);
+        }
+    }
+}
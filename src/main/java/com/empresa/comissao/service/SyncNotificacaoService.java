@@ -0,0 +1,380 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.config.TenantContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Aviso de mudanças do tenant para o app, no lugar do polling de /sync/status.
+ *
+ * Long-poll (DeferredResult) e SSE (SseEmitter) ficam estacionados no servlet
+ * assíncrono, sem thread do Tomcat, até as marcas do tenant avançarem. Quem
+ * avisa é o {@link SyncWatermarkService}, alimentado no afterCommit pelos
+ * mesmos hooks do TenantSyncAspect, e pelos commits de outras instâncias via
+ * NOTIFY. Os avisos de um tenant são agrupados por sync.push.debounce-ms (um
+ * commit avança várias marcas), nunca despachados pela thread que fez o commit.
+ *
+ * A thread sync-push só marca o tempo (debounce e heartbeat). Consultas (marcas
+ * iniciais, resposta do long-poll) rodam nos workers sync-push-N
+ * (sync.push.workers, fila sync.push.fila): uma consulta demorada não atrasa
+ * os timers, e o uso do pool de conexões fica limitado. Com open-in-view, uma
+ * consulta na thread do request seguraria a conexão enquanto ele espera.
+ *
+ * Envios SSE (send bloqueia enquanto o socket do cliente não aceita) rodam em
+ * outro pool, sync-sse-N (sync.push.sse-workers, fila sync.push.sse-fila).
+ * Cada conexão tem no máximo um envio em andamento ou na fila: avisos que
+ * chegam nesse meio tempo são mesclados e seguem como um só, e o ping só
+ * marca pendência. Um cliente lento prende no máximo um sync-sse e não atrasa
+ * long-polls nem as outras conexões.
+ */
+@Service
+@Slf4j
+public class SyncNotificacaoService {
+
+    private final Map<Long, Set<Espera<?>>> esperas = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Assinatura>> assinaturas = new ConcurrentHashMap<>();
+    private final Map<Long, SyncWatermarkService.Marcas> ultimas = new ConcurrentHashMap<>();
+    private final Set<Long> despachoAgendado = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService agendador;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor sseExecutor;
+
+    private final long longPollTimeoutMs;
+    private final long sseTimeoutMs;
+    private final long debounceMs;
+
+    public SyncNotificacaoService(MeterRegistry meterRegistry,
+            @Value("${sync.push.long-poll-timeout-ms:30000}") long longPollTimeoutMs,
+            @Value("${sync.push.sse-timeout-ms:300000}") long sseTimeoutMs,
+            @Value("${sync.push.debounce-ms:200}") long debounceMs,
+            @Value("${sync.push.heartbeat-ms:25000}") long heartbeatMs,
+            @Value("${sync.push.workers:2}") int workers,
+            @Value("${sync.push.fila:1000}") int fila,
+            @Value("${sync.push.sse-workers:4}") int sseWorkers,
+            @Value("${sync.push.sse-fila:1000}") int sseFila) {
+        this.longPollTimeoutMs = longPollTimeoutMs;
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.debounceMs = debounceMs;
+        this.agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sync-push");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(Math.max(1, workers), Math.max(1, workers),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, fila)), r -> {
+                    Thread t = new Thread(r, "sync-push-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        AtomicInteger sseSeq = new AtomicInteger();
+        this.sseExecutor = new ThreadPoolExecutor(Math.max(1, sseWorkers), Math.max(1, sseWorkers),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, sseFila)), r -> {
+                    Thread t = new Thread(r, "sync-sse-" + sseSeq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        // Comentário SSE periódico: proxies não derrubam a conexão ociosa
+        this.agendador.scheduleWithFixedDelay(this::enviarHeartbeat, heartbeatMs, heartbeatMs,
+                TimeUnit.MILLISECONDS);
+
+        Gauge.builder("sync.push.conexoes", esperas, SyncNotificacaoService::contar)
+                .tag("tipo", "long-poll").register(meterRegistry);
+        Gauge.builder("sync.push.conexoes", assinaturas, SyncNotificacaoService::contar)
+                .tag("tipo", "sse").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        agendador.shutdownNow();
+        executor.shutdownNow();
+        sseExecutor.shutdownNow();
+        assinaturas.values().forEach(set -> set.forEach(a -> a.emitter.complete()));
+    }
+
+    /**
+     * Long-poll aguardando o request.
+     */
+    private static class Espera<T> {
+        private final Long tenantId;
+        private final DeferredResult<T> resultado;
+        private final Supplier<T> resposta;
+        private volatile SyncWatermarkService.Marcas base;
+
+        Espera(Long tenantId, DeferredResult<T> resultado, Supplier<T> resposta) {
+            this.tenantId = tenantId;
+            this.resultado = resultado;
+            this.resposta = resposta;
+        }
+    }
+
+    /**
+     * Conexão SSE, as últimas marcas enviadas a ela e o que falta enviar.
+     */
+    private static class Assinatura {
+        private final Long tenantId;
+        private final SseEmitter emitter;
+        private volatile SyncWatermarkService.Marcas enviada;
+        private final AtomicReference<SyncWatermarkService.Marcas> pendente = new AtomicReference<>();
+        private final AtomicBoolean ping = new AtomicBoolean();
+        // Envio em andamento ou na fila do sseExecutor
+        private final AtomicBoolean agendada = new AtomicBoolean();
+
+        Assinatura(Long tenantId, SseEmitter emitter) {
+            this.tenantId = tenantId;
+            this.emitter = emitter;
+        }
+    }
+
+    /**
+     * Responde quando as marcas do tenant avançarem, ou com o estado atual no
+     * timeout. Se versaoCliente já está atrás da data_version, responde na hora.
+     */
+    public <T> DeferredResult<T> aguardar(Long tenantId, Long versaoCliente,
+            Supplier<SyncWatermarkService.Marcas> marcasAtuais, Supplier<T> resposta) {
+        DeferredResult<T> resultado = new DeferredResult<>(longPollTimeoutMs);
+        Espera<T> espera = new Espera<>(tenantId, resultado, resposta);
+        resultado.onTimeout(() -> responder(espera));
+        resultado.onCompletion(() -> remover(esperas, tenantId, espera));
+
+        executar(() -> {
+            try {
+                SyncWatermarkService.Marcas atuais = comTenant(tenantId, marcasAtuais);
+                if (versaoCliente != null && atuais.dataVersion() > versaoCliente) {
+                    responder(espera);
+                    return;
+                }
+                espera.base = atuais;
+                adicionar(esperas, tenantId, espera);
+                if (resultado.isSetOrExpired()) {
+                    // Expirou antes do registro: o onCompletion já rodou
+                    remover(esperas, tenantId, espera);
+                    return;
+                }
+                // Aviso que chegou entre a leitura e o registro
+                SyncWatermarkService.Marcas ultima = ultimas.get(tenantId);
+                if (ultima != null && atuais.atrasadaEm(ultima)) {
+                    responder(espera);
+                }
+            } catch (Exception e) {
+                resultado.setErrorResult(e);
+            }
+        }, () -> resultado.setErrorResult(new IllegalStateException("Aviso de sync indisponível")));
+        return resultado;
+    }
+
+    /**
+     * Stream SSE: evento "sync" com as marcas atuais na conexão e a cada
+     * avanço. O cliente reconecta após sync.push.sse-timeout-ms.
+     */
+    public SseEmitter assinar(Long tenantId, Supplier<SyncWatermarkService.Marcas> marcasAtuais) {
+        SseEmitter emitter = novoEmitter(sseTimeoutMs);
+        Assinatura assinatura = new Assinatura(tenantId, emitter);
+        emitter.onCompletion(() -> remover(assinaturas, tenantId, assinatura));
+        emitter.onTimeout(emitter::complete);
+
+        executar(() -> {
+            try {
+                SyncWatermarkService.Marcas atuais = comTenant(tenantId, marcasAtuais);
+                adicionar(assinaturas, tenantId, assinatura);
+                SyncWatermarkService.Marcas ultima = ultimas.get(tenantId);
+                enfileirar(assinatura, ultima != null ? atuais.mesclar(ultima) : atuais);
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        }, emitter::complete);
+        return emitter;
+    }
+
+    SseEmitter novoEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    /**
+     * Marcas do tenant avançaram (chamado pelo {@link SyncWatermarkService}
+     * após o commit). Só agenda o despacho; não faz I/O na thread chamadora.
+     */
+    public void notificar(Long tenantId, SyncWatermarkService.Marcas marcas) {
+        ultimas.merge(tenantId, marcas, SyncWatermarkService.Marcas::mesclar);
+        if (vazio(esperas.get(tenantId)) && vazio(assinaturas.get(tenantId))) {
+            return;
+        }
+        if (despachoAgendado.add(tenantId)) {
+            try {
+                agendador.schedule(() -> {
+                    despachoAgendado.remove(tenantId);
+                    executar(() -> despachar(tenantId), () -> log.warn(
+                            "⚠️ [SYNC_PUSH] Fila cheia, aviso do tenant {} descartado", tenantId));
+                }, debounceMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                despachoAgendado.remove(tenantId);
+            }
+        }
+    }
+
+    void despachar(Long tenantId) {
+        SyncWatermarkService.Marcas marcas = ultimas.get(tenantId);
+        if (marcas == null) {
+            return;
+        }
+        int avisados = 0;
+        for (Espera<?> espera : esperas.getOrDefault(tenantId, Set.of())) {
+            if (espera.base != null && espera.base.atrasadaEm(marcas)) {
+                responder(espera);
+                avisados++;
+            }
+        }
+        for (Assinatura assinatura : assinaturas.getOrDefault(tenantId, Set.of())) {
+            SyncWatermarkService.Marcas enviada = assinatura.enviada;
+            if (enviada == null || enviada.atrasadaEm(marcas)) {
+                enfileirar(assinatura, marcas);
+                avisados++;
+            }
+        }
+        log.debug("[SYNC_PUSH] tenant={}, version={}, seq={}, avisados={}", tenantId, marcas.dataVersion(),
+                marcas.changeSeq(), avisados);
+    }
+
+    private <T> void responder(Espera<T> espera) {
+        if (espera.resultado.isSetOrExpired()) {
+            return;
+        }
+        try {
+            espera.resultado.setResult(comTenant(espera.tenantId, espera.resposta));
+        } catch (Exception e) {
+            espera.resultado.setErrorResult(e);
+        }
+    }
+
+    private void enfileirar(Assinatura assinatura, SyncWatermarkService.Marcas marcas) {
+        assinatura.pendente.accumulateAndGet(marcas, (atual, nova) -> atual != null ? atual.mesclar(nova) : nova);
+        agendarEnvio(assinatura);
+    }
+
+    private void agendarEnvio(Assinatura assinatura) {
+        if (!assinatura.agendada.compareAndSet(false, true)) {
+            return; // o envio em andamento leva o que ficou pendente
+        }
+        try {
+            sseExecutor.execute(() -> drenar(assinatura));
+        } catch (RejectedExecutionException e) {
+            assinatura.agendada.set(false);
+            log.warn("⚠️ [SYNC_PUSH] Fila SSE cheia, envio ao tenant {} adiado", assinatura.tenantId);
+        }
+    }
+
+    // Roda no sseExecutor, um por conexão
+    private void drenar(Assinatura assinatura) {
+        do {
+            SyncWatermarkService.Marcas marcas = assinatura.pendente.getAndSet(null);
+            if (marcas != null) {
+                SyncWatermarkService.Marcas enviada = assinatura.enviada;
+                if (enviada == null || enviada.atrasadaEm(marcas)) {
+                    enviar(assinatura, marcas);
+                }
+            }
+            if (assinatura.ping.getAndSet(false)) {
+                ping(assinatura);
+            }
+            assinatura.agendada.set(false);
+        } while ((assinatura.pendente.get() != null || assinatura.ping.get())
+                && assinatura.agendada.compareAndSet(false, true));
+    }
+
+    private void enviar(Assinatura assinatura, SyncWatermarkService.Marcas marcas) {
+        Map<String, Object> evento = new LinkedHashMap<>();
+        evento.put("lastTenantVersion", marcas.dataVersion());
+        evento.put("lastChangeSeq", marcas.changeSeq());
+        try {
+            assinatura.emitter.send(SseEmitter.event()
+                    .name("sync")
+                    .id(String.valueOf(marcas.changeSeq()))
+                    .data(evento));
+            assinatura.enviada = marcas;
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectou
+            remover(assinaturas, assinatura.tenantId, assinatura);
+            assinatura.emitter.completeWithError(e);
+        }
+    }
+
+    // Só marca o ping pendente: conexão com envio parado não acumula pings
+    void enviarHeartbeat() {
+        assinaturas.values().forEach(set -> set.forEach(assinatura -> {
+            assinatura.ping.set(true);
+            agendarEnvio(assinatura);
+        }));
+    }
+
+    private void ping(Assinatura assinatura) {
+        try {
+            assinatura.emitter.send(SseEmitter.event().comment("ping"));
+        } catch (IOException | IllegalStateException e) {
+            remover(assinaturas, assinatura.tenantId, assinatura);
+            assinatura.emitter.completeWithError(e);
+        }
+    }
+
+    private void executar(Runnable tarefa, Runnable rejeitada) {
+        try {
+            executor.execute(tarefa);
+        } catch (RejectedExecutionException e) {
+            rejeitada.run();
+        }
+    }
+
+    private static <T> T comTenant(Long tenantId, Supplier<T> acao) {
+        TenantContext.setCurrentTenant(tenantId);
+        try {
+            return acao.get();
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    // Atômico com remover: o item nunca cai em um conjunto já descartado
+    private static <T> void adicionar(Map<Long, Set<T>> porTenant, Long tenantId, T item) {
+        porTenant.compute(tenantId, (id, set) -> {
+            Set<T> itens = set != null ? set : ConcurrentHashMap.newKeySet();
+            itens.add(item);
+            return itens;
+        });
+    }
+
+    private static <T> void remover(Map<Long, Set<T>> porTenant, Long tenantId, T item) {
+        porTenant.computeIfPresent(tenantId, (id, set) -> {
+            set.remove(item);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static boolean vazio(Set<?> set) {
+        return set == null || set.isEmpty();
+    }
+
+    private static double contar(Map<Long, ? extends Set<?>> porTenant) {
+        return porTenant.values().stream().mapToInt(Set::size).sum();
+    }
+}
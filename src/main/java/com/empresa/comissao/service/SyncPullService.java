@@ -0,0 +1,369 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.config.TenantContext;
+import com.empresa.comissao.domain.entity.Cliente;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.OrdemServico;
+import com.empresa.comissao.domain.entity.TipoPeca;
+import com.empresa.comissao.domain.entity.User;
+import com.empresa.comissao.domain.enums.EntidadeSync;
+import com.empresa.comissao.domain.enums.Role;
+import com.empresa.comissao.dto.response.SyncChangesResponse;
+import com.empresa.comissao.exception.PdfConcurrencyException;
+import com.empresa.comissao.repository.ClienteRepository;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.repository.OrdemServicoRepository;
+import com.empresa.comissao.repository.TipoPecaRepository;
+import com.empresa.comissao.repository.UserRepository;
+import com.empresa.comissao.util.SyncCursor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sync de todas as entidades do app em uma única chamada (/api/v1/sync/pull).
+ *
+ * Tudo roda em uma transação somente leitura REPEATABLE READ: a primeira
+ * leitura é empresas.sync_seq (o cursor devolvido) e as demais enxergam o
+ * mesmo snapshot, então a resposta contém exatamente as mudanças commitadas
+ * até esse seq. Sem after é um sync completo; com after, só as entidades do
+ * change log com seq > after.
+ *
+ * O JSON é escrito conforme as OS são carregadas, em blocos de
+ * sync.os.page-size, limpando o contexto de persistência entre blocos: o
+ * primeiro sync de um tenant grande não fica inteiro em memória.
+ *
+ * A escrita vai para um arquivo temporário e só depois do commit segue para o
+ * cliente: a conexão do pool fica presa pelo tempo das consultas, não pela
+ * rede do app. No máximo sync.pull.max-concurrent snapshots abertos ao mesmo
+ * tempo (os demais esperam sem conexão). sync.pull.timeout-seconds limita a
+ * espera pela vaga somada à transação (sem vaga a tempo: 429); o envio do
+ * arquivo tem mais sync.pull.envio-timeout-seconds, e a soma é o timeout da
+ * resposta assíncrona ({@link #getTimeout()}).
+ */
+@Service
+@Slf4j
+public class SyncPullService {
+
+    private final EmpresaRepository empresaRepository;
+    private final ClienteRepository clienteRepository;
+    private final OrdemServicoRepository osRepository;
+    private final TipoPecaRepository tipoPecaRepository;
+    private final UserRepository userRepository;
+    private final ClienteService clienteService;
+    private final OrdemServicoService osService;
+    private final SyncChangeLogService syncChangeLogService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final Semaphore snapshots;
+    private final int timeoutSegundos;
+    private final int envioSegundos;
+
+    @Value("${sync.os.page-size:200}")
+    private int bloco;
+
+    public SyncPullService(EmpresaRepository empresaRepository,
+            ClienteRepository clienteRepository,
+            OrdemServicoRepository osRepository,
+            TipoPecaRepository tipoPecaRepository,
+            UserRepository userRepository,
+            ClienteService clienteService,
+            OrdemServicoService osService,
+            SyncChangeLogService syncChangeLogService,
+            ObjectMapper objectMapper,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${sync.pull.max-concurrent:2}") int maxConcorrentes,
+            @Value("${sync.pull.timeout-seconds:120}") int timeoutSegundos,
+            @Value("${sync.pull.envio-timeout-seconds:60}") int envioSegundos) {
+        this.empresaRepository = empresaRepository;
+        this.clienteRepository = clienteRepository;
+        this.osRepository = osRepository;
+        this.tipoPecaRepository = tipoPecaRepository;
+        this.userRepository = userRepository;
+        this.clienteService = clienteService;
+        this.osService = osService;
+        this.syncChangeLogService = syncChangeLogService;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionManager = transactionManager;
+        this.snapshots = new Semaphore(Math.max(1, maxConcorrentes), true);
+        this.timeoutSegundos = Math.max(1, timeoutSegundos);
+        this.envioSegundos = Math.max(1, envioSegundos);
+    }
+
+    /**
+     * Timeout da resposta assíncrona: vaga + snapshot + envio do arquivo.
+     */
+    public Duration getTimeout() {
+        return Duration.ofSeconds(timeoutSegundos + envioSegundos);
+    }
+
+    /**
+     * Corpo da resposta; roda fora da thread do request, então tenant e
+     * usuário (null = admin, vê todas as OS) vêm resolvidos do controller.
+     */
+    public StreamingResponseBody pull(Long tenantId, Long usuarioId, Long after) {
+        return out -> {
+            long inicio = System.currentTimeMillis();
+            Path arquivo = Files.createTempFile("sync-pull-", ".json");
+            try {
+                long tx = gerar(tenantId, usuarioId, after, arquivo);
+                Files.copy(arquivo, out);
+                log.info("[SYNC_PULL] tenant={}, after={}, bytes={}, tx={}ms, duration={}ms", tenantId, after,
+                        Files.size(arquivo), tx, System.currentTimeMillis() - inicio);
+            } finally {
+                Files.deleteIfExists(arquivo);
+            }
+        };
+    }
+
+    /**
+     * Escreve a resposta no arquivo dentro da transação de snapshot; retorna
+     * o tempo com a transação aberta. A transação fica com o que sobrou de
+     * sync.pull.timeout-seconds depois da espera pela vaga.
+     */
+    private long gerar(Long tenantId, Long usuarioId, Long after, Path arquivo) throws IOException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSegundos);
+        try {
+            if (!snapshots.tryAcquire(timeoutSegundos, TimeUnit.SECONDS)) {
+                throw new PdfConcurrencyException("Muitos syncs em andamento. Tente novamente em instantes.", 5);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Sync interrompido aguardando vaga");
+        }
+        long inicio = System.currentTimeMillis();
+        TransactionTemplate snapshotTx = new TransactionTemplate(transactionManager);
+        snapshotTx.setReadOnly(true);
+        snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshotTx.setTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(limite - System.nanoTime())));
+        TenantContext.setCurrentTenant(tenantId);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(arquivo))) {
+            snapshotTx.executeWithoutResult(status -> {
+                try {
+                    escrever(tenantId, usuarioId, after, out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            TenantContext.clear();
+            snapshots.release();
+        }
+        return System.currentTimeMillis() - inicio;
+    }
+
+    void escrever(Long tenantId, Long usuarioId, Long after, OutputStream out) throws IOException {
+        // Primeira leitura da transação: fixa o snapshot junto com o cursor
+        Long seq = empresaRepository.findSyncSeqById(tenantId);
+        long cursor = seq != null ? seq : 0L;
+        boolean completo = after == null;
+
+        Map<EntidadeSync, Set<Long>> alterados = new EnumMap<>(EntidadeSync.class);
+        Map<EntidadeSync, Set<Long>> removidos = new EnumMap<>(EntidadeSync.class);
+        for (EntidadeSync entidade : EntidadeSync.values()) {
+            alterados.put(entidade, new LinkedHashSet<>());
+            removidos.put(entidade, new LinkedHashSet<>());
+        }
+        if (!completo) {
+            carregarMudancas(tenantId, usuarioId, after, alterados, removidos);
+        }
+
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(StreamUtils.nonClosing(out))) {
+            gen.writeStartObject();
+            gen.writeNumberField("cursor", cursor);
+            gen.writeBooleanField("completo", completo);
+            gen.writeStringField("serverTime", Instant.now().truncatedTo(ChronoUnit.MILLIS).toString());
+
+            gen.writeArrayFieldStart("clientes");
+            List<Cliente> clientes = completo
+                    ? clienteRepository.findByEmpresaIdAndDeletedAtIsNull(tenantId)
+                    : doTenant(clienteRepository.findAllById(alterados.get(EntidadeSync.CLIENTE)), tenantId);
+            for (Cliente c : clientes) {
+                if (c.getDeletedAt() != null) {
+                    removidos.get(EntidadeSync.CLIENTE).add(c.getId());
+                } else {
+                    objectMapper.writeValue(gen, clienteService.mapToResponse(c));
+                }
+            }
+            gen.writeEndArray();
+            liberar(gen);
+
+            gen.writeArrayFieldStart("ordensServico");
+            if (completo) {
+                escreverTodasOs(gen, tenantId, usuarioId);
+            } else {
+                escreverOs(gen, tenantId, new ArrayList<>(alterados.get(EntidadeSync.ORDEM_SERVICO)), removidos);
+            }
+            gen.writeEndArray();
+
+            gen.writeArrayFieldStart("tiposPeca");
+            Empresa empresa = new Empresa();
+            empresa.setId(tenantId);
+            List<TipoPeca> tipos = completo
+                    ? tipoPecaRepository.findByEmpresa(empresa)
+                    : doTenant(tipoPecaRepository.findAllById(alterados.get(EntidadeSync.TIPO_PECA)), tenantId);
+            for (TipoPeca t : tipos) {
+                gen.writeStartObject();
+                gen.writeNumberField("id", t.getId());
+                gen.writeStringField("nome", t.getNome());
+                gen.writeObjectField("valorPadrao", t.getValorPadrao());
+                gen.writeObjectField("updatedAt", t.getUpdatedAt());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+
+            // Mesma seleção de /users/equipe: usuário que saiu dela é removido no app
+            gen.writeArrayFieldStart("usuarios");
+            List<User> usuarios = completo
+                    ? userRepository.findByEmpresa(empresa)
+                    : doTenant(userRepository.findAllById(alterados.get(EntidadeSync.USUARIO)), tenantId);
+            for (User u : usuarios) {
+                if (!u.isActive() || (u.getRole() != Role.ADMIN_EMPRESA && u.getRole() != Role.FUNCIONARIO)) {
+                    if (!completo) {
+                        removidos.get(EntidadeSync.USUARIO).add(u.getId());
+                    }
+                    continue;
+                }
+                gen.writeStartObject();
+                gen.writeNumberField("id", u.getId());
+                gen.writeStringField("email", u.getEmail());
+                gen.writeObjectField("role", u.getRole());
+                gen.writeBooleanField("active", u.isActive());
+                gen.writeNumberField("empresaId", tenantId);
+                gen.writeBooleanField("participaComissao", u.isParticipaComissao());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+
+            gen.writeObjectFieldStart("removidos");
+            for (Map.Entry<EntidadeSync, Set<Long>> e : removidos.entrySet()) {
+                if (!e.getValue().isEmpty()) {
+                    gen.writeObjectField(e.getKey().name(), e.getValue());
+                }
+            }
+            gen.writeEndObject();
+
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Todas as páginas do change log após o cursor (só ids).
+     */
+    private void carregarMudancas(Long tenantId, Long usuarioId, long after,
+            Map<EntidadeSync, Set<Long>> alterados, Map<EntidadeSync, Set<Long>> removidos) {
+        long apos = after;
+        SyncChangesResponse pagina;
+        do {
+            pagina = syncChangeLogService.listar(tenantId, usuarioId, apos, Integer.MAX_VALUE);
+            // Página posterior vence: a entidade fica só no conjunto da última operação
+            pagina.getAlterados().forEach((entidade, ids) -> {
+                removidos.get(entidade).removeAll(ids);
+                alterados.get(entidade).addAll(ids);
+            });
+            pagina.getRemovidos().forEach((entidade, ids) -> {
+                alterados.get(entidade).removeAll(ids);
+                removidos.get(entidade).addAll(ids);
+            });
+            apos = pagina.getCursor();
+        } while (pagina.isHasMore());
+    }
+
+    private void escreverTodasOs(JsonGenerator gen, Long tenantId, Long usuarioId) throws IOException {
+        SyncCursor posicao = SyncCursor.INICIO;
+        while (true) {
+            PageRequest pagina = PageRequest.of(0, bloco);
+            List<SyncCursor> posicoes = usuarioId == null
+                    ? osRepository.findSyncCursorPage(tenantId, posicao.updatedAt(), posicao.id(), pagina)
+                    : osRepository.findSyncCursorPageByUsuario(tenantId, usuarioId, posicao.updatedAt(),
+                            posicao.id(), pagina);
+            if (posicoes.isEmpty()) {
+                return;
+            }
+            posicao = posicoes.get(posicoes.size() - 1);
+            for (OrdemServico os : osRepository.findSyncGrafoByIdIn(posicoes.stream().map(SyncCursor::id).toList())) {
+                // Sync completo: OS excluída não existe no app
+                if (os.getDeletedAt() == null) {
+                    objectMapper.writeValue(gen, osService.mapToResponse(os));
+                }
+            }
+            liberar(gen);
+        }
+    }
+
+    private void escreverOs(JsonGenerator gen, Long tenantId, List<Long> ids,
+            Map<EntidadeSync, Set<Long>> removidos) throws IOException {
+        for (int i = 0; i < ids.size(); i += bloco) {
+            List<Long> parte = ids.subList(i, Math.min(ids.size(), i + bloco));
+            for (OrdemServico os : osRepository.findSyncGrafoByIdIn(parte)) {
+                if (os.getEmpresa() == null || !tenantId.equals(os.getEmpresa().getId())) {
+                    continue;
+                }
+                if (os.getDeletedAt() != null) {
+                    removidos.get(EntidadeSync.ORDEM_SERVICO).add(os.getId());
+                } else {
+                    objectMapper.writeValue(gen, osService.mapToResponse(os));
+                }
+            }
+            liberar(gen);
+        }
+    }
+
+    /**
+     * Descarrega o bloco no arquivo temporário e solta as entidades dele (a
+     * transação é somente leitura, nada a sincronizar).
+     */
+    private void liberar(JsonGenerator gen) throws IOException {
+        gen.flush();
+        entityManager.clear();
+    }
+
+    private static <T> List<T> doTenant(List<T> entidades, Long tenantId) {
+        return entidades.stream().filter(e -> tenantId.equals(empresaId(e))).toList();
+    }
+
+    private static Long empresaId(Object entidade) {
+        Empresa empresa = null;
+        if (entidade instanceof Cliente c) {
+            empresa = c.getEmpresa();
+        } else if (entidade instanceof TipoPeca t) {
+            empresa = t.getEmpresa();
+        } else if (entidade instanceof User u) {
+            empresa = u.getEmpresa();
+        }
+        return empresa != null ? empresa.getId() : null;
+    }
+}
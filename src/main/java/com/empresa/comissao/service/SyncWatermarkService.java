@@ -0,0 +1,426 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.cache.InvalidationBus;
+import com.empresa.comissao.config.TenantContext;
+import com.empresa.comissao.domain.entity.Cliente;
+import com.empresa.comissao.domain.entity.ComissaoCalculada;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.OrdemServico;
+import com.empresa.comissao.domain.entity.PecaServico;
+import com.empresa.comissao.domain.entity.TipoPeca;
+import com.empresa.comissao.domain.entity.User;
+import com.empresa.comissao.domain.entity.VeiculoServico;
+import com.empresa.comissao.repository.ClienteRepository;
+import com.empresa.comissao.repository.ComissaoCalculadaRepository;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.repository.OrdemServicoRepository;
+import com.empresa.comissao.repository.TipoPecaRepository;
+import com.empresa.comissao.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Marcas d'água do sync por tenant, em memória, para o /sync/status.
+ *
+ * Cada poll de cada aparelho fazia 7 consultas (5 MAX(updated_at), data_version
+ * e sync_seq). Agora as marcas do tenant são carregadas do banco no primeiro
+ * poll e depois avançadas pelos caminhos de escrita no afterCommit (rollback
+ * não avança nada). Toda atualização é um máximo campo a campo, então a ordem
+ * entre commits concorrentes e a carga inicial não importa.
+ *
+ * Commits de outra instância chegam pelo {@link InvalidationBus}
+ * (tópico {@link #TOPICO}, chave = tenant): cada avanço é publicado após o commit e o
+ * nó que recebe relê as marcas do tenant do banco e avisa o
+ * {@link SyncNotificacaoService}. Publicação e releitura rodam na thread
+ * sync-watermark, fora do commit e da thread do LISTEN.
+ *
+ * Escritas que não passam pelos hooks (UPDATE em lote) e avisos perdidos
+ * (queda do LISTEN) são corrigidos pela verificação amostral: no máximo uma
+ * vez por sync.watermark.verificacao-intervalo-ms por tenant, um poll relê o
+ * banco, conta a divergência e adota o maior valor. Esse intervalo é o atraso
+ * máximo do /sync/status só nesses casos. Na reconexão do LISTEN todos os
+ * tenants carregados são conferidos no próximo poll.
+ */
+@Service
+@Slf4j
+public class SyncWatermarkService {
+
+    static final String TOPICO = "syncWatermark";
+
+    /**
+     * Marcas de um tenant. Timestamps no fuso da aplicação, como nas
+     * entidades; null = nenhum registro.
+     */
+    public record Marcas(LocalDateTime clientes, LocalDateTime ordensServico, LocalDateTime tiposPeca,
+            LocalDateTime usuarios, LocalDateTime comissoes, long dataVersion, long changeSeq) {
+
+        Marcas mesclar(Marcas outras) {
+            return new Marcas(max(clientes, outras.clientes), max(ordensServico, outras.ordensServico),
+                    max(tiposPeca, outras.tiposPeca), max(usuarios, outras.usuarios),
+                    max(comissoes, outras.comissoes), Math.max(dataVersion, outras.dataVersion),
+                    Math.max(changeSeq, outras.changeSeq));
+        }
+
+        /**
+         * true se alguma marca de outras está à frente desta (precisão de ms,
+         * a mesma do /sync/status).
+         */
+        boolean atrasadaEm(Marcas outras) {
+            return depois(outras.clientes, clientes) || depois(outras.ordensServico, ordensServico)
+                    || depois(outras.tiposPeca, tiposPeca) || depois(outras.usuarios, usuarios)
+                    || depois(outras.comissoes, comissoes) || outras.dataVersion > dataVersion
+                    || outras.changeSeq > changeSeq;
+        }
+
+        private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+            return a == null || (b != null && b.isAfter(a)) ? b : a;
+        }
+
+        private static boolean depois(LocalDateTime a, LocalDateTime b) {
+            return a != null && (b == null || a.truncatedTo(ChronoUnit.MILLIS).isAfter(b.truncatedTo(ChronoUnit.MILLIS)));
+        }
+    }
+
+    private final ClienteRepository clienteRepository;
+    private final OrdemServicoRepository osRepository;
+    private final TipoPecaRepository tipoPecaRepository;
+    private final UserRepository userRepository;
+    private final ComissaoCalculadaRepository comissaoRepository;
+    private final EmpresaRepository empresaRepository;
+    private final SyncNotificacaoService syncNotificacaoService;
+    private final InvalidationBus invalidationBus;
+
+    private final Map<Long, Marcas> marcasPorTenant = new ConcurrentHashMap<>();
+    private final Map<Long, Long> ultimaVerificacao = new ConcurrentHashMap<>();
+    private final Set<Long> publicacaoAgendada = ConcurrentHashMap.newKeySet();
+    private final Set<Long> releituraAgendada = ConcurrentHashMap.newKeySet();
+    // Publicações deste nó ainda sem o próprio eco (o LISTEN também as recebe)
+    private final Map<Long, Integer> ecosPendentes = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    private final Counter carregadas;
+    private final Counter releiturasRemotas;
+    private final Counter verificacoesOk;
+    private final Counter verificacoesDivergentes;
+
+    @Value("${sync.watermark.verificacao-intervalo-ms:60000}")
+    private long intervaloVerificacaoMs;
+
+    public SyncWatermarkService(ClienteRepository clienteRepository,
+            OrdemServicoRepository osRepository,
+            TipoPecaRepository tipoPecaRepository,
+            UserRepository userRepository,
+            ComissaoCalculadaRepository comissaoRepository,
+            EmpresaRepository empresaRepository,
+            SyncNotificacaoService syncNotificacaoService,
+            InvalidationBus invalidationBus,
+            MeterRegistry meterRegistry) {
+        this.clienteRepository = clienteRepository;
+        this.osRepository = osRepository;
+        this.tipoPecaRepository = tipoPecaRepository;
+        this.userRepository = userRepository;
+        this.comissaoRepository = comissaoRepository;
+        this.empresaRepository = empresaRepository;
+        this.syncNotificacaoService = syncNotificacaoService;
+        this.invalidationBus = invalidationBus;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1000), r -> {
+            Thread t = new Thread(r, "sync-watermark");
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.carregadas = meterRegistry.counter("sync.watermark.carregadas");
+        this.releiturasRemotas = meterRegistry.counter("sync.watermark.releituras-remotas");
+        this.verificacoesOk = meterRegistry.counter("sync.watermark.verificacoes", "result", "ok");
+        this.verificacoesDivergentes = meterRegistry.counter("sync.watermark.verificacoes", "result", "divergente");
+
+        invalidationBus.subscribe(TOPICO, this::receber);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Marcas atuais do tenant. Só consulta o banco na primeira chamada do
+     * tenant e na verificação amostral.
+     */
+    public Marcas getMarcas(Long tenantId) {
+        // Carga dentro do computeIfAbsent: um commit que chega durante a carga
+        // espera por ela e é mesclado em seguida (nada se perde entre os dois)
+        Marcas marcas = marcasPorTenant.computeIfAbsent(tenantId, id -> {
+            ultimaVerificacao.put(id, System.currentTimeMillis());
+            carregadas.increment();
+            return carregar(id);
+        });
+
+        Long ultima = ultimaVerificacao.get(tenantId);
+        long agora = System.currentTimeMillis();
+        if (ultima != null && agora - ultima >= intervaloVerificacaoMs
+                && ultimaVerificacao.replace(tenantId, ultima, agora)) {
+            marcas = verificar(tenantId);
+        }
+        return marcas;
+    }
+
+    private Marcas verificar(Long tenantId) {
+        Marcas doBanco = carregar(tenantId);
+        // Lida depois do banco: commit no meio da leitura não conta como divergência
+        Marcas emMemoria = marcasPorTenant.get(tenantId);
+        if (emMemoria.atrasadaEm(doBanco)) {
+            verificacoesDivergentes.increment();
+            log.warn("⚠️ Marcas do sync em memória atrasadas para tenant {}: memória={}, banco={}", tenantId,
+                    emMemoria, doBanco);
+        } else {
+            verificacoesOk.increment();
+        }
+        Marcas marcas = marcasPorTenant.merge(tenantId, doBanco, Marcas::mesclar);
+        syncNotificacaoService.notificar(tenantId, marcas);
+        return marcas;
+    }
+
+    private Marcas carregar(Long tenantId) {
+        Long seq = empresaRepository.findSyncSeqById(tenantId);
+        return new Marcas(
+                clienteRepository.findMaxUpdatedAtByEmpresaId(tenantId),
+                osRepository.findMaxUpdatedAtByEmpresaId(tenantId),
+                tipoPecaRepository.findMaxUpdatedAtByEmpresaId(tenantId),
+                userRepository.findMaxUpdatedAtByEmpresaId(tenantId),
+                comissaoRepository.findMaxUpdatedAtByEmpresaId(tenantId),
+                empresaRepository.findDataVersionById(tenantId).orElse(0L),
+                seq != null ? seq : 0L);
+    }
+
+    /**
+     * Registra a gravação de uma entidade do sync (ou comissão). O
+     * updatedAt é lido no afterCommit, depois do último flush da transação.
+     */
+    public void registrar(Object entidade) {
+        if (entidade == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aplicar(List.of(entidade), Map.of());
+            return;
+        }
+        marcasPendentes().entidades.add(entidade);
+    }
+
+    /**
+     * Último seq do change log gravado pela transação corrente (chamado no
+     * beforeCommit); vale a partir do commit.
+     */
+    public void registrarChangeSeq(Long tenantId, long seq) {
+        Marcas marcas = new Marcas(null, null, null, null, null, 0L, seq);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            avancar(tenantId, marcas);
+            return;
+        }
+        marcasPendentes().porTenant.merge(tenantId, marcas, Marcas::mesclar);
+    }
+
+    /**
+     * data_version já commitada (o bump roda após o commit).
+     */
+    public void registrarDataVersion(Long tenantId, long dataVersion) {
+        avancar(tenantId, new Marcas(null, null, null, null, null, dataVersion, 0L));
+    }
+
+    private MarcasPendentes marcasPendentes() {
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sync instanceof MarcasPendentes pendentes) {
+                return pendentes;
+            }
+        }
+        MarcasPendentes pendentes = new MarcasPendentes();
+        TransactionSynchronizationManager.registerSynchronization(pendentes);
+        return pendentes;
+    }
+
+    private void aplicar(List<Object> entidades, Map<Long, Marcas> porTenant) {
+        try {
+            Map<Long, Marcas> marcas = new HashMap<>(porTenant);
+            for (Object entidade : entidades) {
+                acumular(entidade, marcas);
+            }
+            marcas.forEach(this::avancar);
+        } catch (Exception e) {
+            // Dados já foram commitados; a verificação amostral corrige as marcas
+            log.warn("Falha ao avançar marcas do sync: {}", e.getMessage());
+        }
+    }
+
+    private void acumular(Object entidade, Map<Long, Marcas> marcas) {
+        if (entidade instanceof Iterable<?> itens) {
+            itens.forEach(item -> acumular(item, marcas));
+            return;
+        }
+        if (entidade instanceof java.util.Optional<?> opt) {
+            opt.ifPresent(item -> acumular(item, marcas));
+            return;
+        }
+
+        if (entidade instanceof VeiculoServico v) {
+            entidade = v.getOrdemServico();
+        } else if (entidade instanceof PecaServico p) {
+            entidade = p.getVeiculo() != null ? p.getVeiculo().getOrdemServico() : null;
+        }
+
+        Long tenantId;
+        Marcas m;
+        if (entidade instanceof OrdemServico os) {
+            tenantId = tenantDe(os.getEmpresa());
+            // OS só referenciada por veículo/peça pode ser proxy não carregado
+            LocalDateTime updatedAt = org.hibernate.Hibernate.isInitialized(os) ? os.getUpdatedAt() : null;
+            m = new Marcas(null, quando(updatedAt), null, null, null, 0L, 0L);
+        } else if (entidade instanceof Cliente c) {
+            tenantId = tenantDe(c.getEmpresa());
+            m = new Marcas(quando(c.getUpdatedAt()), null, null, null, null, 0L, 0L);
+        } else if (entidade instanceof TipoPeca t) {
+            tenantId = tenantDe(t.getEmpresa());
+            m = new Marcas(null, null, quando(t.getUpdatedAt()), null, null, 0L, 0L);
+        } else if (entidade instanceof User u) {
+            tenantId = tenantDe(u.getEmpresa());
+            m = new Marcas(null, null, null, quando(u.getUpdatedAt()), null, 0L, 0L);
+        } else if (entidade instanceof ComissaoCalculada c) {
+            tenantId = tenantDe(c.getEmpresa());
+            m = new Marcas(null, null, null, null, quando(c.getDataAtualizacao()), 0L, 0L);
+        } else {
+            return;
+        }
+        if (tenantId != null) {
+            marcas.merge(tenantId, m, Marcas::mesclar);
+        }
+    }
+
+    private static Long tenantDe(Empresa empresa) {
+        return empresa != null ? empresa.getId() : TenantContext.getCurrentTenant();
+    }
+
+    // Sem timestamp (entidade sem callback): agora, no máximo um sync a mais
+    private static LocalDateTime quando(LocalDateTime updatedAt) {
+        return updatedAt != null ? updatedAt : LocalDateTime.now();
+    }
+
+    /**
+     * Tenant ainda não carregado fica como está: a carga lê o banco já com
+     * este commit. Os outros nós são avisados mesmo assim.
+     */
+    private void avancar(Long tenantId, Marcas marcas) {
+        Marcas novas = marcasPorTenant.computeIfPresent(tenantId, (id, atuais) -> atuais.mesclar(marcas));
+        if (novas != null) {
+            // Long-poll e SSE do tenant (ver SyncNotificacaoService)
+            syncNotificacaoService.notificar(tenantId, novas);
+        }
+        publicar(tenantId);
+    }
+
+    /**
+     * NOTIFY do avanço em conexão própria (autocommit): chamado no afterCommit,
+     * a conexão da transação já não entrega mais nada. Avanços do tenant com
+     * publicação ainda na fila saem na mesma mensagem.
+     */
+    private void publicar(Long tenantId) {
+        if (!publicacaoAgendada.add(tenantId)) {
+            return;
+        }
+        executar(() -> {
+            publicacaoAgendada.remove(tenantId);
+            ecosPendentes.merge(tenantId, 1, Integer::sum);
+            try {
+                invalidationBus.publish(TOPICO, tenantId);
+            } catch (Exception e) {
+                consumirEco(tenantId);
+                // Outros nós corrigem na verificação amostral
+                log.warn("Falha ao publicar marcas do sync do tenant {}: {}", tenantId, e.getMessage());
+            }
+        }, () -> publicacaoAgendada.remove(tenantId));
+    }
+
+    /**
+     * Avanço publicado por algum nó. O próprio eco é ignorado (as marcas locais
+     * já estão em dia); tenant não carregado aqui não precisa de nada. null:
+     * avisos podem ter se perdido, todo tenant é conferido no próximo poll.
+     */
+    void receber(Long tenantId) {
+        if (tenantId == null) {
+            ecosPendentes.clear();
+            ultimaVerificacao.replaceAll((id, ultima) -> 0L);
+            return;
+        }
+        if (consumirEco(tenantId) || !marcasPorTenant.containsKey(tenantId)) {
+            return;
+        }
+        if (releituraAgendada.add(tenantId)) {
+            executar(() -> {
+                releituraAgendada.remove(tenantId);
+                reler(tenantId);
+            }, () -> releituraAgendada.remove(tenantId));
+        }
+    }
+
+    private void reler(Long tenantId) {
+        TenantContext.setCurrentTenant(tenantId);
+        try {
+            Marcas marcas = marcasPorTenant.merge(tenantId, carregar(tenantId), Marcas::mesclar);
+            ultimaVerificacao.put(tenantId, System.currentTimeMillis());
+            releiturasRemotas.increment();
+            syncNotificacaoService.notificar(tenantId, marcas);
+        } catch (Exception e) {
+            log.warn("Falha ao reler marcas do sync do tenant {}: {}", tenantId, e.getMessage());
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private boolean consumirEco(Long tenantId) {
+        AtomicBoolean eco = new AtomicBoolean();
+        ecosPendentes.computeIfPresent(tenantId, (id, n) -> {
+            eco.set(true);
+            return n > 1 ? n - 1 : null;
+        });
+        return eco.get();
+    }
+
+    private void executar(Runnable tarefa, Runnable rejeitada) {
+        try {
+            executor.execute(tarefa);
+        } catch (RejectedExecutionException e) {
+            rejeitada.run();
+        }
+    }
+
+    /**
+     * Entidades e seqs gravados pela transação corrente.
+     */
+    private class MarcasPendentes implements TransactionSynchronization {
+        private final List<Object> entidades = new ArrayList<>();
+        private final Map<Long, Marcas> porTenant = new HashMap<>();
+
+        @Override
+        public void afterCommit() {
+            aplicar(entidades, porTenant);
+        }
+    }
+}
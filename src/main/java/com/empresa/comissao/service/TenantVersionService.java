@@ -1,58 +1,142 @@
 package com.empresa.comissao.service;
 
 import com.empresa.comissao.repository.EmpresaRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Versão de DADOS do tenant (empresas.data_version), usada apenas pelo sync.
+ *
+ * Independente da versão de ACESSO (empresas.tenant_version / claim v_t), que é
+ * controlada por {@link com.empresa.comissao.security.AuthVersionService}.
+ * Assim, escritas comuns (OS, peças, clientes) não invalidam tokens nem o cache
+ * tenantAccessVersion.
+ *
+ * Bumps feitos dentro de uma transação são coalescidos: cada tenant recebe no
+ * máximo 1 UPDATE, executado no beforeCommit da própria transação. A linha de
+ * empresas fica travada só durante o commit (não durante toda a escrita), sem
+ * segunda conexão do pool, e o incremento é atômico com os dados: se falhar, o
+ * commit falha junto.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class TenantVersionService {
 
     private final EmpresaRepository empresaRepository;
-    private final CacheManager cacheManager;
+    private final SyncWatermarkService syncWatermarkService;
+
+    private final Counter bumpsRequested;
+    private final Counter bumpsCoalesced;
+    private final Counter bumpsApplied;
+
+    public TenantVersionService(EmpresaRepository empresaRepository,
+            MeterRegistry meterRegistry,
+            SyncWatermarkService syncWatermarkService) {
+        this.empresaRepository = empresaRepository;
+        this.syncWatermarkService = syncWatermarkService;
+
+        this.bumpsRequested = meterRegistry.counter("tenant.data_version.bumps", "result", "requested");
+        this.bumpsCoalesced = meterRegistry.counter("tenant.data_version.bumps", "result", "coalesced");
+        this.bumpsApplied = meterRegistry.counter("tenant.data_version.bumps", "result", "applied");
+    }
 
     /**
-     * Atomically increments the tenant version.
+     * Marks the tenant data version as changed.
      * Call this whenever a syncable entity (OS, Client, etc.) changes.
+     *
+     * Dentro de uma transação: agenda 1 incremento para o beforeCommit (rollback =
+     * nenhum incremento). Fora de transação: incrementa imediatamente.
      */
-    @Transactional
     public void bump(Long tenantId) {
         if (tenantId == null) {
             log.warn("Tentativa de bump version com tenantId nulo");
             return;
         }
-        empresaRepository.incrementTenantVersion(tenantId);
-
-        // Invalidate Auth Cache to prevent 401 Loops
-        try {
-            if (cacheManager != null) {
-                var cache = cacheManager.getCache("tenantAccessVersion");
-                if (cache != null) {
-                    cache.evict(tenantId);
-                    log.trace("Cache tenantAccessVersion evicted for id={}", tenantId);
-                }
-            }
-        } catch (Exception e) {
-            log.warn("Failed to evict cache for tenantId={}: {}", tenantId, e.getMessage());
+        bumpsRequested.increment();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            incrementar(Set.of(tenantId)).forEach(syncWatermarkService::registrarDataVersion);
+            return;
         }
 
-        log.trace("Tenant version bumped for company {}", tenantId);
+        PendingBumps pending = currentPendingBumps();
+        if (!pending.tenantIds.add(tenantId)) {
+            bumpsCoalesced.increment();
+            log.trace("Bump coalescido para tenant {}", tenantId);
+        } else if (pending.aplicado) {
+            // Bump de outro beforeCommit, depois do nosso: ainda na mesma transação
+            pending.versoes.putAll(incrementar(Set.of(tenantId)));
+        }
     }
 
     /**
-     * Helper to get current version (rarely used directly, usually via
-     * SyncController)
+     * Versão de dados atual lida do banco (o /sync/status usa a cópia em memória
+     * de {@link SyncWatermarkService}).
      */
     @Transactional(readOnly = true)
     public Long getCurrentVersion(Long tenantId) {
         if (tenantId == null)
             return 0L;
-        return empresaRepository.findById(tenantId)
-                .map(com.empresa.comissao.domain.entity.Empresa::getTenantVersion)
-                .orElse(0L);
+        return empresaRepository.findDataVersionById(tenantId).orElse(0L);
+    }
+
+    private PendingBumps currentPendingBumps() {
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            if (sync instanceof PendingBumps pending) {
+                return pending;
+            }
+        }
+        PendingBumps pending = new PendingBumps();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    /**
+     * Incrementa e lê as novas versões na transação corrente (ou em transações
+     * próprias do repositório, fora de transação).
+     */
+    private Map<Long, Long> incrementar(Set<Long> tenantIds) {
+        Map<Long, Long> versoes = new HashMap<>();
+        for (Long tenantId : tenantIds) {
+            empresaRepository.incrementDataVersion(tenantId);
+            empresaRepository.findDataVersionById(tenantId).ifPresent(v -> versoes.put(tenantId, v));
+        }
+        bumpsApplied.increment(tenantIds.size());
+        log.trace("Tenant data version bumped for companies {}", tenantIds);
+        return versoes;
+    }
+
+    /**
+     * Tenants tocados pela transação corrente. TreeSet mantém a ordem dos UPDATEs
+     * estável entre transações (evita deadlock entre flushes de múltiplos
+     * tenants). As versões só vão para as marcas do sync após o commit.
+     */
+    private class PendingBumps implements TransactionSynchronization {
+        private final Set<Long> tenantIds = new TreeSet<>();
+        private final Map<Long, Long> versoes = new HashMap<>();
+        private boolean aplicado;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            aplicado = true;
+            if (!tenantIds.isEmpty()) {
+                versoes.putAll(incrementar(tenantIds));
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            versoes.forEach(syncWatermarkService::registrarDataVersion);
+        }
     }
 }
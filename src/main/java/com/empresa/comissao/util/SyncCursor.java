@@ -0,0 +1,44 @@
+package com.empresa.comissao.util;
+
+import com.empresa.comissao.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Posição no sync paginado: a última linha entregue, na ordem (updatedAt, id).
+ * A próxima página começa estritamente depois dela, então linhas com o mesmo
+ * updatedAt não são repetidas nem puladas entre páginas.
+ *
+ * Trafega para o cliente como token opaco (Base64 URL-safe).
+ */
+public record SyncCursor(LocalDateTime updatedAt, Long id) {
+
+    /**
+     * Antes de qualquer linha (sync completo).
+     */
+    public static final SyncCursor INICIO = new SyncCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    /**
+     * Tudo com updatedAt > since (mesma semântica do ?since=).
+     */
+    public static SyncCursor apos(LocalDateTime since) {
+        return since == null ? INICIO : new SyncCursor(since, Long.MAX_VALUE);
+    }
+
+    public String encode() {
+        String raw = updatedAt + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SyncCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('_');
+            return new SyncCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException("Cursor de sincronização inválido");
+        }
+    }
+}
@@ -0,0 +1,8 @@
+-- V34: Separa a versão de dados (sync) da versão de acesso (JWT v_t)
+-- tenant_version passa a mudar apenas com plano/status/licença;
+-- data_version é incrementada a cada escrita de entidade sincronizável.
+
+ALTER TABLE empresas ADD COLUMN IF NOT EXISTS data_version BIGINT DEFAULT 0 NOT NULL;
+
+-- Preserva monotonicidade para clientes que já guardaram lastTenantVersion
+UPDATE empresas SET data_version = tenant_version;
@@ -0,0 +1,43 @@
+-- V35: Ledger incremental da base de comissão
+-- Um registro por (empresa, funcionário, mês) com os totais correntes de
+-- recebimentos e adiantamentos. funcionario_id = 0 guarda o total da empresa
+-- (modo COLETIVA e comissão consolidada).
+
+CREATE TABLE comissao_ledger (
+    id BIGSERIAL PRIMARY KEY,
+    empresa_id BIGINT NOT NULL REFERENCES empresas(id),
+    funcionario_id BIGINT NOT NULL DEFAULT 0,
+    ano_mes_referencia VARCHAR(7) NOT NULL,
+    total_recebido NUMERIC(19,2) NOT NULL DEFAULT 0,
+    total_adiantamentos NUMERIC(19,2) NOT NULL DEFAULT 0,
+    data_atualizacao TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT uk_comissao_ledger UNIQUE (empresa_id, funcionario_id, ano_mes_referencia)
+);
+
+-- Carga inicial a partir das tabelas de origem
+INSERT INTO comissao_ledger (empresa_id, funcionario_id, ano_mes_referencia, total_recebido)
+SELECT empresa_id, funcionario_responsavel_id, TO_CHAR(data_pagamento, 'YYYY-MM'), SUM(valor_pago)
+FROM recebimentos
+WHERE funcionario_responsavel_id IS NOT NULL
+GROUP BY empresa_id, funcionario_responsavel_id, TO_CHAR(data_pagamento, 'YYYY-MM');
+
+INSERT INTO comissao_ledger (empresa_id, funcionario_id, ano_mes_referencia, total_recebido)
+SELECT empresa_id, 0, TO_CHAR(data_pagamento, 'YYYY-MM'), SUM(valor_pago)
+FROM recebimentos
+GROUP BY empresa_id, TO_CHAR(data_pagamento, 'YYYY-MM');
+
+INSERT INTO comissao_ledger (empresa_id, funcionario_id, ano_mes_referencia, total_adiantamentos)
+SELECT empresa_id, usuario_id, TO_CHAR(data_pagamento, 'YYYY-MM'), SUM(valor)
+FROM pagamentos_adiantados
+WHERE empresa_id IS NOT NULL AND usuario_id IS NOT NULL
+GROUP BY empresa_id, usuario_id, TO_CHAR(data_pagamento, 'YYYY-MM')
+ON CONFLICT (empresa_id, funcionario_id, ano_mes_referencia)
+DO UPDATE SET total_adiantamentos = EXCLUDED.total_adiantamentos;
+
+INSERT INTO comissao_ledger (empresa_id, funcionario_id, ano_mes_referencia, total_adiantamentos)
+SELECT empresa_id, 0, TO_CHAR(data_pagamento, 'YYYY-MM'), SUM(valor)
+FROM pagamentos_adiantados
+WHERE empresa_id IS NOT NULL
+GROUP BY empresa_id, TO_CHAR(data_pagamento, 'YYYY-MM')
+ON CONFLICT (empresa_id, funcionario_id, ano_mes_referencia)
+DO UPDATE SET total_adiantamentos = EXCLUDED.total_adiantamentos;
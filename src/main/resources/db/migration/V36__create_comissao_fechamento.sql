@@ -0,0 +1,18 @@
+-- V36: Progresso do fechamento mensal de comissões (pré-cálculo por empresa)
+-- Uma linha por (mês, empresa). Permite retomar o job após restart e evita
+-- que dois nós processem a mesma empresa.
+
+CREATE TABLE comissao_fechamento (
+    id BIGSERIAL PRIMARY KEY,
+    ano_mes_referencia VARCHAR(7) NOT NULL,
+    empresa_id BIGINT NOT NULL REFERENCES empresas(id),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDENTE',
+    tentativas INTEGER NOT NULL DEFAULT 0,
+    comissoes_calculadas INTEGER NOT NULL DEFAULT 0,
+    iniciado_em TIMESTAMP,
+    concluido_em TIMESTAMP,
+    erro VARCHAR(500),
+    CONSTRAINT uk_comissao_fechamento UNIQUE (ano_mes_referencia, empresa_id)
+);
+
+CREATE INDEX idx_comissao_fechamento_status ON comissao_fechamento(ano_mes_referencia, status);
@@ -0,0 +1,31 @@
+-- V37: Resumo financeiro mensal materializado (DRE, relatório anual e YoY)
+-- Um registro por (empresa, mês). As escritas de FinanceiroService/ComissaoService
+-- incrementam "versao"; o registro está atualizado quando versao_calculada = versao.
+-- Registros ausentes ou desatualizados são recalculados sob demanda; a carga
+-- inicial é feita pelo endpoint de reconstrução.
+
+CREATE TABLE resumo_financeiro_mensal (
+    id BIGSERIAL PRIMARY KEY,
+    empresa_id BIGINT NOT NULL REFERENCES empresas(id),
+    ano_mes_referencia VARCHAR(7) NOT NULL,
+    receita_competencia NUMERIC(19,2) NOT NULL DEFAULT 0,
+    faturamento NUMERIC(19,2) NOT NULL DEFAULT 0,
+    recebido_caixa NUMERIC(19,2) NOT NULL DEFAULT 0,
+    pago NUMERIC(19,2) NOT NULL DEFAULT 0,
+    imposto NUMERIC(19,2) NOT NULL DEFAULT 0,
+    comissao_bruta NUMERIC(19,2) NOT NULL DEFAULT 0,
+    comissao_adiantamentos NUMERIC(19,2) NOT NULL DEFAULT 0,
+    comissao_saldo NUMERIC(19,2) NOT NULL DEFAULT 0,
+    comissao_completa BOOLEAN NOT NULL DEFAULT FALSE,
+    versao BIGINT NOT NULL DEFAULT 0,
+    versao_calculada BIGINT NOT NULL DEFAULT -1,
+    data_atualizacao TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT uk_resumo_financeiro_mensal UNIQUE (empresa_id, ano_mes_referencia)
+);
+
+CREATE TABLE resumo_financeiro_despesa (
+    resumo_id BIGINT NOT NULL REFERENCES resumo_financeiro_mensal(id) ON DELETE CASCADE,
+    categoria VARCHAR(50) NOT NULL,
+    valor NUMERIC(19,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (resumo_id, categoria)
+);
@@ -0,0 +1,19 @@
+-- V38: Snapshot do saldo de caixa no fechamento de cada mês
+-- Totais ACUMULADOS (desde o início) até o último dia do mês, para que o saldo
+-- inicial do fluxo de caixa e o saldo atual do resumo sejam "último snapshot +
+-- movimento desde então" em vez de uma soma sobre todo o histórico.
+-- Escritas com data em mês já fechado incrementam "versao" daquele mês em diante;
+-- o snapshot vale quando versao_calculada = versao.
+
+CREATE TABLE saldo_caixa_mensal (
+    id BIGSERIAL PRIMARY KEY,
+    empresa_id BIGINT NOT NULL REFERENCES empresas(id),
+    ano_mes_referencia VARCHAR(7) NOT NULL,
+    recebido_acumulado NUMERIC(19,2) NOT NULL DEFAULT 0,
+    recebido_contas_acumulado NUMERIC(19,2) NOT NULL DEFAULT 0,
+    pago_acumulado NUMERIC(19,2) NOT NULL DEFAULT 0,
+    versao BIGINT NOT NULL DEFAULT 0,
+    versao_calculada BIGINT NOT NULL DEFAULT -1,
+    data_atualizacao TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT uk_saldo_caixa_mensal UNIQUE (empresa_id, ano_mes_referencia)
+);
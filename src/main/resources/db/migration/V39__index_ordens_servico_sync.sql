@@ -0,0 +1,3 @@
+-- V39: Sync paginado de OS percorre (empresa_id, updated_at, id) em ordem
+CREATE INDEX IF NOT EXISTS idx_ordens_servico_empresa_updated_id ON ordens_servico(empresa_id, updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_ordens_servico_usuario_updated_id ON ordens_servico(usuario_id, updated_at, id);
@@ -0,0 +1,22 @@
+-- V40: Log de mudanças por tenant para sync incremental por sequência
+-- Cada escrita em entidade sincronizável grava (entidade, id, operação) na mesma
+-- transação, com seq tirado de empresas.sync_seq. O UPDATE do contador segura
+-- a linha da empresa só do beforeCommit ao commit, então a ordem de seq de um
+-- tenant é a ordem de commit: quem leu até N nunca recebe depois um seq < N.
+-- Entradas substituídas por outra mais nova da mesma entidade são compactadas.
+
+ALTER TABLE empresas ADD COLUMN IF NOT EXISTS sync_seq BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE sync_change_log (
+    id BIGSERIAL PRIMARY KEY,
+    empresa_id BIGINT NOT NULL REFERENCES empresas(id),
+    seq BIGINT NOT NULL,
+    entidade VARCHAR(30) NOT NULL,
+    entidade_id BIGINT NOT NULL,
+    operacao VARCHAR(10) NOT NULL,
+    usuario_id BIGINT,
+    criado_em TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT uk_sync_change_log_seq UNIQUE (empresa_id, seq)
+);
+
+CREATE INDEX IF NOT EXISTS idx_sync_change_log_entidade ON sync_change_log(empresa_id, entidade, entidade_id, seq);
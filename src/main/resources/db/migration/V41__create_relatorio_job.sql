@@ -0,0 +1,22 @@
+-- V41: Jobs assíncronos de PDF de relatório
+-- O status fica no banco (e o arquivo no storage) para que qualquer instância
+-- responda status/download e um restart não perca os jobs já concluídos.
+-- Linhas e arquivos são apagados pela limpeza após expira_em.
+
+CREATE TABLE relatorio_job (
+    id VARCHAR(36) PRIMARY KEY,
+    empresa_id BIGINT NOT NULL REFERENCES empresas(id),
+    chave VARCHAR(120) NOT NULL,
+    tipo VARCHAR(30) NOT NULL,
+    periodo VARCHAR(20) NOT NULL,
+    nome_arquivo VARCHAR(120) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    storage_key VARCHAR(255),
+    erro TEXT,
+    criado_em TIMESTAMP NOT NULL DEFAULT NOW(),
+    concluido_em TIMESTAMP,
+    expira_em TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_relatorio_job_chave ON relatorio_job(chave, criado_em);
+CREATE INDEX IF NOT EXISTS idx_relatorio_job_expira ON relatorio_job(expira_em);
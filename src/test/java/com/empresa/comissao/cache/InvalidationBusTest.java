@@ -0,0 +1,82 @@
+package com.empresa.comissao.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvalidationBusTest {
+
+    private static final String CACHE = "tenantAccessVersion";
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ConcurrentMapCacheManager(CACHE).getCache(CACHE);
+        cache.put(10L, "snapshot-10");
+        cache.put(11L, "snapshot-11");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Bus local deve evictar somente após o commit")
+    void busLocalDeveEvictarAposCommit() {
+        LocalInvalidationBus bus = new LocalInvalidationBus();
+        bus.subscribeCache(cache);
+        TransactionSynchronizationManager.initSynchronization();
+
+        bus.publish(CACHE, 10L);
+        assertNotNull(cache.get(10L));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertNull(cache.get(10L));
+        assertNotNull(cache.get(11L));
+    }
+
+    @Test
+    @DisplayName("Notificação remota deve evictar a entrada indicada no payload")
+    void notificacaoRemotaDeveEvictarEntrada() {
+        PostgresInvalidationBus bus = new PostgresInvalidationBus(null, null);
+        bus.subscribeCache(cache);
+
+        bus.handle("tenantAccessVersion:10");
+        bus.handle("payload-invalido");
+        bus.handle("tenantAccessVersion:abc");
+        bus.handle("topicoSemInscrito:11");
+
+        assertNull(cache.get(10L));
+        assertNotNull(cache.get(11L));
+    }
+
+    @Test
+    @DisplayName("Cada tópico vai só para o seu inscrito; reconexão entrega null a todos os registrados")
+    void reconexaoDeveInvalidarTopicosRegistrados() {
+        PostgresInvalidationBus bus = new PostgresInvalidationBus(null, null);
+        bus.subscribeCache(cache);
+        java.util.List<Long> recebidas = new java.util.ArrayList<>();
+        bus.subscribe("regraComissao", recebidas::add);
+
+        bus.handle("regraComissao:7");
+        // O cache não é afetado pela mensagem de outro tópico
+        assertNotNull(cache.get(10L));
+
+        ReflectionTestUtils.invokeMethod(bus, "clearAll");
+        assertEquals(java.util.Arrays.asList(7L, null), recebidas);
+        assertNull(cache.get(10L));
+        assertNull(cache.get(11L));
+    }
+}
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
@@ -107,6 +108,11 @@ class TenantSyncIntegrationTest {
 
             osService.criarOS(request);
 
+            // Bumps são coalescidos e aplicados só após o commit
+            assertThat(tenantVersionService.getCurrentVersion(empresa.getId())).isEqualTo(initialVersion);
+            TestTransaction.flagForCommit();
+            TestTransaction.end();
+
             // Assert
             Long newVersion = tenantVersionService.getCurrentVersion(empresa.getId());
             assertThat(newVersion).isGreaterThan(initialVersion);
@@ -0,0 +1,73 @@
+package com.empresa.comissao.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    // 256 bits em Base64 (apenas para teste)
+    private static final String SECRET = "dGVzdGUtc2VjcmV0LWtleS1wYXJhLWp3dC1zZXJ2aWNlLTMyYnl0ZXM=";
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", 100L);
+        jwtService.init();
+    }
+
+    @Test
+    @DisplayName("Deve verificar token e expor snapshot imutável das claims")
+    void deveVerificarTokenValido() {
+        String token = jwtService.generateToken(Map.of(
+                "tid", 7,
+                "v_t", 3,
+                "v_u", 2,
+                "roles", List.of("ROLE_ADMIN_EMPRESA"),
+                "feats", List.of("RELATORIOS"),
+                "email", "admin@empresa.com"), "42");
+
+        VerifiedToken verified = jwtService.verify(token);
+
+        assertNotNull(verified);
+        assertEquals(42L, verified.userId());
+        assertEquals(7L, verified.tenantId());
+        assertEquals(3L, verified.tenantVersion());
+        assertEquals(2, verified.userVersion());
+        assertEquals(List.of("ROLE_ADMIN_EMPRESA"), verified.roles());
+        assertEquals(List.of("RELATORIOS"), verified.features());
+        assertThrows(UnsupportedOperationException.class, () -> verified.roles().add("ROLE_SUPER_ADMIN"));
+    }
+
+    @Test
+    @DisplayName("Token repetido deve ser servido do cache sem nova verificação")
+    void deveReutilizarTokenVerificado() {
+        String token = jwtService.generateToken(Map.of("roles", List.of("ROLE_FUNCIONARIO")), "1");
+
+        assertSame(jwtService.verify(token), jwtService.verify(token));
+    }
+
+    @Test
+    @DisplayName("Token adulterado ou expirado deve ser rejeitado")
+    void deveRejeitarTokenInvalido() {
+        String token = jwtService.generateToken(Map.of("roles", List.of("ROLE_FUNCIONARIO")), "1");
+        String adulterado = token.substring(0, token.length() - 2) + "xx";
+
+        assertNull(jwtService.verify(adulterado));
+
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", -1_000L);
+        String expirado = jwtService.generateToken(Map.of("roles", List.of("ROLE_FUNCIONARIO")), "1");
+        assertNull(jwtService.verify(expirado));
+    }
+}
@@ -47,6 +47,9 @@ class BillingTenantServiceTest {
     @Mock
     private IPaymentGateway paymentGateway;
 
+    @Mock
+    private com.empresa.comissao.security.AuthVersionService authVersionService;
+
     @InjectMocks
     private BillingTenantService billingTenantService;
 
@@ -122,6 +125,7 @@ class BillingTenantServiceTest {
 
         assertEquals(StatusEmpresa.BLOQUEADA, tenantAtivo.getStatus());
         verify(empresaRepository).save(tenantAtivo);
+        verify(authVersionService).incrementTenantVersion(tenantAtivo.getId());
 
         assertEquals(StatusFatura.VENCIDO, faturaAtrasada.getStatus());
         verify(faturaRepository).save(faturaAtrasada);
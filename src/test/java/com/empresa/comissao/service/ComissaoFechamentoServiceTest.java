@@ -0,0 +1,105 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.ComissaoFechamento;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.enums.ModoComissao;
+import com.empresa.comissao.domain.enums.StatusEmpresa;
+import com.empresa.comissao.domain.enums.StatusFechamento;
+import com.empresa.comissao.repository.ComissaoFechamentoRepository;
+import com.empresa.comissao.repository.EmpresaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ComissaoFechamentoServiceTest {
+
+    @Mock
+    private ComissaoService comissaoService;
+    @Mock
+    private EmpresaRepository empresaRepository;
+    @Mock
+    private ComissaoFechamentoRepository fechamentoRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ComissaoFechamentoService service;
+    private final YearMonth mes = YearMonth.of(2026, 9);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        service = new ComissaoFechamentoService(comissaoService, empresaRepository, fechamentoRepository,
+                transactionManager, new SimpleMeterRegistry(), 2, 0, 30);
+    }
+
+    private static ComissaoFechamento fechamento(Long id, Long empresaId, StatusFechamento status) {
+        return ComissaoFechamento.builder().id(id).anoMesReferencia(YearMonth.of(2026, 9)).empresaId(empresaId)
+                .status(status).build();
+    }
+
+    @Test
+    @DisplayName("Deve retomar apenas empresas não concluídas e registrar falhas")
+    void deveRetomarFechamentoPendente() {
+        Empresa individual = Empresa.builder().id(1L).modoComissao(ModoComissao.INDIVIDUAL).build();
+        Empresa coletiva = Empresa.builder().id(2L).modoComissao(ModoComissao.COLETIVA).build();
+        Empresa comErro = Empresa.builder().id(3L).modoComissao(ModoComissao.INDIVIDUAL).build();
+        Empresa jaConcluida = Empresa.builder().id(4L).build();
+
+        when(empresaRepository.findByStatus(StatusEmpresa.ATIVA))
+                .thenReturn(List.of(individual, coletiva, comErro, jaConcluida));
+        List<ComissaoFechamento> todos = List.of(
+                fechamento(11L, 1L, StatusFechamento.PENDENTE),
+                fechamento(12L, 2L, StatusFechamento.EM_ANDAMENTO),
+                fechamento(13L, 3L, StatusFechamento.ERRO),
+                fechamento(14L, 4L, StatusFechamento.CONCLUIDO));
+        when(fechamentoRepository.findByAnoMesReferencia(mes)).thenReturn(todos);
+        when(fechamentoRepository.findByAnoMesReferenciaAndStatusNot(mes, StatusFechamento.CONCLUIDO))
+                .thenReturn(todos.subList(0, 3));
+        when(fechamentoRepository.reservar(anyLong(), any(), any())).thenReturn(1);
+
+        when(empresaRepository.findById(1L)).thenReturn(Optional.of(individual));
+        when(empresaRepository.findById(2L)).thenReturn(Optional.of(coletiva));
+        when(empresaRepository.findById(3L)).thenReturn(Optional.of(comErro));
+        when(comissaoService.listarComissoesEmpresa(2026, 9, individual, true)).thenReturn(List.of());
+        when(comissaoService.listarComissoesEmpresa(2026, 9, coletiva, true)).thenReturn(List.of());
+        when(comissaoService.listarComissoesEmpresa(2026, 9, comErro, true))
+                .thenThrow(new IllegalStateException("sem conexão"));
+
+        ComissaoFechamentoService.Resultado resultado = service.fecharMes(mes);
+
+        assertEquals(4, resultado.total());
+        assertEquals(2, resultado.concluidas());
+        assertEquals(1, resultado.falhas());
+        verify(fechamentoRepository, never()).saveAndFlush(any());
+        verify(comissaoService).calcularComissaoEmpresaMensal(2026, 9, coletiva, true);
+        verify(comissaoService, never()).calcularComissaoEmpresaMensal(2026, 9, individual, true);
+        verify(fechamentoRepository).concluir(eq(11L), any(), eq(0));
+        verify(fechamentoRepository).concluir(eq(12L), any(), eq(1));
+        verify(fechamentoRepository).registrarErro(13L, "sem conexão");
+        verify(comissaoService, never()).listarComissoesEmpresa(anyInt(), anyInt(), eq(jaConcluida), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Empresa reservada por outro nó deve ser pulada")
+    void devePularEmpresaReservada() {
+        ComissaoFechamento f = fechamento(11L, 1L, StatusFechamento.EM_ANDAMENTO);
+        when(fechamentoRepository.reservar(eq(11L), any(), any())).thenReturn(0);
+
+        assertEquals(StatusFechamento.EM_ANDAMENTO, service.processar(f));
+        verifyNoInteractions(comissaoService);
+    }
+}
@@ -0,0 +1,99 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.ComissaoLedger;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.User;
+import com.empresa.comissao.repository.ComissaoLedgerRepository;
+import com.empresa.comissao.repository.PagamentoAdiantadoRepository;
+import com.empresa.comissao.repository.RecebimentoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ComissaoLedgerServiceTest {
+
+    @Mock
+    private ComissaoLedgerRepository ledgerRepository;
+    @Mock
+    private RecebimentoRepository recebimentoRepository;
+    @Mock
+    private PagamentoAdiantadoRepository pagamentoAdiantadoRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ComissaoLedgerService service;
+
+    private final Empresa empresa = Empresa.builder().id(1L).nome("Oficina").build();
+    private final User funcionario = User.builder().id(10L).email("ana@oficina.com").build();
+    private final YearMonth marco = YearMonth.of(2026, 3);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new ComissaoLedgerService(ledgerRepository, recebimentoRepository, pagamentoAdiantadoRepository,
+                meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Recebimento deve somar no total da empresa e do funcionário")
+    void deveSomarRecebimentoNaEmpresaENoFuncionario() {
+        service.registrarRecebimento(empresa, funcionario, LocalDate.of(2026, 3, 15), new BigDecimal("250.00"));
+
+        verify(ledgerRepository).somar(1L, ComissaoLedger.EMPRESA_TOTAL, "2026-03", new BigDecimal("250.00"),
+                BigDecimal.ZERO);
+        verify(ledgerRepository).somar(1L, 10L, "2026-03", new BigDecimal("250.00"), BigDecimal.ZERO);
+    }
+
+    @Test
+    @DisplayName("Adiantamento: um upsert por linha, sem consulta prévia nem insert separado")
+    void deveSomarAdiantamentoComUpsert() {
+        service.registrarAdiantamento(empresa, funcionario, LocalDate.of(2026, 3, 2), new BigDecimal("80.00"));
+
+        verify(ledgerRepository).somar(1L, ComissaoLedger.EMPRESA_TOTAL, "2026-03", BigDecimal.ZERO,
+                new BigDecimal("80.00"));
+        verify(ledgerRepository).somar(1L, 10L, "2026-03", BigDecimal.ZERO, new BigDecimal("80.00"));
+        verifyNoMoreInteractions(ledgerRepository);
+    }
+
+    @Test
+    @DisplayName("Reconciliação deve corrigir linhas divergentes e zerar linhas sem origem")
+    void deveReconciliarLedgerComOrigem() {
+        ComissaoLedger total = ComissaoLedger.builder().empresaId(1L).funcionarioId(ComissaoLedger.EMPRESA_TOTAL)
+                .anoMesReferencia(marco).totalRecebido(new BigDecimal("500.00")).build();
+        ComissaoLedger ana = ComissaoLedger.builder().empresaId(1L).funcionarioId(10L)
+                .anoMesReferencia(marco).totalRecebido(new BigDecimal("400.00")).build();
+        ComissaoLedger orfa = ComissaoLedger.builder().empresaId(1L).funcionarioId(99L)
+                .anoMesReferencia(marco).totalRecebido(new BigDecimal("100.00")).build();
+        when(ledgerRepository.findForUpdate(1L, marco)).thenReturn(List.of(total, ana, orfa));
+
+        when(recebimentoRepository.sumByEmpresaAndDataPagamentoBetween(eq(empresa), any(), any()))
+                .thenReturn(new BigDecimal("500.00"));
+        when(pagamentoAdiantadoRepository.sumValorByDataPagamentoBetweenAndEmpresa(any(), any(), eq(empresa)))
+                .thenReturn(Optional.empty());
+        when(recebimentoRepository.sumByEmpresaAndDataPagamentoBetweenGroupByFuncionario(eq(empresa), any(), any()))
+                .thenReturn(List.<Object[]>of(new Object[] { 10L, new BigDecimal("500.00") }));
+        when(pagamentoAdiantadoRepository.sumValorByEmpresaAndDataPagamentoBetweenGroupByUsuario(eq(empresa), any(),
+                any())).thenReturn(List.of());
+
+        int corrigidas = service.reconciliar(empresa, marco);
+
+        assertEquals(2, corrigidas);
+        assertEquals(new BigDecimal("500.00"), ana.getTotalRecebido());
+        assertEquals(BigDecimal.ZERO, orfa.getTotalRecebido());
+        verify(ledgerRepository, never()).save(total);
+        assertEquals(2.0, meterRegistry.counter("comissao.ledger.divergencias").count());
+    }
+}
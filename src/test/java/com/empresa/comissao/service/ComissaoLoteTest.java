@@ -0,0 +1,118 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.ComissaoCalculada;
+import com.empresa.comissao.domain.entity.ComissaoLedger;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.RegraComissao;
+import com.empresa.comissao.domain.entity.User;
+import com.empresa.comissao.domain.enums.ModoComissao;
+import com.empresa.comissao.domain.enums.TipoRegraComissao;
+import com.empresa.comissao.repository.ComissaoCalculadaRepository;
+import com.empresa.comissao.repository.ContaPagarRepository;
+import com.empresa.comissao.repository.RecebimentoRepository;
+import com.empresa.comissao.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ComissaoLoteTest {
+
+    @Mock
+    private ComissaoCalculadaRepository comissaoCalculadaRepository;
+    @Mock
+    private RecebimentoRepository recebimentoRepository;
+    @Mock
+    private ComissaoLedgerService comissaoLedgerService;
+    @Mock
+    private ContaPagarRepository contaPagarRepository;
+    @Mock
+    private RegraComissaoCache regraComissaoCache;
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ResumoFinanceiroService resumoFinanceiroService;
+
+    @InjectMocks
+    private ComissaoService comissaoService;
+
+    private Empresa empresa;
+    private User ana;
+    private User bruno;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        empresa = Empresa.builder().id(1L).nome("Oficina").modoComissao(ModoComissao.INDIVIDUAL).build();
+        ana = User.builder().id(10L).email("ana@oficina.com").empresa(empresa).build();
+        bruno = User.builder().id(20L).email("bruno@oficina.com").empresa(empresa).build();
+        User semComissao = User.builder().id(30L).email("adm@oficina.com").empresa(empresa)
+                .participaComissao(false).build();
+
+        when(userRepository.findByEmpresa(empresa)).thenReturn(List.of(ana, bruno, semComissao));
+        when(regraComissaoCache.getRegraAtiva(empresa)).thenReturn(RegraComissaoCompilada.compilar(
+                RegraComissao.builder().nome("Fixa 10").tipoRegra(TipoRegraComissao.FIXA_EMPRESA)
+                        .percentualFixo(new BigDecimal("10")).build()));
+        when(comissaoCalculadaRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("Deve calcular a equipe inteira com 1 leitura do ledger (sem query por funcionário)")
+    void deveCalcularEquipeEmLote() {
+        ComissaoCalculada anteriorBruno = ComissaoCalculada.builder().usuario(bruno)
+                .saldoAReceber(new BigDecimal("-50.00")).build();
+
+        when(comissaoCalculadaRepository.findByAnoMesReferenciaAndEmpresa(YearMonth.of(2026, 3), empresa))
+                .thenReturn(List.of());
+        when(comissaoCalculadaRepository.findByAnoMesReferenciaAndEmpresa(YearMonth.of(2026, 2), empresa))
+                .thenReturn(List.of(anteriorBruno));
+        when(comissaoLedgerService.getTotaisMes(empresa, YearMonth.of(2026, 3))).thenReturn(Map.of(
+                ComissaoLedger.EMPRESA_TOTAL,
+                new ComissaoLedgerService.Totais(new BigDecimal("3000.00"), new BigDecimal("30.00")),
+                10L, new ComissaoLedgerService.Totais(new BigDecimal("1000.00"), new BigDecimal("30.00")),
+                20L, new ComissaoLedgerService.Totais(new BigDecimal("2000.00"), BigDecimal.ZERO)));
+
+        List<ComissaoCalculada> comissoes = comissaoService.listarComissoesEmpresa(2026, 3, empresa, false);
+
+        assertEquals(2, comissoes.size());
+        assertEquals(new BigDecimal("100.00"), comissoes.get(0).getValorBrutoComissao());
+        assertEquals(new BigDecimal("70.00"), comissoes.get(0).getSaldoAReceber());
+        assertEquals(new BigDecimal("200.00"), comissoes.get(1).getValorBrutoComissao());
+        assertEquals(new BigDecimal("150.00"), comissoes.get(1).getSaldoAReceber()); // carryover -50
+
+        verify(comissaoCalculadaRepository, times(1)).saveAll(anyList());
+        verify(regraComissaoCache, times(1)).getRegraAtiva(empresa);
+        verify(comissaoLedgerService, times(1)).getTotaisMes(empresa, YearMonth.of(2026, 3));
+        verify(comissaoLedgerService, never()).getTotaisFuncionario(any(), any(), any());
+        verifyNoInteractions(recebimentoRepository);
+        verify(contaPagarRepository, never()).sumPaidGroupByComissao(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Sem force, deve retornar comissões já calculadas sem recalcular")
+    void deveRetornarCacheSemForce() {
+        ComissaoCalculada c1 = ComissaoCalculada.builder().id(1L).usuario(ana).build();
+        ComissaoCalculada c2 = ComissaoCalculada.builder().id(2L).usuario(bruno).build();
+        when(comissaoCalculadaRepository.findByAnoMesReferenciaAndEmpresa(YearMonth.of(2026, 3), empresa))
+                .thenReturn(List.of(c1, c2));
+
+        List<ComissaoCalculada> comissoes = comissaoService.listarComissoesEmpresa(2026, 3, empresa, false);
+
+        assertEquals(List.of(c1, c2), comissoes);
+        verify(comissaoCalculadaRepository, never()).saveAll(anyList());
+        verifyNoInteractions(recebimentoRepository, comissaoLedgerService, contaPagarRepository);
+    }
+}
@@ -0,0 +1,132 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.ComissaoCalculada;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.User;
+import com.empresa.comissao.dto.response.RecalculoComissaoResponse;
+import com.empresa.comissao.repository.ComissaoCalculadaRepository;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ComissaoRecalculoServiceTest {
+
+    @Mock
+    private ComissaoService comissaoService;
+    @Mock
+    private ComissaoCalculadaRepository comissaoCalculadaRepository;
+    @Mock
+    private EmpresaRepository empresaRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ComissaoRecalculoService service;
+    private Empresa empresa;
+    private User ana;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        service = new ComissaoRecalculoService(comissaoService, comissaoCalculadaRepository, empresaRepository,
+                userRepository, transactionManager, 2);
+
+        empresa = Empresa.builder().id(1L).nome("Oficina").build();
+        ana = User.builder().id(10L).email("ana@oficina.com").empresa(empresa).build();
+        when(empresaRepository.findById(1L)).thenReturn(Optional.of(empresa));
+        when(userRepository.findAllById(any())).thenReturn(List.of(ana));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static ComissaoCalculada comissao(Long id, User usuario, YearMonth mes, String saldoAnterior,
+            String saldo) {
+        return ComissaoCalculada.builder()
+                .id(id)
+                .usuario(usuario)
+                .anoMesReferencia(mes)
+                .saldoAnterior(new BigDecimal(saldoAnterior))
+                .valorBrutoComissao(new BigDecimal("100.00"))
+                .saldoAReceber(new BigDecimal(saldo))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Deve recalcular os meses em ordem e reportar apenas os que mudaram")
+    void deveRecalcularCadeiaEmOrdem() {
+        YearMonth marco = YearMonth.of(2026, 3);
+        YearMonth abril = YearMonth.of(2026, 4);
+        YearMonth maio = YearMonth.of(2026, 5);
+        when(comissaoCalculadaRepository.findByEmpresaAndAnoMesReferenciaGreaterThanEqualOrderByAnoMesReferenciaAsc(
+                empresa, marco)).thenReturn(List.of(
+                        comissao(1L, ana, marco, "0.00", "-40.00"),
+                        comissao(2L, ana, abril, "-40.00", "60.00"),
+                        comissao(3L, ana, maio, "0.00", "100.00")));
+
+        // Março passa a fechar em -90: abril herda o novo carryover; maio não muda
+        when(comissaoService.calcularEObterComissaoMensal(2026, 3, ana, true))
+                .thenReturn(comissao(1L, ana, marco, "0.00", "-90.00"));
+        when(comissaoService.calcularEObterComissaoMensal(2026, 4, ana, true))
+                .thenReturn(comissao(2L, ana, abril, "-90.00", "10.00"));
+        when(comissaoService.calcularEObterComissaoMensal(2026, 5, ana, true))
+                .thenReturn(comissao(3L, ana, maio, "0.00", "100.00"));
+
+        RecalculoComissaoResponse resultado = service.recalcularEmCascata(1L, marco);
+
+        InOrder ordem = inOrder(comissaoService);
+        ordem.verify(comissaoService).calcularEObterComissaoMensal(2026, 3, ana, true);
+        ordem.verify(comissaoService).calcularEObterComissaoMensal(2026, 4, ana, true);
+        ordem.verify(comissaoService).calcularEObterComissaoMensal(2026, 5, ana, true);
+
+        assertEquals(3, resultado.getComissoesRecalculadas());
+        assertEquals("2026-05", resultado.getAte());
+        assertEquals(List.of("2026-03", "2026-04"),
+                resultado.getAlteracoes().stream().map(RecalculoComissaoResponse.Alteracao::getAnoMesReferencia)
+                        .toList());
+        assertTrue(resultado.getErros().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Falha em um mês deve interromper apenas a cadeia afetada")
+    void deveInterromperCadeiaComErro() {
+        YearMonth marco = YearMonth.of(2026, 3);
+        when(comissaoCalculadaRepository.findByEmpresaAndAnoMesReferenciaGreaterThanEqualOrderByAnoMesReferenciaAsc(
+                empresa, marco)).thenReturn(List.of(
+                        comissao(1L, ana, marco, "0.00", "10.00"),
+                        comissao(2L, ana, marco.plusMonths(1), "0.00", "10.00"),
+                        comissao(5L, null, marco, "0.00", "50.00")));
+
+        when(comissaoService.calcularEObterComissaoMensal(2026, 3, ana, true))
+                .thenThrow(new IllegalStateException("falhou"));
+        when(comissaoService.calcularComissaoEmpresaMensal(2026, 3, empresa, true))
+                .thenReturn(comissao(5L, null, marco, "0.00", "50.00"));
+
+        RecalculoComissaoResponse resultado = service.recalcularEmCascata(1L, marco);
+
+        verify(comissaoService, never()).calcularEObterComissaoMensal(eq(2026), eq(4), any(), anyBoolean());
+        assertEquals(1, resultado.getComissoesRecalculadas());
+        assertEquals(1, resultado.getErros().size());
+    }
+}
@@ -1,7 +1,13 @@
 package com.empresa.comissao.service;
 
 import com.empresa.comissao.domain.entity.ComissaoCalculada;
+import com.empresa.comissao.domain.entity.Despesa;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.FaixaComissaoConfig;
+import com.empresa.comissao.domain.entity.RegraComissao;
+import com.empresa.comissao.domain.enums.TipoRegraComissao;
 import com.empresa.comissao.repository.ComissaoCalculadaRepository;
+import com.empresa.comissao.repository.DespesaRepository;
 import com.empresa.comissao.repository.FaturamentoRepository;
 import com.empresa.comissao.repository.PagamentoAdiantadoRepository;
 import org.junit.jupiter.api.Test;
@@ -11,11 +17,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
-import java.time.YearMonth;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,19 +37,35 @@ class ComissaoServiceTest {
     @Mock
     private ComissaoCalculadaRepository comissaoRepository;
 
+    @Mock
+    private ResumoFinanceiroService resumoFinanceiroService;
+    @Mock
+    private RegraComissaoCache regraComissaoCache;
+    @Mock
+    private DespesaRepository despesaRepository;
+
     @InjectMocks
     private ComissaoService comissaoService;
 
     @Test
     void deveCalcularComissaoComSucesso() {
-        YearMonth anoMes = YearMonth.of(2026, 1);
         BigDecimal faturamentoTotal = new BigDecimal("20000.00");
 
-        when(comissaoRepository.findFirstByAnoMesReferencia(anoMes)).thenReturn(Optional.empty());
+        when(comissaoRepository.findFirstByAnoMesReferenciaAndUsuario(any(), isNull())).thenReturn(Optional.empty());
+        when(comissaoRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
         when(faturamentoRepository.sumValorByDataFaturamentoBetween(any(), any()))
                 .thenReturn(Optional.of(faturamentoTotal));
         when(adiantamentoRepository.sumValorByDataPagamentoBetween(any(), any()))
                 .thenReturn(Optional.of(new BigDecimal("1000.00")));
+        when(regraComissaoCache.getRegraAtiva(any())).thenReturn(RegraComissaoCompilada.compilar(
+                RegraComissao.builder()
+                        .tipoRegra(TipoRegraComissao.FAIXA_FATURAMENTO)
+                        .faixas(List.of(FaixaComissaoConfig.builder()
+                                .minFaturamento(BigDecimal.ZERO)
+                                .porcentagem(new BigDecimal("15"))
+                                .ordem(1)
+                                .build()))
+                        .build()));
 
         ComissaoCalculada resultado = comissaoService.calcularEObterComissaoMensal(2026, 1);
 
@@ -48,4 +73,16 @@ class ComissaoServiceTest {
         assertThat(resultado.getValorBrutoComissao()).isEqualTo(new BigDecimal("3000.00")); // 15% de 20000
         assertThat(resultado.getSaldoAReceber()).isEqualTo(new BigDecimal("2000.00")); // 3000 - 1000
     }
+
+    @Test
+    void atualizarDespesa_DeveInvalidarMesAnteriorENovo() {
+        Empresa empresa = Empresa.builder().id(1L).build();
+        Despesa despesa = Despesa.builder().id(5L).empresa(empresa).dataDespesa(LocalDate.of(2026, 3, 10)).build();
+        when(despesaRepository.findDataDespesaGravada(5L)).thenReturn(Optional.of(LocalDate.of(2026, 1, 31)));
+        when(despesaRepository.save(despesa)).thenReturn(despesa);
+
+        comissaoService.atualizarDespesa(despesa);
+
+        verify(resumoFinanceiroService).invalidar(empresa, LocalDate.of(2026, 1, 31), LocalDate.of(2026, 3, 10));
+    }
 }
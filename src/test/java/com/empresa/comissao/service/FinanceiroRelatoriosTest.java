@@ -0,0 +1,87 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.enums.MeioPagamento;
+import com.empresa.comissao.domain.enums.StatusConta;
+import com.empresa.comissao.domain.enums.TipoContaPagar;
+import com.empresa.comissao.domain.enums.TipoContaReceber;
+import com.empresa.comissao.dto.RelatorioContasPagarDTO;
+import com.empresa.comissao.dto.RelatorioReceitaCaixaDTO;
+import com.empresa.comissao.dto.list.ContaPagarRelatorioDTO;
+import com.empresa.comissao.dto.list.ContaReceberRelatorioDTO;
+import com.empresa.comissao.repository.ContaPagarRepository;
+import com.empresa.comissao.repository.ContaReceberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FinanceiroRelatoriosTest {
+
+    @Mock
+    private ContaPagarRepository contaPagarRepository;
+    @Mock
+    private ContaReceberRepository contaReceberRepository;
+
+    @InjectMocks
+    private FinanceiroService financeiroService;
+
+    private final Empresa empresa = Empresa.builder().id(1L).nome("Oficina").build();
+    private final YearMonth periodo = YearMonth.of(2026, 3);
+
+    @Test
+    @DisplayName("Contas a pagar: totais a partir da projeção única (vencidas ou pagas no mês)")
+    void deveMontarRelatorioContasPagarDaProjecao() {
+        when(contaPagarRepository.findVencidasOuPagasBetweenParaRelatorio(empresa, periodo.atDay(1),
+                periodo.atEndOfMonth())).thenReturn(List.of(
+                        new ContaPagarRelatorioDTO(LocalDate.of(2026, 2, 20), LocalDate.of(2026, 3, 2),
+                                new BigDecimal("300.00"), "Aluguel", null, TipoContaPagar.OPERACIONAL,
+                                StatusConta.PAGO),
+                        new ContaPagarRelatorioDTO(LocalDate.of(2026, 3, 10), null, new BigDecimal("150.00"),
+                                "Salário", "ana@oficina.com", TipoContaPagar.FOLHA_PAGAMENTO,
+                                StatusConta.PENDENTE)));
+
+        RelatorioContasPagarDTO relatorio = financeiroService.getRelatorioContasPagar(empresa, periodo);
+
+        assertEquals(2, relatorio.getItens().size());
+        assertEquals(new BigDecimal("300.00"), relatorio.getTotalPago());
+        assertEquals(new BigDecimal("150.00"), relatorio.getTotalPendente());
+        assertEquals("Fornecedor/Terceiro", relatorio.getItens().get(0).getFornecedor());
+        assertEquals("ana@oficina.com", relatorio.getItens().get(1).getFornecedor());
+        verify(contaPagarRepository, never()).findByVencimentoBetween(any(), any(), any());
+        verify(contaPagarRepository, never()).findPagasBetween(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Receita por caixa: origem e cliente a partir da projeção, sem carregar a OS")
+    void deveMontarRelatorioReceitaCaixaDaProjecao() {
+        when(contaReceberRepository.findRecebidosBetweenParaRelatorio(empresa, periodo.atDay(1),
+                periodo.atEndOfMonth())).thenReturn(List.of(
+                        new ContaReceberRelatorioDTO(LocalDate.of(2026, 3, 5), new BigDecimal("1000.00"), "OS",
+                                TipoContaReceber.ORDEM_SERVICO, MeioPagamento.PIX, 42L, 7L, "Cliente OS", null),
+                        new ContaReceberRelatorioDTO(LocalDate.of(2026, 3, 8), new BigDecimal("200.00"),
+                                "Venda balcão", TipoContaReceber.OUTROS, null, null, null, null, null)));
+
+        RelatorioReceitaCaixaDTO relatorio = financeiroService.getRelatorioReceitaCaixaDetalhada(empresa, periodo);
+
+        assertEquals(new BigDecimal("1200.00"), relatorio.getTotalRecebido());
+        assertEquals("OS #42", relatorio.getItens().get(0).getOrigem());
+        assertEquals("Cliente OS", relatorio.getItens().get(0).getCliente());
+        assertEquals("PIX", relatorio.getItens().get(0).getMeioPagamento());
+        assertEquals("Venda balcão", relatorio.getItens().get(1).getOrigem());
+        assertEquals("N/A", relatorio.getItens().get(1).getCliente());
+        verify(contaReceberRepository, never()).findRecebidosBetween(any(), any(), any());
+    }
+}
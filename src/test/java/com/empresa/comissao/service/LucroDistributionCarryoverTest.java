@@ -32,6 +32,12 @@ public class LucroDistributionCarryoverTest {
     @Mock
     private RecebimentoRepository recebimentoRepository;
 
+    @Mock
+    private ResumoFinanceiroService resumoFinanceiroService;
+
+    @Mock
+    private SaldoCaixaService saldoCaixaService;
+
     @InjectMocks
     private FinanceiroService financeiroService;
 
@@ -44,16 +50,14 @@ public class LucroDistributionCarryoverTest {
         // A lógica do getResumoFinanceiro usa LocalDate.now().plusDays(1) para pegar tudo gerado até hoje.
         
         // Simular Entradas Globais (TUDO QUE ENTROU NA HISTÓRIA ATÉ HOJE)
-        // O recebimentoRepository vai retornar a quantia somada de TODOS OS RECEBIMENTOS, incluindo 
+        // O saldo de caixa (snapshot de março + movimento de abril) soma TODOS OS RECEBIMENTOS, incluindo
         // a nova "receita de março" que não foi retirada.
         // Simulamos que R$ 2.000 entraram em Março e R$ 10.000 entraram em Abril.
-        when(recebimentoRepository.sumByEmpresaAndDataPagamentoBefore(eq(empresa), any(LocalDate.class)))
-            .thenReturn(new BigDecimal("12000.00"));
-
         // Simular Saidas Globais (TUDO QUE SAIU E FOI PAGO NA HISTÓRIA ATÉ HOJE)
         // Saidas totais de R$ 5.000
-        when(contaPagarRepository.sumByPagamentoBefore(eq(empresa), any(LocalDate.class)))
-            .thenReturn(new BigDecimal("5000.00"));
+        when(saldoCaixaService.saldoAntes(eq(empresa), eq(LocalDate.now().plusDays(1))))
+            .thenReturn(new SaldoCaixaService.SaldoCaixa(new BigDecimal("12000.00"), BigDecimal.ZERO,
+                    new BigDecimal("5000.00")));
 
         // Dívidas pendentes TOTAIS (que deduzem do saldo livre) = R$ 1.000
         when(contaPagarRepository.sumPendentesByEmpresa(eq(empresa)))
@@ -0,0 +1,157 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.OrdemServico;
+import com.empresa.comissao.repository.OrdemServicoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrdemServicoPdfLoteServiceTest {
+
+    @Mock
+    private OrdemServicoRepository osRepository;
+    @Mock
+    private PdfService pdfService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OrdemServicoPdfLoteService service;
+    private final Specification<OrdemServico> filtro = (root, query, cb) -> null;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        service = new OrdemServicoPdfLoteService(osRepository, pdfService, transactionManager, 2, 2, 5,
+                java.time.Duration.ofMinutes(10));
+        when(osRepository.count(filtro)).thenReturn(5L);
+
+        // 5 OS no filtro, páginas de 2 por keyset
+        List<Long> todas = List.of(3L, 7L, 8L, 12L, 20L);
+        when(osRepository.findIdsByFiltro(eq(filtro), anyLong(), eq(2))).thenAnswer(inv -> {
+            Long aposId = inv.getArgument(1);
+            return todas.stream().filter(id -> id > aposId).limit(2).toList();
+        });
+        when(osRepository.findGrafoPdfByIdIn(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().map(id -> OrdemServico.builder().id(id).build()).toList();
+        });
+        when(pdfService.htmlOrdemServicoLote(any())).thenAnswer(inv -> "os-" + inv.<OrdemServico>getArgument(0).getId());
+        doAnswer(inv -> {
+            String html = inv.getArgument(0);
+            inv.<java.io.OutputStream>getArgument(1)
+                    .write(("%PDF-" + html.substring(3)).getBytes(StandardCharsets.US_ASCII));
+            return null;
+        }).when(pdfService).renderizarOrdemServicoLote(anyString(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static Map<String, String> lerZip(byte[] zip) throws Exception {
+        Map<String, String> entradas = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entrada;
+            while ((entrada = in.getNextEntry()) != null) {
+                entradas.put(entrada.getName(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entradas;
+    }
+
+    @Test
+    @DisplayName("Todas as OS do filtro viram entradas do ZIP, paginando por id")
+    void deveExportarTodasAsOsPorKeyset() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportar(filtro).writeTo(out);
+
+        Map<String, String> entradas = lerZip(out.toByteArray());
+        assertEquals(List.of("os-12.pdf", "os-20.pdf", "os-3.pdf", "os-7.pdf", "os-8.pdf"),
+                entradas.keySet().stream().sorted().toList());
+        assertEquals("%PDF-12", entradas.get("os-12.pdf"));
+        // Lote não passa pelo cache de PDFs de download
+        verify(pdfService, never()).streamOrdemServicoPdf(any());
+
+        verify(osRepository).findIdsByFiltro(filtro, 0L, 2);
+        verify(osRepository).findIdsByFiltro(filtro, 7L, 2);
+        verify(osRepository).findIdsByFiltro(filtro, 12L, 2);
+        verify(osRepository).findIdsByFiltro(filtro, 20L, 2);
+        // Grafo carregado por página, nunca tudo de uma vez
+        verify(osRepository, times(3)).findGrafoPdfByIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Só a contagem do lote é consultada antes do Spring escrever a resposta")
+    void deveSerPreguicoso() {
+        service.exportar(filtro);
+
+        verify(osRepository).count(filtro);
+        verifyNoMoreInteractions(osRepository);
+        verifyNoInteractions(pdfService);
+    }
+
+    @Test
+    @DisplayName("OS com falha vai para erros.txt sem interromper o ZIP")
+    void deveListarFalhasEmErros() throws Exception {
+        doThrow(new IllegalStateException("template quebrado"))
+                .when(pdfService).renderizarOrdemServicoLote(eq("os-8"), any());
+        doThrow(new RuntimeException("Erro ao gerar PDF"))
+                .when(pdfService).htmlOrdemServicoLote(argThat(os -> os != null && os.getId() == 12L));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportar(filtro).writeTo(out);
+
+        Map<String, String> entradas = lerZip(out.toByteArray());
+        List<String> pdfs = new ArrayList<>(entradas.keySet());
+        pdfs.remove(OrdemServicoPdfLoteService.ARQUIVO_ERROS);
+        assertEquals(List.of("os-20.pdf", "os-3.pdf", "os-7.pdf"), pdfs.stream().sorted().toList());
+
+        String erros = entradas.get(OrdemServicoPdfLoteService.ARQUIVO_ERROS);
+        assertTrue(erros.contains("OS 8: template quebrado"));
+        assertTrue(erros.contains("OS 12: Erro ao gerar PDF"));
+    }
+
+    @Test
+    @DisplayName("Filtro sem OS gera ZIP vazio válido")
+    void deveGerarZipVazio() throws Exception {
+        when(osRepository.findIdsByFiltro(eq(filtro), anyLong(), eq(2))).thenReturn(List.of());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportar(filtro).writeTo(out);
+
+        assertTrue(lerZip(out.toByteArray()).isEmpty());
+        verify(osRepository, never()).findGrafoPdfByIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Lote acima do máximo é recusado antes de renderizar qualquer PDF")
+    void deveRecusarLoteAcimaDoMaximo() {
+        when(osRepository.count(filtro)).thenReturn(6L);
+
+        assertThrows(com.empresa.comissao.exception.BusinessException.class, () -> service.exportar(filtro));
+
+        verify(osRepository, never()).findIdsByFiltro(any(), anyLong(), anyInt());
+        verifyNoInteractions(pdfService);
+    }
+}
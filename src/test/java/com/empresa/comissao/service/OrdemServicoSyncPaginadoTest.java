@@ -0,0 +1,144 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.config.TenantContext;
+import com.empresa.comissao.domain.entity.Cliente;
+import com.empresa.comissao.domain.entity.OrdemServico;
+import com.empresa.comissao.dto.response.OrdemServicoResponse;
+import com.empresa.comissao.dto.response.SyncPageResponse;
+import com.empresa.comissao.exception.BusinessException;
+import com.empresa.comissao.repository.OrdemServicoRepository;
+import com.empresa.comissao.util.SyncCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrdemServicoSyncPaginadoTest {
+
+    private static final Long TENANT_ID = 100L;
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 10, 0, 0, 123456000);
+
+    @Mock
+    private OrdemServicoRepository osRepository;
+
+    @InjectMocks
+    private OrdemServicoService osService;
+
+    private MockedStatic<TenantContext> tenant;
+    // 5 OS; 2, 3 e 4 com o mesmo updatedAt
+    private final List<SyncCursor> linhas = List.of(
+            new SyncCursor(T0, 9L),
+            new SyncCursor(T0.plusSeconds(1), 2L),
+            new SyncCursor(T0.plusSeconds(1), 3L),
+            new SyncCursor(T0.plusSeconds(1), 4L),
+            new SyncCursor(T0.plusSeconds(2), 1L));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(osService, "syncPageSize", 2);
+        ReflectionTestUtils.setField(osService, "syncPageSizeMax", 3);
+        tenant = mockStatic(TenantContext.class);
+        tenant.when(TenantContext::getCurrentTenant).thenReturn(TENANT_ID);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("admin", null,
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN_EMPRESA"))));
+
+        lenient().when(osRepository.findSyncCursorPage(eq(TENANT_ID), any(), any(), any())).thenAnswer(inv -> {
+            LocalDateTime u = inv.getArgument(1);
+            Long id = inv.getArgument(2);
+            Pageable p = inv.getArgument(3);
+            return linhas.stream()
+                    .filter(c -> c.updatedAt().isAfter(u) || (c.updatedAt().equals(u) && c.id() > id))
+                    .sorted(Comparator.comparing(SyncCursor::updatedAt).thenComparing(SyncCursor::id))
+                    .limit(p.getPageSize())
+                    .toList();
+        });
+        lenient().when(osRepository.findSyncGrafoByIdIn(anyCollection())).thenAnswer(inv -> {
+            // Ordem do banco não é garantida
+            List<Long> ids = new ArrayList<>(inv.<Collection<Long>>getArgument(0));
+            ids.sort(Comparator.reverseOrder());
+            return ids.stream().map(id -> OrdemServico.builder().id(id)
+                    .cliente(Cliente.builder().id(1L).razaoSocial("Cliente").build())
+                    .build()).toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        tenant.close();
+        SecurityContextHolder.clearContext();
+    }
+
+    private static List<Long> ids(SyncPageResponse<OrdemServicoResponse> pagina) {
+        return pagina.getItems().stream().map(OrdemServicoResponse::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Cursor percorre todas as OS uma única vez, mesmo com updatedAt repetido")
+    void devePercorrerTodasAsPaginas() {
+        List<Long> recebidos = new ArrayList<>();
+        SyncPageResponse<OrdemServicoResponse> pagina = osService.listarSyncPagina(null, null, null);
+        recebidos.addAll(ids(pagina));
+        int chamadas = 1;
+        while (pagina.isHasMore()) {
+            pagina = osService.listarSyncPagina(null, pagina.getNextCursor(), null);
+            recebidos.addAll(ids(pagina));
+            chamadas++;
+        }
+
+        assertEquals(List.of(9L, 2L, 3L, 4L, 1L), recebidos);
+        assertEquals(3, chamadas);
+        // Grafo carregado só para as OS de cada página
+        verify(osRepository, times(3)).findSyncGrafoByIdIn(argThat(ids -> ids.size() <= 2));
+        verify(osRepository, never()).findAllFullSync(any());
+    }
+
+    @Test
+    @DisplayName("since sem cursor traz apenas OS alteradas depois dele; limite respeita o máximo")
+    void deveFiltrarPorSinceELimitarPagina() {
+        SyncPageResponse<OrdemServicoResponse> pagina = osService.listarSyncPagina(T0, null, 50);
+
+        assertEquals(List.of(2L, 3L, 4L), ids(pagina));
+        assertTrue(pagina.isHasMore());
+        assertEquals(new SyncCursor(T0.plusSeconds(1), 4L), SyncCursor.decode(pagina.getNextCursor()));
+    }
+
+    @Test
+    @DisplayName("Sem novidades: página vazia devolve o mesmo cursor")
+    void deveManterCursorQuandoNaoHaNovidades() {
+        String cursor = new SyncCursor(T0.plusSeconds(2), 1L).encode();
+
+        SyncPageResponse<OrdemServicoResponse> pagina = osService.listarSyncPagina(null, cursor, null);
+
+        assertTrue(pagina.getItems().isEmpty());
+        assertFalse(pagina.isHasMore());
+        assertEquals(cursor, pagina.getNextCursor());
+        verify(osRepository, never()).findSyncGrafoByIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Cursor adulterado é rejeitado")
+    void deveRejeitarCursorInvalido() {
+        assertThrows(BusinessException.class, () -> osService.listarSyncPagina(null, "nao-e-cursor", null));
+    }
+}
@@ -0,0 +1,77 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.dto.RelatorioAnualDTO;
+import com.empresa.comissao.domain.entity.Empresa;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfServiceAquecimentoTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PdfService pdfService;
+
+    @BeforeEach
+    void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        meterRegistry = new SimpleMeterRegistry();
+        pdfService = new PdfService(templateEngine, null, meterRegistry);
+        ReflectionTestUtils.setField(pdfService, "maxConcurrentPdfs", 2);
+        ReflectionTestUtils.setField(pdfService, "pdfTimeoutSeconds", 30);
+        ReflectionTestUtils.setField(pdfService, "cacheSpec", "maximumWeight=1048576");
+        ReflectionTestUtils.setField(pdfService, "cacheVersao", "1");
+        ReflectionTestUtils.setField(pdfService, "cacheMaxBytes", 1048576);
+        pdfService.init();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Queue<Object> renderers() {
+        return (Queue<Object>) ReflectionTestUtils.getField(pdfService, "renderers");
+    }
+
+    @Test
+    @DisplayName("Aquecimento renderiza todos os templates reais sem sujar métricas")
+    void deveAquecerTodosOsTemplates() {
+        List<Object> antes = List.copyOf(renderers());
+
+        assertEquals(8, pdfService.aquecer());
+
+        // Mesmos renderers pré-criados, devolvidos ao pool
+        assertEquals(2, renderers().size());
+        assertTrue(renderers().containsAll(antes));
+        assertTrue(meterRegistry.find("pdf.renderizacao").timers().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Renderers reaproveitados geram PDFs válidos e tempo é medido por template")
+    void deveReaproveitarRenderersEMedirPorTemplate() {
+        Empresa empresa = Empresa.builder().id(1L).nome("Oficina").build();
+        for (int ano = 2020; ano < 2025; ano++) {
+            byte[] pdf = pdfService.gerarRelatorioAnualPdf(RelatorioAnualDTO.builder().ano(ano)
+                    .mesesComFaturamento(List.of()).build(), empresa);
+            assertEquals("%PDF", new String(pdf, 0, 4));
+        }
+
+        assertEquals(2, renderers().size());
+        Timer timer = meterRegistry.get("pdf.renderizacao").tag("template", "pdf/relatorio-anual").timer();
+        assertEquals(5, timer.count());
+    }
+}
@@ -0,0 +1,210 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.dto.RelatorioAnualDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PdfServiceStreamingTest {
+
+    private static final String HTML = "<html><body><h1>Relatório</h1><p>Teste</p></body></html>";
+
+    @Mock
+    private TemplateEngine templateEngine;
+
+    private PdfService pdfService;
+    private final Empresa empresa = Empresa.builder().id(1L).nome("Oficina").build();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(templateEngine.process(eq("pdf/relatorio-anual"), any(IContext.class))).thenReturn(HTML);
+        pdfService = novoPdfService(null);
+    }
+
+    private PdfService novoPdfService(StorageService storageService) {
+        PdfService service = new PdfService(templateEngine, storageService);
+        ReflectionTestUtils.setField(service, "maxConcurrentPdfs", 2);
+        ReflectionTestUtils.setField(service, "pdfTimeoutSeconds", 30);
+        ReflectionTestUtils.setField(service, "cacheSpec", "maximumWeight=1048576");
+        ReflectionTestUtils.setField(service, "cacheVersao", "1");
+        ReflectionTestUtils.setField(service, "cacheMaxBytes", 1048576);
+        service.init();
+        return service;
+    }
+
+    private Semaphore semaforo() {
+        return (Semaphore) ReflectionTestUtils.getField(pdfService, "pdfSemaphore");
+    }
+
+    /**
+     * Stream de resposta que registra se foi fechado.
+     */
+    private static class RespostaStream extends FilterOutputStream {
+        boolean fechado;
+
+        RespostaStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            fechado = true;
+            super.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Template processado no request; PDF escrito direto no stream da resposta")
+    void deveEscreverPdfNoStreamDaResposta() throws Exception {
+        StreamingResponseBody body = pdfService.streamRelatorioAnualPdf(new RelatorioAnualDTO(), empresa).body();
+
+        // Nada renderizado (nem semáforo ocupado) até o Spring chamar writeTo
+        verify(templateEngine).process(eq("pdf/relatorio-anual"), any(IContext.class));
+        assertEquals(2, semaforo().availablePermits());
+
+        ByteArrayOutputStream destino = new ByteArrayOutputStream();
+        RespostaStream resposta = new RespostaStream(destino);
+        body.writeTo(resposta);
+
+        assertTrue(new String(destino.toByteArray(), 0, 5, StandardCharsets.US_ASCII).startsWith("%PDF"));
+        assertFalse(resposta.fechado, "O stream da resposta é fechado pelo container, não pelo iText");
+        assertEquals(2, semaforo().availablePermits());
+    }
+
+    @Test
+    @DisplayName("Caminho byte[] (jobs) continua gerando o mesmo PDF")
+    void deveManterGeracaoEmBytes() {
+        byte[] pdf = pdfService.gerarRelatorioAnualPdf(new RelatorioAnualDTO(), empresa);
+
+        assertTrue(new String(pdf, 0, 5, StandardCharsets.US_ASCII).startsWith("%PDF"));
+        assertEquals(2, semaforo().availablePermits());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 2, 4, 8 })
+    @DisplayName("Exportações concorrentes: todas concluem e o semáforo volta ao limite")
+    void deveLimitarRenderizacoesConcorrentes(int exportacoes) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(exportacoes);
+        try {
+            List<Future<Integer>> resultados = new ArrayList<>();
+            for (int i = 0; i < exportacoes; i++) {
+                // HTML diferente por exportação: nenhuma é servida do cache
+                when(templateEngine.process(eq("pdf/relatorio-anual"), any(IContext.class)))
+                        .thenReturn(HTML.replace("Teste", "Teste " + i));
+                StreamingResponseBody body = pdfService.streamRelatorioAnualPdf(new RelatorioAnualDTO(), empresa)
+                        .body();
+                resultados.add(pool.submit(() -> {
+                    ByteArrayOutputStream destino = new ByteArrayOutputStream();
+                    body.writeTo(destino);
+                    return destino.size();
+                }));
+            }
+            for (Future<Integer> r : resultados) {
+                assertTrue(r.get() > 0);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(2, semaforo().availablePermits());
+    }
+
+    @Test
+    @DisplayName("ETag depende só do conteúdo: mesmo HTML = mesma ETag, em qualquer horário")
+    void deveGerarEtagPorConteudo() {
+        String a = pdfService.streamRelatorioAnualPdf(new RelatorioAnualDTO(), empresa).etag();
+        String b = pdfService.streamRelatorioAnualPdf(new RelatorioAnualDTO(), empresa).etag();
+        when(templateEngine.process(eq("pdf/relatorio-anual"), any(IContext.class)))
+                .thenReturn(HTML.replace("Teste", "Outro"));
+        String c = pdfService.streamRelatorioAnualPdf(new RelatorioAnualDTO(), empresa).etag();
+
+        assertEquals(a, b);
+        assertNotEquals(a, c);
+        assertTrue(a.startsWith("\"") && a.endsWith("\""));
+    }
+
+    @Test
+    @DisplayName("Download repetido é servido da memória, sem layout (nem semáforo)")
+    void deveServirDownloadRepetidoDoCache() throws Exception {
+        ByteArrayOutputStream primeiro = new ByteArrayOutputStream();
+        pdfService.streamRelatorioAnualPdf(new RelatorioAnualDTO(), empresa).body().writeTo(primeiro);
+
+        semaforo().acquire(2); // qualquer renderização agora falharia por timeout
+        ReflectionTestUtils.setField(pdfService, "pdfTimeoutSeconds", 0);
+        ByteArrayOutputStream segundo = new ByteArrayOutputStream();
+        pdfService.streamRelatorioAnualPdf(new RelatorioAnualDTO(), empresa).body().writeTo(segundo);
+
+        assertArrayEquals(primeiro.toByteArray(), segundo.toByteArray());
+        assertArrayEquals(primeiro.toByteArray(), pdfService.gerarRelatorioAnualPdf(new RelatorioAnualDTO(), empresa));
+    }
+
+    @Test
+    @DisplayName("PDF acima de app.pdf.cache.max-bytes vai inteiro para a resposta, sem cópia no cache")
+    void naoDeveCachearPdfAcimaDoLimite() throws Exception {
+        StorageService storage = mock(StorageService.class);
+        PdfService service = novoPdfService(storage);
+        ReflectionTestUtils.setField(service, "cacheMaxBytes", 64);
+
+        ByteArrayOutputStream primeiro = new ByteArrayOutputStream();
+        service.streamRelatorioAnualPdf(new RelatorioAnualDTO(), empresa).body().writeTo(primeiro);
+        assertTrue(primeiro.size() > 64);
+
+        // Fora do cache: o segundo download renderiza de novo e precisa do semáforo
+        ((Semaphore) ReflectionTestUtils.getField(service, "pdfSemaphore")).acquire(2);
+        ReflectionTestUtils.setField(service, "pdfTimeoutSeconds", 0);
+        assertThrows(Exception.class, () -> service.streamRelatorioAnualPdf(new RelatorioAnualDTO(), empresa)
+                .body().writeTo(new ByteArrayOutputStream()));
+        verifyNoInteractions(storage);
+    }
+
+    @Test
+    @DisplayName("Lote espera o semáforo em vez de falhar e não ocupa o cache de downloads")
+    void deveRenderizarLoteAguardandoSemaforoSemCache() throws Exception {
+        semaforo().acquire(2);
+        ReflectionTestUtils.setField(pdfService, "pdfTimeoutSeconds", 0);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            ByteArrayOutputStream destino = new ByteArrayOutputStream();
+            Future<?> lote = pool.submit(() -> {
+                pdfService.renderizarOrdemServicoLote(HTML, destino);
+                return null;
+            });
+            Thread.sleep(200);
+            assertFalse(lote.isDone());
+
+            semaforo().release(2);
+            lote.get(10, TimeUnit.SECONDS);
+            assertTrue(new String(destino.toByteArray(), 0, 5, StandardCharsets.US_ASCII).startsWith("%PDF"));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(0, ((Cache<?, ?>) ReflectionTestUtils.getField(pdfService, "pdfCache")).estimatedSize());
+    }
+}
@@ -15,6 +15,12 @@ public class PdfServiceTest {
                 org.thymeleaf.TemplateEngine templateEngine = org.mockito.Mockito
                                 .mock(org.thymeleaf.TemplateEngine.class);
                 PdfService service = new PdfService(templateEngine, null);
+                // Campos @Value e cache de PDF normalmente preenchidos pelo Spring
+                org.springframework.test.util.ReflectionTestUtils.setField(service, "maxConcurrentPdfs", 1);
+                org.springframework.test.util.ReflectionTestUtils.setField(service, "pdfTimeoutSeconds", 30);
+                org.springframework.test.util.ReflectionTestUtils.setField(service, "cacheSpec", "maximumSize=10");
+                org.springframework.test.util.ReflectionTestUtils.setField(service, "cacheVersao", "1");
+                service.init();
 
                 RelatorioFinanceiroDTO dto = RelatorioFinanceiroDTO.builder()
                                 .ano(2024)
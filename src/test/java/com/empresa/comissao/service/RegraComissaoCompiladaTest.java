@@ -0,0 +1,111 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.FaixaComissaoConfig;
+import com.empresa.comissao.domain.entity.RegraComissao;
+import com.empresa.comissao.domain.enums.TipoRegraComissao;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegraComissaoCompiladaTest {
+
+    private static FaixaComissaoConfig faixa(String min, String max, String pct, int ordem) {
+        return FaixaComissaoConfig.builder()
+                .minFaturamento(new BigDecimal(min))
+                .maxFaturamento(max != null ? new BigDecimal(max) : null)
+                .porcentagem(new BigDecimal(pct))
+                .ordem(ordem)
+                .build();
+    }
+
+    private static RegraComissao regra(FaixaComissaoConfig... faixas) {
+        return RegraComissao.builder()
+                .nome("Faixas")
+                .tipoRegra(TipoRegraComissao.FAIXA_FATURAMENTO)
+                .faixas(new ArrayList<>(List.of(faixas)))
+                .build();
+    }
+
+    /**
+     * Semântica original: primeira faixa (na ordem cadastrada) que contém a base.
+     */
+    private static BigDecimal percentualLinear(RegraComissao regra, BigDecimal base) {
+        for (FaixaComissaoConfig fc : regra.getFaixas()) {
+            if (fc.isInRange(base)) {
+                return fc.getPorcentagem().divide(new BigDecimal("100"), 4, java.math.RoundingMode.HALF_UP);
+            }
+        }
+        return BigDecimal.ZERO;
+    }
+
+    @Test
+    @DisplayName("Faixas disjuntas: busca binária deve coincidir com a varredura linear, inclusive nos limites")
+    void deveResolverFaixasDisjuntasComoVarreduraLinear() {
+        // Cadastradas fora de ordem de propósito
+        RegraComissao regra = regra(
+                faixa("20000.00", null, "20", 3),
+                faixa("0.00", "9999.99", "10", 1),
+                faixa("10000.00", "19999.99", "15", 2));
+        RegraComissaoCompilada compilada = RegraComissaoCompilada.compilar(regra);
+
+        for (String base : new String[] { "0.00", "9999.99", "10000.00", "15000.50", "19999.99", "20000.00",
+                "999999999.99" }) {
+            BigDecimal valor = new BigDecimal(base);
+            assertEquals(percentualLinear(regra, valor), compilada.resolver(valor).percentual(), base);
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal valor = BigDecimal.valueOf(random.nextInt(3_000_000), 2);
+            assertEquals(percentualLinear(regra, valor), compilada.resolver(valor).percentual());
+        }
+
+        assertTrue(compilada.resolver(new BigDecimal("25000")).descricao().endsWith("∞"));
+    }
+
+    @Test
+    @DisplayName("Base fora de todas as faixas e com frações de centavo deve manter a semântica original")
+    void deveTratarLacunasEFracoesDeCentavo() {
+        RegraComissao regra = regra(
+                faixa("0.00", "100.00", "5", 1),
+                faixa("200.00", null, "8", 2));
+        RegraComissaoCompilada compilada = RegraComissaoCompilada.compilar(regra);
+
+        assertEquals("Sem comissão definida", compilada.resolver(new BigDecimal("150.00")).descricao());
+        assertEquals(BigDecimal.ZERO, compilada.resolver(new BigDecimal("100.001")).percentual());
+        assertEquals(new BigDecimal("0.0500"), compilada.resolver(new BigDecimal("99.999")).percentual());
+        assertEquals(BigDecimal.ZERO, compilada.resolver(new BigDecimal("-1.00")).percentual());
+    }
+
+    @Test
+    @DisplayName("Faixas sobrepostas devem respeitar a primeira faixa na ordem cadastrada")
+    void deveRespeitarOrdemComFaixasSobrepostas() {
+        RegraComissao regra = regra(
+                faixa("5000.00", null, "12", 1),
+                faixa("0.00", "10000.00", "7", 2));
+        RegraComissaoCompilada compilada = RegraComissaoCompilada.compilar(regra);
+
+        assertEquals(new BigDecimal("0.1200"), compilada.resolver(new BigDecimal("6000.00")).percentual());
+        assertEquals(new BigDecimal("0.0700"), compilada.resolver(new BigDecimal("4000.00")).percentual());
+    }
+
+    @Test
+    @DisplayName("Regra fixa e ausência de regra devem ignorar a base")
+    void deveResolverRegraFixaESemRegra() {
+        RegraComissaoCompilada fixa = RegraComissaoCompilada.compilar(RegraComissao.builder()
+                .nome("Fixa").tipoRegra(TipoRegraComissao.FIXA_EMPRESA).percentualFixo(new BigDecimal("15")).build());
+
+        assertEquals(new BigDecimal("0.1500"), fixa.resolver(new BigDecimal("1.00")).percentual());
+        assertEquals("Fixa: Fixa", fixa.resolver(BigDecimal.ZERO).descricao());
+
+        RegraComissaoCompilada semRegra = RegraComissaoCompilada.compilar(null);
+        assertTrue(semRegra.isSemRegra());
+        assertEquals("Nenhuma regra de comissão configurada", semRegra.resolver(BigDecimal.TEN).descricao());
+    }
+}
@@ -0,0 +1,110 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.cache.InvalidationBus;
+import com.empresa.comissao.cache.LocalInvalidationBus;
+import com.empresa.comissao.service.RelatorioCache.TipoRelatorio;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RelatorioCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private InvalidationBus bus;
+    private RelatorioCache cache;
+    private final AtomicInteger calculos = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(RelatorioCache.VERSAO_FINANCEIRA_CACHE);
+        meterRegistry = new SimpleMeterRegistry();
+        bus = spy(new LocalInvalidationBus());
+        MockEnvironment env = new MockEnvironment()
+                .withProperty("relatorio.cache.spec.anual", "maximumSize=10");
+        cache = new RelatorioCache(cacheManager, bus, new ObjectMapper(), meterRegistry, env,
+                "maximumWeight=1048576,expireAfterWrite=10m");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private List<String> relatorio(String valor) {
+        calculos.incrementAndGet();
+        return List.of(valor);
+    }
+
+    @Test
+    @DisplayName("Mesmo tenant/tipo/período na mesma versão deve reutilizar o resultado")
+    void deveReutilizarResultadoNaMesmaVersao() {
+        List<String> a = cache.obter(TipoRelatorio.DRE_MENSAL, 1L, "2026-3", () -> relatorio("a"));
+        List<String> b = cache.obter(TipoRelatorio.DRE_MENSAL, 1L, "2026-3", () -> relatorio("b"));
+        cache.obter(TipoRelatorio.DRE_MENSAL, 2L, "2026-3", () -> relatorio("outro tenant"));
+        cache.obter(TipoRelatorio.FLUXO_CAIXA, 1L, "2026-3", () -> relatorio("outro tipo"));
+
+        assertSame(a, b);
+        assertEquals(3, calculos.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "relatorios", "tipo", "dre-mensal",
+                "result", "hit").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Escrita financeira do tenant deve invalidar apenas os relatórios dele")
+    void deveInvalidarApenasOTenantAlterado() {
+        cache.obter(TipoRelatorio.ANUAL, 1L, "2026", () -> relatorio("v1"));
+        cache.obter(TipoRelatorio.ANUAL, 2L, "2026", () -> relatorio("t2"));
+
+        cache.invalidar(1L);
+
+        assertEquals(List.of("v2"), cache.obter(TipoRelatorio.ANUAL, 1L, "2026", () -> relatorio("v2")));
+        assertEquals(List.of("t2"), cache.obter(TipoRelatorio.ANUAL, 2L, "2026", () -> relatorio("t2b")));
+        assertEquals(3, calculos.get());
+    }
+
+    @Test
+    @DisplayName("Dentro de transação: 1 publicação por tenant, efetiva só após o commit")
+    void deveCoalescerInvalidacoesNaTransacao() {
+        cache.obter(TipoRelatorio.DRE_MENSAL, 1L, "2026-3", () -> relatorio("v1"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidar(1L);
+        cache.invalidar(1L);
+        verify(bus, times(1)).publish(RelatorioCache.VERSAO_FINANCEIRA_CACHE, 1L);
+
+        // Antes do commit o resultado antigo ainda é servido
+        assertEquals(List.of("v1"), cache.obter(TipoRelatorio.DRE_MENSAL, 1L, "2026-3", () -> relatorio("x")));
+
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        syncs.forEach(TransactionSynchronization::afterCommit);
+        syncs.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals(List.of("v2"), cache.obter(TipoRelatorio.DRE_MENSAL, 1L, "2026-3", () -> relatorio("v2")));
+        verify(bus, times(1)).publish(anyString(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Sem tenant não deve usar cache")
+    void naoDeveCachearSemTenant() {
+        cache.obter(TipoRelatorio.RESUMO_FINANCEIRO, null, "hoje", () -> relatorio("a"));
+        cache.obter(TipoRelatorio.RESUMO_FINANCEIRO, null, "hoje", () -> relatorio("a"));
+        assertEquals(2, calculos.get());
+    }
+}
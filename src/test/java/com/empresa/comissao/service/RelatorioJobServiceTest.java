@@ -0,0 +1,257 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.config.TenantContext;
+import com.empresa.comissao.domain.entity.RelatorioJob;
+import com.empresa.comissao.domain.enums.StatusRelatorioJob;
+import com.empresa.comissao.exception.PdfConcurrencyException;
+import com.empresa.comissao.exception.ResourceNotFoundException;
+import com.empresa.comissao.repository.RelatorioJobRepository;
+import com.empresa.comissao.service.RelatorioCache.TipoRelatorio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.InOrder;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RelatorioJobServiceTest {
+
+    @Mock
+    private RelatorioCache relatorioCache;
+    @Mock
+    private StorageService storageService;
+    @Mock
+    private RelatorioJobRepository relatorioJobRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // relatorio_job compartilhada: as duas instâncias do serviço usam a mesma
+    private final Map<String, RelatorioJob> tabela = new ConcurrentHashMap<>();
+    private RelatorioJobService service;
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private final AtomicInteger geracoes = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(relatorioCache.versao(1L)).thenReturn(7L);
+        when(storageService.uploadBytes(any(), anyString(), eq("application/pdf")))
+                .thenAnswer(inv -> inv.getArgument(1));
+        when(relatorioJobRepository.save(any())).thenAnswer(inv -> {
+            RelatorioJob job = inv.getArgument(0);
+            tabela.put(job.getId(), job);
+            return job;
+        });
+        when(relatorioJobRepository.findById(anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(tabela.get(inv.<String>getArgument(0))));
+        when(relatorioJobRepository.findFirstByChaveAndStatusNotAndExpiraEmAfterOrderByCriadoEmDesc(anyString(),
+                any(), any())).thenAnswer(inv -> tabela.values().stream()
+                        .filter(j -> j.getChave().equals(inv.getArgument(0)))
+                        .filter(j -> j.getStatus() != inv.getArgument(1))
+                        .filter(j -> j.getExpiraEm().isAfter(inv.getArgument(2)))
+                        .max(Comparator.comparing(RelatorioJob::getCriadoEm)));
+        doAnswer(inv -> tabela.remove(inv.<RelatorioJob>getArgument(0).getId())).when(relatorioJobRepository)
+                .delete(any());
+        service = novoServico(Duration.ofMinutes(10));
+    }
+
+    private RelatorioJobService novoServico(Duration timeout) {
+        return new RelatorioJobService(relatorioCache, relatorioJobRepository, storageService, transactionManager,
+                1, 1, Duration.ofMinutes(30), timeout);
+    }
+
+    @AfterEach
+    void tearDown() {
+        liberar.countDown();
+        service.shutdown();
+    }
+
+    private byte[] pdfBloqueado() {
+        try {
+            liberar.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        geracoes.incrementAndGet();
+        return new byte[] { 1, 2, 3 };
+    }
+
+    private static void aguardar(RelatorioJob job) throws InterruptedException {
+        for (int i = 0; i < 500 && job.isEmAndamento(); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("Submissões iguais (tenant, tipo, período, versão) compartilham o mesmo job")
+    void deveDeduplicarSubmissoes() throws Exception {
+        RelatorioJob a = service.submeter(TipoRelatorio.DRE_MENSAL, 1L, "2026-03", "r.pdf", this::pdfBloqueado);
+        RelatorioJob b = service.submeter(TipoRelatorio.DRE_MENSAL, 1L, "2026-03", "r.pdf", this::pdfBloqueado);
+
+        assertSame(a, b);
+        // Busca + criação sob a trava da chave, na mesma transação
+        InOrder ordem = inOrder(transactionManager, relatorioJobRepository);
+        ordem.verify(transactionManager).getTransaction(any());
+        ordem.verify(relatorioJobRepository).travarChave("1:DRE_MENSAL:2026-03:7");
+        ordem.verify(relatorioJobRepository).findFirstByChaveAndStatusNotAndExpiraEmAfterOrderByCriadoEmDesc(
+                eq("1:DRE_MENSAL:2026-03:7"), any(), any());
+        ordem.verify(relatorioJobRepository).save(any());
+        ordem.verify(transactionManager).commit(any());
+        liberar.countDown();
+        aguardar(a);
+
+        assertEquals(StatusRelatorioJob.CONCLUIDO, a.getStatus());
+        assertEquals(1, geracoes.get());
+        assertEquals("relatorios/1/" + a.getId() + ".pdf", a.getStorageKey());
+
+        when(storageService.getFileBytes(a.getStorageKey())).thenReturn(new byte[] { 1, 2, 3 });
+        assertArrayEquals(new byte[] { 1, 2, 3 }, service.baixar(1L, a.getId()));
+    }
+
+    @Test
+    @DisplayName("Nova versão financeira gera novo job")
+    void deveCriarNovoJobAposMudancaDeVersao() {
+        AtomicLong versao = new AtomicLong(7L);
+        when(relatorioCache.versao(1L)).thenAnswer(inv -> versao.get());
+
+        RelatorioJob a = service.submeter(TipoRelatorio.ANUAL, 1L, "2026", "a.pdf", this::pdfBloqueado);
+        versao.incrementAndGet();
+        RelatorioJob b = service.submeter(TipoRelatorio.ANUAL, 1L, "2026", "a.pdf", this::pdfBloqueado);
+
+        assertNotSame(a, b);
+    }
+
+    @Test
+    @DisplayName("Fila cheia responde 429 e não deixa job órfão")
+    void deveRejeitarQuandoFilaCheia() {
+        service.submeter(TipoRelatorio.ANUAL, 1L, "2024", "a.pdf", this::pdfBloqueado);
+        // 1 worker ocupado + 1 na fila
+        for (int i = 0; i < 10; i++) {
+            try {
+                service.submeter(TipoRelatorio.ANUAL, 1L, "20" + (30 + i), "b.pdf", this::pdfBloqueado);
+            } catch (PdfConcurrencyException e) {
+                assertEquals(5, e.getRetryAfterSeconds());
+                return;
+            }
+        }
+        fail("Esperava PdfConcurrencyException");
+    }
+
+    @Test
+    @DisplayName("Worker roda com o tenant do job e jobs de outro tenant não são visíveis")
+    void deveIsolarTenant() throws Exception {
+        AtomicLong tenantNoWorker = new AtomicLong();
+        liberar.countDown();
+        RelatorioJob job = service.submeter(TipoRelatorio.FLUXO_CAIXA, 1L, "2026-03", "f.pdf", () -> {
+            tenantNoWorker.set(TenantContext.getCurrentTenant());
+            return new byte[] { 9 };
+        });
+        aguardar(job);
+
+        assertEquals(1L, tenantNoWorker.get());
+        assertThrows(ResourceNotFoundException.class, () -> service.buscar(2L, job.getId()));
+    }
+
+    @Test
+    @DisplayName("Job com erro não é reaproveitado")
+    void naoDeveReaproveitarJobComErro() throws Exception {
+        RelatorioJob falho = service.submeter(TipoRelatorio.CONTAS_PAGAR, 1L, "2026-03", "c.pdf", () -> {
+            throw new IllegalStateException("template");
+        });
+        aguardar(falho);
+        assertEquals(StatusRelatorioJob.ERRO, falho.getStatus());
+        assertEquals("template", falho.getErro());
+
+        liberar.countDown();
+        RelatorioJob novo = service.submeter(TipoRelatorio.CONTAS_PAGAR, 1L, "2026-03", "c.pdf", this::pdfBloqueado);
+        assertNotSame(falho, novo);
+        verify(storageService, never()).deleteFile(anyString());
+    }
+
+    @Test
+    @DisplayName("Status e download respondidos por outra instância, a partir da tabela e do storage")
+    void deveResponderEmOutraInstancia() throws Exception {
+        liberar.countDown();
+        RelatorioJob job = service.submeter(TipoRelatorio.ANUAL, 1L, "2026", "a.pdf", this::pdfBloqueado);
+        aguardar(job);
+
+        RelatorioJobService outraInstancia = novoServico(Duration.ofMinutes(10));
+        try {
+            when(storageService.getFileBytes(job.getStorageKey())).thenReturn(new byte[] { 1, 2, 3 });
+            assertEquals(StatusRelatorioJob.CONCLUIDO, outraInstancia.buscar(1L, job.getId()).getStatus());
+            assertArrayEquals(new byte[] { 1, 2, 3 }, outraInstancia.baixar(1L, job.getId()));
+            assertSame(job, outraInstancia.submeter(TipoRelatorio.ANUAL, 1L, "2026", "a.pdf", this::pdfBloqueado));
+        } finally {
+            outraInstancia.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Semáforo de PDF ocupado: o worker espera e tenta de novo em vez de falhar o job")
+    void deveTentarDeNovoQuandoSemaforoOcupado() throws Exception {
+        AtomicInteger tentativas = new AtomicInteger();
+        RelatorioJob job = service.submeter(TipoRelatorio.ANUAL, 1L, "2026", "a.pdf", () -> {
+            if (tentativas.incrementAndGet() == 1) {
+                throw new PdfConcurrencyException("Servidor ocupado", 5);
+            }
+            return new byte[] { 4 };
+        });
+        aguardar(job);
+
+        assertEquals(StatusRelatorioJob.CONCLUIDO, job.getStatus());
+        assertEquals(2, tentativas.get());
+    }
+
+    @Test
+    @DisplayName("Job em andamento além do prazo (nó caiu) vira ERRO e não é reaproveitado")
+    void deveMarcarJobInterrompido() {
+        RelatorioJob orfao = RelatorioJob.builder().id("orfao").empresaId(1L).chave("1:ANUAL:2026:7")
+                .tipo(TipoRelatorio.ANUAL).periodo("2026").nomeArquivo("a.pdf")
+                .status(StatusRelatorioJob.PROCESSANDO)
+                .criadoEm(LocalDateTime.now().minusMinutes(11))
+                .expiraEm(LocalDateTime.now().plusMinutes(19))
+                .build();
+        tabela.put(orfao.getId(), orfao);
+
+        RelatorioJob novo = service.submeter(TipoRelatorio.ANUAL, 1L, "2026", "a.pdf", this::pdfBloqueado);
+        assertNotSame(orfao, novo);
+        assertEquals(StatusRelatorioJob.ERRO, service.buscar(1L, "orfao").getStatus());
+    }
+
+    @Test
+    @DisplayName("Limpeza apaga jobs expirados e seus arquivos")
+    void deveLimparExpirados() {
+        RelatorioJob expirado = RelatorioJob.builder().id("velho").empresaId(1L).chave("1:ANUAL:2025:7")
+                .tipo(TipoRelatorio.ANUAL).periodo("2025").nomeArquivo("a.pdf")
+                .status(StatusRelatorioJob.CONCLUIDO).storageKey("relatorios/1/velho.pdf")
+                .expiraEm(LocalDateTime.now().minusMinutes(1))
+                .build();
+        when(relatorioJobRepository.findByExpiraEmBefore(any(), any()))
+                .thenReturn(List.of(expirado))
+                .thenReturn(List.of());
+
+        assertEquals(1, service.limparExpirados());
+        verify(storageService).deleteFile("relatorios/1/velho.pdf");
+        verify(relatorioJobRepository).deleteAll(List.of(expirado));
+    }
+}
@@ -0,0 +1,181 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.ResumoFinanceiroMensal;
+import com.empresa.comissao.domain.enums.CategoriaDespesa;
+import com.empresa.comissao.domain.enums.ModoComissao;
+import com.empresa.comissao.repository.ComissaoCalculadaRepository;
+import com.empresa.comissao.repository.ContaPagarRepository;
+import com.empresa.comissao.repository.ContaReceberRepository;
+import com.empresa.comissao.repository.DespesaRepository;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.repository.FaturamentoRepository;
+import com.empresa.comissao.repository.RecebimentoRepository;
+import com.empresa.comissao.repository.ResumoFinanceiroMensalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ResumoFinanceiroServiceTest {
+
+    @Mock
+    private ResumoFinanceiroMensalRepository resumoRepository;
+    @Mock
+    private EmpresaRepository empresaRepository;
+    @Mock
+    private ContaReceberRepository contaReceberRepository;
+    @Mock
+    private FaturamentoRepository faturamentoRepository;
+    @Mock
+    private RecebimentoRepository recebimentoRepository;
+    @Mock
+    private ContaPagarRepository contaPagarRepository;
+    @Mock
+    private DespesaRepository despesaRepository;
+    @Mock
+    private ComissaoCalculadaRepository comissaoCalculadaRepository;
+    @Mock
+    private SaldoCaixaService saldoCaixaService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ResumoFinanceiroService service;
+    private Empresa empresa;
+
+    private final YearMonth jan = YearMonth.of(2026, 1);
+    private final YearMonth fev = YearMonth.of(2026, 2);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new ResumoFinanceiroService(resumoRepository, empresaRepository, contaReceberRepository,
+                faturamentoRepository, recebimentoRepository, contaPagarRepository, despesaRepository,
+                comissaoCalculadaRepository, saldoCaixaService, transactionManager);
+
+        empresa = Empresa.builder().id(1L).nome("Oficina").modoComissao(ModoComissao.COLETIVA)
+                .aliquotaImposto(new BigDecimal("0.10")).build();
+        when(empresaRepository.findById(1L)).thenReturn(Optional.of(empresa));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(resumoRepository.save(any(ResumoFinanceiroMensal.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        when(contaReceberRepository.sumByCompetenciaBetweenForReports(eq(empresa), any(), any()))
+                .thenReturn(new BigDecimal("10000.00"));
+        when(faturamentoRepository.sumValorByDataBetweenAndEmpresa(any(), any(), eq(empresa)))
+                .thenReturn(new BigDecimal("9000.00"));
+        when(recebimentoRepository.sumByEmpresaAndDataPagamentoBetween(eq(empresa), any(), any()))
+                .thenReturn(new BigDecimal("7000.00"));
+        when(contaPagarRepository.sumByPagamentoBetween(eq(empresa), any(), any()))
+                .thenReturn(new BigDecimal("2500.00"));
+        when(despesaRepository.sumValorByCategoriaAndDataDespesaBetweenAndEmpresa(any(), any(), eq(empresa)))
+                .thenReturn(List.<Object[]>of(new Object[] { CategoriaDespesa.BENEFICIOS, new BigDecimal("300.00") }));
+        when(comissaoCalculadaRepository.sumEmpresaByAnoMesReferencia(eq(empresa), any()))
+                .thenReturn(List.<Object[]>of(new Object[] { new BigDecimal("1500.00"), new BigDecimal("500.00"),
+                        new BigDecimal("1000.00") }));
+    }
+
+    private static ResumoFinanceiroMensal resumo(YearMonth mes, long versao, long versaoCalculada) {
+        return ResumoFinanceiroMensal.builder()
+                .id(mes.getMonthValue() * 1L)
+                .empresaId(1L)
+                .anoMesReferencia(mes)
+                .faturamento(new BigDecimal("1.00"))
+                .versao(versao)
+                .versaoCalculada(versaoCalculada)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Deve reagregar o mês a partir das tabelas de origem e marcar a versão calculada")
+    void deveRecalcularMes() {
+        ResumoFinanceiroMensal existente = resumo(jan, 3L, 1L);
+        when(resumoRepository.findByEmpresaIdAndAnoMesReferencia(1L, jan)).thenReturn(Optional.of(existente));
+        when(resumoRepository.findVersao(1L, jan)).thenReturn(Optional.of(3L));
+
+        ResumoFinanceiroMensal r = service.recalcular(1L, jan, true);
+
+        assertEquals(new BigDecimal("10000.00"), r.getReceitaCompetencia());
+        assertEquals(new BigDecimal("1000.00"), r.getImposto()); // 10% de 10000
+        assertEquals(new BigDecimal("9000.00"), r.getFaturamento());
+        assertEquals(new BigDecimal("7000.00"), r.getRecebidoCaixa());
+        assertEquals(new BigDecimal("2500.00"), r.getPago());
+        assertEquals(Map.of(CategoriaDespesa.BENEFICIOS, new BigDecimal("300.00")), r.getDespesasPorCategoria());
+        assertEquals(new BigDecimal("1500.00"), r.getComissaoBruta());
+        assertEquals(new BigDecimal("1000.00"), r.getComissaoSaldo());
+        assertTrue(r.isComissaoCompleta());
+        assertEquals(3L, r.getVersaoCalculada());
+        assertTrue(r.isAtualizado());
+        verify(comissaoCalculadaRepository, never()).sumFuncionariosByAnoMesReferencia(any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve recalcular apenas meses ausentes ou desatualizados do período")
+    void deveRecalcularApenasMesesDesatualizados() {
+        ResumoFinanceiroMensal janAtualizado = resumo(jan, 2L, 2L);
+        ResumoFinanceiroMensal fevDesatualizado = resumo(fev, 5L, 4L);
+        YearMonth mar = YearMonth.of(2026, 3);
+        when(resumoRepository.findByEmpresaIdAndAnoMesReferenciaBetween(1L, jan, mar))
+                .thenReturn(List.of(janAtualizado, fevDesatualizado));
+        when(resumoRepository.findByEmpresaIdAndAnoMesReferencia(1L, fev)).thenReturn(Optional.of(fevDesatualizado));
+        when(resumoRepository.findVersao(1L, fev)).thenReturn(Optional.of(5L));
+        // Março ainda não existe: criado vazio e recalculado
+        when(resumoRepository.findByEmpresaIdAndAnoMesReferencia(1L, mar))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(resumo(mar, 0L, -1L)));
+        when(resumoRepository.findVersao(1L, mar)).thenReturn(Optional.of(0L));
+
+        Map<YearMonth, ResumoFinanceiroMensal> resumos = service.obterPeriodo(1L, jan, mar);
+
+        assertEquals(List.of(jan, fev, mar), List.copyOf(resumos.keySet()));
+        assertSame(janAtualizado, resumos.get(jan));
+        assertEquals(new BigDecimal("1.00"), resumos.get(jan).getFaturamento());
+        assertEquals(new BigDecimal("9000.00"), resumos.get(fev).getFaturamento());
+        assertEquals(new BigDecimal("9000.00"), resumos.get(mar).getFaturamento());
+        assertTrue(resumos.values().stream().allMatch(ResumoFinanceiroMensal::isAtualizado));
+
+        verify(resumoRepository, never()).findVersao(1L, jan);
+        verify(resumoRepository, times(1)).saveAndFlush(any());
+        verify(faturamentoRepository, times(2)).sumValorByDataBetweenAndEmpresa(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("DRE só usa o resumo atualizado e com comissões completas")
+    void deveBuscarParaDreApenasResumoCompleto() {
+        ResumoFinanceiroMensal semComissao = resumo(jan, 1L, 1L);
+        when(resumoRepository.findByEmpresaIdAndAnoMesReferencia(1L, jan)).thenReturn(Optional.of(semComissao));
+        assertTrue(service.buscarParaDre(1L, jan).isEmpty());
+
+        semComissao.setComissaoCompleta(true);
+        assertTrue(service.buscarParaDre(1L, jan).isPresent());
+
+        semComissao.setVersao(2L);
+        assertTrue(service.buscarParaDre(1L, jan).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Invalidação deve ignorar datas nulas e incrementar cada mês uma vez")
+    void deveInvalidarMesesDistintos() {
+        service.invalidar(empresa, LocalDate.of(2026, 1, 5), null, LocalDate.of(2026, 1, 20),
+                LocalDate.of(2026, 2, 1));
+        service.invalidar(null, LocalDate.of(2026, 1, 5));
+
+        verify(resumoRepository, times(1)).invalidar(1L, jan);
+        verify(resumoRepository, times(1)).invalidar(1L, fev);
+        verify(saldoCaixaService, times(1)).invalidar(1L, jan);
+        verifyNoMoreInteractions(resumoRepository);
+    }
+}
@@ -0,0 +1,228 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.SaldoCaixaMensal;
+import com.empresa.comissao.repository.ContaPagarRepository;
+import com.empresa.comissao.repository.ContaReceberRepository;
+import com.empresa.comissao.repository.RecebimentoRepository;
+import com.empresa.comissao.repository.SaldoCaixaMensalRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SaldoCaixaServiceTest {
+
+    @Mock
+    private SaldoCaixaMensalRepository saldoRepository;
+    @Mock
+    private RecebimentoRepository recebimentoRepository;
+    @Mock
+    private ContaReceberRepository contaReceberRepository;
+    @Mock
+    private ContaPagarRepository contaPagarRepository;
+
+    private SaldoCaixaService service;
+    private Empresa empresa;
+
+    private final YearMonth mesAtual = YearMonth.now();
+    private final YearMonth fechado = mesAtual.minusMonths(1);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new SaldoCaixaService(saldoRepository, recebimentoRepository, contaReceberRepository,
+                contaPagarRepository);
+        empresa = Empresa.builder().id(1L).nome("Oficina").build();
+        when(saldoRepository.travarRecalculo(1L)).thenReturn(true);
+
+        // Movimento do mês corrente
+        when(recebimentoRepository.sumByEmpresaAndDataPagamentoBetween(eq(empresa), eq(mesAtual.atDay(1)), any()))
+                .thenReturn(new BigDecimal("1000.00"));
+        when(contaReceberRepository.sumByRecebimentoBetween(eq(empresa), eq(mesAtual.atDay(1)), any()))
+                .thenReturn(new BigDecimal("900.00"));
+        when(contaPagarRepository.sumByPagamentoBetween(eq(empresa), eq(mesAtual.atDay(1)), any()))
+                .thenReturn(new BigDecimal("400.00"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private static SaldoCaixaMensal snapshot(YearMonth mes, String recebido, String pago, long versao,
+            long versaoCalculada) {
+        return SaldoCaixaMensal.builder()
+                .id(1L)
+                .empresaId(1L)
+                .anoMesReferencia(mes)
+                .recebidoAcumulado(new BigDecimal(recebido))
+                .recebidoContasAcumulado(new BigDecimal(recebido))
+                .pagoAcumulado(new BigDecimal(pago))
+                .versao(versao)
+                .versaoCalculada(versaoCalculada)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Saldo atual = snapshot do mês fechado + movimento do mês, sem somar o histórico")
+    void deveSomarSnapshotComMovimentoDoMes() {
+        when(saldoRepository.findByEmpresaIdAndAnoMesReferencia(1L, fechado))
+                .thenReturn(Optional.of(snapshot(fechado, "12000.00", "5000.00", 2L, 2L)));
+
+        SaldoCaixaService.SaldoCaixa saldo = service.saldoAntes(empresa, LocalDate.now().plusDays(1));
+
+        assertEquals(new BigDecimal("13000.00"), saldo.recebido());
+        assertEquals(new BigDecimal("5400.00"), saldo.pago());
+        assertEquals(new BigDecimal("7600.00"), saldo.getSaldoRecebimentos());
+        assertEquals(new BigDecimal("7500.00"), saldo.getSaldoContas());
+        verify(recebimentoRepository, never()).sumByEmpresaAndDataPagamentoBefore(any(), any());
+        verify(contaPagarRepository, never()).sumByPagamentoBefore(any(), any());
+        verify(saldoRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Saldo no primeiro dia do mês corrente usa apenas o snapshot")
+    void deveUsarApenasSnapshotNoInicioDoMes() {
+        when(saldoRepository.findByEmpresaIdAndAnoMesReferencia(1L, fechado))
+                .thenReturn(Optional.of(snapshot(fechado, "12000.00", "5000.00", 0L, 0L)));
+
+        SaldoCaixaService.SaldoCaixa saldo = service.saldoAntes(empresa, mesAtual.atDay(1));
+
+        assertEquals(new BigDecimal("7000.00"), saldo.getSaldoContas());
+        verifyNoInteractions(recebimentoRepository, contaReceberRepository, contaPagarRepository);
+    }
+
+    @Test
+    @DisplayName("Snapshot invalidado: leitura usa o snapshot válido anterior + movimento entre eles, sem gravar")
+    void deveCalcularSnapshotInvalidoAPartirDoAnteriorSemGravar() {
+        YearMonth anterior = fechado.minusMonths(2);
+        when(saldoRepository.findByEmpresaIdAndAnoMesReferencia(1L, fechado))
+                .thenReturn(Optional.of(snapshot(fechado, "0", "0", 3L, 2L)));
+        stubAnteriorEMovimento(anterior);
+
+        SaldoCaixaService.SaldoCaixa saldo = service.saldoAntes(empresa, mesAtual.atDay(1));
+
+        assertEquals(new BigDecimal("12000.00"), saldo.recebido());
+        assertEquals(new BigDecimal("5000.00"), saldo.pago());
+        verify(recebimentoRepository, never()).sumByEmpresaAndDataPagamentoBefore(any(), any());
+        verify(saldoRepository, never()).save(any());
+        verify(saldoRepository, never()).criarSeAusente(any(), any());
+        verify(saldoRepository, never()).travarRecalculo(any());
+    }
+
+    private void stubAnteriorEMovimento(YearMonth anterior) {
+        when(saldoRepository.findValidosAntesDe(eq(1L), eq(fechado), any()))
+                .thenReturn(List.of(snapshot(anterior, "8000.00", "3000.00", 1L, 1L)));
+        LocalDate desde = anterior.plusMonths(1).atDay(1);
+        LocalDate ate = fechado.atEndOfMonth();
+        when(recebimentoRepository.sumByEmpresaAndDataPagamentoBetween(empresa, desde, ate))
+                .thenReturn(new BigDecimal("4000.00"));
+        when(contaReceberRepository.sumByRecebimentoBetween(empresa, desde, ate))
+                .thenReturn(new BigDecimal("4000.00"));
+        when(contaPagarRepository.sumByPagamentoBetween(empresa, desde, ate))
+                .thenReturn(new BigDecimal("2000.00"));
+    }
+
+    @Test
+    @DisplayName("Sem snapshot válido anterior, a leitura soma o histórico e não cria a linha")
+    void deveSomarHistoricoSemSnapshot() {
+        when(saldoRepository.findByEmpresaIdAndAnoMesReferencia(1L, fechado)).thenReturn(Optional.empty());
+        when(saldoRepository.findValidosAntesDe(eq(1L), eq(fechado), any())).thenReturn(List.of());
+
+        LocalDate limite = mesAtual.atDay(1);
+        when(recebimentoRepository.sumByEmpresaAndDataPagamentoBefore(empresa, limite))
+                .thenReturn(new BigDecimal("12000.00"));
+        when(contaReceberRepository.sumByRecebimentoBefore(empresa, limite)).thenReturn(new BigDecimal("11000.00"));
+        when(contaPagarRepository.sumByPagamentoBefore(empresa, limite)).thenReturn(new BigDecimal("5000.00"));
+
+        SaldoCaixaService.SaldoCaixa saldo = service.saldoAntes(empresa, LocalDate.now().plusDays(1));
+
+        assertEquals(new BigDecimal("7600.00"), saldo.getSaldoRecebimentos());
+        assertEquals(new BigDecimal("6500.00"), saldo.getSaldoContas());
+        verify(saldoRepository, never()).saveAndFlush(any());
+        verify(saldoRepository, never()).save(any());
+        verify(saldoRepository, never()).criarSeAusente(any(), any());
+    }
+
+    @Test
+    @DisplayName("Job grava o snapshot do último mês fechado com a versão lida antes das somas")
+    void deveGravarSnapshotNoJob() {
+        YearMonth anterior = fechado.minusMonths(2);
+        when(saldoRepository.findByEmpresaIdAndAnoMesReferencia(1L, fechado))
+                .thenReturn(Optional.of(snapshot(fechado, "0", "0", 3L, 2L)));
+        when(saldoRepository.findVersao(1L, fechado)).thenReturn(Optional.of(3L));
+        stubAnteriorEMovimento(anterior);
+
+        assertTrue(service.atualizarSnapshot(empresa));
+
+        verify(saldoRepository).criarSeAusente(1L, fechado.toString());
+        ArgumentCaptor<SaldoCaixaMensal> captor = ArgumentCaptor.forClass(SaldoCaixaMensal.class);
+        verify(saldoRepository).save(captor.capture());
+        assertEquals(new BigDecimal("12000.00"), captor.getValue().getRecebidoAcumulado());
+        assertEquals(3L, captor.getValue().getVersaoCalculada());
+        assertTrue(captor.getValue().isAtualizado());
+    }
+
+    @Test
+    @DisplayName("Invalidação só afeta meses já fechados")
+    void deveInvalidarApenasMesesFechados() {
+        service.invalidar(1L, mesAtual);
+        service.invalidar(1L, fechado.minusMonths(5));
+
+        verify(saldoRepository, times(1)).invalidarAPartirDe(1L, fechado.minusMonths(5));
+        verifyNoMoreInteractions(saldoRepository);
+    }
+
+    @Test
+    @DisplayName("Transação de escrita trava a empresa uma vez, inclusive no mês corrente")
+    void deveTravarEmpresaUmaVezPorTransacao() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        service.invalidar(1L, mesAtual);
+        service.invalidar(1L, fechado);
+        service.invalidar(2L, mesAtual);
+
+        verify(saldoRepository, times(1)).travarEscrita(1L);
+        verify(saldoRepository, times(1)).travarEscrita(2L);
+        verify(saldoRepository, times(1)).invalidarAPartirDe(1L, fechado);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        service.invalidar(1L, mesAtual);
+        verify(saldoRepository, times(2)).travarEscrita(1L);
+    }
+
+    @Test
+    @DisplayName("Escrita da empresa em andamento: job não grava um snapshot que ela deixaria errado")
+    void naoDeveGravarSnapshotComEscritaEmAndamento() {
+        when(saldoRepository.travarRecalculo(1L)).thenReturn(false);
+
+        assertFalse(service.atualizarSnapshot(empresa));
+
+        verify(saldoRepository, never()).criarSeAusente(any(), any());
+        verify(saldoRepository, never()).save(any());
+        verifyNoInteractions(recebimentoRepository, contaReceberRepository, contaPagarRepository);
+    }
+}
@@ -0,0 +1,166 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.ComissaoLedger;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.RegraComissao;
+import com.empresa.comissao.domain.entity.User;
+import com.empresa.comissao.domain.enums.ModoComissao;
+import com.empresa.comissao.domain.enums.TipoRegraComissao;
+import com.empresa.comissao.dto.request.RegraComissaoRequest;
+import com.empresa.comissao.dto.request.SimulacaoComissaoRequest;
+import com.empresa.comissao.dto.response.SimulacaoComissaoResponse;
+import com.empresa.comissao.exception.BusinessException;
+import com.empresa.comissao.repository.ComissaoLedgerRepository;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.repository.FaixaComissaoConfigRepository;
+import com.empresa.comissao.repository.RegraComissaoRepository;
+import com.empresa.comissao.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SimulacaoComissaoServiceTest {
+
+    @Mock
+    private ComissaoLedgerRepository comissaoLedgerRepository;
+    @Mock
+    private EmpresaRepository empresaRepository;
+    @Mock
+    private RegraComissaoRepository regraComissaoRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private RegraComissaoCache regraComissaoCache;
+
+    private SimulacaoComissaoService service;
+    private Empresa empresa;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new SimulacaoComissaoService(comissaoLedgerRepository, empresaRepository, regraComissaoRepository,
+                userRepository, regraComissaoCache, new RegraComissaoService(regraComissaoRepository,
+                        mock(FaixaComissaoConfigRepository.class), empresaRepository, regraComissaoCache));
+
+        empresa = Empresa.builder().id(1L).nome("Oficina").modoComissao(ModoComissao.INDIVIDUAL).build();
+        when(empresaRepository.findById(1L)).thenReturn(Optional.of(empresa));
+        when(userRepository.findByEmpresa(empresa)).thenReturn(List.of(
+                User.builder().id(10L).email("ana@oficina.com").build(),
+                User.builder().id(20L).email("bruno@oficina.com").build()));
+
+        RegraComissao ativa = RegraComissao.builder().id(5L).nome("Atual").tipoRegra(TipoRegraComissao.FIXA_EMPRESA)
+                .percentualFixo(new BigDecimal("10")).build();
+        when(regraComissaoCache.getRegraAtiva(empresa)).thenReturn(RegraComissaoCompilada.compilar(ativa));
+    }
+
+    private static ComissaoLedger ledger(Long funcionarioId, YearMonth mes, String recebido) {
+        return ComissaoLedger.builder()
+                .empresaId(1L)
+                .funcionarioId(funcionarioId)
+                .anoMesReferencia(mes)
+                .totalRecebido(new BigDecimal(recebido))
+                .totalAdiantamentos(BigDecimal.ZERO)
+                .build();
+    }
+
+    private static SimulacaoComissaoRequest.Candidata faixas() {
+        return SimulacaoComissaoRequest.Candidata.builder()
+                .nome("Faixas")
+                .tipoRegra(TipoRegraComissao.FAIXA_FATURAMENTO)
+                .faixas(List.of(
+                        RegraComissaoRequest.FaixaComissaoRequest.builder().minFaturamento(new BigDecimal("0"))
+                                .maxFaturamento(new BigDecimal("4999.99")).porcentagem(new BigDecimal("5")).build(),
+                        RegraComissaoRequest.FaixaComissaoRequest.builder().minFaturamento(new BigDecimal("5000"))
+                                .porcentagem(new BigDecimal("15")).build()))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Deve comparar candidatas com a regra ativa por mês e por funcionário sem gravar nada")
+    void deveSimularCandidatasContraRegraAtiva() {
+        YearMonth jan = YearMonth.of(2026, 1);
+        YearMonth fev = YearMonth.of(2026, 2);
+        when(comissaoLedgerRepository.findByEmpresaIdAndAnoMesReferenciaBetween(1L, jan, YearMonth.of(2026, 3)))
+                .thenReturn(List.of(
+                        ledger(10L, jan, "4000.00"),
+                        ledger(20L, jan, "6000.00"),
+                        ledger(10L, fev, "8000.00"),
+                        ledger(ComissaoLedger.EMPRESA_TOTAL, jan, "10000.00"),
+                        ledger(ComissaoLedger.EMPRESA_TOTAL, fev, "8000.00")));
+
+        SimulacaoComissaoResponse resposta = service.simular(1L, SimulacaoComissaoRequest.builder()
+                .desde("2026-01").ate("2026-03").candidatas(List.of(faixas())).build());
+
+        assertEquals(new BigDecimal("18000.00"), resposta.getBaseTotal());
+        assertEquals(2, resposta.getResultados().size());
+
+        SimulacaoComissaoResponse.ResultadoRegra atual = resposta.getResultados().get(0);
+        assertTrue(atual.isRegraAtiva());
+        assertEquals(new BigDecimal("1800.00"), atual.getTotalComissao());
+
+        // jan: 4000×5% + 6000×15% = 1100; fev: 8000×15% = 1200; mar: sem base
+        SimulacaoComissaoResponse.ResultadoRegra candidata = resposta.getResultados().get(1);
+        assertNull(candidata.getRegraId());
+        assertEquals(new BigDecimal("2300.00"), candidata.getTotalComissao());
+        assertEquals(new BigDecimal("500.00"), candidata.getDiferencaRegraAtiva());
+        assertEquals(List.of("2026-01", "2026-02", "2026-03"), List.copyOf(candidata.getTotalPorMes().keySet()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(candidata.getTotalPorMes().get("2026-03")));
+
+        SimulacaoComissaoResponse.PorFuncionario ana = candidata.getPorFuncionario().get(0);
+        assertEquals("ana@oficina.com", ana.getFuncionarioEmail());
+        assertEquals(new BigDecimal("12000.00"), ana.getBase());
+        assertEquals(new BigDecimal("1400.00"), ana.getTotalComissao());
+
+        verify(comissaoLedgerRepository, times(1)).findByEmpresaIdAndAnoMesReferenciaBetween(anyLong(), any(), any());
+        verifyNoMoreInteractions(comissaoLedgerRepository);
+        verify(regraComissaoRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Modo COLETIVA deve usar apenas o total da empresa")
+    void deveUsarTotalDaEmpresaNoModoColetiva() {
+        empresa.setModoComissao(ModoComissao.COLETIVA);
+        YearMonth jan = YearMonth.of(2026, 1);
+        when(comissaoLedgerRepository.findByEmpresaIdAndAnoMesReferenciaBetween(1L, jan, jan))
+                .thenReturn(List.of(
+                        ledger(10L, jan, "4000.00"),
+                        ledger(ComissaoLedger.EMPRESA_TOTAL, jan, "10000.00")));
+
+        SimulacaoComissaoResponse resposta = service.simular(1L, SimulacaoComissaoRequest.builder()
+                .desde("2026-01").ate("2026-01").incluirRegraAtiva(false).candidatas(List.of(faixas())).build());
+
+        SimulacaoComissaoResponse.ResultadoRegra candidata = resposta.getResultados().get(0);
+        assertEquals(new BigDecimal("1500.00"), candidata.getTotalComissao());
+        assertNull(candidata.getDiferencaRegraAtiva());
+        assertTrue(candidata.getPorFuncionario().isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar período inválido e candidata incompleta")
+    void deveValidarRequest() {
+        assertThrows(BusinessException.class, () -> service.simular(1L, SimulacaoComissaoRequest.builder()
+                .desde("2026-05").ate("2026-01").candidatas(List.of(faixas())).build()));
+        assertThrows(BusinessException.class, () -> service.simular(1L, SimulacaoComissaoRequest.builder()
+                .desde("2020-01").ate("2026-01").candidatas(List.of(faixas())).build()));
+
+        SimulacaoComissaoRequest.Candidata semPercentual = SimulacaoComissaoRequest.Candidata.builder()
+                .nome("Fixa").tipoRegra(TipoRegraComissao.FIXA_EMPRESA).build();
+        BusinessException erro = assertThrows(BusinessException.class, () -> service.simular(1L,
+                SimulacaoComissaoRequest.builder()
+                        .desde("2026-01").ate("2026-01").candidatas(List.of(semPercentual)).build()));
+        assertEquals("Percentual fixo é obrigatório para regras do tipo FIXA_EMPRESA (Fixa)", erro.getMessage());
+        verifyNoInteractions(comissaoLedgerRepository);
+    }
+}
@@ -0,0 +1,204 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.Cliente;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.OrdemServico;
+import com.empresa.comissao.domain.entity.PecaServico;
+import com.empresa.comissao.domain.entity.SyncChangeLog;
+import com.empresa.comissao.domain.entity.User;
+import com.empresa.comissao.domain.entity.VeiculoServico;
+import com.empresa.comissao.domain.enums.EntidadeSync;
+import com.empresa.comissao.domain.enums.OperacaoSync;
+import com.empresa.comissao.dto.response.SyncChangesResponse;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.repository.SyncChangeLogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SyncChangeLogServiceTest {
+
+    @Mock
+    private SyncChangeLogRepository changeLogRepository;
+    @Mock
+    private EmpresaRepository empresaRepository;
+    @Mock
+    private SyncWatermarkService syncWatermarkService;
+
+    private SyncChangeLogService service;
+    private final Empresa empresa = Empresa.builder().id(1L).build();
+    private final AtomicLong seqTenant = new AtomicLong(41);
+    private final List<SyncChangeLog> gravadas = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(empresaRepository.reservarSyncSeq(eq(1L), anyLong())).thenAnswer(inv -> {
+            seqTenant.addAndGet(inv.<Long>getArgument(1));
+            return 1;
+        });
+        when(empresaRepository.findSyncSeqById(1L)).thenAnswer(inv -> seqTenant.get());
+        when(changeLogRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            inv.<Iterable<SyncChangeLog>>getArgument(0).forEach(gravadas::add);
+            return List.of();
+        });
+        service = new SyncChangeLogService(changeLogRepository, empresaRepository, syncWatermarkService);
+        ReflectionTestUtils.setField(service, "pageSize", 3);
+        ReflectionTestUtils.setField(service, "pageSizeMax", 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private static void iniciarTransacao() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.beforeCommit(false));
+    }
+
+    private OrdemServico os(Long id) {
+        return OrdemServico.builder().id(id).empresa(empresa).usuario(User.builder().id(7L).build()).build();
+    }
+
+    private static SyncChangeLog linha(long seq, EntidadeSync entidade, long id, OperacaoSync op) {
+        return SyncChangeLog.builder().empresaId(1L).seq(seq).entidade(entidade).entidadeId(id).operacao(op)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Mudanças da transação viram uma linha por entidade, com seq contíguo, só no commit")
+    void deveGravarNoCommitComSeqDoTenant() {
+        iniciarTransacao();
+        OrdemServico os = os(10L);
+        VeiculoServico veiculo = VeiculoServico.builder().id(5L).ordemServico(os).build();
+
+        service.registrar(os);
+        service.registrar(PecaServico.builder().id(3L).veiculo(veiculo).build());
+        service.registrar(Cliente.builder().id(20L).empresa(empresa).build());
+        Cliente removido = Cliente.builder().id(21L).empresa(empresa).deletedAt(LocalDateTime.now()).build();
+        service.registrar(removido);
+
+        verifyNoInteractions(changeLogRepository);
+        commit();
+
+        verify(empresaRepository).reservarSyncSeq(1L, 3);
+        assertEquals(List.of(42L, 43L, 44L), gravadas.stream().map(SyncChangeLog::getSeq).toList());
+        assertEquals(OperacaoSync.UPSERT, gravadas.get(0).getOperacao());
+        assertEquals(7L, gravadas.get(0).getUsuarioId());
+        assertEquals(EntidadeSync.CLIENTE, gravadas.get(2).getEntidade());
+        assertEquals(OperacaoSync.DELETE, gravadas.get(2).getOperacao());
+    }
+
+    @Test
+    @DisplayName("Rollback descarta as mudanças registradas")
+    void naoDeveGravarEmRollback() {
+        iniciarTransacao();
+
+        service.registrar(os(10L));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(empresaRepository, never()).reservarSyncSeq(any(), anyLong());
+        verifyNoInteractions(changeLogRepository);
+    }
+
+    @Test
+    @DisplayName("Fora de transação grava imediatamente, seq e linha em um comando; remoção física vira DELETE")
+    void deveGravarImediatamenteSemTransacao() {
+        when(changeLogRepository.inserirComSeq(eq(1L), anyString(), anyLong(), anyString(), any()))
+                .thenAnswer(inv -> {
+                    seqTenant.incrementAndGet();
+                    return 1;
+                });
+
+        service.registrarRemocao(List.of(os(10L)));
+
+        verify(changeLogRepository).inserirComSeq(1L, "ORDEM_SERVICO", 10L, "DELETE", 7L);
+        verify(empresaRepository, never()).reservarSyncSeq(any(), anyLong());
+        verify(syncWatermarkService).registrarChangeSeq(1L, 42L);
+        assertTrue(gravadas.isEmpty());
+    }
+
+    @Test
+    @DisplayName("OS que troca de responsável gera DELETE para o anterior antes do UPSERT")
+    void deveRemoverOsDoResponsavelAnterior() {
+        SyncChangeLog anterior = linha(30, EntidadeSync.ORDEM_SERVICO, 10, OperacaoSync.UPSERT);
+        anterior.setUsuarioId(8L);
+        SyncChangeLog mesmoDono = linha(31, EntidadeSync.ORDEM_SERVICO, 11, OperacaoSync.UPSERT);
+        mesmoDono.setUsuarioId(7L);
+        when(changeLogRepository.findUltimas(eq(1L), eq(EntidadeSync.ORDEM_SERVICO), anyCollection()))
+                .thenReturn(List.of(anterior, mesmoDono));
+        iniciarTransacao();
+
+        service.registrar(os(10L));
+        service.registrar(os(11L));
+        commit();
+
+        verify(empresaRepository).reservarSyncSeq(1L, 3);
+        assertEquals(List.of(42L, 43L, 44L), gravadas.stream().map(SyncChangeLog::getSeq).toList());
+        assertEquals(List.of(OperacaoSync.DELETE, OperacaoSync.UPSERT, OperacaoSync.UPSERT),
+                gravadas.stream().map(SyncChangeLog::getOperacao).toList());
+        assertEquals(java.util.Arrays.asList(8L, 7L, 7L),
+                gravadas.stream().map(SyncChangeLog::getUsuarioId).toList());
+        assertEquals(List.of(10L, 10L, 11L), gravadas.stream().map(SyncChangeLog::getEntidadeId).toList());
+    }
+
+    @Test
+    @DisplayName("Listagem agrupa ids por entidade com a última operação e pagina pelo seq")
+    void deveListarMudancasComUltimaOperacao() {
+        when(changeLogRepository.findByEmpresaIdAndSeqGreaterThanOrderBySeqAsc(eq(1L), eq(5L), any()))
+                .thenReturn(List.of(
+                        linha(6, EntidadeSync.ORDEM_SERVICO, 10, OperacaoSync.UPSERT),
+                        linha(7, EntidadeSync.CLIENTE, 20, OperacaoSync.UPSERT),
+                        linha(8, EntidadeSync.ORDEM_SERVICO, 10, OperacaoSync.DELETE),
+                        linha(9, EntidadeSync.TIPO_PECA, 1, OperacaoSync.UPSERT)));
+
+        SyncChangesResponse resposta = service.listar(1L, null, 5L, null);
+
+        assertTrue(resposta.isHasMore());
+        assertEquals(8L, resposta.getCursor());
+        assertEquals(Map.of(EntidadeSync.CLIENTE, List.of(20L)), resposta.getAlterados());
+        assertEquals(Map.of(EntidadeSync.ORDEM_SERVICO, List.of(10L)), resposta.getRemovidos());
+    }
+
+    @Test
+    @DisplayName("Usuário comum consulta apenas as próprias OS; sem mudanças o cursor é mantido")
+    void deveFiltrarOsDoUsuario() {
+        SyncChangesResponse resposta = service.listar(1L, 7L, 42L, 100);
+
+        ArgumentCaptor<org.springframework.data.domain.Pageable> pagina = ArgumentCaptor
+                .forClass(org.springframework.data.domain.Pageable.class);
+        verify(changeLogRepository).findPaginaDoUsuario(eq(1L), eq(42L), eq(EntidadeSync.ORDEM_SERVICO), eq(7L),
+                pagina.capture());
+        assertEquals(11, pagina.getValue().getPageSize());
+        assertEquals(42L, resposta.getCursor());
+        assertFalse(resposta.isHasMore());
+        assertTrue(resposta.getAlterados().isEmpty());
+    }
+}
@@ -0,0 +1,170 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.config.TenantContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyncNotificacaoServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SyncNotificacaoService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Debounce longo: o teste despacha manualmente
+        service = new SyncNotificacaoService(meterRegistry, 30_000, 300_000, 60_000, 60_000, 2, 100, 2, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static SyncWatermarkService.Marcas marcas(long dataVersion, long changeSeq) {
+        return new SyncWatermarkService.Marcas(null, null, null, null, null, dataVersion, changeSeq);
+    }
+
+    private double esperando() {
+        return meterRegistry.get("sync.push.conexoes").tag("tipo", "long-poll").gauge().value();
+    }
+
+    private static void aguardarAte(java.util.function.BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5_000;
+        while (!condicao.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < limite, "condição não atingida");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("Long-poll responde na hora quando o app já está atrás da data_version")
+    void deveResponderNaHoraSeClienteAtrasado() throws Exception {
+        AtomicReference<Long> tenantNaResposta = new AtomicReference<>();
+
+        DeferredResult<String> resultado = service.aguardar(1L, 4L, () -> marcas(5, 40), () -> {
+            tenantNaResposta.set(TenantContext.getCurrentTenant());
+            return "status";
+        });
+
+        aguardarAte(resultado::hasResult);
+        assertEquals("status", resultado.getResult());
+        assertEquals(1L, tenantNaResposta.get());
+        assertEquals(0.0, esperando());
+    }
+
+    @Test
+    @DisplayName("Long-poll fica estacionado até as marcas do tenant avançarem")
+    void deveResponderQuandoMarcasAvancam() throws Exception {
+        DeferredResult<String> resultado = service.aguardar(1L, 5L, () -> marcas(5, 40), () -> "mudou");
+        aguardarAte(() -> esperando() == 1.0);
+
+        // Mesmas marcas, ou outro tenant: continua esperando
+        service.notificar(1L, marcas(5, 40));
+        service.notificar(2L, marcas(9, 90));
+        service.despachar(1L);
+        service.despachar(2L);
+        assertFalse(resultado.hasResult());
+
+        service.notificar(1L, marcas(5, 41));
+        service.despachar(1L);
+
+        assertTrue(resultado.hasResult());
+        assertEquals("mudou", resultado.getResult());
+    }
+
+    @Test
+    @DisplayName("Mudança entre a leitura das marcas e o registro não é perdida")
+    void naoDevePerderAvisoDuranteRegistro() throws Exception {
+        service.notificar(1L, marcas(6, 41));
+
+        DeferredResult<String> resultado = service.aguardar(1L, null, () -> marcas(5, 40), () -> "mudou");
+
+        aguardarAte(resultado::hasResult);
+        assertEquals("mudou", resultado.getResult());
+    }
+
+    /**
+     * Emitter que registra os envios; o primeiro pode ficar bloqueado como
+     * um socket que o cliente parou de ler.
+     */
+    private static class EmitterDeTeste extends SseEmitter {
+        private final CountDownLatch liberar;
+        private final AtomicInteger envios = new AtomicInteger();
+        private final List<Long> eventos = new CopyOnWriteArrayList<>();
+
+        EmitterDeTeste(CountDownLatch liberar) {
+            this.liberar = liberar;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            envios.incrementAndGet();
+            if (liberar != null) {
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            builder.build().stream()
+                    .filter(d -> d.getData() instanceof java.util.Map)
+                    .forEach(d -> eventos.add((Long) ((java.util.Map<?, ?>) d.getData()).get("lastChangeSeq")));
+        }
+    }
+
+    @Test
+    @DisplayName("Cliente SSE lento não trava long-polls nem as outras conexões; avisos parados são mesclados")
+    void clienteLentoNaoDeveTravarOsDemais() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        EmitterDeTeste lento = new EmitterDeTeste(liberar);
+        EmitterDeTeste rapido = new EmitterDeTeste(null);
+        java.util.Deque<EmitterDeTeste> emitters = new java.util.ArrayDeque<>(List.of(lento, rapido));
+        service.shutdown();
+        service = new SyncNotificacaoService(meterRegistry, 30_000, 300_000, 60_000, 60_000, 1, 100, 2, 100) {
+            @Override
+            SseEmitter novoEmitter(long timeoutMs) {
+                return emitters.poll();
+            }
+        };
+
+        service.assinar(1L, () -> marcas(5, 40));
+        aguardarAte(() -> lento.envios.get() == 1);
+        service.assinar(1L, () -> marcas(5, 40));
+        aguardarAte(() -> rapido.eventos.equals(List.of(40L)));
+
+        // Avisos e heartbeats com o envio do lento parado
+        service.notificar(1L, marcas(5, 41));
+        service.despachar(1L);
+        service.enviarHeartbeat();
+        service.notificar(1L, marcas(6, 42));
+        service.despachar(1L);
+        service.enviarHeartbeat();
+        DeferredResult<String> resultado = service.aguardar(2L, 4L, () -> marcas(5, 10), () -> "status");
+
+        aguardarAte(resultado::hasResult);
+        aguardarAte(() -> rapido.eventos.contains(42L));
+        assertEquals(1, lento.envios.get());
+
+        liberar.countDown();
+        // Pendências do lento saem em um evento (o mais recente) e um ping
+        aguardarAte(() -> lento.envios.get() == 3);
+        Thread.sleep(50);
+        assertEquals(List.of(40L, 42L), lento.eventos);
+        assertEquals(3, lento.envios.get());
+    }
+}
@@ -0,0 +1,227 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.domain.entity.Cliente;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.OrdemServico;
+import com.empresa.comissao.domain.entity.TipoPeca;
+import com.empresa.comissao.domain.entity.User;
+import com.empresa.comissao.domain.enums.EntidadeSync;
+import com.empresa.comissao.domain.enums.Role;
+import com.empresa.comissao.dto.response.ClienteResponse;
+import com.empresa.comissao.dto.response.OrdemServicoResponse;
+import com.empresa.comissao.dto.response.SyncChangesResponse;
+import com.empresa.comissao.repository.ClienteRepository;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.repository.OrdemServicoRepository;
+import com.empresa.comissao.repository.TipoPecaRepository;
+import com.empresa.comissao.repository.UserRepository;
+import com.empresa.comissao.util.SyncCursor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SyncPullServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 10, 0);
+
+    @Mock
+    private EmpresaRepository empresaRepository;
+    @Mock
+    private ClienteRepository clienteRepository;
+    @Mock
+    private OrdemServicoRepository osRepository;
+    @Mock
+    private TipoPecaRepository tipoPecaRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ClienteService clienteService;
+    @Mock
+    private OrdemServicoService osService;
+    @Mock
+    private SyncChangeLogService syncChangeLogService;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SyncPullService service;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final Empresa empresa = Empresa.builder().id(1L).build();
+    private final Empresa outraEmpresa = Empresa.builder().id(2L).build();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(empresaRepository.findSyncSeqById(1L)).thenReturn(50L);
+        when(clienteService.mapToResponse(any())).thenAnswer(
+                inv -> ClienteResponse.builder().id(inv.<Cliente>getArgument(0).getId()).build());
+        when(osService.mapToResponse(any())).thenAnswer(
+                inv -> OrdemServicoResponse.builder().id(inv.<OrdemServico>getArgument(0).getId()).build());
+        when(osRepository.findSyncGrafoByIdIn(anyCollection())).thenAnswer(inv -> inv.<Collection<Long>>getArgument(0)
+                .stream().map(id -> os(id, id == 4L ? T0 : null)).toList());
+
+        service = new SyncPullService(empresaRepository, clienteRepository, osRepository, tipoPecaRepository,
+                userRepository, clienteService, osService, syncChangeLogService, objectMapper, entityManager,
+                transactionManager, 2, 120, 60);
+        ReflectionTestUtils.setField(service, "bloco", 2);
+    }
+
+    private OrdemServico os(Long id, LocalDateTime deletedAt) {
+        return OrdemServico.builder().id(id).empresa(empresa).deletedAt(deletedAt).build();
+    }
+
+    private JsonNode pull(Long usuarioId, Long after) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.pull(1L, usuarioId, after).writeTo(out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    private static List<Long> ids(JsonNode array) {
+        List<Long> ids = new ArrayList<>();
+        array.forEach(n -> ids.add(n.has("id") ? n.get("id").asLong() : n.asLong()));
+        return ids;
+    }
+
+    @Test
+    @DisplayName("Sync completo: todas as entidades em um snapshot, cursor lido primeiro e OS em blocos")
+    void deveEscreverSyncCompleto() throws Exception {
+        when(clienteRepository.findByEmpresaIdAndDeletedAtIsNull(1L))
+                .thenReturn(List.of(Cliente.builder().id(20L).empresa(empresa).build()));
+        List<SyncCursor> linhas = List.of(new SyncCursor(T0, 3L), new SyncCursor(T0, 4L),
+                new SyncCursor(T0.plusSeconds(1), 5L));
+        when(osRepository.findSyncCursorPage(eq(1L), any(), any(), any())).thenAnswer(inv -> {
+            LocalDateTime u = inv.getArgument(1);
+            Long id = inv.getArgument(2);
+            return linhas.stream()
+                    .filter(c -> c.updatedAt().isAfter(u) || (c.updatedAt().equals(u) && c.id() > id))
+                    .limit(inv.<Pageable>getArgument(3).getPageSize())
+                    .toList();
+        });
+        when(tipoPecaRepository.findByEmpresa(any())).thenReturn(List.of(TipoPeca.builder().id(8L)
+                .nome("Pastilha").valorPadrao(new BigDecimal("120.00")).empresa(empresa).build()));
+        when(userRepository.findByEmpresa(any())).thenReturn(List.of(
+                User.builder().id(7L).email("a@b.com").role(Role.FUNCIONARIO).active(true).empresa(empresa).build(),
+                User.builder().id(9L).email("x@b.com").role(Role.FUNCIONARIO).active(false).empresa(empresa)
+                        .build()));
+
+        JsonNode resposta = pull(null, null);
+
+        assertEquals(50L, resposta.get("cursor").asLong());
+        assertTrue(resposta.get("completo").asBoolean());
+        assertEquals(List.of(20L), ids(resposta.get("clientes")));
+        // OS 4 excluída não vai no sync completo
+        assertEquals(List.of(3L, 5L), ids(resposta.get("ordensServico")));
+        assertEquals("Pastilha", resposta.get("tiposPeca").get(0).get("nome").asText());
+        assertFalse(resposta.get("tiposPeca").get(0).has("empresa"));
+        assertEquals(List.of(7L), ids(resposta.get("usuarios")));
+        assertEquals(0, resposta.get("removidos").size());
+
+        InOrder ordem = inOrder(transactionManager, empresaRepository, clienteRepository);
+        ordem.verify(transactionManager).getTransaction(argThat(def -> def.isReadOnly()
+                && def.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ
+                && def.getTimeout() > 0 && def.getTimeout() <= 120));
+        ordem.verify(empresaRepository).findSyncSeqById(1L);
+        ordem.verify(clienteRepository).findByEmpresaIdAndDeletedAtIsNull(1L);
+        verify(osRepository, times(2)).findSyncGrafoByIdIn(argThat(ids -> ids.size() <= 2));
+        verifyNoInteractions(syncChangeLogService);
+    }
+
+    @Test
+    @DisplayName("Delta: só o que mudou após o cursor; exclusões e outro tenant ficam de fora dos itens")
+    void deveEscreverDeltaComRemovidos() throws Exception {
+        when(syncChangeLogService.listar(eq(1L), eq(7L), eq(30L), anyInt())).thenReturn(SyncChangesResponse.builder()
+                .cursor(40L).hasMore(true)
+                .alterados(Map.of(EntidadeSync.ORDEM_SERVICO, List.of(3L, 4L), EntidadeSync.CLIENTE, List.of(20L)))
+                .removidos(Map.of(EntidadeSync.ORDEM_SERVICO, List.of(6L)))
+                .build());
+        when(syncChangeLogService.listar(eq(1L), eq(7L), eq(40L), anyInt())).thenReturn(SyncChangesResponse.builder()
+                .cursor(50L).hasMore(false)
+                .alterados(Map.of(EntidadeSync.CLIENTE, List.of(21L), EntidadeSync.ORDEM_SERVICO, List.of(6L)))
+                .removidos(Map.of())
+                .build());
+        when(clienteRepository.findAllById(any())).thenReturn(List.of(
+                Cliente.builder().id(20L).empresa(empresa).deletedAt(T0).build(),
+                Cliente.builder().id(21L).empresa(outraEmpresa).build()));
+
+        JsonNode resposta = pull(7L, 30L);
+
+        assertEquals(50L, resposta.get("cursor").asLong());
+        assertFalse(resposta.get("completo").asBoolean());
+        assertTrue(ids(resposta.get("clientes")).isEmpty());
+        // OS 6 removida e depois recriada na página seguinte volta como alterada
+        assertEquals(List.of(3L, 6L), ids(resposta.get("ordensServico")));
+        assertEquals(List.of(20L), ids(resposta.get("removidos").get("CLIENTE")));
+        assertEquals(List.of(4L), ids(resposta.get("removidos").get("ORDEM_SERVICO")));
+        verify(osRepository, never()).findSyncCursorPage(any(), any(), any(), any());
+        verify(clienteRepository, never()).findByEmpresaIdAndDeletedAtIsNull(any());
+    }
+
+    @Test
+    @DisplayName("Resposta vai para o cliente só depois do commit: rede lenta não segura a conexão")
+    void deveEscreverNoClienteAposCommit() throws Exception {
+        AtomicBoolean commitado = new AtomicBoolean();
+        doAnswer(inv -> {
+            commitado.set(true);
+            return null;
+        }).when(transactionManager).commit(any());
+        List<Boolean> commitadoNaEscrita = new ArrayList<>();
+        OutputStream cliente = new OutputStream() {
+            @Override
+            public void write(int b) {
+                commitadoNaEscrita.add(commitado.get());
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                commitadoNaEscrita.add(commitado.get());
+            }
+        };
+
+        service.pull(1L, null, null).writeTo(cliente);
+
+        assertFalse(commitadoNaEscrita.isEmpty());
+        assertTrue(commitadoNaEscrita.stream().allMatch(Boolean::booleanValue));
+    }
+
+    @Test
+    @DisplayName("Sem snapshot livre dentro do timeout responde 429 sem abrir transação")
+    void deveRecusarQuandoSemVagaNoTimeout() throws Exception {
+        service = new SyncPullService(empresaRepository, clienteRepository, osRepository, tipoPecaRepository,
+                userRepository, clienteService, osService, syncChangeLogService, objectMapper, entityManager,
+                transactionManager, 1, 1, 60);
+        ((java.util.concurrent.Semaphore) ReflectionTestUtils.getField(service, "snapshots")).acquire();
+
+        assertThrows(com.empresa.comissao.exception.PdfConcurrencyException.class,
+                () -> service.pull(1L, null, null).writeTo(new ByteArrayOutputStream()));
+
+        verifyNoInteractions(transactionManager);
+        assertEquals(java.time.Duration.ofSeconds(61), service.getTimeout());
+    }
+}
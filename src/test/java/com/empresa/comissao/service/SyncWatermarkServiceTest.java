@@ -0,0 +1,244 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.cache.InvalidationBus;
+import com.empresa.comissao.domain.entity.Cliente;
+import com.empresa.comissao.domain.entity.ComissaoCalculada;
+import com.empresa.comissao.domain.entity.Empresa;
+import com.empresa.comissao.domain.entity.OrdemServico;
+import com.empresa.comissao.domain.entity.PecaServico;
+import com.empresa.comissao.domain.entity.VeiculoServico;
+import com.empresa.comissao.repository.ClienteRepository;
+import com.empresa.comissao.repository.ComissaoCalculadaRepository;
+import com.empresa.comissao.repository.EmpresaRepository;
+import com.empresa.comissao.repository.OrdemServicoRepository;
+import com.empresa.comissao.repository.TipoPecaRepository;
+import com.empresa.comissao.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SyncWatermarkServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 10, 0);
+
+    @Mock
+    private ClienteRepository clienteRepository;
+    @Mock
+    private OrdemServicoRepository osRepository;
+    @Mock
+    private TipoPecaRepository tipoPecaRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private ComissaoCalculadaRepository comissaoRepository;
+    @Mock
+    private EmpresaRepository empresaRepository;
+    @Mock
+    private SyncNotificacaoService syncNotificacaoService;
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SyncWatermarkService service;
+    private final Empresa empresa = Empresa.builder().id(1L).build();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(clienteRepository.findMaxUpdatedAtByEmpresaId(1L)).thenReturn(T0);
+        when(osRepository.findMaxUpdatedAtByEmpresaId(1L)).thenReturn(T0);
+        when(empresaRepository.findDataVersionById(1L)).thenReturn(Optional.of(5L));
+        when(empresaRepository.findSyncSeqById(1L)).thenReturn(40L);
+
+        meterRegistry = new SimpleMeterRegistry();
+        service = new SyncWatermarkService(clienteRepository, osRepository, tipoPecaRepository, userRepository,
+                comissaoRepository, empresaRepository, syncNotificacaoService, invalidationBus, meterRegistry);
+        ReflectionTestUtils.setField(service, "intervaloVerificacaoMs", 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<Long> handlerDoBus() {
+        ArgumentCaptor<Consumer<Long>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidationBus).subscribe(eq(SyncWatermarkService.TOPICO), handler.capture());
+        return handler.getValue();
+    }
+
+    private void verificarCargaUnica() {
+        verify(clienteRepository, times(1)).findMaxUpdatedAtByEmpresaId(1L);
+        verify(osRepository, times(1)).findMaxUpdatedAtByEmpresaId(1L);
+        verify(tipoPecaRepository, times(1)).findMaxUpdatedAtByEmpresaId(1L);
+        verify(userRepository, times(1)).findMaxUpdatedAtByEmpresaId(1L);
+        verify(comissaoRepository, times(1)).findMaxUpdatedAtByEmpresaId(1L);
+        verify(empresaRepository, times(1)).findDataVersionById(1L);
+        verify(empresaRepository, times(1)).findSyncSeqById(1L);
+    }
+
+    @Test
+    @DisplayName("Marcas carregadas do banco no primeiro poll; os seguintes não consultam o banco")
+    void deveCarregarUmaVez() {
+        SyncWatermarkService.Marcas marcas = service.getMarcas(1L);
+        service.getMarcas(1L);
+        service.getMarcas(1L);
+
+        assertEquals(T0, marcas.clientes());
+        assertNull(marcas.tiposPeca());
+        assertEquals(5L, marcas.dataVersion());
+        assertEquals(40L, marcas.changeSeq());
+        verificarCargaUnica();
+        assertEquals(1.0, meterRegistry.counter("sync.watermark.carregadas").count());
+    }
+
+    @Test
+    @DisplayName("Escritas avançam as marcas só no commit; rollback não altera nada")
+    void deveAvancarNoCommit() {
+        service.getMarcas(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        OrdemServico os = OrdemServico.builder().id(10L).empresa(empresa).updatedAt(T0.plusMinutes(5)).build();
+        service.registrar(PecaServico.builder().veiculo(VeiculoServico.builder().ordemServico(os).build()).build());
+        service.registrar(List.of(ComissaoCalculada.builder().empresa(empresa).build()));
+        service.registrarChangeSeq(1L, 42L);
+
+        assertEquals(T0, service.getMarcas(1L).ordensServico());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        SyncWatermarkService.Marcas marcas = service.getMarcas(1L);
+        assertEquals(T0.plusMinutes(5), marcas.ordensServico());
+        assertEquals(T0, marcas.clientes());
+        // Comissão ainda sem timestamp conta como agora
+        assertTrue(marcas.comissoes().isAfter(T0));
+        assertEquals(42L, marcas.changeSeq());
+        verify(syncNotificacaoService).notificar(1L, marcas);
+
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        service.registrar(Cliente.builder().empresa(empresa).updatedAt(T0.plusHours(1)).build());
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(T0, service.getMarcas(1L).clientes());
+        verificarCargaUnica();
+        verify(syncNotificacaoService, times(1)).notificar(any(), any());
+    }
+
+    @Test
+    @DisplayName("Marcas nunca voltam: data_version e timestamps antigos são ignorados")
+    void naoDeveRegredir() {
+        service.getMarcas(1L);
+
+        service.registrarDataVersion(1L, 3L);
+        service.registrar(Cliente.builder().empresa(empresa).updatedAt(T0.minusDays(1)).build());
+
+        assertEquals(5L, service.getMarcas(1L).dataVersion());
+        assertEquals(T0, service.getMarcas(1L).clientes());
+    }
+
+    @Test
+    @DisplayName("Tenant ainda não carregado não é criado pelas escritas")
+    void naoDeveCriarTenantNaEscrita() {
+        service.registrarDataVersion(2L, 9L);
+        service.registrar(Cliente.builder().empresa(Empresa.builder().id(2L).build()).updatedAt(T0).build());
+
+        when(empresaRepository.findDataVersionById(2L)).thenReturn(Optional.of(9L));
+        SyncWatermarkService.Marcas marcas = service.getMarcas(2L);
+
+        assertEquals(9L, marcas.dataVersion());
+        assertNull(marcas.clientes());
+    }
+
+    @Test
+    @DisplayName("Verificação amostral detecta escrita fora dos hooks e adota o valor do banco")
+    void deveCorrigirDivergenciaNaVerificacao() {
+        service.getMarcas(1L);
+        ReflectionTestUtils.setField(service, "intervaloVerificacaoMs", 0L);
+
+        // Escrita por outra instância
+        when(clienteRepository.findMaxUpdatedAtByEmpresaId(1L)).thenReturn(T0.plusMinutes(1));
+        when(empresaRepository.findDataVersionById(any())).thenReturn(Optional.of(6L));
+
+        SyncWatermarkService.Marcas marcas = service.getMarcas(1L);
+
+        assertEquals(T0.plusMinutes(1), marcas.clientes());
+        assertEquals(6L, marcas.dataVersion());
+        assertEquals(1.0, meterRegistry.counter("sync.watermark.verificacoes", "result", "divergente").count());
+
+        service.getMarcas(1L);
+        assertEquals(1.0, meterRegistry.counter("sync.watermark.verificacoes", "result", "ok").count());
+    }
+
+    @Test
+    @DisplayName("Avanço é publicado para os outros nós; o próprio eco não relê o banco")
+    void devePublicarAvancoSemRelerEco() {
+        Consumer<Long> handler = handlerDoBus();
+        // Bus local: entrega ao próprio nó dentro do publish
+        doAnswer(inv -> {
+            handler.accept(inv.getArgument(1));
+            return null;
+        }).when(invalidationBus).publish(any(), any());
+        service.getMarcas(1L);
+
+        service.registrarDataVersion(1L, 6L);
+
+        verify(invalidationBus, timeout(5_000)).publish(SyncWatermarkService.TOPICO, 1L);
+        assertEquals(6L, service.getMarcas(1L).dataVersion());
+        verificarCargaUnica();
+    }
+
+    @Test
+    @DisplayName("Commit em outra instância: marcas relidas do banco e long-poll/SSE avisados")
+    void deveRelerAoReceberAvancoRemoto() {
+        Consumer<Long> handler = handlerDoBus();
+        service.getMarcas(1L);
+
+        when(empresaRepository.findSyncSeqById(1L)).thenReturn(41L);
+        handler.accept(1L);
+        // Tenant não carregado neste nó: nada a reler
+        handler.accept(2L);
+
+        verify(syncNotificacaoService, timeout(5_000)).notificar(eq(1L),
+                argThat(m -> m.changeSeq() == 41L));
+        assertEquals(41L, service.getMarcas(1L).changeSeq());
+        assertEquals(1.0, meterRegistry.counter("sync.watermark.releituras-remotas").count());
+        verify(empresaRepository, never()).findSyncSeqById(2L);
+        assertEquals(0.0, meterRegistry.counter("sync.watermark.verificacoes", "result", "divergente").count());
+    }
+
+    @Test
+    @DisplayName("Reconexão do LISTEN: próximo poll confere as marcas com o banco")
+    void deveConferirNoProximoPollAposReconexao() {
+        Consumer<Long> handler = handlerDoBus();
+        service.getMarcas(1L);
+
+        when(empresaRepository.findDataVersionById(1L)).thenReturn(Optional.of(7L));
+        handler.accept(null);
+
+        assertEquals(7L, service.getMarcas(1L).dataVersion());
+        assertEquals(1.0, meterRegistry.counter("sync.watermark.verificacoes", "result", "divergente").count());
+    }
+}
@@ -0,0 +1,113 @@
+package com.empresa.comissao.service;
+
+import com.empresa.comissao.repository.EmpresaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TenantVersionServiceTest {
+
+    @Mock
+    private EmpresaRepository empresaRepository;
+
+    @Mock
+    private SyncWatermarkService syncWatermarkService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TenantVersionService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new TenantVersionService(empresaRepository, meterRegistry, syncWatermarkService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Fora de transação deve incrementar imediatamente")
+    void deveIncrementarImediatamenteSemTransacao() {
+        service.bump(1L);
+
+        verify(empresaRepository, times(1)).incrementDataVersion(1L);
+    }
+
+    @Test
+    @DisplayName("Versão incrementada é repassada às marcas do sync em memória")
+    void deveRepassarVersaoParaMarcasDoSync() {
+        when(empresaRepository.findDataVersionById(1L)).thenReturn(java.util.Optional.of(8L));
+
+        service.bump(1L);
+
+        verify(syncWatermarkService).registrarDataVersion(1L, 8L);
+    }
+
+    @Test
+    @DisplayName("Dentro de transação deve coalescer bumps e aplicar uma vez por tenant no commit")
+    void deveCoalescerBumpsAteCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        when(empresaRepository.findDataVersionById(1L)).thenReturn(java.util.Optional.of(8L));
+
+        service.bump(1L);
+        service.bump(1L);
+        service.bump(1L);
+        service.bump(2L);
+
+        verify(empresaRepository, never()).incrementDataVersion(any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.beforeCommit(false));
+
+        verify(empresaRepository, times(1)).incrementDataVersion(1L);
+        verify(empresaRepository, times(1)).incrementDataVersion(2L);
+        // Marcas do sync só avançam após o commit
+        verifyNoInteractions(syncWatermarkService);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        verify(syncWatermarkService).registrarDataVersion(1L, 8L);
+        assertEquals(2.0, meterRegistry.counter("tenant.data_version.bumps", "result", "coalesced").count());
+        assertEquals(2.0, meterRegistry.counter("tenant.data_version.bumps", "result", "applied").count());
+    }
+
+    @Test
+    @DisplayName("Rollback não deve incrementar a versão")
+    void naoDeveIncrementarEmRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.bump(1L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(empresaRepository, never()).incrementDataVersion(any());
+    }
+
+    @Test
+    @DisplayName("Bump de outro beforeCommit, depois do nosso, ainda incrementa na mesma transação")
+    void deveIncrementarBumpTardio() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.bump(1L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.beforeCommit(false));
+
+        service.bump(2L);
+        service.bump(1L);
+
+        verify(empresaRepository, times(1)).incrementDataVersion(1L);
+        verify(empresaRepository, times(1)).incrementDataVersion(2L);
+    }
+}